@@ -0,0 +1,109 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.benchmark;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bernardomg.velocity.tool.Html5UpdateTool;
+
+/**
+ * Benchmarks for the {@link Html5UpdateTool} methods.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Html5UpdateToolBenchmark {
+
+    /**
+     * Tool being benchmarked.
+     */
+    private final Html5UpdateTool tool = new Html5UpdateTool();
+
+    /**
+     * Default constructor.
+     */
+    public Html5UpdateToolBenchmark() {
+        super();
+    }
+
+    /**
+     * Benchmarks {@link Html5UpdateTool#removePointsFromAttr(Element, String, String)}.
+     *
+     * @param page
+     *            page to edit
+     * @return the edited page
+     */
+    @Benchmark
+    public Element removePointsFromAttr(final PageState page) {
+        return tool.removePointsFromAttr(page.copy(), "a[href^=#]", "href");
+    }
+
+    /**
+     * Benchmarks {@link Html5UpdateTool#updateTableHeads(Element)}.
+     *
+     * @param page
+     *            page to edit
+     * @return the edited page
+     */
+    @Benchmark
+    public Element updateTableHeads(final PageState page) {
+        return tool.updateTableHeads(page.copy());
+    }
+
+    /**
+     * Benchmarks {@link Html5UpdateTool#updateTableHeads(Reader, Writer)}, reading the page code and writing it into a
+     * writer which discards it.
+     *
+     * @param page
+     *            page to edit
+     * @throws IOException
+     *             if the page can't be fixed
+     */
+    @Benchmark
+    public void updateTableHeadsStream(final PageState page) throws IOException {
+        tool.updateTableHeads(new StringReader(page.html), Writer.nullWriter());
+    }
+
+}
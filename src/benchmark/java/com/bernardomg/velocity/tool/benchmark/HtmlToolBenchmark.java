@@ -0,0 +1,351 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document.OutputSettings;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.OperationBatch;
+
+/**
+ * Benchmarks for the {@link HtmlTool} methods.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HtmlToolBenchmark {
+
+    /**
+     * Navigation menu, as rendered the same on every page of a site.
+     */
+    private static final String         MENU;
+
+    /**
+     * Settings for writing the pages.
+     */
+    private static final OutputSettings SETTINGS = new OutputSettings();
+
+    /**
+     * Tool being benchmarked.
+     */
+    private final HtmlTool              tool     = new HtmlTool();
+
+    static {
+        final StringBuilder menu; // Menu code
+
+        menu = new StringBuilder("<nav class=\"navbar\"><ul class=\"nav\">");
+        for (int i = 0; i < 20; i++) {
+            menu.append("<li class=\"nav-item\"><a class=\"nav-link\" href=\"page")
+                .append(i)
+                .append(".html\" title=\"Page ")
+                .append(i)
+                .append("\">Page ")
+                .append(i)
+                .append("</a></li>");
+        }
+        MENU = menu.append("</ul></nav>")
+            .toString();
+    }
+
+    /**
+     * Default constructor.
+     */
+    public HtmlToolBenchmark() {
+        super();
+    }
+
+    /**
+     * Benchmarks {@link HtmlTool#addClass(Element, String, String)}.
+     *
+     * @param page
+     *            page to edit
+     * @return the edited page
+     */
+    @Benchmark
+    public Element addClass(final PageState page) {
+        return tool.addClass(page.copy(), "table.bodyTable", "table");
+    }
+
+    /**
+     * Benchmarks {@link OperationBatch#applyToHtml(String)} with the body content of the page, applying the operations
+     * of the {@link #batch(PageState) batch} benchmark.
+     *
+     * @param page
+     *            page to change
+     * @return the changed code
+     */
+    @Benchmark
+    public String applyToHtml(final PageState page) {
+        return tool.batch()
+            .addClass("table.bodyTable", "table")
+            .removeAttribute("table", "border")
+            .removeClass("tr", "a")
+            .unwrap("a:not([href])")
+            .retag("tt", "code")
+            .applyToHtml(page.bodyContent);
+    }
+
+    /**
+     * Benchmarks {@link OperationBatch#applyToHtml(String)} with operations which can't change the page, so it is
+     * only scanned.
+     *
+     * @param page
+     *            page to change
+     * @return the same code
+     */
+    @Benchmark
+    public String applyToHtmlSkipped(final PageState page) {
+        return tool.batch()
+            .addClass("blink", "blink")
+            .retag("marquee", "div")
+            .applyToHtml(page.bodyContent);
+    }
+
+    /**
+     * Benchmarks {@link HtmlTool#batch()}, applying the operations of the other benchmarks together.
+     *
+     * @param page
+     *            page to edit
+     * @return the edited page
+     */
+    @Benchmark
+    public Element batch(final PageState page) {
+        return tool.batch()
+            .addClass("table.bodyTable", "table")
+            .removeAttribute("table", "border")
+            .removeClass("tr", "a")
+            .unwrap("a:not([href])")
+            .retag("tt", "code")
+            .apply(page.copy());
+    }
+
+    /**
+     * Benchmarks {@link HtmlTool#getChanges(Element)}.
+     *
+     * @param page
+     *            page to check
+     * @return the operations which changed the page
+     */
+    @Benchmark
+    public Set<String> getChanges(final PageState page) {
+        return tool.getChanges(page.body);
+    }
+
+    /**
+     * Benchmarks {@link Element#html()}, which builds the page code as a string, for comparing with
+     * {@link #write(PageState)}.
+     *
+     * @param page
+     *            page to serialize
+     * @return the page code
+     */
+    @Benchmark
+    public String html(final PageState page) {
+        return page.body.html();
+    }
+
+    /**
+     * Benchmarks {@link HtmlTool#isChanged(Element)}.
+     *
+     * @param page
+     *            page to check
+     * @return {@code true} if some operation changed the page
+     */
+    @Benchmark
+    public boolean isChanged(final PageState page) {
+        return tool.isChanged(page.body);
+    }
+
+    /**
+     * Benchmarks {@link HtmlTool#parse(String)}.
+     *
+     * @param page
+     *            page to parse
+     * @return the parsed page
+     */
+    @Benchmark
+    public Element parse(final PageState page) {
+        return tool.parse(page.html);
+    }
+
+    /**
+     * Benchmarks {@link HtmlTool#parse(String)} with the body content of the page, as received by the templates.
+     *
+     * @param page
+     *            page to parse
+     * @return the parsed body
+     */
+    @Benchmark
+    public Element parseBody(final PageState page) {
+        return tool.parse(page.bodyContent);
+    }
+
+    /**
+     * Benchmarks {@link HtmlTool#parse(String)} with a menu received on every page, which is copied from the fragment
+     * cache.
+     *
+     * @return the parsed menu
+     */
+    @Benchmark
+    public Element parseMenu() {
+        return tool.parse(MENU);
+    }
+
+    /**
+     * Benchmarks {@link Jsoup#parse(String)} with a menu received on every page, for comparing with
+     * {@link #parseMenu()}.
+     *
+     * @return the parsed menu
+     */
+    @Benchmark
+    public Element parseMenuUncached() {
+        return Jsoup.parse(MENU)
+            .body();
+    }
+
+    /**
+     * Benchmarks {@link HtmlTool#removeAttribute(Element, String, String)}.
+     *
+     * @param page
+     *            page to edit
+     * @return the edited page
+     */
+    @Benchmark
+    public Element removeAttribute(final PageState page) {
+        return tool.removeAttribute(page.copy(), "table", "border");
+    }
+
+    /**
+     * Benchmarks {@link HtmlTool#removeClass(Element, String, String)}.
+     *
+     * @param page
+     *            page to edit
+     * @return the edited page
+     */
+    @Benchmark
+    public Element removeClass(final PageState page) {
+        return tool.removeClass(page.copy(), "tr", "a");
+    }
+
+    /**
+     * Benchmarks {@link HtmlTool#render(Element)}, rendering the page into a writer which discards it, as Velocity does
+     * with the template output.
+     *
+     * @param page
+     *            page to render
+     * @return {@code true} if the page was rendered
+     * @throws IOException
+     *             if the page can't be rendered
+     */
+    @Benchmark
+    public boolean render(final PageState page) throws IOException {
+        return tool.render(page.body)
+            .render(null, Writer.nullWriter());
+    }
+
+    /**
+     * Benchmarks {@link HtmlTool#retag(Element, String, String)}.
+     *
+     * @param page
+     *            page to edit
+     * @return the edited page
+     */
+    @Benchmark
+    public Element retag(final PageState page) {
+        return tool.retag(page.copy(), "tt", "code");
+    }
+
+    /**
+     * Benchmarks {@link HtmlTool#swapTagWithParent(Element, String)}.
+     *
+     * @param page
+     *            page to edit
+     * @return the edited page
+     */
+    @Benchmark
+    public Element swapTagWithParent(final PageState page) {
+        return tool.swapTagWithParent(page.copy(), "div.source > pre");
+    }
+
+    /**
+     * Benchmarks {@link HtmlTool#unwrap(Element, String)}.
+     *
+     * @param page
+     *            page to edit
+     * @return the edited page
+     */
+    @Benchmark
+    public Element unwrap(final PageState page) {
+        return tool.unwrap(page.copy(), "a:not([href])");
+    }
+
+    /**
+     * Benchmarks {@link HtmlTool#wrap(Element, String, String)}.
+     *
+     * @param page
+     *            page to edit
+     * @return the edited page
+     */
+    @Benchmark
+    public Element wrap(final PageState page) {
+        return tool.wrap(page.copy(), "table", "<div class=\"table-responsive\"></div>");
+    }
+
+    /**
+     * Benchmarks {@link HtmlTool#write(Element, Appendable, OutputSettings)}, streaming the page code into a writer
+     * which discards it.
+     *
+     * @param page
+     *            page to serialize
+     * @throws IOException
+     *             if the page can't be written
+     */
+    @Benchmark
+    public void write(final PageState page) throws IOException {
+        tool.write(page.body, Writer.nullWriter(), SETTINGS);
+    }
+
+}
@@ -0,0 +1,120 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.benchmark;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.bernardomg.velocity.tool.test.corpus.SiteCorpusGenerator;
+
+/**
+ * Page used by the benchmarks. It is built and parsed once for each trial.
+ * <p>
+ * The parsed page should never be edited. Benchmarks for the tools which edit it work on a {@link #copy() copy}, whose
+ * cost is measured by {@link CopyBenchmark}. This keeps the copy outside the benchmarks which only read the page, and
+ * avoids a setup for each invocation, which JMH can't measure apart from short benchmarks.
+ * <p>
+ * The pages come from a {@link SiteCorpusGenerator} with a fixed seed, so all the runs edit the same pages. The sizes
+ * are {@code small}, around 10 KB, {@code medium}, around 1 MB, and {@code huge}, around 10 MB.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@State(Scope.Thread)
+public class PageState {
+
+    /**
+     * Seed for the pages.
+     */
+    private static final long SEED = 20150101L;
+
+    /**
+     * Page size.
+     */
+    @Param({ "small", "medium", "huge" })
+    public String  size;
+
+    /**
+     * Parsed page. Shared by all the invocations, so it is never edited.
+     */
+    public Element body;
+
+    /**
+     * Code inside the page body, as received by the templates.
+     */
+    public String  bodyContent;
+
+    /**
+     * Page HTML.
+     */
+    public String  html;
+
+    /**
+     * Default constructor.
+     */
+    public PageState() {
+        super();
+    }
+
+    /**
+     * Returns a copy of the parsed page, which can be edited.
+     *
+     * @return a copy of the parsed page
+     */
+    public Element copy() {
+        return body.clone();
+    }
+
+    /**
+     * Builds and parses the page.
+     */
+    @Setup
+    public void parse() {
+        final int length; // Page length
+
+        switch (size) {
+            case "small":
+                length = SiteCorpusGenerator.MIN_LENGTH;
+                break;
+            case "medium":
+                length = 1024 * 1024;
+                break;
+            case "huge":
+                length = SiteCorpusGenerator.MAX_LENGTH;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown page size " + size);
+        }
+
+        html = new SiteCorpusGenerator(SEED).page(0, length);
+        body = Jsoup.parse(html)
+            .body();
+        bodyContent = body.html();
+    }
+
+}
@@ -0,0 +1,182 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bernardomg.velocity.tool.OperationBatch;
+import com.bernardomg.velocity.tool.cli.ExecutionMode;
+import com.bernardomg.velocity.tool.cli.LinkReport;
+import com.bernardomg.velocity.tool.cli.PageCache;
+import com.bernardomg.velocity.tool.cli.SiteFixResult;
+import com.bernardomg.velocity.tool.cli.SiteFixer;
+import com.bernardomg.velocity.tool.cli.SiteLinkIndex;
+import com.bernardomg.velocity.tool.test.corpus.SiteCorpusGenerator;
+
+/**
+ * Benchmarks for the {@link SiteFixer}, comparing platform and virtual threads.
+ * <p>
+ * The site is written again before each invocation, into the directory set by the {@code benchmark.site} system
+ * property, or a temporary directory. Point it to a network mount to compare the modes on slow storage.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SiteFixerBenchmark {
+
+    /**
+     * Maximum number of pages fixed at once.
+     */
+    @Param({ "8", "64" })
+    public int                   concurrency;
+
+    /**
+     * Threads used to fix the pages.
+     */
+    @Param({ "PLATFORM", "VIRTUAL" })
+    public String                mode;
+
+    /**
+     * Number of pages in the site.
+     */
+    @Param({ "500" })
+    public int                   pages;
+
+    /**
+     * Operations applied to the pages.
+     */
+    private final OperationBatch batch = new OperationBatch().fixHeadingIds()
+        .fixAnchorLinks()
+        .updateTableHeads()
+        .transformIcons()
+        .transformImagesToFigures();
+
+    /**
+     * Site directory.
+     */
+    private Path                 site;
+
+    /**
+     * Default constructor.
+     */
+    public SiteFixerBenchmark() {
+        super();
+    }
+
+    /**
+     * Creates the site directory.
+     *
+     * @throws IOException
+     *             if the directory can't be created
+     */
+    @Setup(Level.Trial)
+    public void createSite() throws IOException {
+        final String location; // Received directory
+
+        location = System.getProperty("benchmark.site");
+        if (location == null) {
+            site = Files.createTempDirectory("site");
+        } else {
+            site = Files.createDirectories(Path.of(location));
+        }
+    }
+
+    /**
+     * Benchmarks fixing the whole site.
+     *
+     * @return the result of fixing the site
+     * @throws IOException
+     *             if the site can't be read
+     */
+    @Benchmark
+    public SiteFixResult fix() throws IOException {
+        return new SiteFixer(batch, ExecutionMode.fromName(mode), concurrency).fix(site);
+    }
+
+    /**
+     * Benchmarks {@link SiteFixer#fix(Path, PageCache, SiteLinkIndex)}, indexing the pages and then checking their
+     * links, for comparing with {@link #fix()}.
+     *
+     * @return the link report
+     * @throws IOException
+     *             if the site can't be fixed
+     */
+    @Benchmark
+    public LinkReport fixAndVerifyLinks() throws IOException {
+        final SiteLinkIndex index; // Site index
+
+        index = new SiteLinkIndex();
+        new SiteFixer(batch, ExecutionMode.fromName(mode), concurrency).fix(site, null, index);
+
+        return index.verify(site);
+    }
+
+    /**
+     * Removes the site pages.
+     *
+     * @throws IOException
+     *             if the pages can't be removed
+     */
+    @TearDown(Level.Trial)
+    public void removeSite() throws IOException {
+        for (final Path page : SiteFixer.findPages(site)) {
+            Files.delete(page);
+        }
+    }
+
+    /**
+     * Writes the site pages, replacing those fixed on the previous invocation.
+     *
+     * @throws IOException
+     *             if the pages can't be written
+     */
+    @Setup(Level.Invocation)
+    public void writeSite() throws IOException {
+        new SiteCorpusGenerator(20150101L, SiteCorpusGenerator.MIN_LENGTH, 256 * 1024).write(site, pages);
+    }
+
+}
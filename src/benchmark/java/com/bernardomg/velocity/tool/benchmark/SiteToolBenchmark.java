@@ -0,0 +1,164 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bernardomg.velocity.tool.AnchorReport;
+import com.bernardomg.velocity.tool.SiteTool;
+
+/**
+ * Benchmarks for the {@link SiteTool} methods.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SiteToolBenchmark {
+
+    /**
+     * Tool being benchmarked.
+     */
+    private final SiteTool tool = new SiteTool();
+
+    /**
+     * Default constructor.
+     */
+    public SiteToolBenchmark() {
+        super();
+    }
+
+    /**
+     * Benchmarks {@link SiteTool#fixAnchorLinks(Element)}.
+     *
+     * @param page
+     *            page to edit
+     * @return the edited page
+     */
+    @Benchmark
+    public Element fixAnchorLinks(final PageState page) {
+        return tool.fixAnchorLinks(page.copy());
+    }
+
+    /**
+     * Benchmarks {@link SiteTool#fixHeadingIds(Element)}.
+     *
+     * @param page
+     *            page to edit
+     * @return the edited page
+     */
+    @Benchmark
+    public Element fixHeadingIds(final PageState page) {
+        return tool.fixHeadingIds(page.copy());
+    }
+
+    /**
+     * Benchmarks {@link SiteTool#fixHeadingIds(Element, boolean)}, making the ids unique.
+     *
+     * @param page
+     *            page to edit
+     * @return the edited page
+     */
+    @Benchmark
+    public Element fixHeadingIdsDedupe(final PageState page) {
+        return tool.fixHeadingIds(page.copy(), true);
+    }
+
+    /**
+     * Benchmarks {@link SiteTool#fixIdsAndAnchors(Element)}, for comparing with {@link #fixIdsThenAnchors(PageState)}.
+     *
+     * @param page
+     *            page to edit
+     * @return the edited page
+     */
+    @Benchmark
+    public Element fixIdsAndAnchors(final PageState page) {
+        return tool.fixIdsAndAnchors(page.copy());
+    }
+
+    /**
+     * Benchmarks {@link SiteTool#fixHeadingIds(Element)} followed by {@link SiteTool#fixAnchorLinks(Element)}.
+     *
+     * @param page
+     *            page to edit
+     * @return the edited page
+     */
+    @Benchmark
+    public Element fixIdsThenAnchors(final PageState page) {
+        return tool.fixAnchorLinks(tool.fixHeadingIds(page.copy()));
+    }
+
+    /**
+     * Benchmarks {@link SiteTool#verifyIdsAndAnchors(Element, boolean)}.
+     *
+     * @param page
+     *            page to check
+     * @return the page report
+     */
+    @Benchmark
+    public AnchorReport verifyIdsAndAnchors(final PageState page) {
+        return tool.verifyIdsAndAnchors(page.copy(), false);
+    }
+
+    /**
+     * Benchmarks {@link SiteTool#transformIcons(Element)}.
+     *
+     * @param page
+     *            page to edit
+     * @return the edited page
+     */
+    @Benchmark
+    public Element transformIcons(final PageState page) {
+        return tool.transformIcons(page.copy());
+    }
+
+    /**
+     * Benchmarks {@link SiteTool#transformImagesToFigures(Element)}.
+     *
+     * @param page
+     *            page to edit
+     * @return the edited page
+     */
+    @Benchmark
+    public Element transformImagesToFigures(final PageState page) {
+        return tool.transformImagesToFigures(page.copy());
+    }
+
+}
@@ -0,0 +1,228 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.select.NodeTraversor;
+
+/**
+ * Fixes the heading ids and the links to anchors of a page in a single walk, as {@link SiteTool#fixHeadingIds(Element)}
+ * and {@link SiteTool#fixAnchorLinks(Element)} do, and checks the links point to existing ids.
+ * <p>
+ * The walk sets the ids apart, fixes the links and keeps the headings. Then the heading ids are fixed, in document
+ * order, once all the other ids are known, so they can be made unique. Text is formatted once for each page, the same
+ * text repeated in several headings or links taking the id formatted the first time.
+ * <p>
+ * Each pass handles a single page and is not thread-safe.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class AnchorPass {
+
+    /**
+     * Heading tags.
+     */
+    private static final Set<String>  HEADINGS  = Set.of("h1", "h2", "h3", "h4", "h5", "h6");
+
+    /**
+     * Links to anchors in the page, kept for the check.
+     */
+    private final List<Element>       anchors   = new ArrayList<>();
+
+    /**
+     * Checks the links point to existing ids.
+     */
+    private final boolean             check;
+
+    /**
+     * Makes the heading ids unique.
+     */
+    private final boolean             dedupe;
+
+    /**
+     * Formatted ids for each text.
+     */
+    private final Map<String, String> formatted = new HashMap<>();
+
+    /**
+     * Headings in the page.
+     */
+    private final List<Element>       headings  = new ArrayList<>();
+
+    /**
+     * Ids in the page.
+     */
+    private final IdIndex             ids       = new IdIndex();
+
+    /**
+     * Constructs a pass for a single page.
+     *
+     * @param unique
+     *            makes the heading ids unique
+     * @param checked
+     *            checks the links point to existing ids
+     */
+    AnchorPass(final boolean unique, final boolean checked) {
+        super();
+
+        dedupe = unique;
+        check = checked;
+    }
+
+    /**
+     * Fixes the heading ids and the links to anchors in the root.
+     *
+     * @param root
+     *            root element with the headings and links
+     * @param run
+     *            call which counts the changes
+     */
+    final void fix(final Element root, final OperationRun run) {
+        NodeTraversor.traverse((node, depth) -> {
+            if (node instanceof Element) {
+                visit((Element) node, run);
+            }
+        }, root);
+
+        for (final Element heading : headings) {
+            run.count(fixHeadingId(heading));
+        }
+    }
+
+    /**
+     * Returns the report for the page. It is complete only if the links were checked.
+     *
+     * @return the report for the page
+     */
+    final AnchorReport getReport() {
+        final Set<String> broken; // Links to missing ids
+        String            href;   // Link to an anchor
+
+        broken = new LinkedHashSet<>();
+        for (final Element anchor : anchors) {
+            href = anchor.attr("href");
+            // A lone hash points to the top of the page
+            if ((href.length() > 1) && !ids.contains(href.substring(1))) {
+                broken.add(href);
+            }
+        }
+
+        return new AnchorReport(ids.getIds(), broken);
+    }
+
+    /**
+     * Fixes the link to an anchor in the same page. Links to other pages are ignored.
+     *
+     * @param anchor
+     *            anchor to fix
+     * @return {@code true} if the anchor changed
+     */
+    private final boolean fixAnchorLink(final Element anchor) {
+        final String  ref;     // Link
+        final String  fixed;   // Fixed link
+        final boolean changed; // The link changed
+
+        ref = anchor.attr("href");
+        if (ref.startsWith("#")) {
+            fixed = format(ref);
+            anchor.attr("href", fixed);
+            changed = !fixed.equals(ref);
+            if (check) {
+                anchors.add(anchor);
+            }
+        } else {
+            changed = false;
+        }
+
+        return changed;
+    }
+
+    /**
+     * Adds or fixes the id of a heading.
+     *
+     * @param heading
+     *            heading to fix
+     * @return {@code true} if the heading changed
+     */
+    private final boolean fixHeadingId(final Element heading) {
+        final String previous; // Id before the change
+        final String id;       // Fixed id
+
+        if (heading.hasAttr("id")) {
+            previous = heading.attr("id");
+        } else {
+            previous = null;
+        }
+        if (dedupe) {
+            id = ids.claim(format(ElementOperations.headingIdText(heading)));
+        } else {
+            id = format(ElementOperations.headingIdText(heading));
+            ids.add(id);
+        }
+        heading.attr("id", id);
+
+        return !id.equals(previous);
+    }
+
+    /**
+     * Returns the formatted id for the received text, formatting it only the first time.
+     *
+     * @param text
+     *            text to format
+     * @return the formatted id
+     */
+    private final String format(final String text) {
+        return formatted.computeIfAbsent(text, IdFormatter::format);
+    }
+
+    /**
+     * Handles an element of the walk.
+     *
+     * @param element
+     *            element to handle
+     * @param run
+     *            call which counts the changes
+     */
+    private final void visit(final Element element, final OperationRun run) {
+        if (HEADINGS.contains(element.normalName())) {
+            headings.add(element);
+        } else {
+            if (element.hasAttr("id")) {
+                ids.add(element.id());
+            }
+            if ("a".equals(element.normalName())) {
+                run.count(fixAnchorLink(element));
+            }
+        }
+    }
+
+}
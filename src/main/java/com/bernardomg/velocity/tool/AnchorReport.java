@@ -0,0 +1,113 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The ids in a page, and the links to anchors in the same page which point to none of them.
+ * <p>
+ * Instances are immutable.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class AnchorReport {
+
+    /**
+     * Report for a missing page.
+     */
+    private static final AnchorReport EMPTY = new AnchorReport(Set.of(), List.of());
+
+    /**
+     * Links to missing anchors, in document order.
+     */
+    private final List<String>        brokenAnchors;
+
+    /**
+     * Ids in the page.
+     */
+    private final Set<String>         ids;
+
+    /**
+     * Constructs a report with the received ids and broken links.
+     *
+     * @param pageIds
+     *            ids in the page
+     * @param broken
+     *            links to missing anchors
+     */
+    AnchorReport(final Collection<String> pageIds, final Collection<String> broken) {
+        super();
+
+        ids = Set.copyOf(Objects.requireNonNull(pageIds, "Received a null pointer as ids"));
+        brokenAnchors = List.copyOf(Objects.requireNonNull(broken, "Received a null pointer as broken anchors"));
+    }
+
+    /**
+     * Returns a report without ids nor links.
+     *
+     * @return an empty report
+     */
+    static final AnchorReport empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the links to anchors in the same page whose id doesn't exist, such as {@code #missing}. Each link is
+     * returned once, in document order.
+     *
+     * @return the links to missing anchors
+     */
+    public final List<String> getBrokenAnchors() {
+        return brokenAnchors;
+    }
+
+    /**
+     * Returns the ids of the elements in the page.
+     *
+     * @return the ids in the page
+     */
+    public final Set<String> getIds() {
+        return ids;
+    }
+
+    /**
+     * Indicates if all the links to anchors in the same page point to an existing id.
+     *
+     * @return {@code true} if no link points to a missing id, {@code false} otherwise
+     */
+    public final boolean isValid() {
+        return brokenAnchors.isEmpty();
+    }
+
+    @Override
+    public final String toString() {
+        return "AnchorReport [ids=" + ids.size() + ", brokenAnchors=" + brokenAnchors + "]";
+    }
+
+}
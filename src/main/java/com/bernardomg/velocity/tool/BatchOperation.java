@@ -0,0 +1,280 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Evaluator;
+
+/**
+ * Operation registered into an {@link OperationBatch}. Pairs a selector with the change applied to each selected
+ * element, and describes what that change may affect.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class BatchOperation {
+
+    /**
+     * What an operation may change on the document.
+     */
+    enum Effect {
+        /**
+         * Only changes a single attribute.
+         */
+        ATTRIBUTE,
+        /**
+         * Changes anything, the following operations have to select again.
+         */
+        ANY,
+        /**
+         * Moves, adds or removes nodes.
+         */
+        TREE
+    }
+
+    /**
+     * Change applied to each selected element, which tells if the element changed.
+     */
+    private final Predicate<Element>  action;
+
+    /**
+     * Attribute changed by the operation, if any.
+     */
+    private final String              attribute;
+
+    /**
+     * What the operation may change.
+     */
+    private final Effect              effect;
+
+    /**
+     * Compiled selector.
+     */
+    private final Evaluator           evaluator;
+
+    /**
+     * Operation name.
+     */
+    private final String              name;
+
+    /**
+     * Check on the page code, which fails if the operation won't change the page. If {@code null} there is no check.
+     */
+    private final Predicate<PageScan> prefilter;
+
+    /**
+     * Attribute read by the prefilter, if any.
+     */
+    private final String              prefilterAttribute;
+
+    /**
+     * CSS selector for the elements to change.
+     */
+    private final String              selector;
+
+    /**
+     * Tags of the elements the operation may create. If {@code null} they are unknown.
+     */
+    private final Set<String>         tags;
+
+    /**
+     * What the selector depends on.
+     */
+    private final SelectorTraits      traits;
+
+    /**
+     * Constructs an operation.
+     *
+     * @param operation
+     *            operation name
+     * @param query
+     *            CSS selector for the elements to change
+     * @param compiled
+     *            compiled selector
+     * @param change
+     *            change applied to each selected element, which tells if the element changed
+     * @param changeEffect
+     *            what the change may affect
+     * @param changedAttribute
+     *            attribute changed, if the effect is limited to an attribute
+     * @param createdTags
+     *            tags of the elements the operation may create, {@code null} if unknown
+     * @param check
+     *            check on the page code, which fails if the operation won't change the page, {@code null} if there is
+     *            none
+     * @param checkedAttribute
+     *            attribute read by the check
+     */
+    BatchOperation(final String operation, final String query, final Evaluator compiled,
+            final Predicate<Element> change, final Effect changeEffect, final String changedAttribute,
+            final Set<String> createdTags, final Predicate<PageScan> check, final String checkedAttribute) {
+        super();
+
+        name = Objects.requireNonNull(operation);
+        selector = Objects.requireNonNull(query);
+        evaluator = Objects.requireNonNull(compiled);
+        action = Objects.requireNonNull(change);
+        effect = Objects.requireNonNull(changeEffect);
+        attribute = changedAttribute;
+        tags = createdTags;
+        prefilter = check;
+        prefilterAttribute = checkedAttribute;
+        traits = new SelectorTraits(query);
+    }
+
+    /**
+     * Applies the change to the element.
+     *
+     * @param element
+     *            element to change
+     * @return {@code true} if the element changed
+     */
+    final boolean apply(final Element element) {
+        return action.test(element);
+    }
+
+    /**
+     * Checks if this operation has to select after the received one has been applied, as the changes made by it may
+     * alter what this operation selects.
+     *
+     * @param previous
+     *            operation applied before this one
+     * @return {@code true} if this operation has to select after the previous one is applied
+     */
+    final boolean dependsOn(final BatchOperation previous) {
+        final boolean depends;
+
+        switch (previous.effect) {
+            case ATTRIBUTE:
+                depends = traits.mentions(previous.attribute);
+                break;
+            case TREE:
+                depends = traits.isStructural() || traits.mayMatchAny(previous.tags);
+                break;
+            default:
+                depends = true;
+        }
+
+        return depends;
+    }
+
+    /**
+     * Returns the attribute changed by the operation, if any.
+     *
+     * @return the attribute changed, or {@code null} if the operation doesn't change only an attribute
+     */
+    final String getAttribute() {
+        return (effect == Effect.ATTRIBUTE) ? attribute : null;
+    }
+
+    /**
+     * Returns the tags of the elements the operation may create.
+     *
+     * @return the tags of the elements the operation may create, {@code null} if unknown
+     */
+    final Set<String> getCreatedTags() {
+        return (effect == Effect.ANY) ? null : tags;
+    }
+
+    /**
+     * Returns the compiled selector.
+     *
+     * @return the compiled selector
+     */
+    final Evaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * Returns the operation name.
+     *
+     * @return the operation name
+     */
+    final String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the CSS selector for the elements to change.
+     *
+     * @return the CSS selector
+     */
+    final String getSelector() {
+        return selector;
+    }
+
+    /**
+     * Checks if the operation may change a page, knowing what its code contains and what the previous operations may
+     * have changed.
+     * <p>
+     * The selector has to start with a tag found in the page, or created by a previous operation. Then the operation
+     * prefilter, if any, is checked, unless a previous operation changed the attribute it reads, or created elements.
+     *
+     * @param scan
+     *            what the page code contains
+     * @param created
+     *            tags of the elements created by the previous operations
+     * @param changed
+     *            attributes changed by the previous operations
+     * @return {@code true} if the operation may change the page
+     */
+    final boolean mayApply(final PageScan scan, final Set<String> created, final Set<String> changed) {
+        final Set<String> required; // Tags required by the selector
+        final boolean     found;    // The required tags are in the page
+        final boolean     applies;  // The operation may change the page
+
+        required = traits.getTags();
+        if (required == null) {
+            found = true;
+        } else {
+            found = required.stream()
+                .anyMatch(tag -> scan.hasTag(tag) || created.contains(tag));
+        }
+
+        if ((!found) || (prefilter == null)) {
+            applies = found;
+        } else if ((!created.isEmpty()) || changed.contains(prefilterAttribute)) {
+            // The prefilter can't know about these changes
+            applies = true;
+        } else {
+            applies = prefilter.test(scan);
+        }
+
+        return applies;
+    }
+
+    /**
+     * Checks if the operation may detach elements from the document.
+     *
+     * @return {@code true} if the operation may detach elements
+     */
+    final boolean isDetaching() {
+        return effect != Effect.ATTRIBUTE;
+    }
+
+}
@@ -0,0 +1,433 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.Objects;
+
+import org.jsoup.nodes.Attributes;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Tag;
+
+import com.bernardomg.velocity.tool.IconTable.Icon;
+
+/**
+ * The changes applied by the tools to each selected element.
+ * <p>
+ * The tools select the elements and then apply one of these to each of them. Keeping them apart allows applying them
+ * also through an {@link OperationBatch}.
+ * <p>
+ * Each of them tells if it changed the element, so the tools know if the document has to be serialized again. When
+ * checking it is not cheap they answer {@code true}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class ElementOperations {
+
+    /**
+     * Private constructor to avoid initialization.
+     */
+    private ElementOperations() {
+        super();
+    }
+
+    /**
+     * Adds a class to the element.
+     *
+     * @param element
+     *            element to edit
+     * @param className
+     *            class to add
+     * @return {@code true} if the element changed
+     */
+    static final boolean addClass(final Element element, final String className) {
+        final String previous; // Class attribute before the change
+
+        previous = valueOf(element, "class");
+        element.addClass(className);
+
+        return !Objects.equals(previous, valueOf(element, "class"));
+    }
+
+    /**
+     * Fixes the link to an anchor in the same page. Links to other pages are ignored.
+     *
+     * @param anchor
+     *            anchor to fix
+     * @return {@code true} if the anchor changed
+     */
+    static final boolean fixAnchorLink(final Element anchor) {
+        final String  ref;     // Value of the href attribute
+        final String  fixed;   // Fixed href value
+        final boolean changed; // The anchor changed
+
+        // If the attribute doesn't exist then the ref will be an empty
+        // string
+        ref = anchor.attr("href");
+
+        if ((!ref.isEmpty()) && ("#".equals(ref.substring(0, 1)))) {
+            fixed = IdFormatter.format(ref);
+            anchor.attr("href", fixed);
+            changed = !fixed.equals(ref);
+        } else {
+            changed = false;
+        }
+
+        return changed;
+    }
+
+    /**
+     * Adds or fixes the id of a heading.
+     *
+     * @param heading
+     *            heading to fix
+     * @return {@code true} if the heading changed
+     */
+    static final boolean fixHeadingId(final Element heading) {
+        final String previous; // Id before the change
+        final String id;       // Fixed id
+
+        previous = valueOf(heading, "id");
+        id = IdFormatter.format(headingIdText(heading));
+        heading.attr("id", id);
+
+        return !id.equals(previous);
+    }
+
+    /**
+     * Adds or fixes the id of a heading, making sure no other element in the page has the same id.
+     *
+     * @param heading
+     *            heading to fix
+     * @param ids
+     *            ids in use in the page
+     * @return {@code true} if the heading changed
+     */
+    static final boolean fixHeadingId(final Element heading, final IdIndex ids) {
+        final String previous; // Id before the change
+        final String id;       // Fixed id
+
+        previous = valueOf(heading, "id");
+        id = ids.claim(IdFormatter.format(headingIdText(heading)));
+        heading.attr("id", id);
+
+        return !id.equals(previous);
+    }
+
+    /**
+     * Returns the text from which the id of a heading is generated. This is its current id, if it has one, otherwise
+     * its text.
+     *
+     * @param heading
+     *            heading with the text
+     * @return the text for the heading id
+     */
+    static final String headingIdText(final Element heading) {
+        final String idText; // Text to generate the id
+
+        if (heading.hasAttr("id")) {
+            // Contains an id
+            // The id text is taken from the attribute
+            idText = heading.attr("id");
+        } else {
+            // Doesn't contain an id
+            // The id text is taken from the heading text
+            idText = heading.text();
+        }
+
+        return idText;
+    }
+
+    /**
+     * Moves a table row into a new {@code <thead>} at the beginning of its table.
+     * <p>
+     * The row is expected to be inside a {@code <tbody>}.
+     *
+     * @param row
+     *            row to move
+     * @return {@code true}, as the row is always moved
+     */
+    static final boolean moveToTableHead(final Element row) {
+        final Element table; // HTML table
+        final Element thead; // Table's head for wrapping
+
+        // Gets the row's table
+        table = row.parent()
+            .parent();
+
+        // Removes the row from its original position
+        row.remove();
+
+        // Creates a table header element with the row
+        thead = new Element(Tag.valueOf("thead"), "");
+        thead.appendChild(row);
+        // Adds the head at the beginning of the table
+        table.prependChild(thead);
+
+        return true;
+    }
+
+    /**
+     * Removes an attribute from the element.
+     *
+     * @param element
+     *            element to edit
+     * @param attribute
+     *            attribute to remove
+     * @return {@code true} if the element had the attribute
+     */
+    static final boolean removeAttribute(final Element element, final String attribute) {
+        final boolean changed; // The element had the attribute
+
+        changed = element.attributes()
+            .hasKeyIgnoreCase(attribute);
+        element.removeAttr(attribute);
+
+        return changed;
+    }
+
+    /**
+     * Removes a class from the element. If the element ends without classes then the class attribute is also removed.
+     *
+     * @param element
+     *            element to edit
+     * @param className
+     *            class to remove
+     * @return {@code true} if the element changed
+     */
+    static final boolean removeClass(final Element element, final String className) {
+        final String previous; // Class attribute before the change
+
+        previous = valueOf(element, "class");
+        element.removeClass(className);
+
+        if (element.classNames()
+            .isEmpty()) {
+            element.removeAttr("class");
+        }
+
+        return !Objects.equals(previous, valueOf(element, "class"));
+    }
+
+    /**
+     * Removes the points from the contents of the specified attribute.
+     *
+     * @param element
+     *            element with the attribute to clean
+     * @param attr
+     *            attribute to clean
+     * @return {@code true} if the element changed
+     */
+    static final boolean removePointsFromAttr(final Element element, final String attr) {
+        final String previous; // Attribute before the change
+        final String value;    // Content of the attribute
+
+        previous = valueOf(element, attr);
+
+        // Takes and clean the old attribute value
+        value = element.attr(attr)
+            .replace(".", "");
+
+        // Sets the cleaned value
+        element.attr(attr, value);
+
+        return !value.equals(previous);
+    }
+
+    /**
+     * Replaces the image with its icon from the table, if there is one.
+     *
+     * @param img
+     *            image to replace
+     * @param table
+     *            icons to replace
+     * @return {@code true} if the image was replaced
+     */
+    static final boolean replaceIcon(final Element img, final IconTable table) {
+        final Icon icon; // Icon for the image
+
+        icon = table.find(img.attr("src"));
+        if (icon != null) {
+            replaceWith(img, icon.getTemplate());
+        }
+
+        return icon != null;
+    }
+
+    /**
+     * Replaces the element with a copy of the received template.
+     *
+     * @param element
+     *            element to replace
+     * @param template
+     *            replacement, which is copied
+     */
+    static final void replaceWith(final Element element, final Element template) {
+        element.replaceWith(template.clone());
+    }
+
+    /**
+     * Changes the tag of the element.
+     *
+     * @param element
+     *            element to edit
+     * @param tag
+     *            new tag
+     * @return {@code true} if the element had another tag
+     */
+    static final boolean retag(final Element element, final String tag) {
+        final boolean changed; // The element had another tag
+
+        changed = !element.tagName()
+            .equals(tag);
+        element.tagName(tag);
+
+        return changed;
+    }
+
+    /**
+     * Swaps the element with its parent. The text stays in the outer element.
+     *
+     * @param element
+     *            element to swap with its parent
+     * @return {@code true}, as the elements are always swapped
+     */
+    static final boolean swapTagWithParent(final Element element) {
+        final Element parent; // Parent to swap with
+        final String  text;   // Text to keep in the outer element
+
+        parent = element.parent();
+
+        // Takes the text out of the element
+        text = element.text();
+        element.text("");
+
+        // Swaps elements
+        parent.replaceWith(element);
+        element.appendChild(parent);
+
+        // Sets the text into what was the parent element
+        parent.text(text);
+
+        return true;
+    }
+
+    /**
+     * Unwraps the element, keeping its contents.
+     *
+     * @param element
+     *            element to unwrap
+     * @return {@code true}, as the element is always unwrapped
+     */
+    static final boolean unwrap(final Element element) {
+        element.unwrap();
+
+        return true;
+    }
+
+    /**
+     * Removes the received figure's parent if it is a paragraph, keeping its contents.
+     *
+     * @param figure
+     *            figure to take out of a paragraph
+     * @return {@code true} if the figure was inside a paragraph
+     */
+    static final boolean unwrapParagraph(final Element figure) {
+        final boolean inParagraph; // The figure is inside a paragraph
+
+        inParagraph = "p".equals(figure.parent()
+            .tag()
+            .getName());
+        if (inParagraph) {
+            figure.parent()
+                .unwrap();
+        }
+
+        return inParagraph;
+    }
+
+    /**
+     * Wraps the element with the received HTML.
+     *
+     * @param element
+     *            element to wrap
+     * @param wrapper
+     *            HTML to use for wrapping the element
+     * @return {@code true}, as the element is always wrapped
+     */
+    static final boolean wrap(final Element element, final String wrapper) {
+        element.wrap(wrapper);
+
+        return true;
+    }
+
+    /**
+     * Wraps an image with a {@code <figure>}, with a caption taken from the {@code alt} attribute if it exists.
+     *
+     * @param img
+     *            image to transform
+     * @return {@code true}, as the image is always wrapped
+     */
+    static final boolean wrapInFigure(final Element img) {
+        final Element figure;  // <figure> element
+        final Element caption; // <figcaption> element
+
+        figure = new Element(Tag.valueOf("figure"), "");
+
+        img.replaceWith(figure);
+        figure.appendChild(img);
+
+        if (img.hasAttr("alt")) {
+            caption = new Element(Tag.valueOf("figcaption"), "");
+            caption.text(img.attr("alt"));
+            figure.appendChild(caption);
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the value of the attribute, ignoring the case of its name.
+     *
+     * @param element
+     *            element with the attribute
+     * @param attribute
+     *            attribute to read
+     * @return the attribute value, or {@code null} if the element doesn't have it
+     */
+    private static final String valueOf(final Element element, final String attribute) {
+        final Attributes attributes; // Element attributes
+        final String     value;      // Attribute value
+
+        attributes = element.attributes();
+        if (attributes.hasKeyIgnoreCase(attribute)) {
+            value = attributes.getIgnoreCase(attribute);
+        } else {
+            value = null;
+        }
+
+        return value;
+    }
+
+}
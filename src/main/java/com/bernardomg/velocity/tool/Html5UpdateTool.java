@@ -24,14 +24,18 @@
 
 package com.bernardomg.velocity.tool;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
 import java.util.Objects;
 
 import org.apache.velocity.tools.config.DefaultKey;
 import org.jsoup.nodes.Element;
-import org.jsoup.parser.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.bernardomg.velocity.tool.cache.SelectorCache;
+
 /**
  * Utilities class for upgrading XHTML code to HTML5.
  * <p>
@@ -45,6 +49,8 @@
  * The <a href="https://github.com/Bernardo-MG/docs-maven-skin">Docs Maven Skin</a> and its requirements have dictated
  * the development of this class. For more generic methods use the {@link com.bernardomg.velocity.tool.HtmlTool
  * HtmlTool}.
+ * <p>
+ * This class is thread-safe.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
@@ -57,29 +63,17 @@ public class Html5UpdateTool {
     private static final Logger log = LoggerFactory.getLogger(Html5UpdateTool.class);
 
     /**
-     * Constructs an instance of the utilities class.
+     * Compiled selectors, shared with the other tools.
      */
-    public Html5UpdateTool() {
-        super();
-    }
+    private final SelectorCache selectors;
 
     /**
-     * Removes the points from the contents of the specified attribute.
-     *
-     * @param element
-     *            element with the attribute to clean
-     * @param attr
-     *            attribute to clean
+     * Constructs an instance of the utilities class.
      */
-    private final void removePointsFromAttr(final Element element, final String attr) {
-        final String value; // Content of the attribute
-
-        // Takes and clean the old attribute value
-        value = element.attr(attr)
-            .replace(".", "");
+    public Html5UpdateTool() {
+        super();
 
-        // Sets the cleaned value
-        element.attr(attr, value);
+        selectors = SelectorCache.shared();
     }
 
     /**
@@ -95,6 +89,7 @@ private final void removePointsFromAttr(final Element element, final String attr
      */
     public final Element removePointsFromAttr(final Element root, final String selector, final String attr) {
         final Iterable<Element> elements; // Elements to fix
+        final OperationRun      run;      // Operation call
 
         Objects.requireNonNull(selector, "Received a null pointer as selector");
         Objects.requireNonNull(attr, "Received a null pointer as attribute");
@@ -102,11 +97,13 @@ public final Element removePointsFromAttr(final Element root, final String selec
         if (root == null) {
             log.warn("Received null root");
         } else {
+            run = new OperationRun(root, "removePointsFromAttr", selector);
             // Selects and iterates over the elements
-            elements = root.select(selector);
+            elements = selectors.select(root, selector);
             for (final Element selected : elements) {
-                removePointsFromAttr(selected, attr);
+                run.count(ElementOperations.removePointsFromAttr(selected, attr));
             }
+            run.finish();
         }
 
         return root;
@@ -125,32 +122,51 @@ public final Element removePointsFromAttr(final Element root, final String selec
      */
     public final Element updateTableHeads(final Element root) {
         final Iterable<Element> tableHeadRows; // Heads to fix
-        Element                 table;         // HTML table
-        Element                 thead;         // Table's head for wrapping
+        final OperationRun      run;           // Operation call
 
         if (root == null) {
             log.warn("Received null root");
         } else {
+            run = new OperationRun(root, "updateTableHeads", "table > tbody > tr:has(th)");
             // Table rows with <th> tags in a <tbody>
-            tableHeadRows = root.select("table > tbody > tr:has(th)");
+            tableHeadRows = selectors.select(root, "table > tbody > tr:has(th)");
             for (final Element row : tableHeadRows) {
-                // Gets the row's table
                 // The selector ensured the row is inside a tbody
-                table = row.parent()
-                    .parent();
-
-                // Removes the row from its original position
-                row.remove();
-
-                // Creates a table header element with the row
-                thead = new Element(Tag.valueOf("thead"), "");
-                thead.appendChild(row);
-                // Adds the head at the beginning of the table
-                table.prependChild(thead);
+                run.count(ElementOperations.moveToTableHead(row));
             }
+            run.finish();
         }
 
         return root;
     }
 
+    /**
+     * Corrects table headers by adding a {@code <thead>} section where missing, while reading the page, and writes the
+     * fixed page.
+     * <p>
+     * This is a streaming variant of {@link #updateTableHeads(Element)}, for pages too big to keep in memory, such as
+     * reports with huge tables. Each table row is written, and released, as soon as it has been read, so memory stays
+     * bounded however big the tables are.
+     * <p>
+     * The header rows at the start of a table, before any other row, are moved as {@code updateTableHeads(Element)}
+     * does, each into its own {@code <thead>} prepended to the table, which covers the tables created by Doxia, where
+     * the header is the first row. For these tables the code is the same as when fixing the parsed page. Unlike
+     * {@code updateTableHeads(Element)}, header rows after other rows of their table are left in place, as those rows
+     * have already been written. This includes rows with header cells only inside a nested table. The page is written
+     * without pretty printing.
+     *
+     * @param in
+     *            page to fix
+     * @param out
+     *            where the fixed page is written
+     * @throws IOException
+     *             if the page can't be read or written
+     */
+    public final void updateTableHeads(final Reader in, final Writer out) throws IOException {
+        Objects.requireNonNull(in, "Received a null pointer as input");
+        Objects.requireNonNull(out, "Received a null pointer as output");
+
+        new TableHeadStream(out).fix(in);
+    }
+
 }
@@ -24,14 +24,30 @@
 
 package com.bernardomg.velocity.tool;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Collections;
 import java.util.Objects;
+import java.util.Set;
 
+import org.apache.velocity.runtime.Renderable;
 import org.apache.velocity.tools.config.DefaultKey;
-import org.jsoup.Jsoup;
+import org.jsoup.SerializationException;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Document.OutputSettings;
 import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.bernardomg.velocity.tool.cache.FragmentCache;
+import com.bernardomg.velocity.tool.cache.SelectorCache;
+import com.bernardomg.velocity.tool.change.ChangeTracker;
+import com.bernardomg.velocity.tool.parser.ParserProfile;
+
 /**
  * Utilities class for manipulating HTML, to be used as an extension of the Velocity templating engine.
  * <p>
@@ -39,7 +55,20 @@
  * <a href="http://jsoup.org/">jsoup</a>, and the HTML should have been parsed with it before handling it to the
  * modification methods.
  * <p>
- * To ease parsing HTML the {@link parse} method can be used. It receives HTML code and returns a jsoup element.
+ * To ease parsing HTML the {@link parse} method can be used. It receives HTML code and returns a jsoup element. The
+ * code is parsed with a {@link ParserProfile}, by default the one shared by all the tools.
+ * <p>
+ * The tools record the operations which change each document. Once done, the {@link #html(Element) html} method
+ * returns the code of a parsed element. For documents changed through the tools alone, parsed with
+ * {@link #parse(String, String, boolean)}, this is the same code received by {@code parse} if no tool changed it.
+ * <p>
+ * Large pages can be written without building their code as a string. The {@link #render(Element) render} method
+ * returns a value which Velocity writes straight into the template output, and the {@code write} methods stream the
+ * code into any writer or stream, with the received output settings.
+ * <p>
+ * The tool keeps no state between calls, other than the selector cache it shares with the other tools, so a single
+ * instance can be used by any number of threads. It is registered in the application scope, and all the pages use
+ * the same instance.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
@@ -52,10 +81,48 @@ public final class HtmlTool {
     private static final Logger log = LoggerFactory.getLogger(HtmlTool.class);
 
     /**
-     * Constructs an instance of the utilities class.
+     * Tracks the operations which change each document, shared with the other tools.
+     */
+    private final ChangeTracker changes;
+
+    /**
+     * Parsed fragments, shared with the other tools.
+     */
+    private final FragmentCache fragments;
+
+    /**
+     * Compiled selectors, shared with the other tools.
+     */
+    private final SelectorCache selectors;
+
+    /**
+     * Constructs an instance of the utilities class, which parses with the shared parser profile.
      */
     public HtmlTool() {
+        this(ParserProfile.shared());
+    }
+
+    /**
+     * Constructs an instance of the utilities class, which parses with the received parser profile.
+     * <p>
+     * The fragment cache is shared with the other tools only when using the shared profile.
+     *
+     * @param parserProfile
+     *            parser settings
+     */
+    public HtmlTool(final ParserProfile parserProfile) {
         super();
+
+        Objects.requireNonNull(parserProfile, "Received a null pointer as parser profile");
+
+        changes = ChangeTracker.shared();
+        if (parserProfile == ParserProfile.shared()) {
+            fragments = FragmentCache.shared();
+        } else {
+            fragments = new FragmentCache(FragmentCache.DEFAULT_CAPACITY, FragmentCache.DEFAULT_MAX_FRAGMENT,
+                parserProfile);
+        }
+        selectors = SelectorCache.shared();
     }
 
     /**
@@ -71,6 +138,7 @@ public HtmlTool() {
      */
     public final Element addClass(final Element root, final String selector, final String className) {
         final Iterable<Element> elements; // Elements selected
+        final OperationRun      run;      // Operation call
 
         Objects.requireNonNull(selector, "Received a null pointer as selector");
         Objects.requireNonNull(className, "Received a null pointer as class");
@@ -78,34 +146,160 @@ public final Element addClass(final Element root, final String selector, final S
         if (root == null) {
             log.warn("Received null root");
         } else {
+            run = new OperationRun(root, "addClass", selector);
             // Selects and iterates over the elements
-            elements = root.select(selector);
+            elements = selectors.select(root, selector);
             for (final Element element : elements) {
-                element.addClass(className);
+                run.count(ElementOperations.addClass(element, className));
             }
+            run.finish();
         }
 
         return root;
     }
 
+    /**
+     * Returns an empty batch of operations.
+     * <p>
+     * Operations added to the batch are applied together, walking the document as few times as possible.
+     *
+     * @return an empty batch of operations
+     * @see OperationBatch
+     */
+    public final OperationBatch batch() {
+        return new OperationBatch(selectors);
+    }
+
+    /**
+     * Returns the tool operations which changed the document containing the element, in the order they first changed
+     * it.
+     *
+     * @param root
+     *            element in the document
+     * @return the operations which changed the document
+     */
+    public final Set<String> getChanges(final Element root) {
+        final Set<String> changed; // Operations which changed the document
+
+        if (root == null) {
+            log.warn("Received null root");
+            changed = Collections.emptySet();
+        } else {
+            changed = changes.getChanges(root);
+        }
+
+        return changed;
+    }
+
+    /**
+     * Returns the HTML code of the element contents.
+     * <p>
+     * If the element was returned by {@link #parse(String, String, boolean) parse} for a document changed through the
+     * tools alone, and no tool changed it, the same code received by {@code parse} is returned, without serializing the
+     * element again. Otherwise the element is serialized.
+     *
+     * @param root
+     *            element to serialize
+     * @return the HTML code of the element contents
+     */
+    public final String html(final Element root) {
+        final String html; // Element HTML
+
+        if (root == null) {
+            log.warn("Received null root");
+            html = null;
+        } else {
+            html = changes.html(root);
+        }
+
+        return html;
+    }
+
+    /**
+     * Checks if some tool operation changed the document containing the element.
+     *
+     * @param root
+     *            element in the document
+     * @return {@code true} if the document was changed, {@code false} otherwise
+     */
+    public final boolean isChanged(final Element root) {
+        final boolean changed; // The document was changed
+
+        if (root == null) {
+            log.warn("Received null root");
+            changed = false;
+        } else {
+            changed = changes.isChanged(root);
+        }
+
+        return changed;
+    }
+
     /**
      * Parses the received HTML code.
      * <p>
      * The resulting object can be used on the other methods. Only the content of the {@code <body>} tag will be parsed.
+     * <p>
+     * Code received repeatedly, such as menus or footers shared by all the pages, is taken from the shared
+     * {@link FragmentCache}, and each call still returns its own copy, which can be changed freely.
      *
      * @param html
      *            HTML to parse
      * @return the parsed HTML body
      */
     public final Element parse(final String html) {
-        final Element parsed;
+        return parse(html, "");
+    }
+
+    /**
+     * Parses the received HTML code, for the page in the received location.
+     * <p>
+     * Works as {@link #parse(String)}, but the location identifies the page in the tool statistics and events. In a
+     * Maven Site template this can be {@code $currentFileName}.
+     *
+     * @param html
+     *            HTML to parse
+     * @param location
+     *            page location, {@code null} if unknown
+     * @return the parsed HTML body
+     */
+    public final Element parse(final String html, final String location) {
+        return parse(html, location, false);
+    }
+
+    /**
+     * Parses the received HTML code, for the page in the received location, telling if the document will be changed
+     * through the tools alone.
+     * <p>
+     * Works as {@link #parse(String, String)}. When the document is changed only through the tools the received code
+     * is kept, to be returned by {@link #html(Element) html} and written by the {@code write} methods if no tool changes
+     * the element. Changes made in any other way, such as through the jsoup methods, are not known, and they would be
+     * lost.
+     *
+     * @param html
+     *            HTML to parse
+     * @param location
+     *            page location, {@code null} if unknown
+     * @param toolsOnly
+     *            {@code true} if the document is changed through the tools alone
+     * @return the parsed HTML body
+     */
+    public final Element parse(final String html, final String location, final boolean toolsOnly) {
+        final Element      parsed; // Parsed body
+        final OperationRun run;    // Operation call
 
         if (html == null) {
             log.warn("Received null to parse");
             parsed = null;
         } else {
-            parsed = Jsoup.parse(html)
-                .body();
+            run = new OperationRun(null, "parse", null);
+            // Unknown locations are kept empty, as jsoup does
+            parsed = fragments.parse(html, Objects.requireNonNullElse(location, ""));
+            if (toolsOnly) {
+                changes.setSource(parsed, html);
+            }
+            run.parsed(parsed, html.length());
+            run.finish();
         }
 
         return parsed;
@@ -124,6 +318,7 @@ public final Element parse(final String html) {
      */
     public final Element removeAttribute(final Element root, final String selector, final String attribute) {
         final Iterable<Element> elements; // Elements selected
+        final OperationRun      run;      // Operation call
 
         Objects.requireNonNull(selector, "Received a null pointer as selector");
         Objects.requireNonNull(attribute, "Received a null pointer as attribute");
@@ -131,11 +326,13 @@ public final Element removeAttribute(final Element root, final String selector,
         if (root == null) {
             log.warn("Received null root");
         } else {
+            run = new OperationRun(root, "removeAttribute", selector);
             // Selects and iterates over the elements
-            elements = root.select(selector);
+            elements = selectors.select(root, selector);
             for (final Element element : elements) {
-                element.removeAttr(attribute);
+                run.count(ElementOperations.removeAttribute(element, attribute));
             }
+            run.finish();
         }
 
         return root;
@@ -156,6 +353,7 @@ public final Element removeAttribute(final Element root, final String selector,
      */
     public final Element removeClass(final Element root, final String selector, final String className) {
         final Iterable<Element> elements; // Elements selected
+        final OperationRun      run;      // Operation call
 
         Objects.requireNonNull(selector, "Received a null pointer as selector");
         Objects.requireNonNull(className, "Received a null pointer as className");
@@ -163,21 +361,41 @@ public final Element removeClass(final Element root, final String selector, fina
         if (root == null) {
             log.warn("Received null root");
         } else {
+            run = new OperationRun(root, "removeClass", selector);
             // Selects and iterates over the elements
-            elements = root.select(selector);
+            elements = selectors.select(root, selector);
             for (final Element element : elements) {
-                element.removeClass(className);
-
-                if (element.classNames()
-                    .isEmpty()) {
-                    element.removeAttr("class");
-                }
+                run.count(ElementOperations.removeClass(element, className));
             }
+            run.finish();
         }
 
         return root;
     }
 
+    /**
+     * Returns the HTML of the element contents, to be written by Velocity directly into the template output.
+     * <p>
+     * Rendering the value writes the element as {@link #write(Element, Appendable)} does, without building its code as
+     * a string. Any other use takes the code from {@link #html(Element) html}.
+     *
+     * @param root
+     *            element to write
+     * @return the element HTML, to be rendered by Velocity
+     */
+    public final Renderable render(final Element root) {
+        final Renderable rendered; // Element HTML
+
+        if (root == null) {
+            log.warn("Received null root");
+            rendered = null;
+        } else {
+            rendered = new StreamedHtml(this, root);
+        }
+
+        return rendered;
+    }
+
     /**
      * Finds a set of elements through a CSS selector and changes their tags.
      *
@@ -191,6 +409,7 @@ public final Element removeClass(final Element root, final String selector, fina
      */
     public final Element retag(final Element root, final String selector, final String tag) {
         final Iterable<Element> elements; // Elements selected
+        final OperationRun      run;      // Operation call
 
         Objects.requireNonNull(selector, "Received a null pointer as selector");
         Objects.requireNonNull(tag, "Received a null pointer as tag");
@@ -198,11 +417,13 @@ public final Element retag(final Element root, final String selector, final Stri
         if (root == null) {
             log.warn("Received null root");
         } else {
+            run = new OperationRun(root, "retag", selector);
             // Selects and iterates over the elements
-            elements = root.select(selector);
+            elements = selectors.select(root, selector);
             for (final Element element : elements) {
-                element.tagName(tag);
+                run.count(ElementOperations.retag(element, tag));
             }
+            run.finish();
         }
 
         return root;
@@ -218,31 +439,21 @@ public final Element retag(final Element root, final String selector, final Stri
      * @return transformed element
      */
     public final Element swapTagWithParent(final Element root, final String selector) {
-        final Iterable<Element> elements;
-        Element                 parent;
-        String                  text;
+        final Iterable<Element> elements; // Elements to swap
+        final OperationRun      run;      // Operation call
 
         Objects.requireNonNull(selector, "Received a null pointer as selector");
 
         if (root == null) {
             log.warn("Received null root");
         } else {
+            run = new OperationRun(root, "swapTagWithParent", selector);
             // Selects and iterates over the elements
-            elements = root.select(selector);
+            elements = selectors.select(root, selector);
             for (final Element element : elements) {
-                parent = element.parent();
-
-                // Takes the text out of the element
-                text = element.text();
-                element.text("");
-
-                // Swaps elements
-                parent.replaceWith(element);
-                element.appendChild(parent);
-
-                // Sets the text into what was the parent element
-                parent.text(text);
+                run.count(ElementOperations.swapTagWithParent(element));
             }
+            run.finish();
         }
 
         return root;
@@ -261,17 +472,20 @@ public final Element swapTagWithParent(final Element root, final String selector
      */
     public final Element unwrap(final Element root, final String selector) {
         final Iterable<Element> elements; // Elements to unwrap
+        final OperationRun      run;      // Operation call
 
         Objects.requireNonNull(selector, "Received a null pointer as selector");
 
         if (root == null) {
             log.warn("Received null root");
         } else {
+            run = new OperationRun(root, "unwrap", selector);
             // Selects and iterates over the elements
-            elements = root.select(selector);
+            elements = selectors.select(root, selector);
             for (final Element element : elements) {
-                element.unwrap();
+                run.count(ElementOperations.unwrap(element));
             }
+            run.finish();
         }
 
         return root;
@@ -290,6 +504,7 @@ public final Element unwrap(final Element root, final String selector) {
      */
     public final Element wrap(final Element root, final String selector, final String wrapper) {
         final Iterable<Element> elements; // Selected elements
+        final OperationRun      run;      // Operation call
 
         Objects.requireNonNull(selector, "Received a null pointer as selector");
         Objects.requireNonNull(wrapper, "Received a null pointer as HTML wrap");
@@ -297,14 +512,151 @@ public final Element wrap(final Element root, final String selector, final Strin
         if (root == null) {
             log.warn("Received null root");
         } else {
+            run = new OperationRun(root, "wrap", selector);
             // Selects and iterates over the elements
-            elements = root.select(selector);
+            elements = selectors.select(root, selector);
             for (final Element element : elements) {
-                element.wrap(wrapper);
+                run.count(ElementOperations.wrap(element, wrapper));
             }
+            run.finish();
         }
 
         return root;
     }
 
+    /**
+     * Writes the HTML of the element contents, with the output settings of its document.
+     * <p>
+     * As with {@link #html(Element) html}, if the element was returned by {@link #parse(String, String, boolean) parse}
+     * for a document changed through the tools alone, and no tool changed it, the same code received by {@code parse}
+     * is written.
+     *
+     * @param root
+     *            element to write
+     * @param out
+     *            where the HTML is written
+     * @throws IOException
+     *             if the HTML can't be written
+     */
+    public final void write(final Element root, final Appendable out) throws IOException {
+        final String source; // Code parsed into the element
+
+        Objects.requireNonNull(out, "Received a null pointer as output");
+
+        if (root == null) {
+            log.warn("Received null root");
+        } else {
+            source = changes.getSource(root);
+            if (source == null) {
+                write(root, out, getOutputSettings(root));
+            } else {
+                out.append(source);
+            }
+        }
+    }
+
+    /**
+     * Writes the HTML of the element contents with the received output settings.
+     * <p>
+     * The element is serialized straight into the output, without building its code as a string. The settings replace
+     * those of its document only while writing.
+     *
+     * @param root
+     *            element to write
+     * @param out
+     *            where the HTML is written
+     * @param settings
+     *            output settings, such as pretty printing or the escape mode
+     * @throws IOException
+     *             if the HTML can't be written
+     */
+    public final void write(final Element root, final Appendable out, final OutputSettings settings)
+            throws IOException {
+        final Node           top;      // Root of the element tree
+        final Document       document; // Document for the settings
+        final OutputSettings previous; // Settings of the document
+        final OperationRun   run;      // Operation call
+
+        Objects.requireNonNull(out, "Received a null pointer as output");
+        Objects.requireNonNull(settings, "Received a null pointer as output settings");
+
+        if (root == null) {
+            log.warn("Received null root");
+        } else {
+            run = new OperationRun(root, "write", null);
+            top = root.root();
+            if (top instanceof Document) {
+                document = (Document) top;
+            } else {
+                // Elements out of a document take the settings from a temporary one
+                document = new Document("");
+                document.appendChild(top);
+            }
+            previous = document.outputSettings();
+            document.outputSettings(settings);
+            try {
+                root.html(out);
+            } catch (final SerializationException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw e;
+            } finally {
+                document.outputSettings(previous);
+                if (top != document) {
+                    top.remove();
+                }
+                run.finish();
+            }
+        }
+    }
+
+    /**
+     * Writes the HTML of the element contents into the stream, encoded with the charset from the received output
+     * settings.
+     * <p>
+     * The stream is flushed, but not closed.
+     *
+     * @param root
+     *            element to write
+     * @param out
+     *            where the HTML is written
+     * @param settings
+     *            output settings, such as pretty printing, the escape mode or the charset
+     * @throws IOException
+     *             if the HTML can't be written
+     */
+    public final void write(final Element root, final OutputStream out, final OutputSettings settings)
+            throws IOException {
+        final Writer writer; // Writer encoding into the stream
+
+        Objects.requireNonNull(out, "Received a null pointer as output");
+        Objects.requireNonNull(settings, "Received a null pointer as output settings");
+
+        writer = new BufferedWriter(new OutputStreamWriter(out, settings.charset()));
+        write(root, writer, settings);
+        writer.flush();
+    }
+
+    /**
+     * Returns the output settings of the element document, or the default ones if it has no document.
+     *
+     * @param root
+     *            element to write
+     * @return the settings for writing the element
+     */
+    private final OutputSettings getOutputSettings(final Element root) {
+        final Document       document; // Element document
+        final OutputSettings settings; // Settings for writing
+
+        document = root.ownerDocument();
+        if (document == null) {
+            settings = new OutputSettings();
+        } else {
+            settings = document.outputSettings();
+        }
+
+        return settings;
+    }
+
 }
@@ -0,0 +1,385 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jsoup.nodes.Element;
+
+import com.bernardomg.velocity.tool.parser.ParserProfile;
+
+/**
+ * Replacements for the images used as icons in a site.
+ * <p>
+ * Each icon is identified by the end of the image path, such as {@code images/add.gif}, and is replaced by an HTML
+ * element. The replacement HTML is parsed once, when the table is created, and the tools insert copies of it.
+ * <p>
+ * Icons are indexed by their file name, so finding the icon for an image takes the same time no matter how many icons
+ * the table contains.
+ * <p>
+ * The {@link #defaults() default table} replaces the Maven Site icons with Font Awesome icons. Custom tables can be
+ * created from a {@code Map} or loaded from a properties file, where the keys are the image paths and the values the
+ * replacement HTML.
+ * <p>
+ * Tables are immutable and can be shared between threads.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class IconTable {
+
+    /**
+     * Icon for a single image.
+     */
+    static final class Icon {
+
+        /**
+         * Position in the table. When several icons match the same image the first one is used.
+         */
+        private final int     position;
+
+        /**
+         * End of the image path, in lower case.
+         */
+        private final String  suffix;
+
+        /**
+         * Replacement for the images. Never edited, only copied.
+         */
+        private final Element template;
+
+        /**
+         * Constructs an icon.
+         *
+         * @param index
+         *            position in the table
+         * @param path
+         *            end of the image path
+         * @param replacement
+         *            replacement for the images
+         */
+        private Icon(final int index, final String path, final Element replacement) {
+            super();
+
+            position = index;
+            suffix = path.toLowerCase(Locale.ENGLISH);
+            template = replacement;
+        }
+
+        /**
+         * Returns the replacement template. It should not be edited.
+         *
+         * @return the replacement template
+         */
+        final Element getTemplate() {
+            return template;
+        }
+
+    }
+
+    /**
+     * Replacements for the default Maven Site icons.
+     */
+    private static final IconTable              DEFAULTS = of(defaultIcons());
+
+    /**
+     * Tables already loaded, by location.
+     */
+    private static final Map<String, IconTable> LOADED   = new ConcurrentHashMap<>();
+
+    /**
+     * Icons, by image file name. Only contains icons whose path includes the full file name.
+     */
+    private final Map<String, List<Icon>>       byFileName;
+
+    /**
+     * Icons, by image path.
+     */
+    private final Map<String, Icon>             icons;
+
+    /**
+     * Icons whose path doesn't include the full file name, such as {@code add.gif}, which also matches
+     * {@code images/fastadd.gif}. These have to be checked against all the images.
+     */
+    private final List<Icon>                    partial;
+
+    /**
+     * Constructs a table with the received icons.
+     *
+     * @param parsed
+     *            icons, by image path
+     */
+    private IconTable(final Map<String, Icon> parsed) {
+        super();
+
+        final Map<String, List<Icon>> indexed;   // Icons by file name
+        final List<Icon>              unindexed; // Icons without full file name
+        int                           nameStart; // Start of the file name
+
+        icons = Collections.unmodifiableMap(parsed);
+
+        indexed = new HashMap<>();
+        unindexed = new ArrayList<>();
+        for (final Icon icon : parsed.values()) {
+            nameStart = icon.suffix.lastIndexOf('/');
+            if (nameStart < 0) {
+                unindexed.add(icon);
+            } else {
+                indexed.computeIfAbsent(icon.suffix.substring(nameStart + 1), k -> new ArrayList<>())
+                    .add(icon);
+            }
+        }
+        byFileName = Map.copyOf(indexed);
+        partial = List.copyOf(unindexed);
+    }
+
+    /**
+     * Returns the replacements for the default Maven Site icons.
+     *
+     * @return the default icons table
+     */
+    public static final IconTable defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Returns the table stored in the received location, which can be a classpath resource or a file.
+     * <p>
+     * The location should point to a properties file, where each key is the end of an image path, and each value the
+     * HTML which will replace those images. Each location is loaded only once, and then the same table is returned.
+     *
+     * @param location
+     *            classpath resource or file with the icons
+     * @return the table stored in the location
+     */
+    public static final IconTable load(final String location) {
+        Objects.requireNonNull(location, "Received a null pointer as location");
+
+        return LOADED.computeIfAbsent(location, IconTable::read);
+    }
+
+    /**
+     * Returns a table with the received icons.
+     *
+     * @param icons
+     *            {@code Map} where the key is the end of the image path, and the value the HTML which will replace it
+     * @return a table with the icons
+     */
+    public static final IconTable of(final Map<String, String> icons) {
+        final Map<String, Icon> parsed;   // Parsed icons
+        Element                 body;     // Parsed replacement
+        Element                 template; // Replacement element
+
+        Objects.requireNonNull(icons, "Received a null pointer as icons");
+
+        parsed = new LinkedHashMap<>();
+        for (final Entry<String, String> icon : icons.entrySet()) {
+            if (icon.getKey()
+                .isEmpty()) {
+                throw new IllegalArgumentException("Received an empty icon path");
+            }
+
+            body = ParserProfile.shared()
+                .parse(icon.getValue(), "")
+                .body();
+            if (!body.children()
+                .isEmpty()) {
+                // Detached, so it doesn't keep the parsed document
+                template = body.child(0);
+                template.remove();
+                parsed.put(icon.getKey(), new Icon(parsed.size(), icon.getKey(), template));
+            }
+        }
+
+        return new IconTable(parsed);
+    }
+
+    /**
+     * Returns the HTML for the default Maven Site icons.
+     *
+     * @return the HTML for the default icons, by image path
+     */
+    private static final Map<String, String> defaultIcons() {
+        final Map<String, String> replacements;
+
+        replacements = new LinkedHashMap<>();
+        replacements.put("images/add.gif",
+            "<span><span class=\"fa-solid fa-plus\" aria-hidden=\"true\"></span><span class=\"sr-only\">Addition</span></span>");
+        replacements.put("images/remove.gif",
+            "<span><span class=\"fa-solid fa-minus\" aria-hidden=\"true\"></span><span class=\"sr-only\">Remove</span></span>");
+        replacements.put("images/fix.gif",
+            "<span><span class=\"fa-solid fa-wrench\" aria-hidden=\"true\"></span><span class=\"sr-only\">Fix</span></span>");
+        replacements.put("images/update.gif",
+            "<span><span class=\"fa-solid fa-rotate\" aria-hidden=\"true\"></span><span class=\"sr-only\">Refresh</span></span>");
+        replacements.put("images/icon_help_sml.gif",
+            "<span><span class=\"fa-solid fa-question\" aria-hidden=\"true\"></span><span class=\"sr-only\">Question</span></span>");
+        replacements.put("images/icon_success_sml.gif",
+            "<span><span class=\"navbar-icon fa-solid fa-check\" aria-hidden=\"true\" title=\"Passed\" aria-label=\"Passed\"></span><span class=\"sr-only\">Passed</span></span>");
+        replacements.put("images/icon_warning_sml.gif",
+            "<span><span class=\"fa-solid fa-exclamation\" aria-hidden=\"true\"></span><span class=\"sr-only\">Warning</span>");
+        replacements.put("images/icon_error_sml.gif",
+            "<span><span class=\"navbar-icon fa-solid fa-xmark\" aria-hidden=\"true\" title=\"Failed\" aria-label=\"Failed\"></span><span class=\"sr-only\">Failed</span></span>");
+        replacements.put("images/icon_info_sml.gif",
+            "<span><span class=\"fa-solid fa-info\" aria-hidden=\"true\"></span><span class=\"sr-only\">Info</span></span>");
+
+        return replacements;
+    }
+
+    /**
+     * Reads the table stored in the received location.
+     * <p>
+     * The icons keep the order of the file, so the first one in it wins when several match the same image.
+     *
+     * @param location
+     *            classpath resource or file with the icons
+     * @return the table stored in the location
+     */
+    private static final IconTable read(final String location) {
+        final Properties          properties; // Icons file
+        final Map<String, String> icons;      // Icons read, in file order
+        final Path                file;       // Location as a file
+
+        icons = new LinkedHashMap<>();
+        // Properties is a hash table, the order is only kept by catching each entry as it is loaded
+        properties = new Properties() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public final synchronized Object put(final Object key, final Object value) {
+                icons.put(String.valueOf(key), String.valueOf(value));
+                return super.put(key, value);
+            }
+
+        };
+        try (InputStream resource = IconTable.class.getClassLoader()
+            .getResourceAsStream(location)) {
+            if (resource != null) {
+                properties.load(new InputStreamReader(resource, StandardCharsets.UTF_8));
+            } else {
+                file = Path.of(location);
+                if (!Files.isRegularFile(file)) {
+                    throw new IllegalArgumentException("No icons table found at " + location);
+                }
+                try (InputStream input = Files.newInputStream(file)) {
+                    properties.load(new InputStreamReader(input, StandardCharsets.UTF_8));
+                }
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed reading icons table at " + location, e);
+        }
+
+        return of(icons);
+    }
+
+    /**
+     * Returns the icon for the received image path, or {@code null} if there is none.
+     * <p>
+     * Like the {@code [src$=path]} selector, an icon matches any image path ending with its path, ignoring case. If
+     * several icons match, the first one in the table is returned.
+     *
+     * @param src
+     *            image path
+     * @return the icon for the image, or {@code null} if there is none
+     */
+    final Icon find(final String src) {
+        final String     path;       // Image path in lower case
+        final List<Icon> candidates; // Icons for the file name
+        Icon             found;      // Icon found
+
+        path = src.toLowerCase(Locale.ENGLISH);
+
+        found = null;
+        candidates = byFileName.get(path.substring(path.lastIndexOf('/') + 1));
+        if (candidates != null) {
+            found = first(found, candidates, path);
+        }
+        if (!partial.isEmpty()) {
+            found = first(found, partial, path);
+        }
+
+        return found;
+    }
+
+    /**
+     * Returns the image paths which will be replaced.
+     *
+     * @return the image paths
+     */
+    public final Collection<String> getPaths() {
+        return icons.keySet();
+    }
+
+    /**
+     * Returns the icons, by image path.
+     *
+     * @return the icons
+     */
+    final Collection<Icon> getIcons() {
+        return icons.values();
+    }
+
+    /**
+     * Returns the first icon, in table order, between the current one and those in the candidates matching the path.
+     *
+     * @param current
+     *            icon found until now, may be {@code null}
+     * @param candidates
+     *            icons to check
+     * @param path
+     *            image path, in lower case
+     * @return the first icon matching the path
+     */
+    private final Icon first(final Icon current, final List<Icon> candidates, final String path) {
+        Icon found; // Icon found
+
+        found = current;
+        for (final Icon candidate : candidates) {
+            if (((found == null) || (candidate.position < found.position)) && path.endsWith(candidate.suffix)) {
+                found = candidate;
+            }
+        }
+
+        return found;
+    }
+
+}
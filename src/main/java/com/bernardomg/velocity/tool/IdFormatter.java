@@ -0,0 +1,206 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.Objects;
+
+/**
+ * Formats text into valid ids and internal links, as done by {@link SiteTool}.
+ * <p>
+ * The text is trimmed, spaces and underscores are replaced by hyphens, and then anything which is not an ASCII letter,
+ * digit, hyphen or {@code #} is removed.
+ * <p>
+ * The formatting is done in a single pass, classifying each ASCII character through a lookup table. Any other
+ * character is removed. When the text is already valid it is returned without copying it.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class IdFormatter {
+
+    /**
+     * The character is replaced by a hyphen.
+     */
+    private static final byte   HYPHEN = 1;
+
+    /**
+     * The character is kept.
+     */
+    private static final byte   KEEP   = 0;
+
+    /**
+     * The character is removed.
+     */
+    private static final byte   REJECT = 2;
+
+    /**
+     * What to do with each ASCII character.
+     */
+    private static final byte[] ASCII  = asciiTable();
+
+    /**
+     * Private constructor to avoid initialization.
+     */
+    private IdFormatter() {
+        super();
+    }
+
+    /**
+     * Formats the received text into a valid id or internal link.
+     *
+     * @param id
+     *            text to format
+     * @return a valid id
+     */
+    public static final String format(final String id) {
+        final int    start;     // First character after trimming
+        final int    end;       // End after trimming
+        final char[] formatted; // Formatted characters
+        final String result;    // Formatted id
+        int          position;  // Current position
+        int          length;    // Formatted length
+        char         current;   // Current character
+
+        Objects.requireNonNull(id, "Received a null pointer as id");
+
+        start = trimStart(id);
+        end = trimEnd(id, start);
+
+        // Skips the characters which are kept
+        position = start;
+        while ((position < end) && (classify(id.charAt(position)) == KEEP)) {
+            position++;
+        }
+
+        if (position == end) {
+            // Nothing to change
+            result = id.substring(start, end);
+        } else {
+            formatted = new char[end - start];
+            id.getChars(start, position, formatted, 0);
+            length = position - start;
+            for (; position < end; position++) {
+                current = id.charAt(position);
+                switch (classify(current)) {
+                    case KEEP:
+                        formatted[length] = current;
+                        length++;
+                        break;
+                    case HYPHEN:
+                        formatted[length] = '-';
+                        length++;
+                        break;
+                    default:
+                        // Rejected
+                }
+            }
+            result = new String(formatted, 0, length);
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds the table with what to do with each ASCII character.
+     *
+     * @return the table for ASCII characters
+     */
+    private static final byte[] asciiTable() {
+        final byte[] table;
+
+        table = new byte[128];
+        for (int c = 0; c < table.length; c++) {
+            if (((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z')) || ((c >= '0') && (c <= '9')) || (c == '#')
+                    || (c == '-')) {
+                table[c] = KEEP;
+            } else if ((c == ' ') || (c == '_')) {
+                table[c] = HYPHEN;
+            } else {
+                table[c] = REJECT;
+            }
+        }
+
+        return table;
+    }
+
+    /**
+     * Returns what to do with the character.
+     * <p>
+     * Only ASCII characters are valid, the rest, including surrogates, are rejected.
+     *
+     * @param character
+     *            character to classify
+     * @return what to do with the character
+     */
+    private static final byte classify(final char character) {
+        final byte type;
+
+        if (character < ASCII.length) {
+            type = ASCII[character];
+        } else {
+            type = REJECT;
+        }
+
+        return type;
+    }
+
+    /**
+     * Returns the end of the text, ignoring trailing whitespace and control characters, like {@link String#trim()}.
+     *
+     * @param text
+     *            text to trim
+     * @param start
+     *            start of the text
+     * @return the end of the text
+     */
+    private static final int trimEnd(final String text, final int start) {
+        int end;
+
+        end = text.length();
+        while ((end > start) && (text.charAt(end - 1) <= ' ')) {
+            end--;
+        }
+
+        return end;
+    }
+
+    /**
+     * Returns the start of the text, ignoring leading whitespace and control characters, like {@link String#trim()}.
+     *
+     * @param text
+     *            text to trim
+     * @return the start of the text
+     */
+    private static final int trimStart(final String text) {
+        int start;
+
+        start = 0;
+        while ((start < text.length()) && (text.charAt(start) <= ' ')) {
+            start++;
+        }
+
+        return start;
+    }
+
+}
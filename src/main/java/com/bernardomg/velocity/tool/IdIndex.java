@@ -0,0 +1,147 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jsoup.nodes.Element;
+
+/**
+ * The ids in use in a page, which hands out unique ids.
+ * <p>
+ * An id which is already in use receives the first free numeric suffix, such as {@code usage-1} or {@code usage-2}.
+ * Both checking an id and finding its suffix take constant time, as the last suffix given to each id is remembered, so
+ * giving ids to all the headings of a page is linear on their number.
+ * <p>
+ * The index is built for a single page and is not thread-safe.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class IdIndex {
+
+    /**
+     * Heading tags, whose ids are given through the index.
+     */
+    private static final Set<String>   HEADINGS = Set.of("h1", "h2", "h3", "h4", "h5", "h6");
+
+    /**
+     * Last suffix given to each id.
+     */
+    private final Map<String, Integer> suffixes = new HashMap<>();
+
+    /**
+     * Ids in use.
+     */
+    private final Set<String>          used     = new HashSet<>();
+
+    /**
+     * Constructs an empty index.
+     */
+    IdIndex() {
+        super();
+    }
+
+    /**
+     * Returns an index with the ids of all the elements in the received root, other than the headings.
+     * <p>
+     * The ids of the headings are left out, as they are expected to be given again through {@link #claim(String)}.
+     *
+     * @param root
+     *            root element to index
+     * @return an index with the ids in the root
+     */
+    static final IdIndex of(final Element root) {
+        final IdIndex index; // Index with the ids
+
+        index = new IdIndex();
+        for (final Element element : root.getElementsByAttribute("id")) {
+            if (!HEADINGS.contains(element.normalName())) {
+                index.add(element.id());
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Marks the received id as used, even if it already was.
+     *
+     * @param id
+     *            id in use
+     */
+    final void add(final String id) {
+        used.add(id);
+    }
+
+    /**
+     * Returns an unique id based on the received one, and marks it as used.
+     *
+     * @param id
+     *            id to claim
+     * @return the same id if it is free, otherwise the id with the first free suffix
+     */
+    final String claim(final String id) {
+        int    suffix;  // Suffix for the id
+        String claimed; // Unique id
+
+        if (used.add(id)) {
+            claimed = id;
+        } else {
+            suffix = suffixes.getOrDefault(id, 0);
+            do {
+                suffix++;
+                claimed = id + "-" + suffix;
+            } while (!used.add(claimed));
+            suffixes.put(id, suffix);
+        }
+
+        return claimed;
+    }
+
+    /**
+     * Indicates if the received id is in use.
+     *
+     * @param id
+     *            id to check
+     * @return {@code true} if the id is in use, {@code false} otherwise
+     */
+    final boolean contains(final String id) {
+        return used.contains(id);
+    }
+
+    /**
+     * Returns the ids in use.
+     *
+     * @return the ids in use
+     */
+    final Set<String> getIds() {
+        return Collections.unmodifiableSet(used);
+    }
+
+}
@@ -0,0 +1,715 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.NodeTraversor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bernardomg.velocity.tool.BatchOperation.Effect;
+import com.bernardomg.velocity.tool.IconTable.Icon;
+import com.bernardomg.velocity.tool.cache.SelectorCache;
+import com.bernardomg.velocity.tool.change.ChangeTracker;
+import com.bernardomg.velocity.tool.metrics.ToolMetrics;
+import com.bernardomg.velocity.tool.parser.ParserProfile;
+
+/**
+ * Sequence of tool operations applied together, walking the document as few times as possible.
+ * <p>
+ * Each tool method selects its elements by walking the whole document. A batch instead receives the operations, in
+ * order, and applies them with a single walk for each group of consecutive operations which can't affect what the
+ * others select. The result is the same as calling the tool methods in the same order.
+ * <p>
+ * For example, these calls, which would walk the document four times:
+ * <p>
+ * {@code $siteTool.fixHeadingIds( $body )}<br>
+ * {@code $siteTool.fixAnchorLinks( $body )}<br>
+ * {@code $htmlTool.addClass( $body, "table", "table" )}<br>
+ * {@code $htmlTool.unwrap( $body, "a:not([href])" )}
+ * <p>
+ * Can be applied with a single walk:
+ * <p>
+ * {@code #set( $batch = $htmlTool.batch().fixHeadingIds().fixAnchorLinks().addClass( "table", "table" ).unwrap( "a:not([href])" ) )}<br>
+ * {@code #set( $empty = $batch.apply( $body ) )}
+ * <p>
+ * Operations which only change attributes can always share a walk, unless a later selector reads that attribute.
+ * Operations which move or create elements share a walk with the following ones only when those select by tag, and
+ * without combinators or structural pseudo selectors. Retagging, and custom operations, always end the walk.
+ * <p>
+ * Each operation which changes the document is recorded in the shared {@link ChangeTracker}, as the tools do. The
+ * operations are measured into the current {@link ToolMetrics} without the walk, which is measured along the whole
+ * batch, as the {@code batch} operation.
+ * <p>
+ * Batches are immutable, each method returns a new batch with the operation added, and so they can be shared between
+ * threads.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class OperationBatch {
+
+    /**
+     * Logger for the class.
+     */
+    private static final Logger              log = LoggerFactory.getLogger(OperationBatch.class);
+
+    /**
+     * Operations in the batch, in order.
+     */
+    private final List<BatchOperation>       operations;
+
+    /**
+     * Compiled selectors.
+     */
+    private final SelectorCache              selectors;
+
+    /**
+     * Operations grouped by the walk which selects their elements.
+     */
+    private final List<List<BatchOperation>> stages;
+
+    /**
+     * Constructs an empty batch using the shared selector cache.
+     */
+    public OperationBatch() {
+        this(SelectorCache.shared(), Collections.emptyList());
+    }
+
+    /**
+     * Constructs a batch with the received operations.
+     *
+     * @param cache
+     *            compiled selectors
+     * @param ops
+     *            operations in the batch
+     */
+    private OperationBatch(final SelectorCache cache, final List<BatchOperation> ops) {
+        super();
+
+        selectors = cache;
+        operations = List.copyOf(ops);
+        stages = group(operations);
+    }
+
+    /**
+     * Constructs an empty batch.
+     *
+     * @param cache
+     *            compiled selectors
+     */
+    OperationBatch(final SelectorCache cache) {
+        this(cache, Collections.emptyList());
+    }
+
+    /**
+     * Returns the extension at the end of the path, without the point.
+     *
+     * @param path
+     *            path to read
+     * @return the path extension, or {@code null} if it has none
+     */
+    private static final String extension(final String path) {
+        final int point; // Last point in the file name
+
+        point = path.lastIndexOf('.');
+
+        return ((point < 0) || (path.indexOf('/', point) >= 0)) ? null : path.substring(point + 1)
+            .toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Groups the operations by the walk which will select their elements.
+     *
+     * @param ops
+     *            operations to group
+     * @return the operations grouped by walk
+     */
+    private static final List<List<BatchOperation>> group(final List<BatchOperation> ops) {
+        final List<List<BatchOperation>> grouped; // Operations grouped by walk
+        List<BatchOperation>             current; // Current group
+        boolean                          depends; // The operation depends on the current group
+
+        grouped = new ArrayList<>();
+        current = new ArrayList<>();
+        for (final BatchOperation operation : ops) {
+            depends = false;
+            for (final BatchOperation previous : current) {
+                depends = depends || operation.dependsOn(previous);
+            }
+
+            if (depends) {
+                grouped.add(List.copyOf(current));
+                current = new ArrayList<>();
+            }
+            current.add(operation);
+        }
+        if (!current.isEmpty()) {
+            grouped.add(List.copyOf(current));
+        }
+
+        return List.copyOf(grouped);
+    }
+
+    /**
+     * Checks if the element is still inside the root.
+     *
+     * @param element
+     *            element to check
+     * @param root
+     *            root element
+     * @return {@code true} if the element is inside the root, {@code false} otherwise
+     */
+    private static final boolean isInside(final Element element, final Element root) {
+        Element current; // Current ancestor
+
+        current = element;
+        while ((current != null) && (current != root)) {
+            current = current.parent();
+        }
+
+        return current != null;
+    }
+
+    /**
+     * Returns the tags of the received element and all its descendants.
+     *
+     * @param element
+     *            element to read
+     * @return all the tags in the element
+     */
+    private static final Set<String> tags(final Element element) {
+        return element.getAllElements()
+            .stream()
+            .map(Element::normalName)
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Adds an operation to the batch.
+     * <p>
+     * As the batch doesn't know what the change affects, the next operations will always select again.
+     *
+     * @param name
+     *            operation name
+     * @param selector
+     *            CSS selector for the elements to change
+     * @param change
+     *            change to apply to each selected element
+     * @return a batch with the operation added
+     */
+    public final OperationBatch add(final String name, final String selector, final Consumer<Element> change) {
+        Objects.requireNonNull(name, "Received a null pointer as name");
+        Objects.requireNonNull(change, "Received a null pointer as change");
+
+        // Unknown changes are always taken as changing the element
+        return with(name, selector, e -> {
+            change.accept(e);
+            return true;
+        }, Effect.ANY, null, null);
+    }
+
+    /**
+     * Adds the operation from {@link HtmlTool#addClass(Element, String, String) addClass}.
+     *
+     * @param selector
+     *            CSS selector for the elements
+     * @param className
+     *            new class for the elements
+     * @return a batch with the operation added
+     */
+    public final OperationBatch addClass(final String selector, final String className) {
+        Objects.requireNonNull(className, "Received a null pointer as class");
+
+        return with("addClass", selector, e -> ElementOperations.addClass(e, className), Effect.ATTRIBUTE, "class",
+            Set.of());
+    }
+
+    /**
+     * Applies all the operations, in order, to the received element.
+     *
+     * @param root
+     *            root element for the operations
+     * @return transformed element
+     */
+    public final Element apply(final Element root) {
+        if (root == null) {
+            log.warn("Received null root");
+        } else {
+            applyStages(root);
+        }
+
+        return root;
+    }
+
+    /**
+     * Applies all the operations, in order, to the received HTML code, and returns the changed code.
+     * <p>
+     * The code is scanned first, and operations which can't change it are skipped. If none is left the code is returned
+     * untouched, without parsing it. Otherwise the code is parsed and changed, and its HTML is returned, unless no
+     * operation changed it, in which case the same code is returned.
+     * <p>
+     * The code may be a full page or the contents of its body, and the same is returned. A full page, which starts
+     * with a doctype or the {@code <html>}, {@code <head>} or {@code <body>} tags, is returned whole, while for body
+     * contents only the changed body contents are returned.
+     *
+     * @param html
+     *            HTML code to change, either a full page or the contents of its body
+     * @return the changed HTML code, or the same code if no operation applies
+     * @see PageScan
+     */
+    public final String applyToHtml(final String html) {
+        final OperationBatch filtered; // Operations which may change the page
+        final Document       document; // Parsed page
+        final String         result;   // Changed code
+
+        if (html == null) {
+            log.warn("Received null HTML");
+            result = null;
+        } else {
+            filtered = filter(PageScan.of(html));
+            if (filtered.operations.isEmpty()) {
+                result = html;
+            } else {
+                document = ParserProfile.shared()
+                    .parse(html, "");
+                if (filtered.applyStages(document.body())
+                    .isEmpty()) {
+                    // Nothing changed
+                    result = html;
+                } else if (PageScan.isDocument(html)) {
+                    result = document.outerHtml();
+                } else {
+                    result = document.body()
+                        .html();
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a batch with only the operations which may change a page with the received contents.
+     * <p>
+     * The operations which remain are applied in the same order, and give the same result as the full batch.
+     *
+     * @param scan
+     *            what the page code contains
+     * @return a batch with the operations which may change the page
+     */
+    public final OperationBatch filter(final PageScan scan) {
+        final List<BatchOperation> kept;     // Operations which may change the page
+        final Set<String>          created;  // Tags created by the kept operations
+        final Set<String>          changed;  // Attributes changed by the kept operations
+        final OperationBatch       filtered; // Batch with the kept operations
+        boolean                    unknown;  // Some kept operation may have changed anything
+
+        Objects.requireNonNull(scan, "Received a null pointer as scan");
+
+        kept = new ArrayList<>(operations.size());
+        created = new HashSet<>();
+        changed = new HashSet<>();
+        unknown = false;
+        for (final BatchOperation operation : operations) {
+            if (unknown || operation.mayApply(scan, created, changed)) {
+                kept.add(operation);
+                if (operation.getCreatedTags() == null) {
+                    // From here on the page may contain anything
+                    unknown = true;
+                } else {
+                    created.addAll(operation.getCreatedTags());
+                }
+                if (operation.getAttribute() != null) {
+                    changed.add(operation.getAttribute());
+                }
+            }
+        }
+
+        if (kept.size() == operations.size()) {
+            filtered = this;
+        } else {
+            filtered = new OperationBatch(selectors, kept);
+        }
+
+        return filtered;
+    }
+
+    /**
+     * Adds the operation from {@link SiteTool#fixAnchorLinks(Element) fixAnchorLinks}.
+     *
+     * @return a batch with the operation added
+     */
+    public final OperationBatch fixAnchorLinks() {
+        return with("fixAnchorLinks", "a", ElementOperations::fixAnchorLink, Effect.ATTRIBUTE, "href", Set.of(),
+            PageScan::hasAnchorLinks, "href");
+    }
+
+    /**
+     * Adds the operation from {@link SiteTool#fixHeadingIds(Element) fixHeadingIds}.
+     *
+     * @return a batch with the operation added
+     */
+    public final OperationBatch fixHeadingIds() {
+        return with("fixHeadingIds", "h1,h2,h3,h4,h5,h6", ElementOperations::fixHeadingId, Effect.ATTRIBUTE, "id",
+            Set.of());
+    }
+
+    /**
+     * Returns the number of walks over the document needed to apply the batch.
+     *
+     * @return the number of walks over the document
+     */
+    public final int getPasses() {
+        return stages.size();
+    }
+
+    /**
+     * Returns the number of operations in the batch.
+     *
+     * @return the number of operations
+     */
+    public final int getSize() {
+        return operations.size();
+    }
+
+    /**
+     * Adds the operation from {@link HtmlTool#removeAttribute(Element, String, String) removeAttribute}.
+     *
+     * @param selector
+     *            CSS selector for the elements
+     * @param attribute
+     *            attribute to remove
+     * @return a batch with the operation added
+     */
+    public final OperationBatch removeAttribute(final String selector, final String attribute) {
+        Objects.requireNonNull(attribute, "Received a null pointer as attribute");
+
+        return with("removeAttribute", selector, e -> ElementOperations.removeAttribute(e, attribute),
+            Effect.ATTRIBUTE, attribute, Set.of());
+    }
+
+    /**
+     * Adds the operation from {@link HtmlTool#removeClass(Element, String, String) removeClass}.
+     *
+     * @param selector
+     *            CSS selector for the elements
+     * @param className
+     *            class to remove
+     * @return a batch with the operation added
+     */
+    public final OperationBatch removeClass(final String selector, final String className) {
+        Objects.requireNonNull(className, "Received a null pointer as className");
+
+        return with("removeClass", selector, e -> ElementOperations.removeClass(e, className), Effect.ATTRIBUTE,
+            "class", Set.of());
+    }
+
+    /**
+     * Adds the operation from {@link Html5UpdateTool#removePointsFromAttr(Element, String, String)
+     * removePointsFromAttr}.
+     *
+     * @param selector
+     *            CSS selector for the elements
+     * @param attr
+     *            attribute to clean
+     * @return a batch with the operation added
+     */
+    public final OperationBatch removePointsFromAttr(final String selector, final String attr) {
+        Objects.requireNonNull(attr, "Received a null pointer as attribute");
+
+        return with("removePointsFromAttr", selector, e -> ElementOperations.removePointsFromAttr(e, attr),
+            Effect.ATTRIBUTE, attr, Set.of());
+    }
+
+    /**
+     * Adds the operation from {@link HtmlTool#retag(Element, String, String) retag}.
+     *
+     * @param selector
+     *            CSS selector for the elements
+     * @param tag
+     *            new tag for the elements
+     * @return a batch with the operation added
+     */
+    public final OperationBatch retag(final String selector, final String tag) {
+        Objects.requireNonNull(tag, "Received a null pointer as tag");
+
+        return with("retag", selector, e -> ElementOperations.retag(e, tag), Effect.ANY, null, null);
+    }
+
+    /**
+     * Adds the operation from {@link HtmlTool#swapTagWithParent(Element, String) swapTagWithParent}.
+     *
+     * @param selector
+     *            CSS selector for the elements
+     * @return a batch with the operation added
+     */
+    public final OperationBatch swapTagWithParent(final String selector) {
+        return with("swapTagWithParent", selector, ElementOperations::swapTagWithParent, Effect.TREE, null, Set.of());
+    }
+
+    /**
+     * Adds the operation from {@link SiteTool#transformIcons(Element) transformIcons}, replacing the default icons.
+     *
+     * @return a batch with the operation added
+     */
+    public final OperationBatch transformIcons() {
+        return transformIcons(IconTable.defaults());
+    }
+
+    /**
+     * Adds the operation from {@link SiteTool#transformIcons(Element) transformIcons}, replacing the received icons.
+     *
+     * @param table
+     *            icons to replace
+     * @return a batch with the operation added
+     */
+    public final OperationBatch transformIcons(final IconTable table) {
+        final Set<String>         created;    // Tags in the replacements
+        final Set<String>         extensions; // Extensions of the icons
+        final Predicate<PageScan> prefilter;  // Checks the page has images with those extensions
+
+        Objects.requireNonNull(table, "Received a null pointer as icons");
+
+        created = table.getIcons()
+            .stream()
+            .map(Icon::getTemplate)
+            .flatMap(t -> tags(t).stream())
+            .collect(Collectors.toUnmodifiableSet());
+
+        extensions = table.getPaths()
+            .stream()
+            .map(OperationBatch::extension)
+            .collect(Collectors.toSet());
+        if (extensions.contains(null)) {
+            // Some icon may match any image
+            prefilter = null;
+        } else {
+            prefilter = scan -> extensions.stream()
+                .anyMatch(scan::hasExtension);
+        }
+
+        return with("transformIcons", "img", e -> ElementOperations.replaceIcon(e, table), Effect.TREE, null,
+            created, prefilter, "src");
+    }
+
+    /**
+     * Adds the operation from {@link SiteTool#transformImagesToFigures(Element) transformImagesToFigures}.
+     *
+     * @return a batch with the operation added
+     */
+    public final OperationBatch transformImagesToFigures() {
+        return with("transformImagesToFigures", "img", ElementOperations::wrapInFigure, Effect.TREE, null,
+            Set.of("figure", "figcaption")).with("transformImagesToFigures", "figure",
+                ElementOperations::unwrapParagraph, Effect.TREE, null, Set.of());
+    }
+
+    /**
+     * Adds the operation from {@link HtmlTool#unwrap(Element, String) unwrap}.
+     *
+     * @param selector
+     *            CSS selector for the elements
+     * @return a batch with the operation added
+     */
+    public final OperationBatch unwrap(final String selector) {
+        return with("unwrap", selector, ElementOperations::unwrap, Effect.TREE, null, Set.of());
+    }
+
+    /**
+     * Adds the operation from {@link Html5UpdateTool#updateTableHeads(Element) updateTableHeads}.
+     *
+     * @return a batch with the operation added
+     */
+    public final OperationBatch updateTableHeads() {
+        return with("updateTableHeads", "table > tbody > tr:has(th)", ElementOperations::moveToTableHead, Effect.TREE,
+            null, Set.of("thead"));
+    }
+
+    /**
+     * Adds the operation from {@link HtmlTool#wrap(Element, String, String) wrap}.
+     *
+     * @param selector
+     *            CSS selector for the elements
+     * @param wrapper
+     *            HTML to use for wrapping the selected elements
+     * @return a batch with the operation added
+     */
+    public final OperationBatch wrap(final String selector, final String wrapper) {
+        Objects.requireNonNull(wrapper, "Received a null pointer as HTML wrap");
+
+        return with("wrap", selector, e -> ElementOperations.wrap(e, wrapper), Effect.TREE, null, null);
+    }
+
+    /**
+     * Selects the elements for all the operations in the stage with a single walk, and then applies the operations in
+     * order.
+     *
+     * @param root
+     *            root element for the operations
+     * @param stage
+     *            operations to apply
+     * @param changed
+     *            names of the operations which changed some element, where the new ones are added
+     */
+    private final void apply(final Element root, final List<BatchOperation> stage, final Set<String> changed) {
+        final List<List<Element>> selected;  // Elements selected by each operation
+        boolean                   detaching; // Some previous operation may have detached elements
+        BatchOperation            operation; // Operation to apply
+        OperationRun              run;       // Operation call
+
+        for (final BatchOperation staged : stage) {
+            SelectorCache.reset(staged.getEvaluator(), root);
+        }
+
+        selected = new ArrayList<>(stage.size());
+        for (int i = 0; i < stage.size(); i++) {
+            selected.add(new ArrayList<>());
+        }
+        NodeTraversor.traverse((node, depth) -> {
+            if (node instanceof Element) {
+                for (int i = 0; i < stage.size(); i++) {
+                    if (stage.get(i)
+                        .getEvaluator()
+                        .matches(root, (Element) node)) {
+                        selected.get(i)
+                            .add((Element) node);
+                    }
+                }
+            }
+        }, root);
+        // The evaluators are cached, they shouldn't keep the page alive
+        for (final BatchOperation staged : stage) {
+            SelectorCache.reset(staged.getEvaluator(), root);
+        }
+
+        detaching = false;
+        for (int i = 0; i < stage.size(); i++) {
+            operation = stage.get(i);
+            // The walk is shared, only the changes are measured for each operation
+            run = new OperationRun(root, operation.getName(), operation.getSelector(), true);
+            for (final Element element : selected.get(i)) {
+                // Elements removed by a previous operation wouldn't have been selected
+                if ((!detaching) || isInside(element, root)) {
+                    run.count(operation.apply(element));
+                }
+            }
+            if (run.finish()) {
+                changed.add(operation.getName());
+            }
+            detaching = detaching || operation.isDetaching();
+        }
+    }
+
+    /**
+     * Applies all the stages, in order.
+     *
+     * @param root
+     *            root element for the operations
+     * @return the names of the operations which changed some element, in order
+     */
+    private final Set<String> applyStages(final Element root) {
+        final Set<String>  changed; // Operations which changed some element
+        final OperationRun run;     // Call to the whole batch
+
+        run = new OperationRun(root, "batch", null);
+        changed = new LinkedHashSet<>();
+        for (final List<BatchOperation> stage : stages) {
+            apply(root, stage, changed);
+        }
+        run.finish();
+
+        return changed;
+    }
+
+    /**
+     * Returns a batch with the received operation added.
+     *
+     * @param name
+     *            operation name
+     * @param selector
+     *            CSS selector for the elements to change
+     * @param change
+     *            change to apply to each selected element, which tells if the element changed
+     * @param effect
+     *            what the change may affect
+     * @param attribute
+     *            attribute changed, if the effect is limited to an attribute
+     * @param created
+     *            tags of the elements the change may create, {@code null} if unknown
+     * @return a batch with the operation added
+     */
+    private final OperationBatch with(final String name, final String selector, final Predicate<Element> change,
+            final Effect effect, final String attribute, final Set<String> created) {
+        return with(name, selector, change, effect, attribute, created, null, null);
+    }
+
+    /**
+     * Returns a batch with the received operation added, which is skipped on pages whose code fails the prefilter.
+     *
+     * @param name
+     *            operation name
+     * @param selector
+     *            CSS selector for the elements to change
+     * @param change
+     *            change to apply to each selected element, which tells if the element changed
+     * @param effect
+     *            what the change may affect
+     * @param attribute
+     *            attribute changed, if the effect is limited to an attribute
+     * @param created
+     *            tags of the elements the change may create, {@code null} if unknown
+     * @param prefilter
+     *            check on the page code, which fails if the operation won't change the page
+     * @param prefilterAttribute
+     *            attribute read by the prefilter
+     * @return a batch with the operation added
+     */
+    private final OperationBatch with(final String name, final String selector, final Predicate<Element> change,
+            final Effect effect, final String attribute, final Set<String> created,
+            final Predicate<PageScan> prefilter, final String prefilterAttribute) {
+        final List<BatchOperation> ops; // Operations for the new batch
+
+        Objects.requireNonNull(selector, "Received a null pointer as selector");
+
+        ops = new ArrayList<>(operations);
+        ops.add(new BatchOperation(name, selector, selectors.evaluator(selector), change, effect, attribute, created,
+            prefilter, prefilterAttribute));
+
+        return new OperationBatch(selectors, ops);
+    }
+
+}
@@ -0,0 +1,253 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import com.bernardomg.velocity.tool.change.ChangeTracker;
+import com.bernardomg.velocity.tool.metrics.ToolInstrumentation;
+import com.bernardomg.velocity.tool.metrics.ToolMetrics;
+import com.bernardomg.velocity.tool.metrics.ToolOperationEvent;
+import com.bernardomg.velocity.tool.metrics.ToolStatistics;
+
+/**
+ * A single call to a tool operation. Counts the elements selected and changed, and once finished records the change
+ * into the shared {@link ChangeTracker}, the measures into the current {@link ToolMetrics} and the shared
+ * {@link ToolStatistics}, and commits a {@link ToolOperationEvent}.
+ * <p>
+ * The time is only measured if the metrics or the statistics are enabled, and the event is only filled if it is
+ * enabled, so by default a run costs no clock reads. Not thread-safe, each call uses its own run.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class OperationRun {
+
+    /**
+     * Elements changed.
+     */
+    private int                      changed;
+
+    /**
+     * Flight Recorder event for the call.
+     */
+    private final ToolOperationEvent event;
+
+    /**
+     * Elements selected.
+     */
+    private int                      matched;
+
+    /**
+     * Metrics receiving the measures, taken when the run starts.
+     */
+    private final ToolMetrics        metrics;
+
+    /**
+     * The run is part of another run.
+     */
+    private final boolean            nested;
+
+    /**
+     * Operation name.
+     */
+    private final String             operation;
+
+    /**
+     * Size of the code parsed, if the operation parses a page, otherwise negative.
+     */
+    private long                     parsedSize;
+
+    /**
+     * Root element for the operation.
+     */
+    private Element                  root;
+
+    /**
+     * Selector used by the operation.
+     */
+    private final String             selector;
+
+    /**
+     * Start time, in nanoseconds, if the time is measured.
+     */
+    private final long               start;
+
+    /**
+     * The shared statistics were enabled when the run started.
+     */
+    private final boolean            statistics;
+
+    /**
+     * Starts a run.
+     *
+     * @param element
+     *            root element for the operation, {@code null} if the operation doesn't change elements
+     * @param name
+     *            operation name
+     * @param sel
+     *            selector used by the operation, {@code null} if it has none
+     */
+    OperationRun(final Element element, final String name, final String sel) {
+        this(element, name, sel, false);
+    }
+
+    /**
+     * Starts a run, which may be part of another run.
+     *
+     * @param element
+     *            root element for the operation, {@code null} if the operation doesn't change elements
+     * @param name
+     *            operation name
+     * @param sel
+     *            selector used by the operation, {@code null} if it has none
+     * @param inner
+     *            the run is part of another run, which already counts its time for the page
+     */
+    OperationRun(final Element element, final String name, final String sel, final boolean inner) {
+        super();
+
+        root = element;
+        nested = inner;
+        operation = name;
+        selector = sel;
+        metrics = ToolInstrumentation.getMetrics();
+        statistics = ToolStatistics.shared()
+            .isEnabled();
+        parsedSize = -1;
+        if (metrics.isEnabled() || statistics) {
+            start = System.nanoTime();
+        } else {
+            start = 0;
+        }
+        event = new ToolOperationEvent();
+        event.begin();
+    }
+
+    /**
+     * Returns the location of the page containing the element, if known.
+     *
+     * @param element
+     *            element in the page
+     * @return the page location, or an empty string if unknown
+     */
+    private static final String getPage(final Element element) {
+        final Document document; // Page containing the element
+        final String   page;     // Page location
+
+        document = element.ownerDocument();
+        if (document == null) {
+            page = "";
+        } else {
+            page = document.location();
+        }
+
+        return page;
+    }
+
+    /**
+     * Counts an element selected by the operation.
+     *
+     * @param elementChanged
+     *            the operation changed the element
+     */
+    final void count(final boolean elementChanged) {
+        matched++;
+        if (elementChanged) {
+            changed++;
+        }
+    }
+
+    /**
+     * Finishes the run, recording its change and measures.
+     *
+     * @return {@code true} if some element changed
+     */
+    final boolean finish() {
+        final boolean timed;   // The time is measured
+        final long    elapsed; // Time taken
+        final String  page;    // Page location
+
+        timed = metrics.isEnabled() || statistics;
+        if (timed) {
+            elapsed = System.nanoTime() - start;
+        } else {
+            elapsed = 0;
+        }
+
+        if (changed > 0) {
+            ChangeTracker.shared()
+                .record(root, operation);
+        }
+        event.end();
+        if (!timed && !event.shouldCommit()) {
+            // Nothing else to record
+            page = null;
+        } else if (root == null) {
+            page = "";
+        } else {
+            page = getPage(root);
+        }
+
+        if (metrics.isEnabled()) {
+            metrics.record(operation, selector, page, matched, changed, elapsed);
+        }
+        if (statistics && (parsedSize >= 0)) {
+            ToolStatistics.shared()
+                .recordParse(page, parsedSize, elapsed);
+        } else if (statistics && !nested) {
+            // Nested runs are already counted by the outer one
+            ToolStatistics.shared()
+                .recordOperation(page, elapsed);
+        }
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.selector = selector;
+            event.matched = matched;
+            event.changed = changed;
+            event.page = page;
+            if (parsedSize >= 0) {
+                // Known without walking the page, other calls are related to it through the page location
+                event.parsedSize = parsedSize;
+            }
+            event.commit();
+        }
+
+        return changed > 0;
+    }
+
+    /**
+     * Marks the operation as parsing a page, and sets the parsed page as its root.
+     *
+     * @param element
+     *            element parsed
+     * @param size
+     *            size of the code parsed
+     */
+    final void parsed(final Element element, final long size) {
+        root = element;
+        parsedSize = size;
+    }
+}
@@ -0,0 +1,415 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * What a page contains, read from its HTML code without parsing it.
+ * <p>
+ * A single scan over the code records the tags found, the links to anchors, and the extensions of the sources, which
+ * is enough to know that many operations won't change the page. For example, table heads can't be updated on a page
+ * without tables.
+ * <p>
+ * The scan is conservative. It may report something which the parsed page won't contain, but never the opposite:
+ * <ul>
+ * <li>The tags added by the parser, such as {@code <tbody>}, {@code <tr>} or {@code <body>}, are always reported</li>
+ * <li>Attribute values with character references may hide anything, so when there are any, all the links and
+ * extensions are reported</li>
+ * <li>Code which the parser may read differently, such as a quoted attribute value containing {@code <}, makes the
+ * scan report everything</li>
+ * </ul>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class PageScan {
+
+    /**
+     * Markup which starts a full page, instead of the contents of its body.
+     */
+    private static final Set<String> DOCUMENT_STARTS = Set.of("<!doctype", "<html", "<head", "<body");
+
+    /**
+     * Tags which the parser adds even if they are missing from the code.
+     */
+    private static final Set<String> IMPLIED_TAGS    = Set.of("html", "head", "body", "tbody", "tr", "colgroup");
+
+    /**
+     * Tags whose contents are read as text.
+     */
+    private static final Set<String> TEXT_TAGS       = Set.of("script", "style", "textarea", "title");
+
+    /**
+     * Some attribute value contains a link to an anchor.
+     */
+    private boolean                  anchorLinks     = false;
+
+    /**
+     * Extensions of the {@code src} attribute values, in lower case.
+     */
+    private final Set<String>        extensions      = new HashSet<>();
+
+    /**
+     * Some attribute value contains character references.
+     */
+    private boolean                  references      = false;
+
+    /**
+     * Tags found, in lower case.
+     */
+    private final Set<String>        tags            = new HashSet<>();
+
+    /**
+     * The code may be read in a different way by the parser.
+     */
+    private boolean                  uncertain       = false;
+
+    /**
+     * Constructs an empty scan.
+     */
+    private PageScan() {
+        super();
+    }
+
+    /**
+     * Scans the received HTML code.
+     *
+     * @param html
+     *            HTML code to scan
+     * @return what the code contains
+     */
+    public static final PageScan of(final String html) {
+        final PageScan scan;  // Scan result
+        int            index; // Current position
+
+        Objects.requireNonNull(html, "Received a null pointer as HTML");
+
+        scan = new PageScan();
+        index = html.indexOf('<');
+        while ((index >= 0) && (!scan.uncertain)) {
+            index = scan.readMarkup(html, index);
+            if (index < html.length()) {
+                index = html.indexOf('<', index);
+            } else {
+                index = -1;
+            }
+        }
+
+        return scan;
+    }
+
+    /**
+     * Returns the position of the first of the received texts, ignoring case, or the code length if there is none.
+     *
+     * @param html
+     *            HTML code
+     * @param from
+     *            position where the search starts
+     * @param texts
+     *            texts to search
+     * @return the position of the first text found
+     */
+    private static final int find(final String html, final int from, final String... texts) {
+        int found; // Position found
+
+        found = html.length();
+        for (int index = from; (index < html.length()) && (found == html.length()); index++) {
+            for (final String text : texts) {
+                if (html.regionMatches(true, index, text, 0, text.length())) {
+                    found = index;
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Checks if the code is a full page, and not just the contents of its body. Pages start with a doctype or with the
+     * {@code <html>}, {@code <head>} or {@code <body>} tags, after any whitespace and comments.
+     *
+     * @param html
+     *            HTML code to check
+     * @return {@code true} if the code is a full page
+     */
+    static final boolean isDocument(final String html) {
+        int     index;    // Current position
+        boolean document; // The code starts as a page
+
+        Objects.requireNonNull(html, "Received a null pointer as HTML");
+
+        index = 0;
+        document = false;
+        while (index < html.length()) {
+            if (Character.isWhitespace(html.charAt(index)) || (html.charAt(index) == '\uFEFF')) {
+                index++;
+            } else if (html.startsWith("<!--", index)) {
+                // Comment, which the parser also closes with --!> or right away with <!-->
+                index = html.indexOf('>', find(html, index + 2, "-->", "--!>"));
+                index = (index < 0) ? html.length() : index + 1;
+            } else {
+                for (final String start : DOCUMENT_STARTS) {
+                    if (html.regionMatches(true, index, start, 0, start.length())
+                            && ((index + start.length() == html.length())
+                                    || isNameEnd(html.charAt(index + start.length())))) {
+                        document = true;
+                    }
+                }
+                // Only the first markup is checked
+                index = html.length();
+            }
+        }
+
+        return document;
+    }
+
+    /**
+     * Checks if the character ends a tag name or attribute name.
+     *
+     * @param current
+     *            character to check
+     * @return {@code true} if the character ends a name
+     */
+    private static final boolean isNameEnd(final char current) {
+        return Character.isWhitespace(current) || (current == '/') || (current == '>') || (current == '<')
+                || (current == '=');
+    }
+
+    /**
+     * Checks if some {@code href} attribute may point to an anchor, starting with {@code #}.
+     *
+     * @return {@code true} if there may be links to anchors
+     */
+    public final boolean hasAnchorLinks() {
+        return uncertain || references || anchorLinks;
+    }
+
+    /**
+     * Checks if some {@code src} attribute may end with the received extension.
+     *
+     * @param extension
+     *            extension to check, without the point
+     * @return {@code true} if some source may have the extension
+     */
+    public final boolean hasExtension(final String extension) {
+        return uncertain || references || extensions.contains(extension.toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Checks if the parsed page may contain the received tag.
+     *
+     * @param tag
+     *            tag to check
+     * @return {@code true} if the page may contain the tag
+     */
+    public final boolean hasTag(final String tag) {
+        final String name; // Tag in lower case
+
+        name = tag.toLowerCase(Locale.ENGLISH);
+
+        return uncertain || IMPLIED_TAGS.contains(name) || tags.contains(name);
+    }
+
+    /**
+     * Reads an attribute, recording the values used by the checks.
+     *
+     * @param html
+     *            HTML code
+     * @param start
+     *            attribute start
+     * @return the position after the attribute
+     */
+    private final int readAttribute(final String html, final int start) {
+        final String name;       // Attribute name
+        final String value;      // Attribute value
+        int          index;      // Current position
+        int          valueStart; // Value start
+        char         quote;      // Quote around the value
+
+        index = start + 1;
+        while ((index < html.length()) && (!isNameEnd(html.charAt(index)))) {
+            index++;
+        }
+        name = html.substring(start, index)
+            .toLowerCase(Locale.ENGLISH);
+
+        while ((index < html.length()) && Character.isWhitespace(html.charAt(index))) {
+            index++;
+        }
+
+        if ((index < html.length()) && (html.charAt(index) == '=')) {
+            index++;
+            while ((index < html.length()) && Character.isWhitespace(html.charAt(index))) {
+                index++;
+            }
+
+            if ((index < html.length()) && ((html.charAt(index) == '"') || (html.charAt(index) == '\''))) {
+                quote = html.charAt(index);
+                valueStart = index + 1;
+                index = html.indexOf(quote, valueStart);
+                if (index < 0) {
+                    // Unclosed quote
+                    uncertain = true;
+                    index = html.length();
+                }
+                value = html.substring(valueStart, index);
+                if (value.indexOf('<') >= 0) {
+                    // The parser may end the tag here
+                    uncertain = true;
+                }
+                index++;
+            } else {
+                valueStart = index;
+                while ((index < html.length()) && (!Character.isWhitespace(html.charAt(index)))
+                        && (html.charAt(index) != '>')) {
+                    index++;
+                }
+                value = html.substring(valueStart, index);
+                if (value.indexOf('<') >= 0) {
+                    // The parser may end the tag here
+                    uncertain = true;
+                }
+            }
+
+            readValue(name, value);
+        }
+
+        return index;
+    }
+
+    /**
+     * Reads the markup starting at the received position.
+     *
+     * @param html
+     *            HTML code
+     * @param start
+     *            position of the {@code <} character
+     * @return the position after the markup
+     */
+    private final int readMarkup(final String html, final int start) {
+        final int next;  // Position after the markup
+        char      first; // Character after the <
+
+        if (start + 1 >= html.length()) {
+            next = html.length();
+        } else {
+            first = html.charAt(start + 1);
+            if (html.startsWith("<!--", start)) {
+                // Comment, which the parser also closes with --!> or right away with <!-->
+                next = find(html, start + 2, "-->", "--!>");
+            } else if ((first == '!') || (first == '?')) {
+                // Doctype or bogus comment
+                next = find(html, start + 2, ">");
+            } else if (first == '/') {
+                // End tags for missing elements may create them
+                next = readTag(html, start + 2);
+            } else if (Character.isLetter(first)) {
+                next = readTag(html, start + 1);
+            } else {
+                // Text
+                next = start + 1;
+            }
+        }
+
+        return next;
+    }
+
+    /**
+     * Reads a tag, with its attributes.
+     *
+     * @param html
+     *            HTML code
+     * @param start
+     *            tag name start
+     * @return the position after the tag, or after the element contents if they are read as text
+     */
+    private final int readTag(final String html, final int start) {
+        final String name;    // Tag name
+        int          index;   // Current position
+        char         current; // Current character
+
+        index = start;
+        while ((index < html.length()) && (!isNameEnd(html.charAt(index)))) {
+            index++;
+        }
+        name = html.substring(start, index)
+            .toLowerCase(Locale.ENGLISH);
+        if (!name.isEmpty()) {
+            tags.add(name);
+            if ("image".equals(name)) {
+                // The parser replaces it
+                tags.add("img");
+            }
+        }
+
+        while ((index < html.length()) && (html.charAt(index) != '>') && (html.charAt(index) != '<')
+                && (!uncertain)) {
+            current = html.charAt(index);
+            if (Character.isWhitespace(current) || (current == '/') || (current == '=')) {
+                index++;
+            } else {
+                index = readAttribute(html, index);
+            }
+        }
+
+        if ((index < html.length()) && (html.charAt(index) == '>') && (html.charAt(start - 1) == '<')
+                && TEXT_TAGS.contains(name)) {
+            // The contents are text until the element is closed
+            index = find(html, index, "</" + name);
+        }
+
+        return index;
+    }
+
+    /**
+     * Records what the checks need from an attribute value.
+     *
+     * @param name
+     *            attribute name
+     * @param value
+     *            attribute value
+     */
+    private final void readValue(final String name, final String value) {
+        final int point; // Last point in the value
+
+        if (value.indexOf('&') >= 0) {
+            references = true;
+        }
+
+        if ("href".equals(name) && value.startsWith("#")) {
+            anchorLinks = true;
+        } else if ("src".equals(name)) {
+            point = value.lastIndexOf('.');
+            if (point >= 0) {
+                extensions.add(value.substring(point + 1)
+                    .toLowerCase(Locale.ENGLISH));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,318 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * What a CSS selector depends on, worked out from the selector text.
+ * <p>
+ * This is a conservative reading, meant to decide if a change on the document may alter what the selector matches. It
+ * never claims a selector is independent of something it may actually depend on, but it may claim a dependency which
+ * does not exist.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class SelectorTraits {
+
+    /**
+     * Selector in lower case, without the contents of attribute selectors.
+     */
+    private final String      bare;
+
+    /**
+     * Selector in lower case.
+     */
+    private final String      lowerCase;
+
+    /**
+     * Depends on the document structure or text. This happens with combinators and most pseudo selectors.
+     */
+    private final boolean     structural;
+
+    /**
+     * Tags at the beginning of each selector group, which the selector may match. If {@code null} the selector may
+     * match any tag.
+     */
+    private final Set<String> tags;
+
+    /**
+     * Reads the received selector.
+     *
+     * @param selector
+     *            selector to read
+     */
+    SelectorTraits(final String selector) {
+        super();
+
+        Set<String> matchedTags; // Tags found
+        boolean     anyTag;      // Some group may match any tag
+        boolean     combined;    // Some group depends on the structure
+        String      tag;         // Tag for the group
+
+        lowerCase = selector.toLowerCase(Locale.ENGLISH);
+        bare = removeAttributeSelectors(lowerCase);
+
+        matchedTags = new HashSet<>();
+        anyTag = false;
+        combined = false;
+        for (final String group : splitGroups(lowerCase)) {
+            combined = combined || isStructural(group);
+            tag = leadingTag(group);
+            if (tag.isEmpty()) {
+                anyTag = true;
+            } else {
+                matchedTags.add(tag);
+            }
+        }
+
+        structural = combined;
+        if (anyTag) {
+            tags = null;
+        } else {
+            tags = Set.copyOf(matchedTags);
+        }
+    }
+
+    /**
+     * Checks if the selector group depends on the document structure or text.
+     *
+     * @param group
+     *            selector group to check
+     * @return {@code true} if the group depends on the structure, {@code false} otherwise
+     */
+    private static final boolean isStructural(final String group) {
+        int     depth;      // Depth inside brackets
+        char    quote;      // Open quote, or zero if there is none
+        boolean structural; // The group depends on the structure
+        char    current;    // Current character
+        int     index;      // Current position
+
+        depth = 0;
+        quote = 0;
+        structural = false;
+        index = 0;
+        while ((!structural) && (index < group.length())) {
+            current = group.charAt(index);
+            if (quote != 0) {
+                if (current == quote) {
+                    quote = 0;
+                }
+            } else if ((current == '"') || (current == '\'')) {
+                quote = current;
+            } else if (current == '[') {
+                depth++;
+            } else if (current == ']') {
+                depth--;
+            } else if (depth == 0) {
+                if ((current == ' ') || (current == '>') || (current == '+') || (current == '~')) {
+                    // Combinator
+                    structural = true;
+                } else if (current == ':') {
+                    // Only negations may be independent from the structure
+                    structural = !group.startsWith("not(", index + 1);
+                }
+            }
+            index++;
+        }
+
+        return structural;
+    }
+
+    /**
+     * Returns the tag at the beginning of the selector group, or an empty string if it doesn't start with a tag.
+     *
+     * @param group
+     *            selector group to read
+     * @return the tag at the beginning of the group
+     */
+    private static final String leadingTag(final String group) {
+        int index; // End of the tag
+
+        index = 0;
+        while ((index < group.length()) && (Character.isLetterOrDigit(group.charAt(index))
+                || (group.charAt(index) == '-') || (group.charAt(index) == '_'))) {
+            index++;
+        }
+
+        if ((index > 0) && (!Character.isLetter(group.charAt(0)))) {
+            // Not a valid tag
+            index = 0;
+        }
+
+        return group.substring(0, index);
+    }
+
+    /**
+     * Removes the contents of the attribute selectors, as the values there may contain any character.
+     *
+     * @param selector
+     *            selector to clean
+     * @return the selector without attribute selector contents
+     */
+    private static final String removeAttributeSelectors(final String selector) {
+        final StringBuilder bare;    // Selector without attribute selectors
+        int                 depth;   // Depth inside brackets
+        char                quote;   // Open quote, or zero if there is none
+        char                current; // Current character
+
+        bare = new StringBuilder(selector.length());
+        depth = 0;
+        quote = 0;
+        for (int index = 0; index < selector.length(); index++) {
+            current = selector.charAt(index);
+            if (quote != 0) {
+                if (current == quote) {
+                    quote = 0;
+                }
+            } else if ((current == '"') || (current == '\'')) {
+                quote = current;
+            } else if (current == '[') {
+                depth++;
+            } else if (current == ']') {
+                depth--;
+            } else if (depth == 0) {
+                bare.append(current);
+            }
+        }
+
+        return bare.toString();
+    }
+
+    /**
+     * Splits the selector into its groups, which are separated by commas.
+     *
+     * @param selector
+     *            selector to split
+     * @return the selector groups
+     */
+    private static final Collection<String> splitGroups(final String selector) {
+        final Collection<String> groups;  // Groups found
+        int                      depth;   // Depth inside brackets or parenthesis
+        char                     quote;   // Open quote, or zero if there is none
+        int                      start;   // Start of the current group
+        char                     current; // Current character
+
+        groups = new ArrayList<>();
+        depth = 0;
+        quote = 0;
+        start = 0;
+        for (int index = 0; index < selector.length(); index++) {
+            current = selector.charAt(index);
+            if (quote != 0) {
+                if (current == quote) {
+                    quote = 0;
+                }
+            } else if ((current == '"') || (current == '\'')) {
+                quote = current;
+            } else if ((current == '[') || (current == '(')) {
+                depth++;
+            } else if ((current == ']') || (current == ')')) {
+                depth--;
+            } else if ((current == ',') && (depth == 0)) {
+                groups.add(selector.substring(start, index)
+                    .trim());
+                start = index + 1;
+            }
+        }
+        groups.add(selector.substring(start)
+            .trim());
+
+        return groups;
+    }
+
+    /**
+     * Returns the tags at the beginning of each selector group. Any element matched by the selector requires an
+     * element with one of these tags, either itself or an ancestor or sibling.
+     *
+     * @return the tags at the beginning of each group, or {@code null} if some group may start with any tag
+     */
+    final Set<String> getTags() {
+        return tags;
+    }
+
+    /**
+     * Checks if the selector depends on the document structure or text.
+     *
+     * @return {@code true} if the selector depends on the structure, {@code false} otherwise
+     */
+    final boolean isStructural() {
+        return structural;
+    }
+
+    /**
+     * Checks if the selector may match elements with any of the received tags.
+     *
+     * @param candidates
+     *            tags to check, {@code null} meaning any tag
+     * @return {@code true} if the selector may match any of the tags, {@code false} otherwise
+     */
+    final boolean mayMatchAny(final Set<String> candidates) {
+        final boolean matches;
+
+        if (candidates == null) {
+            matches = true;
+        } else if (candidates.isEmpty()) {
+            matches = false;
+        } else if (tags == null) {
+            matches = true;
+        } else {
+            matches = candidates.stream()
+                .anyMatch(tags::contains);
+        }
+
+        return matches;
+    }
+
+    /**
+     * Checks if the selector may depend on the received attribute.
+     *
+     * @param attribute
+     *            attribute to check
+     * @return {@code true} if the selector may depend on the attribute, {@code false} otherwise
+     */
+    final boolean mentions(final String attribute) {
+        final String  name;     // Attribute in lower case
+        final boolean mentions; // The attribute is mentioned
+
+        name = attribute.toLowerCase(Locale.ENGLISH);
+        if (lowerCase.contains(name)) {
+            mentions = true;
+        } else if ("class".equals(name)) {
+            mentions = bare.indexOf('.') >= 0;
+        } else if ("id".equals(name)) {
+            mentions = bare.indexOf('#') >= 0;
+        } else {
+            mentions = false;
+        }
+
+        return mentions;
+    }
+
+}
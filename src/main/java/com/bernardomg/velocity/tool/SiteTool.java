@@ -25,17 +25,16 @@
 package com.bernardomg.velocity.tool;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Objects;
 
 import org.apache.velocity.tools.config.DefaultKey;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Element;
-import org.jsoup.parser.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.bernardomg.velocity.tool.cache.SelectorCache;
+
 /**
  * Utilities class for fixing several issues in Doxia generated sites, updating and homogenising their layouts.
  * <p>
@@ -46,6 +45,12 @@
  * The <a href="https://github.com/Bernardo-MG/docs-maven-skin">Docs Maven Skin</a> and its requirements have dictated
  * the development of this class. For more generic methods use the {@link com.bernardomg.velocity.tool.HtmlTool
  * HtmlTool}.
+ * <p>
+ * The icons replaced can be read from a table of the site, set through the {@value #ICON_TABLE_PROPERTY} tool
+ * property in the tools configuration. Otherwise the {@value #ICON_TABLE_SYSTEM_PROPERTY} system property is used, and
+ * if neither is set the default Maven Site icons are replaced.
+ * <p>
+ * Instances are thread-safe. The icon table is immutable, and only replaced when the tool is configured.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
@@ -53,25 +58,90 @@
 public class SiteTool {
 
     /**
-     * Regular expresion indicating invalid values for ids and internal links which will be replaced by hyphens.
+     * Tool property with the location of the icon table, as a classpath resource or a file.
      */
-    private static final String ID_HYPHEN_REGEX   = "[ _]";
+    public static final String  ICON_TABLE_PROPERTY        = "iconTable";
 
     /**
-     * Regular expresion indicating invalid values for ids and internal links will will be removed.
+     * System property with the location of the icon table, used if the tool property is not set.
      */
-    private static final String ID_REJECTED_REGEX = "[^\\w#-]";
+    public static final String  ICON_TABLE_SYSTEM_PROPERTY = "velocity.tools.icons";
 
     /**
      * Logger for the class.
      */
-    private static final Logger log               = LoggerFactory.getLogger(SiteTool.class);
+    private static final Logger log                        = LoggerFactory.getLogger(SiteTool.class);
+
+    /**
+     * Icons to replace. Immutable, and so shared between threads.
+     */
+    private volatile IconTable  icons;
 
     /**
-     * Constructs an instance of the utilities class.
+     * Compiled selectors, shared with the other tools.
+     */
+    private final SelectorCache selectors;
+
+    /**
+     * Constructs an instance of the utilities class, which will replace the icons from the
+     * {@value #ICON_TABLE_SYSTEM_PROPERTY} system property, or the default icons if it is not set.
      */
     public SiteTool() {
+        this(defaultIcons());
+    }
+
+    /**
+     * Constructs an instance of the utilities class, which will replace the received icons.
+     *
+     * @param iconTable
+     *            icons to replace
+     */
+    public SiteTool(final IconTable iconTable) {
         super();
+
+        icons = Objects.requireNonNull(iconTable, "Received a null pointer as icons");
+        selectors = SelectorCache.shared();
+    }
+
+    /**
+     * Returns the icons from the {@value #ICON_TABLE_SYSTEM_PROPERTY} system property, or the default icons if it is
+     * not set.
+     *
+     * @return the icons to replace by default
+     */
+    private static final IconTable defaultIcons() {
+        final String    location; // Icon table location
+        final IconTable table;    // Icons to replace
+
+        location = System.getProperty(ICON_TABLE_SYSTEM_PROPERTY);
+        if ((location == null) || location.isBlank()) {
+            table = IconTable.defaults();
+        } else {
+            table = IconTable.load(location);
+        }
+
+        return table;
+    }
+
+    /**
+     * Configures the tool with the properties from the tools configuration.
+     * <p>
+     * Velocity calls this when creating the tool. If the {@value #ICON_TABLE_PROPERTY} property is set, the icons are
+     * loaded from the location it contains.
+     *
+     * @param params
+     *            tool properties
+     */
+    public final void configure(final Map<String, Object> params) {
+        final Object location; // Icon table location
+
+        Objects.requireNonNull(params, "Received a null pointer as properties");
+
+        location = params.get(ICON_TABLE_PROPERTY);
+        if ((location != null) && !location.toString()
+            .isBlank()) {
+            icons = IconTable.load(location.toString());
+        }
     }
 
     /**
@@ -93,23 +163,17 @@ public SiteTool() {
      * @return transformed element
      */
     public final Element fixAnchorLinks(final Element root) {
-        String ref; // Value of the href attribute
-        String id;  // Formatted id
+        final OperationRun run; // Operation call
 
         if (root == null) {
             log.warn("Received null root");
         } else {
+            run = new OperationRun(root, "fixAnchorLinks", "a");
             // Anchors
             for (final Element anchor : root.getElementsByTag("a")) {
-                // If the attribute doesn't exist then the ref will be an empty
-                // string
-                ref = anchor.attr("href");
-
-                if ((!ref.isEmpty()) && ("#".equals(ref.substring(0, 1)))) {
-                    id = formatId(ref);
-                    anchor.attr("href", id);
-                }
+                run.count(ElementOperations.fixAnchorLink(anchor));
             }
+            run.finish();
         }
 
         return root;
@@ -136,121 +200,131 @@ public final Element fixAnchorLinks(final Element root) {
      */
     public final Element fixHeadingIds(final Element root) {
         final Collection<Element> headings; // Headings to fix
-        String                    idText;   // Text to generate the id
-        String                    id;       // Formatted id
+        final OperationRun        run;      // Operation call
+
+        if (root == null) {
+            log.warn("Received null root");
+        } else {
+            run = new OperationRun(root, "fixHeadingIds", "h1,h2,h3,h4,h5,h6");
+            headings = selectors.select(root, "h1,h2,h3,h4,h5,h6");
+            for (final Element heading : headings) {
+                run.count(ElementOperations.fixHeadingId(heading));
+            }
+            run.finish();
+        }
+
+        return root;
+    }
+
+    /**
+     * Adds or fixes heading ids, optionally making sure each of them is unique in the page.
+     * <p>
+     * Without de-duplication this works as {@link #fixHeadingIds(Element)}, and two headings with the same text, such
+     * as two "Usage" sections, end with the same id, so links to the second one take to the first. With it, an id
+     * already used by another element inside the root, heading or not, receives the first free suffix. The first
+     * "Usage" heading gets {@code Usage}, the second {@code Usage-1}, the next {@code Usage-2}, and so on.
+     * <p>
+     * The ids in use are indexed once, and the headings are fixed in document order in a single pass, so the cost is
+     * linear on the size of the page.
+     *
+     * @param root
+     *            root element with headings where an id should be added
+     * @param dedupe
+     *            makes the heading ids unique in the root
+     * @return transformed element
+     */
+    public final Element fixHeadingIds(final Element root, final boolean dedupe) {
+        final Collection<Element> headings; // Headings to fix
+        final IdIndex             ids;      // Ids in use
+        final OperationRun        run;      // Operation call
 
         if (root == null) {
             log.warn("Received null root");
+        } else if (!dedupe) {
+            fixHeadingIds(root);
         } else {
-            // Table rows with <th> tags in a <tbody>
-            headings = root.select("h1,h2,h3,h4,h5,h6");
+            run = new OperationRun(root, "fixHeadingIds", "h1,h2,h3,h4,h5,h6");
+            headings = selectors.select(root, "h1,h2,h3,h4,h5,h6");
+            ids = IdIndex.of(root);
             for (final Element heading : headings) {
-                if (heading.hasAttr("id")) {
-                    // Contains an id
-                    // The id text is taken from the attribute
-                    idText = heading.attr("id");
-                } else {
-                    // Doesn't contain an id
-                    // The id text is taken from the heading text
-                    idText = heading.text();
-                }
-                id = formatId(idText);
-                heading.attr("id", id);
+                run.count(ElementOperations.fixHeadingId(heading, ids));
             }
+            run.finish();
         }
 
         return root;
     }
 
     /**
-     * Formats the received id, transforming it into a valid internal anchor id.
+     * Adds or fixes heading ids, and fixes links to anchors in the same page, in a single pass.
+     * <p>
+     * The result is the same as calling {@link #fixHeadingIds(Element)} and {@link #fixAnchorLinks(Element)}, but the
+     * page is walked once, instead of once for each of them, and each text repeated in the page is formatted once.
      *
-     * @param id
-     *            id to transform
-     * @return a valid anchor id
+     * @param root
+     *            root element with headings and anchors to fix
+     * @return transformed element
      */
-    private final String formatId(final String id) {
-        return id.trim()
-            .replaceAll(ID_HYPHEN_REGEX, "-")
-            .replaceAll(ID_REJECTED_REGEX, "");
+    public final Element fixIdsAndAnchors(final Element root) {
+        return fixIdsAndAnchors(root, false);
     }
 
     /**
-     * Returns the result from replacing a collection of HTML elements on the received HTML code.
+     * Adds or fixes heading ids, optionally making them unique, and fixes links to anchors in the same page, in a
+     * single pass.
      * <p>
-     * These elements are received as a {@code Map}, made up of pairs where the key is a CSS selector, and the value is
-     * the replacement for the selected element.
+     * The result is the same as calling {@link #fixHeadingIds(Element, boolean)} and {@link #fixAnchorLinks(Element)},
+     * but the page is walked once, instead of once for each of them, and each text repeated in the page is formatted
+     * once.
      *
      * @param root
-     *            root element for the content to modify
-     * @param replacements
-     *            {@code Map} where the key is a CSS selector and the value the element's replacement
+     *            root element with headings and anchors to fix
+     * @param dedupe
+     *            makes the heading ids unique in the root
+     * @return transformed element
      */
-    private final void replaceAll(final Element root, final Map<String, String> replacements) {
-        String              selector;        // Iterated selector
-        String              replacement;     // Iterated HTML replacement
-        Element             replacementElem; // Iterated replacement
-        Collection<Element> elements;        // Selected elements
-        Element             replacementBody; // Body of the replacement
-
-        for (final Entry<String, String> replacementEntry : replacements.entrySet()) {
-            selector = replacementEntry.getKey();
-            replacement = replacementEntry.getValue();
-
-            elements = root.select(selector);
-            if (!elements.isEmpty()) {
-                // There are elements to replace
-
-                // Processes the replacement
-                replacementBody = Jsoup.parse(replacement)
-                    .body();
-                if (!replacementBody.children()
-                    .isEmpty()) {
-                    replacementElem = replacementBody.child(0);
-
-                    // Replaces the elements
-                    for (final Element element : elements) {
-                        element.replaceWith(replacementElem.clone());
-                    }
-                }
-            }
+    public final Element fixIdsAndAnchors(final Element root, final boolean dedupe) {
+        if (root == null) {
+            log.warn("Received null root");
+        } else {
+            fixIdsAndAnchors(root, new AnchorPass(dedupe, false));
         }
+
+        return root;
+    }
+
+    /**
+     * Returns the icons replaced by {@link #transformIcons(Element) transformIcons}, so batches can replace the same
+     * ones.
+     *
+     * @return the icons to replace
+     */
+    public final IconTable getIconTable() {
+        return icons;
     }
 
     /**
      * Transforms the default icons used by the Maven Site to Font Awesome icons.
+     * <p>
+     * The icons replaced are those from the {@link IconTable} received when creating or configuring the tool, by
+     * default the Maven Site icons. All the images are read in a single pass, and each of them is looked up in the table. The
+     * replacements are not searched for more icons.
      *
      * @param root
      *            root element with the page
      * @return transformed element
      */
     public final Element transformIcons(final Element root) {
-        final Map<String, String> replacements;
+        final OperationRun run; // Operation call
 
         if (root == null) {
             log.warn("Received null root");
         } else {
-            replacements = new HashMap<>();
-            replacements.put("img[src$=images/add.gif]",
-                "<span><span class=\"fa-solid fa-plus\" aria-hidden=\"true\"></span><span class=\"sr-only\">Addition</span></span>");
-            replacements.put("img[src$=images/remove.gif]",
-                "<span><span class=\"fa-solid fa-minus\" aria-hidden=\"true\"></span><span class=\"sr-only\">Remove</span></span>");
-            replacements.put("img[src$=images/fix.gif]",
-                "<span><span class=\"fa-solid fa-wrench\" aria-hidden=\"true\"></span><span class=\"sr-only\">Fix</span></span>");
-            replacements.put("img[src$=images/update.gif]",
-                "<span><span class=\"fa-solid fa-rotate\" aria-hidden=\"true\"></span><span class=\"sr-only\">Refresh</span></span>");
-            replacements.put("img[src$=images/icon_help_sml.gif]",
-                "<span><span class=\"fa-solid fa-question\" aria-hidden=\"true\"></span><span class=\"sr-only\">Question</span></span>");
-            replacements.put("img[src$=images/icon_success_sml.gif]",
-                "<span><span class=\"navbar-icon fa-solid fa-check\" aria-hidden=\"true\" title=\"Passed\" aria-label=\"Passed\"></span><span class=\"sr-only\">Passed</span></span>");
-            replacements.put("img[src$=images/icon_warning_sml.gif]",
-                "<span><span class=\"fa-solid fa-exclamation\" aria-hidden=\"true\"></span><span class=\"sr-only\">Warning</span>");
-            replacements.put("img[src$=images/icon_error_sml.gif]",
-                "<span><span class=\"navbar-icon fa-solid fa-xmark\" aria-hidden=\"true\" title=\"Failed\" aria-label=\"Failed\"></span><span class=\"sr-only\">Failed</span></span>");
-            replacements.put("img[src$=images/icon_info_sml.gif]",
-                "<span><span class=\"fa-solid fa-info\" aria-hidden=\"true\"></span><span class=\"sr-only\">Info</span></span>");
-
-            replaceAll(root, replacements);
+            run = new OperationRun(root, "transformIcons", "img");
+            for (final Element img : root.getElementsByTag("img")) {
+                run.count(ElementOperations.replaceIcon(img, icons));
+            }
+            run.finish();
         }
 
         return root;
@@ -269,38 +343,70 @@ public final Element transformIcons(final Element root) {
     public final Element transformImagesToFigures(final Element root) {
         final Collection<Element> images;  // Image elements from the <body>
         final Collection<Element> figures; // figure elements from the <body>
-        Element                   figure;  // <figure> element
-        Element                   caption; // <figcaption> element
+        final OperationRun        run;     // Operation call
 
         if (root == null) {
             log.warn("Received null root");
         } else {
-            images = root.select("img");
+            run = new OperationRun(root, "transformImagesToFigures", "img,figure");
+            images = selectors.select(root, "img");
             for (final Element img : images) {
-                figure = new Element(Tag.valueOf("figure"), "");
-
-                img.replaceWith(figure);
-                figure.appendChild(img);
-
-                if (img.hasAttr("alt")) {
-                    caption = new Element(Tag.valueOf("figcaption"), "");
-                    caption.text(img.attr("alt"));
-                    figure.appendChild(caption);
-                }
+                run.count(ElementOperations.wrapInFigure(img));
             }
 
-            figures = root.select("figure");
+            figures = selectors.select(root, "figure");
             for (final Element fig : figures) {
-                if ("p".equals(fig.parent()
-                    .tag()
-                    .getName())) {
-                    fig.parent()
-                        .unwrap();
-                }
+                run.count(ElementOperations.unwrapParagraph(fig));
             }
+            run.finish();
         }
 
         return root;
     }
 
+    /**
+     * Fixes heading ids and links to anchors as {@link #fixIdsAndAnchors(Element, boolean)} does, and reports the
+     * links to anchors in the same page which point to no id.
+     * <p>
+     * The check is done in the same pass which fixes the page, with the ids and links already fixed, so it replaces
+     * checking the links of the generated site afterwards.
+     *
+     * @param root
+     *            root element with headings and anchors to fix
+     * @param dedupe
+     *            makes the heading ids unique in the root
+     * @return the ids in the root and the links to missing anchors
+     */
+    public final AnchorReport verifyIdsAndAnchors(final Element root, final boolean dedupe) {
+        final AnchorPass   pass;   // Pass over the page
+        final AnchorReport report; // Page report
+
+        if (root == null) {
+            log.warn("Received null root");
+            report = AnchorReport.empty();
+        } else {
+            pass = new AnchorPass(dedupe, true);
+            fixIdsAndAnchors(root, pass);
+            report = pass.getReport();
+        }
+
+        return report;
+    }
+
+    /**
+     * Applies the received pass to the root.
+     *
+     * @param root
+     *            root element with headings and anchors to fix
+     * @param pass
+     *            pass to apply
+     */
+    private final void fixIdsAndAnchors(final Element root, final AnchorPass pass) {
+        final OperationRun run; // Operation call
+
+        run = new OperationRun(root, "fixIdsAndAnchors", "h1,h2,h3,h4,h5,h6,a");
+        pass.fix(root, run);
+        run.finish();
+    }
+
 }
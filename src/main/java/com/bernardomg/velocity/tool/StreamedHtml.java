@@ -0,0 +1,81 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.apache.velocity.context.InternalContextAdapter;
+import org.apache.velocity.runtime.Renderable;
+import org.jsoup.nodes.Element;
+
+/**
+ * HTML of an element, which Velocity writes directly into the template output.
+ * <p>
+ * When a template renders a reference, it writes its {@code toString} value. Renderable values are asked to write
+ * themselves instead, so the element is serialized straight into the output, without building its code as a string.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class StreamedHtml implements Renderable {
+
+    /**
+     * Element to write.
+     */
+    private final Element  root;
+
+    /**
+     * Tool which writes the element.
+     */
+    private final HtmlTool tool;
+
+    /**
+     * Constructs the HTML of an element.
+     *
+     * @param htmlTool
+     *            tool which writes the element
+     * @param element
+     *            element to write
+     */
+    StreamedHtml(final HtmlTool htmlTool, final Element element) {
+        super();
+
+        tool = htmlTool;
+        root = element;
+    }
+
+    @Override
+    public final boolean render(final InternalContextAdapter context, final Writer writer) throws IOException {
+        tool.write(root, writer);
+
+        return true;
+    }
+
+    @Override
+    public final String toString() {
+        return tool.html(root);
+    }
+
+}
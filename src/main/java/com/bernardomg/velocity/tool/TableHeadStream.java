@@ -0,0 +1,344 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+
+/**
+ * Fixes table heads while the page is parsed, writing the page as it goes.
+ * <p>
+ * The page is read through a {@link StreamParser}, which returns each element once it is complete. Each row in a
+ * {@code table > tbody} is written as soon as it is complete, and then removed from the document, so big tables don't
+ * stay in memory. Everything before the row is written first. The start tags of the row ancestors are written at that
+ * point, and their end tags once they are complete.
+ * <p>
+ * Header rows found before anything inside their table has been written are kept until something else in the table
+ * is written. Then each one is written into its own {@code <thead>}, right after the table start tag, from the last
+ * to the first, which gives the same code as {@link Html5UpdateTool#updateTableHeads(Element)}, as it prepends each
+ * row in a new head. Header rows found after other contents of their table, such as data rows, are left in place, as
+ * those contents have already been written. This includes rows whose header cells are inside a nested table, as the
+ * nested table is written before the row is complete.
+ * <p>
+ * The code is written without pretty printing.
+ * <p>
+ * Instances keep the state of a single page, and are not thread-safe.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class TableHeadStream {
+
+    /**
+     * Table whose header rows are waiting to be written, if any. Its start tag is the last code written.
+     */
+    private Element             head;
+
+    /**
+     * Code of the header rows waiting to be written, in the order they were read.
+     */
+    private final List<String>  headRows = new ArrayList<>();
+
+    /**
+     * Elements whose start tag has been written, but not their end tag, from the top of the document.
+     */
+    private final List<Element> open     = new ArrayList<>();
+
+    /**
+     * Where the page is written.
+     */
+    private final Appendable    out;
+
+    /**
+     * Document for writing start tags, with the same settings as the page.
+     */
+    private final Document      shell;
+
+    /**
+     * Constructs a fixer which writes into the received output.
+     *
+     * @param output
+     *            where the page is written
+     */
+    TableHeadStream(final Appendable output) {
+        super();
+
+        out = Objects.requireNonNull(output);
+        shell = new Document("");
+    }
+
+    /**
+     * Returns the ancestors of the node, from the top of the document, without the document itself.
+     *
+     * @param node
+     *            node to check
+     * @return the node ancestors
+     */
+    private static final List<Element> getAncestors(final Node node) {
+        final List<Element> ancestors; // Ancestors from the top
+        Element             parent;    // Current ancestor
+
+        ancestors = new ArrayList<>();
+        parent = (Element) node.parentNode();
+        while ((parent != null) && !(parent instanceof Document)) {
+            ancestors.add(0, parent);
+            parent = parent.parent();
+        }
+
+        return ancestors;
+    }
+
+    /**
+     * Checks if the element is a row in the body of a table, as selected by {@code table > tbody > tr}.
+     *
+     * @param element
+     *            element to check
+     * @return {@code true} if the element is a row in the body of a table
+     */
+    private static final boolean isBodyRow(final Element element) {
+        final Element parent; // Row parent
+        final boolean row;    // The element is a row in the body of a table
+
+        parent = element.parent();
+        row = "tr".equals(element.normalName()) && (parent != null) && "tbody".equals(parent.normalName())
+                && (parent.parent() != null) && "table".equals(parent.parent()
+                    .normalName());
+
+        return row;
+    }
+
+    /**
+     * Reads the page, fixing its table heads, and writes it.
+     *
+     * @param in
+     *            page to read
+     * @throws IOException
+     *             if the page can't be read or written
+     */
+    final void fix(final Reader in) throws IOException {
+        final Document          document; // Parsed page
+        final Iterator<Element> elements; // Elements, as they are completed
+        Element                 element;  // Completed element
+
+        try (final StreamParser parser = new StreamParser(Parser.htmlParser())) {
+            parser.parse(in, "");
+            document = parser.document();
+            document.outputSettings()
+                .prettyPrint(false);
+            shell.outputSettings(document.outputSettings()
+                .clone());
+
+            elements = parser.iterator();
+            while (elements.hasNext()) {
+                element = elements.next();
+                if (isBodyRow(element)) {
+                    fixRow(element);
+                }
+            }
+
+            // Writes what is left
+            writeHeads();
+            closeFrom(0);
+            while (document.childNodeSize() > 0) {
+                write(document.childNode(0));
+            }
+        } catch (final UncheckedIOException e) {
+            // The parser wraps the errors from the input
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Writes the remaining contents and the end tags of the open elements, from the deepest one up to the received
+     * level, and removes them from the document.
+     *
+     * @param level
+     *            first level to close
+     * @throws IOException
+     *             if the code can't be written
+     */
+    private final void closeFrom(final int level) throws IOException {
+        Element element; // Element to close
+
+        for (int i = open.size() - 1; i >= level; i--) {
+            element = open.remove(i);
+            while (element.childNodeSize() > 0) {
+                write(element.childNode(0));
+            }
+            out.append("</")
+                .append(element.tagName())
+                .append('>');
+            element.remove();
+        }
+    }
+
+    /**
+     * Writes a complete row, or keeps it to be moved into a {@code <thead>} if it is a header row, and nothing else from
+     * its table has been written.
+     *
+     * @param row
+     *            row to write
+     * @throws IOException
+     *             if the code can't be written
+     */
+    private final void fixRow(final Element row) throws IOException {
+        final Element table; // Row table
+
+        table = row.parent()
+            .parent();
+        if (!row.getElementsByTag("th")
+            .isEmpty() && !open.contains(row) && ((head == table) || !open.contains(table))) {
+            // Header row, which can still be moved to the start of the table
+            if (head != table) {
+                writeBefore(table);
+                writeStart(table);
+                head = table;
+            }
+            headRows.add(row.outerHtml());
+            row.remove();
+        } else if (open.contains(row)) {
+            // Rows containing tables were opened when writing their rows, and everything before them was written
+            writeHeads();
+            closeFrom(open.indexOf(row));
+        } else {
+            writeBefore(row);
+            write(row);
+        }
+    }
+
+    /**
+     * Writes the node, and removes it from the document.
+     *
+     * @param node
+     *            node to write
+     * @throws IOException
+     *             if the code can't be written
+     */
+    private final void write(final Node node) throws IOException {
+        out.append(node.outerHtml());
+        node.remove();
+    }
+
+    /**
+     * Writes everything before the node, leaving the start tags of its ancestors written.
+     *
+     * @param node
+     *            node to write up to
+     * @throws IOException
+     *             if the code can't be written
+     */
+    private final void writeBefore(final Node node) throws IOException {
+        final List<Element> ancestors; // Node ancestors
+        int                 level;     // Levels already open
+
+        writeHeads();
+
+        ancestors = getAncestors(node);
+        level = 0;
+        while ((level < open.size()) && (level < ancestors.size()) && (open.get(level) == ancestors.get(level))) {
+            level++;
+        }
+        // Elements out of the path to the node are complete
+        closeFrom(level);
+
+        for (int i = level; i < ancestors.size(); i++) {
+            writePreceding(ancestors.get(i));
+            writeStart(ancestors.get(i));
+        }
+        writePreceding(node);
+    }
+
+    /**
+     * Writes the header rows waiting for their table, if any, each into its own {@code <thead>}.
+     *
+     * @throws IOException
+     *             if the code can't be written
+     */
+    private final void writeHeads() throws IOException {
+        // Each row is prepended to the table in a new head, so the last one goes first
+        for (int i = headRows.size() - 1; i >= 0; i--) {
+            out.append("<thead>")
+                .append(headRows.get(i))
+                .append("</thead>");
+        }
+        headRows.clear();
+        head = null;
+    }
+
+    /**
+     * Writes the siblings before the node. As written nodes are removed, these are all the previous siblings.
+     *
+     * @param node
+     *            node whose previous siblings are written
+     * @throws IOException
+     *             if the code can't be written
+     */
+    private final void writePreceding(final Node node) throws IOException {
+        final Node parent; // Node parent
+
+        parent = node.parentNode();
+        while (parent.childNode(0) != node) {
+            write(parent.childNode(0));
+        }
+    }
+
+    /**
+     * Writes the start tag of the element, and marks it as open.
+     *
+     * @param element
+     *            element to open
+     * @throws IOException
+     *             if the code can't be written
+     */
+    private final void writeStart(final Element element) throws IOException {
+        final Element copy;   // Element without children
+        final String  html;   // Code of the element without children
+        final String  endTag; // End tag of the element
+
+        copy = element.shallowClone();
+        shell.appendChild(copy);
+        html = copy.outerHtml();
+        copy.remove();
+
+        endTag = "</" + element.tagName() + ">";
+        if (html.endsWith(endTag)) {
+            out.append(html, 0, html.length() - endTag.length());
+        } else {
+            out.append(html);
+        }
+        open.add(element);
+    }
+
+}
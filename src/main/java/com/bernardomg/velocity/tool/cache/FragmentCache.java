@@ -0,0 +1,335 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+
+import com.bernardomg.velocity.tool.parser.ParserProfile;
+
+/**
+ * Bounded cache of parsed HTML fragments, such as the menus, footers and banners rendered the same on every page.
+ * <p>
+ * Parsed bodies are kept by their code, and each request returns a deep copy, in a new document, so callers can change
+ * it freely. Copying a tree is cheaper than parsing its code again. Only the body is copied, the head of the new
+ * document is empty.
+ * <p>
+ * The cache is bounded by the total length of the code kept, discarding the least recently used fragments once the
+ * capacity is reached, and fragments longer than a maximum are never kept. A fragment is only kept the second time it
+ * is received, so unique code, such as the content of each page, is parsed once, without copying it, and doesn't
+ * displace the shared fragments. Only the hash of the code seen once is remembered.
+ * <p>
+ * Fragments are parsed with a {@link ParserProfile}, by default the shared one. The cache is thread-safe. A single
+ * instance, returned by {@link #shared()}, is used by all the tools with the shared profile.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class FragmentCache {
+
+    /**
+     * Default maximum total length of the code kept.
+     */
+    public static final int             DEFAULT_CAPACITY     = 1024 * 1024;
+
+    /**
+     * Default maximum length of a fragment kept.
+     */
+    public static final int             DEFAULT_MAX_FRAGMENT = 16 * 1024;
+
+    /**
+     * Number of hashes remembered for the code seen once.
+     */
+    private static final int            SEEN_CAPACITY        = 4096;
+
+    /**
+     * Cache shared by all the tools.
+     */
+    private static final FragmentCache  SHARED               = new FragmentCache(DEFAULT_CAPACITY,
+        DEFAULT_MAX_FRAGMENT);
+
+    /**
+     * Parsed bodies, in access order. Never changed once kept.
+     */
+    private final Map<String, Element>  bodies;
+
+    /**
+     * Maximum total length of the code kept.
+     */
+    private final long                  capacity;
+
+    /**
+     * Number of requests which found the fragment already parsed.
+     */
+    private final LongAdder             hits                 = new LongAdder();
+
+    /**
+     * Total length of the code kept.
+     */
+    private long                        length;
+
+    /**
+     * Maximum length of a fragment kept.
+     */
+    private final int                   maxFragment;
+
+    /**
+     * Number of requests which had to parse the fragment.
+     */
+    private final LongAdder             misses               = new LongAdder();
+
+    /**
+     * Parser settings for the fragments.
+     */
+    private final ParserProfile         profile;
+
+    /**
+     * Hashes of the code seen once, in access order.
+     */
+    private final Map<Integer, Boolean> seen;
+
+    /**
+     * Constructs a cache with the received bounds.
+     *
+     * @param totalLength
+     *            maximum total length of the code kept
+     * @param fragmentLength
+     *            maximum length of a fragment kept
+     */
+    public FragmentCache(final long totalLength, final int fragmentLength) {
+        this(totalLength, fragmentLength, ParserProfile.shared());
+    }
+
+    /**
+     * Constructs a cache with the received bounds, which parses the fragments with the received profile.
+     *
+     * @param totalLength
+     *            maximum total length of the code kept
+     * @param fragmentLength
+     *            maximum length of a fragment kept
+     * @param parserProfile
+     *            parser settings for the fragments
+     */
+    public FragmentCache(final long totalLength, final int fragmentLength, final ParserProfile parserProfile) {
+        super();
+
+        if (totalLength < 1) {
+            throw new IllegalArgumentException("Capacity should be positive, but received " + totalLength);
+        }
+
+        profile = Objects.requireNonNull(parserProfile, "Received a null pointer as parser profile");
+        capacity = totalLength;
+        maxFragment = fragmentLength;
+        bodies = new LinkedHashMap<>(16, 0.75f, true);
+        seen = new LinkedHashMap<>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected final boolean removeEldestEntry(final Map.Entry<Integer, Boolean> eldest) {
+                return size() > SEEN_CAPACITY;
+            }
+
+        };
+    }
+
+    /**
+     * Returns the cache shared by all the tools.
+     *
+     * @return the shared cache
+     */
+    public static final FragmentCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns a deep copy of the parsed body, in a new document with the received location.
+     *
+     * @param body
+     *            parsed body to copy
+     * @param location
+     *            location for the new document
+     * @return a copy of the body
+     */
+    private static final Element copy(final Element body, final String location) {
+        final Document source;   // Document with the body
+        final Document document; // Document for the copy
+        final Element  copied;   // Copied body
+
+        source = body.ownerDocument();
+        document = Document.createShell(location);
+        document.quirksMode(source.quirksMode());
+        document.child(0)
+            .attributes()
+            .addAll(body.parent()
+                .attributes());
+        copied = document.body();
+        copied.attributes()
+            .addAll(body.attributes());
+        for (final Node child : body.childNodes()) {
+            copied.appendChild(child.clone());
+        }
+
+        return copied;
+    }
+
+    /**
+     * Removes all the cached fragments. The counters are kept.
+     */
+    public final void clear() {
+        synchronized (bodies) {
+            bodies.clear();
+            seen.clear();
+            length = 0;
+        }
+    }
+
+    /**
+     * Returns the number of requests which found the fragment already parsed.
+     *
+     * @return the number of cache hits
+     */
+    public final long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the total length of the code kept.
+     *
+     * @return the total length of the code kept
+     */
+    public final long getLength() {
+        synchronized (bodies) {
+            return length;
+        }
+    }
+
+    /**
+     * Returns the number of requests which had to parse the fragment.
+     *
+     * @return the number of cache misses
+     */
+    public final long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Parses the body of the received code, or copies it if it was already parsed.
+     * <p>
+     * The result is the same as {@code Jsoup.parse(html, location).body()}, with the settings of the parser profile.
+     *
+     * @param html
+     *            HTML to parse
+     * @param location
+     *            location for the document
+     * @return the parsed body
+     */
+    public final Element parse(final String html, final String location) {
+        final boolean keep;   // The fragment is parsed to keep it
+        Element       cached; // Parsed body kept
+        Element       body;   // Body to return
+
+        Objects.requireNonNull(html, "Received a null pointer as HTML");
+        Objects.requireNonNull(location, "Received a null pointer as location");
+
+        if (html.length() > maxFragment) {
+            cached = null;
+            keep = false;
+        } else {
+            synchronized (bodies) {
+                cached = bodies.get(html);
+                // Kept the second time it is seen
+                keep = (cached == null) && (seen.remove(html.hashCode()) != null);
+                if ((cached == null) && !keep) {
+                    seen.put(html.hashCode(), Boolean.TRUE);
+                }
+            }
+        }
+
+        if (cached != null) {
+            hits.increment();
+            body = copy(cached, location);
+        } else if (keep) {
+            misses.increment();
+            cached = profile.parse(html, "")
+                .body();
+            // Attributes are created on first access, which shouldn't happen while copying
+            cached.attributes();
+            cached.parent()
+                .attributes();
+            store(html, cached);
+            body = copy(cached, location);
+        } else {
+            misses.increment();
+            body = profile.parse(html, location)
+                .body();
+        }
+
+        return body;
+    }
+
+    /**
+     * Returns the number of fragments currently cached.
+     *
+     * @return the number of cached fragments
+     */
+    public final int size() {
+        synchronized (bodies) {
+            return bodies.size();
+        }
+    }
+
+    /**
+     * Keeps a parsed body, discarding the least recently used ones until the cache is within its capacity.
+     *
+     * @param html
+     *            code of the body
+     * @param body
+     *            parsed body
+     */
+    private final void store(final String html, final Element body) {
+        Map.Entry<String, Element> eldest; // Least recently used fragment
+
+        synchronized (bodies) {
+            if (bodies.putIfAbsent(html, body) == null) {
+                length += html.length();
+                while (length > capacity) {
+                    eldest = bodies.entrySet()
+                        .iterator()
+                        .next();
+                    length -= eldest.getKey()
+                        .length();
+                    bodies.remove(eldest.getKey());
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,220 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Collector;
+import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+
+/**
+ * Bounded cache of compiled CSS selectors.
+ * <p>
+ * Selecting through a query string makes jsoup parse that query into an {@link Evaluator} on each call. The tools
+ * receive the same few selectors for every page on a site, so this cache keeps the compiled evaluators, keyed by their
+ * query, and discards the least recently used ones once the capacity is reached.
+ * <p>
+ * The cache is thread-safe. A single instance, returned by {@link #shared()}, is used by all the tools.
+ * <p>
+ * Structural evaluators, such as {@code :has} or combinators, remember the elements they matched on each thread until
+ * they are reset. As the cached evaluators live as long as the application, they are reset after each selection, so
+ * they don't keep the last page alive. Only jsoup's own pool of {@code :has} iterators may still point to a page, and
+ * it is softly referenced, so it is released when memory runs low.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class SelectorCache {
+
+    /**
+     * Default maximum number of selectors kept.
+     */
+    public static final int            DEFAULT_CAPACITY = 256;
+
+    /**
+     * Cache shared by all the tools.
+     */
+    private static final SelectorCache SHARED           = new SelectorCache(DEFAULT_CAPACITY);
+
+    /**
+     * Compiled selectors, in access order.
+     */
+    private final Map<String, Evaluator> evaluators;
+
+    /**
+     * Number of requests which found the selector already compiled.
+     */
+    private final LongAdder              hits   = new LongAdder();
+
+    /**
+     * Number of requests which had to compile the selector.
+     */
+    private final LongAdder              misses = new LongAdder();
+
+    /**
+     * Constructs a cache with the received capacity.
+     *
+     * @param capacity
+     *            maximum number of selectors kept
+     */
+    public SelectorCache(final int capacity) {
+        super();
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity should be positive, but received " + capacity);
+        }
+
+        evaluators = new LinkedHashMap<>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected final boolean removeEldestEntry(final Map.Entry<String, Evaluator> eldest) {
+                return size() > capacity;
+            }
+
+        };
+    }
+
+    /**
+     * Returns the cache shared by all the tools.
+     *
+     * @return the shared cache
+     */
+    public static final SelectorCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Removes all the cached selectors. The counters are kept.
+     */
+    public final void clear() {
+        synchronized (evaluators) {
+            evaluators.clear();
+        }
+    }
+
+    /**
+     * Returns the compiled evaluator for the received selector, compiling it if it was not cached.
+     *
+     * @param selector
+     *            CSS selector to compile
+     * @return evaluator for the selector
+     */
+    public final Evaluator evaluator(final String selector) {
+        Evaluator evaluator;
+
+        Objects.requireNonNull(selector, "Received a null pointer as selector");
+
+        synchronized (evaluators) {
+            evaluator = evaluators.get(selector);
+        }
+
+        if (evaluator == null) {
+            misses.increment();
+
+            // Compiled outside the lock, if two threads do this at the same time the first one is kept
+            evaluator = QueryParser.parse(selector);
+            synchronized (evaluators) {
+                evaluator = evaluators.merge(selector, evaluator, (previous, created) -> previous);
+            }
+        } else {
+            hits.increment();
+        }
+
+        return evaluator;
+    }
+
+    /**
+     * Returns the number of requests which found the selector already compiled.
+     *
+     * @return the number of cache hits
+     */
+    public final long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of requests which had to compile the selector.
+     *
+     * @return the number of cache misses
+     */
+    public final long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Clears what the evaluator remembers from previous selections in the current thread.
+     *
+     * @param evaluator
+     *            evaluator to reset
+     * @param root
+     *            root element for the selection
+     */
+    public static final void reset(final Evaluator evaluator, final Element root) {
+        // jsoup only clears it when a selection starts, the stream is never consumed
+        Collector.stream(evaluator, root)
+            .close();
+    }
+
+    /**
+     * Selects the elements matching the received selector, using the cached evaluator.
+     * <p>
+     * The evaluator is reset afterwards, so it keeps nothing from the page.
+     *
+     * @param root
+     *            root element for the selection
+     * @param selector
+     *            CSS selector for the elements
+     * @return all the elements matching the selector
+     */
+    public final Elements select(final Element root, final String selector) {
+        final Evaluator evaluator; // Compiled selector
+        final Elements  elements;  // Selected elements
+
+        evaluator = evaluator(selector);
+        elements = root.select(evaluator);
+        reset(evaluator, root);
+
+        return elements;
+    }
+
+    /**
+     * Returns the number of selectors currently cached.
+     *
+     * @return the number of cached selectors
+     */
+    public final int size() {
+        synchronized (evaluators) {
+            return evaluators.size();
+        }
+    }
+
+}
@@ -0,0 +1,218 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.change;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+
+/**
+ * Keeps track of the operations which changed each document.
+ * <p>
+ * Templates serialize the parsed body after applying the tools, even when none of them changed it. The tools record
+ * here each operation which changed a document, and the code received when parsing it, so {@link #html(Element)} can
+ * return that same code for documents without changes, skipping the serialization.
+ * <p>
+ * Only changes made through the tools are known, so the code should be stored only for documents which nothing else
+ * edits. A document edited in any other way has to be serialized.
+ * <p>
+ * The state is kept in each document, as internal attributes of its root which jsoup neither writes nor lists, so a
+ * copy of a document starts with the state it had when copied. The tracker itself keeps no state, and so it is
+ * thread-safe, while each document, as any jsoup node, is to be used by a single thread at a time. A single instance,
+ * returned by {@link #shared()}, is used by all the tools.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class ChangeTracker {
+
+    /**
+     * Internal attribute with the operations which changed the document, kept in the tree root.
+     */
+    private static final String        CHANGES_KEY = "/velocity.tools.changes";
+
+    /**
+     * Separator for the operations which changed the document.
+     */
+    private static final String        SEPARATOR   = ",";
+
+    /**
+     * Tracker shared by all the tools.
+     */
+    private static final ChangeTracker SHARED      = new ChangeTracker();
+
+    /**
+     * Internal attribute with the code parsed into an element, kept in that element.
+     */
+    private static final String        SOURCE_KEY  = "/velocity.tools.source";
+
+    /**
+     * Constructs a tracker.
+     */
+    public ChangeTracker() {
+        super();
+    }
+
+    /**
+     * Returns the tracker shared by all the tools.
+     *
+     * @return the shared tracker
+     */
+    public static final ChangeTracker shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the operations which changed the document containing the element, in the order they first changed it.
+     *
+     * @param root
+     *            element in the document
+     * @return the operations which changed the document
+     */
+    public final Set<String> getChanges(final Element root) {
+        final String      recorded; // Operations recorded in the document
+        final Set<String> changed;  // Operations which changed the document
+
+        Objects.requireNonNull(root, "Received a null pointer as root");
+
+        recorded = root.root()
+            .attr(CHANGES_KEY);
+        if (recorded.isEmpty()) {
+            changed = Collections.emptySet();
+        } else {
+            changed = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(recorded.split(SEPARATOR))));
+        }
+
+        return changed;
+    }
+
+    /**
+     * Returns the code parsed into the element, if no tool changed its document since. Otherwise {@code null} is
+     * returned, and the element has to be serialized.
+     *
+     * @param root
+     *            parsed element
+     * @return the code parsed into the element, or {@code null} if it changed or its code wasn't stored
+     */
+    public final String getSource(final Element root) {
+        final String source; // Code parsed into the element
+
+        Objects.requireNonNull(root, "Received a null pointer as root");
+
+        if (root.hasAttr(SOURCE_KEY) && !isChanged(root)) {
+            source = root.attr(SOURCE_KEY);
+        } else {
+            source = null;
+        }
+
+        return source;
+    }
+
+    /**
+     * Returns the HTML of the element contents. If the code parsed into the element was stored, and no tool changed
+     * its document, that same code is returned without serializing the element.
+     *
+     * @param root
+     *            element to serialize
+     * @return the HTML of the element contents
+     */
+    public final String html(final Element root) {
+        final String source; // Code parsed into the element
+        final String html;   // Element HTML
+
+        source = getSource(root);
+        if (source == null) {
+            html = root.html();
+        } else {
+            html = source;
+        }
+
+        return html;
+    }
+
+    /**
+     * Checks if a tool changed the document containing the element.
+     *
+     * @param root
+     *            element in the document
+     * @return {@code true} if the document was changed, {@code false} otherwise
+     */
+    public final boolean isChanged(final Element root) {
+        Objects.requireNonNull(root, "Received a null pointer as root");
+
+        return root.root()
+            .hasAttr(CHANGES_KEY);
+    }
+
+    /**
+     * Records that the operation changed the document containing the element.
+     *
+     * @param root
+     *            element in the changed document
+     * @param operation
+     *            operation which changed it
+     */
+    public final void record(final Element root, final String operation) {
+        final Node   top;      // Root of the document
+        final String recorded; // Operations recorded in the document
+
+        Objects.requireNonNull(root, "Received a null pointer as root");
+        Objects.requireNonNull(operation, "Received a null pointer as operation");
+
+        top = root.root();
+        recorded = top.attr(CHANGES_KEY);
+        if (recorded.isEmpty()) {
+            top.attributes()
+                .put(CHANGES_KEY, operation);
+        } else if (!Arrays.asList(recorded.split(SEPARATOR))
+            .contains(operation)) {
+            top.attributes()
+                .put(CHANGES_KEY, recorded + SEPARATOR + operation);
+        }
+    }
+
+    /**
+     * Stores the code parsed into the element, which will be returned as its HTML while its document is not changed.
+     * <p>
+     * This should be done only for documents changed through the tools alone, as no other change is known.
+     *
+     * @param root
+     *            parsed element
+     * @param html
+     *            code parsed into the element
+     */
+    public final void setSource(final Element root, final String html) {
+        Objects.requireNonNull(root, "Received a null pointer as root");
+        Objects.requireNonNull(html, "Received a null pointer as HTML");
+
+        root.attributes()
+            .put(SOURCE_KEY, html);
+    }
+
+}
@@ -0,0 +1,101 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.cli;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Threads used to fix the pages of a site.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public enum ExecutionMode {
+
+    /**
+     * Fixed pool of platform threads.
+     */
+    PLATFORM,
+    /**
+     * A virtual thread for each page.
+     * <p>
+     * Virtual threads require Java 21. On older versions a fixed pool of platform threads is used instead.
+     */
+    VIRTUAL;
+
+    /**
+     * Logger for the class.
+     */
+    private static final Logger log = LoggerFactory.getLogger(ExecutionMode.class);
+
+    /**
+     * Returns the mode with the received name, ignoring case.
+     *
+     * @param name
+     *            mode name
+     * @return the mode with the received name
+     * @throws IllegalArgumentException
+     *             if there is no mode with that name
+     */
+    public static final ExecutionMode fromName(final String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown mode " + name, e);
+        }
+    }
+
+    /**
+     * Creates an executor for this mode.
+     *
+     * @param threads
+     *            number of threads for a platform pool
+     * @return an executor for this mode
+     */
+    final ExecutorService newExecutor(final int threads) {
+        ExecutorService executor; // Created executor
+
+        if (this == VIRTUAL) {
+            try {
+                // Looked up at runtime, as the project is built for versions without virtual threads
+                executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            } catch (final NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+                log.warn("Virtual threads are not supported, using {} platform threads", threads);
+                executor = Executors.newFixedThreadPool(threads);
+            }
+        } else {
+            executor = Executors.newFixedThreadPool(threads);
+        }
+
+        return executor;
+    }
+
+}
@@ -0,0 +1,344 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.cli;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Result of checking the links between the pages of a site, listing the broken ones.
+ * <p>
+ * The report can be written as JSON, for other tools to read it:
+ *
+ * <pre>
+ * {
+ *   "pages": 2,
+ *   "links": 3,
+ *   "broken": [
+ *     { "page": "index.html", "href": "usage.html#missing", "reason": "missing-anchor" }
+ *   ]
+ * }
+ * </pre>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class LinkReport {
+
+    /**
+     * Broken links, sorted by page and link.
+     */
+    private final List<BrokenLink> broken;
+
+    /**
+     * Number of links checked.
+     */
+    private final int              links;
+
+    /**
+     * Number of pages checked.
+     */
+    private final int              pages;
+
+    /**
+     * Link which points to a missing page or anchor.
+     */
+    public static final class BrokenLink {
+
+        /**
+         * Link, as found in the page.
+         */
+        private final String href;
+
+        /**
+         * Page with the link, relative to the site.
+         */
+        private final String page;
+
+        /**
+         * Why the link is broken.
+         */
+        private final Reason reason;
+
+        /**
+         * Constructs a broken link.
+         *
+         * @param source
+         *            page with the link, relative to the site
+         * @param link
+         *            link, as found in the page
+         * @param cause
+         *            why the link is broken
+         */
+        BrokenLink(final String source, final String link, final Reason cause) {
+            super();
+
+            page = Objects.requireNonNull(source, "Received a null pointer as page");
+            href = Objects.requireNonNull(link, "Received a null pointer as link");
+            reason = Objects.requireNonNull(cause, "Received a null pointer as reason");
+        }
+
+        /**
+         * Returns the link, as found in the page.
+         *
+         * @return the link
+         */
+        public final String getHref() {
+            return href;
+        }
+
+        /**
+         * Returns the page with the link, relative to the site.
+         *
+         * @return the page with the link
+         */
+        public final String getPage() {
+            return page;
+        }
+
+        /**
+         * Returns why the link is broken.
+         *
+         * @return why the link is broken
+         */
+        public final Reason getReason() {
+            return reason;
+        }
+
+        @Override
+        public final String toString() {
+            return page + ": " + href + " (" + reason.getName() + ")";
+        }
+
+    }
+
+    /**
+     * Why a link is broken.
+     */
+    public enum Reason {
+
+        /**
+         * The page exists, but has no element with the id.
+         */
+        MISSING_ANCHOR("missing-anchor"),
+        /**
+         * The page doesn't exist.
+         */
+        MISSING_PAGE("missing-page");
+
+        /**
+         * Name in the report.
+         */
+        private final String name;
+
+        /**
+         * Constructs a reason with the received name.
+         *
+         * @param reportName
+         *            name in the report
+         */
+        Reason(final String reportName) {
+            name = reportName;
+        }
+
+        /**
+         * Returns the name in the report.
+         *
+         * @return the name in the report
+         */
+        public final String getName() {
+            return name;
+        }
+
+    }
+
+    /**
+     * Constructs a report.
+     *
+     * @param checkedPages
+     *            number of pages checked
+     * @param checkedLinks
+     *            number of links checked
+     * @param brokenLinks
+     *            broken links
+     */
+    LinkReport(final int checkedPages, final int checkedLinks, final List<BrokenLink> brokenLinks) {
+        super();
+
+        pages = checkedPages;
+        links = checkedLinks;
+        broken = Objects.requireNonNull(brokenLinks, "Received a null pointer as broken links")
+            .stream()
+            .sorted(Comparator.comparing(BrokenLink::getPage)
+                .thenComparing(BrokenLink::getHref))
+            .toList();
+    }
+
+    /**
+     * Escapes a value for a JSON string.
+     *
+     * @param value
+     *            value to escape
+     * @return the JSON string, quoted
+     */
+    private static final String quote(final String value) {
+        final StringBuilder quoted;  // Escaped value
+        char                current; // Current character
+
+        quoted = new StringBuilder(value.length() + 2);
+        quoted.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            current = value.charAt(i);
+            switch (current) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (current < ' ') {
+                        quoted.append(String.format(Locale.ROOT, "\\u%04x", (int) current));
+                    } else {
+                        quoted.append(current);
+                    }
+            }
+        }
+        quoted.append('"');
+
+        return quoted.toString();
+    }
+
+    /**
+     * Returns the broken links, sorted by page and link.
+     *
+     * @return the broken links
+     */
+    public final List<BrokenLink> getBroken() {
+        return broken;
+    }
+
+    /**
+     * Returns the number of links checked.
+     *
+     * @return the number of links checked
+     */
+    public final int getLinks() {
+        return links;
+    }
+
+    /**
+     * Returns the number of pages checked.
+     *
+     * @return the number of pages checked
+     */
+    public final int getPages() {
+        return pages;
+    }
+
+    /**
+     * Indicates if no link is broken.
+     *
+     * @return {@code true} if no link is broken, {@code false} otherwise
+     */
+    public final boolean isValid() {
+        return broken.isEmpty();
+    }
+
+    /**
+     * Returns the report as JSON.
+     *
+     * @return the report as JSON
+     */
+    public final String toJson() {
+        final StringBuilder json; // Report
+
+        json = new StringBuilder();
+        json.append("{\n  \"pages\": ")
+            .append(pages)
+            .append(",\n  \"links\": ")
+            .append(links)
+            .append(",\n  \"broken\": [");
+        for (int i = 0; i < broken.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("\n    { \"page\": ")
+                .append(quote(broken.get(i)
+                    .getPage()))
+                .append(", \"href\": ")
+                .append(quote(broken.get(i)
+                    .getHref()))
+                .append(", \"reason\": ")
+                .append(quote(broken.get(i)
+                    .getReason()
+                    .getName()))
+                .append(" }");
+        }
+        if (!broken.isEmpty()) {
+            json.append("\n  ");
+        }
+        json.append("]\n}\n");
+
+        return json.toString();
+    }
+
+    @Override
+    public final String toString() {
+        return "LinkReport [pages=" + pages + ", links=" + links + ", broken=" + broken.size() + "]";
+    }
+
+    /**
+     * Writes the report as JSON into the received file, in UTF-8.
+     *
+     * @param file
+     *            file for the report
+     * @throws IOException
+     *             if the file can't be written
+     */
+    public final void write(final Path file) throws IOException {
+        Objects.requireNonNull(file, "Received a null pointer as file");
+
+        try (final Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(toJson());
+        }
+    }
+
+}
@@ -0,0 +1,248 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.cli;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.bernardomg.velocity.tool.OperationBatch;
+
+/**
+ * Chain of tool operations, identified by name, as received from the command line.
+ * <p>
+ * The names are those of the {@link OperationBatch} methods, such as {@code fixHeadingIds} or {@code addClass}. Each
+ * operation is followed by as many arguments as the method receives, for example {@code addClass table table}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class OperationChain {
+
+    /**
+     * Number of arguments for each operation.
+     */
+    private static final Map<String, Integer> ARITIES = Map.ofEntries(Map.entry("addClass", 2),
+        Map.entry("fixAnchorLinks", 0), Map.entry("fixHeadingIds", 0), Map.entry("removeAttribute", 2),
+        Map.entry("removeClass", 2), Map.entry("removePointsFromAttr", 2), Map.entry("retag", 2),
+        Map.entry("swapTagWithParent", 1), Map.entry("transformIcons", 0), Map.entry("transformImagesToFigures", 0),
+        Map.entry("unwrap", 1), Map.entry("updateTableHeads", 0), Map.entry("wrap", 2));
+
+    /**
+     * Operations in the chain, each one being the name followed by its arguments.
+     */
+    private final List<List<String>>          operations = new ArrayList<>();
+
+    /**
+     * Default constructor.
+     */
+    public OperationChain() {
+        super();
+    }
+
+    /**
+     * Returns the number of arguments for the received operation.
+     *
+     * @param name
+     *            operation name
+     * @return the number of arguments for the operation
+     * @throws IllegalArgumentException
+     *             if the operation doesn't exist
+     */
+    public static final int getArity(final String name) {
+        final Integer arity; // Number of arguments
+
+        arity = ARITIES.get(name);
+        if (arity == null) {
+            throw new IllegalArgumentException("Unknown operation " + name);
+        }
+
+        return arity;
+    }
+
+    /**
+     * Returns the names of all the operations.
+     *
+     * @return the names of all the operations
+     */
+    public static final Set<String> getNames() {
+        return ARITIES.keySet();
+    }
+
+    /**
+     * Adds an operation at the end of the chain.
+     *
+     * @param name
+     *            operation name
+     * @param args
+     *            operation arguments
+     * @return this chain
+     * @throws IllegalArgumentException
+     *             if the operation doesn't exist, or doesn't receive that number of arguments
+     */
+    public final OperationChain add(final String name, final List<String> args) {
+        final List<String> operation; // Name followed by the arguments
+
+        Objects.requireNonNull(name, "Received a null pointer as name");
+        Objects.requireNonNull(args, "Received a null pointer as arguments");
+
+        if (getArity(name) != args.size()) {
+            throw new IllegalArgumentException(
+                "Operation " + name + " receives " + getArity(name) + " arguments, but got " + args.size());
+        }
+
+        operation = new ArrayList<>(args.size() + 1);
+        operation.add(name);
+        operation.addAll(args);
+        operations.add(Collections.unmodifiableList(operation));
+
+        return this;
+    }
+
+    /**
+     * Returns a key which identifies the chain, for telling apart the outputs of different chains.
+     * <p>
+     * Each name and argument is prefixed by its length, so arguments containing separators, such as {@code h1, h2},
+     * can't be confused with several arguments.
+     *
+     * @return the chain key
+     */
+    public final String getKey() {
+        final StringBuilder key; // Encoded operations
+
+        key = new StringBuilder();
+        for (final List<String> operation : operations) {
+            for (final String value : operation) {
+                key.append(value.length())
+                    .append(':')
+                    .append(value);
+            }
+            key.append(';');
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * Returns the operations in the chain, each one being the name followed by its arguments.
+     *
+     * @return the operations in the chain
+     */
+    public final List<List<String>> getOperations() {
+        return Collections.unmodifiableList(operations);
+    }
+
+    /**
+     * Indicates if the chain has no operations.
+     *
+     * @return {@code true} if the chain has no operations
+     */
+    public final boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    /**
+     * Returns a batch with the operations in the chain.
+     *
+     * @return a batch with the operations in the chain
+     */
+    public final OperationBatch toBatch() {
+        OperationBatch batch; // Batch being built
+
+        batch = new OperationBatch();
+        for (final List<String> operation : operations) {
+            batch = add(batch, operation);
+        }
+
+        return batch;
+    }
+
+    @Override
+    public final String toString() {
+        return operations.toString();
+    }
+
+    /**
+     * Adds an operation to the batch.
+     *
+     * @param batch
+     *            batch where the operation is added
+     * @param operation
+     *            name followed by the arguments
+     * @return the batch with the operation added
+     */
+    private final OperationBatch add(final OperationBatch batch, final List<String> operation) {
+        final OperationBatch result; // Batch with the operation
+
+        switch (operation.get(0)) {
+            case "addClass":
+                result = batch.addClass(operation.get(1), operation.get(2));
+                break;
+            case "fixAnchorLinks":
+                result = batch.fixAnchorLinks();
+                break;
+            case "fixHeadingIds":
+                result = batch.fixHeadingIds();
+                break;
+            case "removeAttribute":
+                result = batch.removeAttribute(operation.get(1), operation.get(2));
+                break;
+            case "removeClass":
+                result = batch.removeClass(operation.get(1), operation.get(2));
+                break;
+            case "removePointsFromAttr":
+                result = batch.removePointsFromAttr(operation.get(1), operation.get(2));
+                break;
+            case "retag":
+                result = batch.retag(operation.get(1), operation.get(2));
+                break;
+            case "swapTagWithParent":
+                result = batch.swapTagWithParent(operation.get(1));
+                break;
+            case "transformIcons":
+                result = batch.transformIcons();
+                break;
+            case "transformImagesToFigures":
+                result = batch.transformImagesToFigures();
+                break;
+            case "unwrap":
+                result = batch.unwrap(operation.get(1));
+                break;
+            case "updateTableHeads":
+                result = batch.updateTableHeads();
+                break;
+            case "wrap":
+                result = batch.wrap(operation.get(1), operation.get(2));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation.get(0));
+        }
+
+        return result;
+    }
+
+}
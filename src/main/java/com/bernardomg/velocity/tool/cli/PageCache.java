@@ -0,0 +1,480 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.cli;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bernardomg.velocity.tool.parser.ParserProfile;
+
+/**
+ * Outputs of previous runs, so pages which didn't change since then are not fixed again.
+ * <p>
+ * The cache directory contains a manifest, with the hash of the input and output of each page, and the outputs,
+ * stored by their hash. When a page has the same input as in the last run, or is already that run output, its previous
+ * output is reused without parsing the page.
+ * <p>
+ * The manifest also stores a fingerprint of the operations applied, of the parser settings and of the tools code, which
+ * is hashed from the tools jar, so a rebuilt jar is told apart from the last one. If any of them changes, the cache is
+ * discarded, as the outputs would be different.
+ * <p>
+ * The cache is thread-safe, so all the pages of a site can be fixed in parallel with the same cache.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class PageCache {
+
+    /**
+     * Manifest key for the fingerprint.
+     */
+    private static final String      FINGERPRINT_KEY = "fingerprint";
+
+    /**
+     * Logger for the class.
+     */
+    private static final Logger      log             = LoggerFactory.getLogger(PageCache.class);
+
+    /**
+     * Name of the manifest file.
+     */
+    private static final String      MANIFEST        = "manifest.properties";
+
+    /**
+     * Name of the outputs directory.
+     */
+    private static final String      OUTPUTS         = "outputs";
+
+    /**
+     * Pages stored in this run, with their input and output hashes.
+     */
+    private final Map<String, Entry> current         = new ConcurrentHashMap<>();
+
+    /**
+     * Cache directory.
+     */
+    private final Path               directory;
+
+    /**
+     * Fingerprint of the operations, parser settings and tools code.
+     */
+    private final String             fingerprint;
+
+    /**
+     * Pages from the last run, with their input and output hashes.
+     */
+    private final Map<String, Entry> previous        = new ConcurrentHashMap<>();
+
+    /**
+     * Input and output hashes of a page.
+     */
+    private static final class Entry {
+
+        /**
+         * Input hash.
+         */
+        private final String input;
+
+        /**
+         * Output hash.
+         */
+        private final String output;
+
+        /**
+         * Constructs an entry.
+         *
+         * @param inputHash
+         *            input hash
+         * @param outputHash
+         *            output hash
+         */
+        private Entry(final String inputHash, final String outputHash) {
+            super();
+
+            input = inputHash;
+            output = outputHash;
+        }
+
+    }
+
+    /**
+     * Constructs a cache in the received directory, for the received operations, parsed by the
+     * {@link ParserProfile#shared() shared parser profile}.
+     * <p>
+     * The manifest from the last run is loaded, unless its fingerprint doesn't match.
+     *
+     * @param cacheDirectory
+     *            cache directory
+     * @param operations
+     *            key of the operations applied to the pages, such as the {@link OperationChain#getKey() chain key}
+     * @throws IOException
+     *             if the manifest can't be read
+     */
+    public PageCache(final Path cacheDirectory, final String operations) throws IOException {
+        this(cacheDirectory, operations, ParserProfile.shared());
+    }
+
+    /**
+     * Constructs a cache in the received directory, for the received operations and parser settings.
+     * <p>
+     * The manifest from the last run is loaded, unless its fingerprint doesn't match.
+     *
+     * @param cacheDirectory
+     *            cache directory
+     * @param operations
+     *            key of the operations applied to the pages, such as the {@link OperationChain#getKey() chain key}
+     * @param profile
+     *            settings of the parser which reads the pages
+     * @throws IOException
+     *             if the manifest can't be read
+     */
+    public PageCache(final Path cacheDirectory, final String operations, final ParserProfile profile)
+            throws IOException {
+        super();
+
+        final String parser; // Parser settings
+
+        Objects.requireNonNull(operations, "Received a null pointer as operations");
+        Objects.requireNonNull(profile, "Received a null pointer as parser profile");
+
+        directory = Objects.requireNonNull(cacheDirectory, "Received a null pointer as directory");
+        parser = profile.isPreserveCase() + " " + profile.getMaxErrors() + " " + profile.isTrackPosition();
+        fingerprint = hash((operations + '\n' + parser + '\n' + getToolsHash()).getBytes(StandardCharsets.UTF_8));
+
+        load();
+    }
+
+    /**
+     * Returns the SHA-256 hash of the received contents, in hexadecimal.
+     *
+     * @param contents
+     *            contents to hash
+     * @return the hash of the contents
+     */
+    public static final String hash(final byte[] contents) {
+        try {
+            return HexFormat.of()
+                .formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(contents));
+        } catch (final NoSuchAlgorithmException e) {
+            // All the Java platforms support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns a hash of the tools code, or their version if the code can't be read.
+     *
+     * @return the hash of the tools code
+     */
+    private static final String getToolsHash() {
+        final CodeSource source; // Location of the tools code
+        String           hash;   // Code hash
+
+        source = PageCache.class.getProtectionDomain()
+            .getCodeSource();
+        if (source == null) {
+            hash = getToolsVersion();
+        } else {
+            try {
+                hash = hashCode(Path.of(source.getLocation()
+                    .toURI()));
+            } catch (final IOException | URISyntaxException | IllegalArgumentException e) {
+                log.debug("Can't read the tools code, using their version", e);
+                hash = getToolsVersion();
+            }
+        }
+
+        return hash;
+    }
+
+    /**
+     * Returns the version of the tools, or {@code dev} if it is not known.
+     *
+     * @return the version of the tools
+     */
+    private static final String getToolsVersion() {
+        final String version; // Version from the jar manifest
+
+        version = PageCache.class.getPackage()
+            .getImplementationVersion();
+
+        return (version == null) ? "dev" : version;
+    }
+
+    /**
+     * Returns the SHA-256 hash of the received code, which is either a jar or a directory with class files, in
+     * hexadecimal.
+     *
+     * @param code
+     *            jar or classes directory
+     * @return the hash of the code
+     * @throws IOException
+     *             if the code can't be read
+     */
+    private static final String hashCode(final Path code) throws IOException {
+        final MessageDigest digest;  // Hash of the code
+        final List<Path>    classes; // Class files, in a fixed order
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            // All the Java platforms support SHA-256
+            throw new IllegalStateException(e);
+        }
+
+        if (Files.isDirectory(code)) {
+            try (final Stream<Path> files = Files.walk(code)) {
+                classes = files.filter(file -> file.toString()
+                    .endsWith(".class"))
+                    .sorted()
+                    .collect(Collectors.toList());
+            }
+            for (final Path file : classes) {
+                digest.update(code.relativize(file)
+                    .toString()
+                    .getBytes(StandardCharsets.UTF_8));
+                read(file, digest);
+            }
+        } else {
+            read(code, digest);
+        }
+
+        return HexFormat.of()
+            .formatHex(digest.digest());
+    }
+
+    /**
+     * Adds the contents of the file to the digest.
+     *
+     * @param file
+     *            file to read
+     * @param digest
+     *            digest where the file is added
+     * @throws IOException
+     *             if the file can't be read
+     */
+    private static final void read(final Path file, final MessageDigest digest) throws IOException {
+        try (final InputStream input = new DigestInputStream(Files.newInputStream(file), digest)) {
+            input.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    /**
+     * Returns the output of the last run for the received page, if its input didn't change.
+     * <p>
+     * The page input may be the input of the last run, or its output, if the page was fixed in place and not generated
+     * again.
+     *
+     * @param page
+     *            page path, relative to the site
+     * @param inputHash
+     *            hash of the current page contents
+     * @return the output of the last run, or {@code null} if there is none
+     * @throws IOException
+     *             if the stored output can't be read
+     */
+    public final byte[] find(final String page, final String inputHash) throws IOException {
+        final Entry entry;  // Entry from the last run
+        byte[]      output; // Stored output
+
+        entry = previous.get(page);
+        if ((entry != null) && (entry.input.equals(inputHash) || entry.output.equals(inputHash))) {
+            try {
+                output = Files.readAllBytes(getOutputPath(entry.output));
+                current.put(page, entry);
+            } catch (final NoSuchFileException e) {
+                log.warn("Missing cached output for {}", page);
+                output = null;
+            }
+        } else {
+            output = null;
+        }
+
+        return output;
+    }
+
+    /**
+     * Returns the number of pages stored in this run.
+     *
+     * @return the number of pages stored in this run
+     */
+    public final int getSize() {
+        return current.size();
+    }
+
+    /**
+     * Writes the manifest, with the pages stored in this run, and removes the outputs no longer used.
+     *
+     * @throws IOException
+     *             if the manifest can't be written
+     */
+    public final void save() throws IOException {
+        final Properties  manifest; // Manifest to write
+        final Set<String> used;     // Outputs used in this run
+        final Path        temp;     // Temporary manifest
+
+        manifest = new Properties();
+        manifest.setProperty(FINGERPRINT_KEY, fingerprint);
+        used = new HashSet<>();
+        for (final Map.Entry<String, Entry> page : current.entrySet()) {
+            manifest.setProperty(page.getKey(), page.getValue().input + ' ' + page.getValue().output);
+            used.add(page.getValue().output);
+        }
+
+        Files.createDirectories(directory);
+        temp = SiteFixer.createTemp(directory.resolve(MANIFEST));
+        try (final Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            manifest.store(writer, "Pages fixed by the site fixer");
+        }
+        SiteFixer.replace(temp, directory.resolve(MANIFEST));
+
+        try (final Stream<Path> outputs = Files.list(directory.resolve(OUTPUTS))) {
+            outputs.filter(output -> !used.contains(output.getFileName()
+                .toString()))
+                .forEach(PageCache::delete);
+        } catch (final NoSuchFileException e) {
+            // No outputs stored
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Stores the output for the received page.
+     *
+     * @param page
+     *            page path, relative to the site
+     * @param inputHash
+     *            hash of the page input
+     * @param output
+     *            page output
+     * @throws IOException
+     *             if the output can't be written
+     */
+    public final void store(final String page, final String inputHash, final byte[] output) throws IOException {
+        final String outputHash; // Hash of the output
+        final Path   path;       // Path for the output
+        final Path   temp;       // Temporary file for the output
+
+        outputHash = hash(output);
+        path = getOutputPath(outputHash);
+
+        // Pages with the same output share the file
+        if (!Files.exists(path)) {
+            Files.createDirectories(path.getParent());
+            temp = SiteFixer.createTemp(path);
+            Files.write(temp, output);
+            SiteFixer.replace(temp, path);
+        }
+
+        current.put(page, new Entry(inputHash, outputHash));
+    }
+
+    /**
+     * Deletes a file.
+     *
+     * @param file
+     *            file to delete
+     */
+    private static final void delete(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the path for the output with the received hash.
+     *
+     * @param outputHash
+     *            output hash
+     * @return the path for the output
+     */
+    private final Path getOutputPath(final String outputHash) {
+        return directory.resolve(OUTPUTS)
+            .resolve(outputHash);
+    }
+
+    /**
+     * Loads the manifest from the last run, if it exists and its fingerprint matches.
+     *
+     * @throws IOException
+     *             if the manifest can't be read
+     */
+    private final void load() throws IOException {
+        final Properties manifest; // Stored manifest
+        final Path       path;     // Manifest path
+        String[]         hashes;   // Input and output hashes
+
+        path = directory.resolve(MANIFEST);
+        if (Files.exists(path)) {
+            manifest = new Properties();
+            try (final Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                manifest.load(reader);
+            }
+
+            if (fingerprint.equals(manifest.getProperty(FINGERPRINT_KEY))) {
+                for (final String page : manifest.stringPropertyNames()) {
+                    hashes = manifest.getProperty(page)
+                        .split(" ");
+                    if ((!FINGERPRINT_KEY.equals(page)) && (hashes.length == 2)) {
+                        previous.put(page, new Entry(hashes[0], hashes[1]));
+                    }
+                }
+                log.debug("Loaded {} cached pages", previous.size());
+            } else {
+                log.info("The operations or tools changed since the last run, the cache is discarded");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.cli;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Result of fixing the pages in a site.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class SiteFixResult {
+
+    /**
+     * Pages which couldn't be fixed, with the reason.
+     */
+    private final Map<Path, Exception> failures;
+
+    /**
+     * Number of pages fixed.
+     */
+    private final int                  fixed;
+
+    /**
+     * Number of pages taken from the cache.
+     */
+    private final int                  reused;
+
+    /**
+     * Constructs a result.
+     *
+     * @param fixedPages
+     *            number of pages fixed
+     * @param reusedPages
+     *            number of pages taken from the cache
+     * @param failedPages
+     *            pages which couldn't be fixed, with the reason
+     */
+    public SiteFixResult(final int fixedPages, final int reusedPages, final Map<Path, Exception> failedPages) {
+        super();
+
+        Objects.requireNonNull(failedPages, "Received a null pointer as failures");
+
+        fixed = fixedPages;
+        reused = reusedPages;
+        failures = Collections.unmodifiableMap(failedPages);
+    }
+
+    /**
+     * Returns the pages which couldn't be fixed, with the reason.
+     *
+     * @return the pages which couldn't be fixed
+     */
+    public final Map<Path, Exception> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Returns the number of pages fixed.
+     *
+     * @return the number of pages fixed
+     */
+    public final int getFixed() {
+        return fixed;
+    }
+
+    /**
+     * Returns the number of pages taken from the cache, without fixing them again.
+     *
+     * @return the number of pages taken from the cache
+     */
+    public final int getReused() {
+        return reused;
+    }
+
+    /**
+     * Indicates if all the pages were fixed.
+     *
+     * @return {@code true} if all the pages were fixed
+     */
+    public final boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+}
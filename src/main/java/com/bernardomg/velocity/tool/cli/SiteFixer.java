@@ -0,0 +1,575 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.cli;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jsoup.nodes.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.OperationBatch;
+import com.bernardomg.velocity.tool.PageScan;
+import com.bernardomg.velocity.tool.change.ChangeTracker;
+import com.bernardomg.velocity.tool.metrics.ToolStatistics;
+import com.bernardomg.velocity.tool.parser.ParserProfile;
+
+/**
+ * Fixes all the pages in a generated site, applying a batch of operations to each of them.
+ * <p>
+ * Each HTML file in the site directory is parsed, the batch is applied to its body, and the file is rewritten. Pages
+ * are fixed in parallel, either by a fixed pool of platform threads or by a virtual thread per page, depending on the
+ * {@link ExecutionMode}. The batch is immutable, and so it is shared by all the threads.
+ * <p>
+ * The number of pages open at once is bounded. With platform threads this is the size of the pool, while virtual
+ * threads wait on a semaphore before reading their page, so memory stays capped however many threads are started.
+ * <p>
+ * Files are replaced only once the fixed page has been fully written, so an interrupted run won't leave half written
+ * pages.
+ * <p>
+ * The code of each page is scanned before parsing it, and operations which can't change the page are skipped. Pages
+ * which no operation can change are not parsed nor written, and pages which the operations didn't change are not
+ * written.
+ * <p>
+ * When a {@link PageCache} is received, pages which didn't change since the last run reuse its output, without being
+ * parsed.
+ * <p>
+ * When a {@link SiteLinkIndex} is received, each page is added to it once fixed, from the parsed document. Pages which
+ * are not parsed to fix them are parsed only for the index.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class SiteFixer {
+
+    /**
+     * Logger for the class.
+     */
+    private static final Logger  log = LoggerFactory.getLogger(SiteFixer.class);
+
+    /**
+     * Operations to apply to each page.
+     */
+    private final OperationBatch batch;
+
+    /**
+     * Maximum number of pages fixed at once.
+     */
+    private final int            concurrency;
+
+    /**
+     * Writes the fixed pages.
+     */
+    private final HtmlTool       htmlTool;
+
+    /**
+     * Threads used to fix the pages.
+     */
+    private final ExecutionMode  mode;
+
+    /**
+     * Constructs a fixer which applies the received batch, with a worker per available core.
+     *
+     * @param operations
+     *            operations to apply to each page
+     */
+    public SiteFixer(final OperationBatch operations) {
+        this(operations, Runtime.getRuntime()
+            .availableProcessors());
+    }
+
+    /**
+     * Constructs a fixer which applies the received batch, with the received number of workers.
+     *
+     * @param operations
+     *            operations to apply to each page
+     * @param workers
+     *            number of workers
+     */
+    public SiteFixer(final OperationBatch operations, final int workers) {
+        this(operations, ExecutionMode.PLATFORM, workers);
+    }
+
+    /**
+     * Constructs a fixer which applies the received batch, with the received threads.
+     * <p>
+     * For platform threads the concurrency is the size of the pool. For virtual threads it is the maximum number of
+     * pages open at once.
+     *
+     * @param operations
+     *            operations to apply to each page
+     * @param executionMode
+     *            threads used to fix the pages
+     * @param maxConcurrency
+     *            maximum number of pages fixed at once
+     */
+    public SiteFixer(final OperationBatch operations, final ExecutionMode executionMode, final int maxConcurrency) {
+        super();
+
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("The concurrency should be positive, but got " + maxConcurrency);
+        }
+
+        batch = Objects.requireNonNull(operations, "Received a null pointer as operations");
+        mode = Objects.requireNonNull(executionMode, "Received a null pointer as execution mode");
+        concurrency = maxConcurrency;
+        htmlTool = new HtmlTool();
+    }
+
+    /**
+     * Returns all the HTML files in the received directory and its subdirectories, sorted by path.
+     *
+     * @param directory
+     *            directory to search
+     * @return all the HTML files in the directory
+     * @throws IOException
+     *             if the directory can't be read
+     */
+    public static final List<Path> findPages(final Path directory) throws IOException {
+        try (final Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile)
+                .filter(SiteFixer::isPage)
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Indicates if the file is an HTML page.
+     *
+     * @param file
+     *            file to check
+     * @return {@code true} if the file is an HTML page
+     */
+    private static final boolean isPage(final Path file) {
+        final String name; // File name
+
+        name = file.getFileName()
+            .toString()
+            .toLowerCase(Locale.ROOT);
+
+        return name.endsWith(".html") || name.endsWith(".htm");
+    }
+
+    /**
+     * Fixes all the pages in the received directory.
+     * <p>
+     * A page which can't be fixed doesn't stop the other pages, instead it is included in the failures of the result.
+     *
+     * @param directory
+     *            site directory
+     * @return the result of fixing the pages
+     * @throws IOException
+     *             if the directory can't be read, or the process is interrupted
+     */
+    public final SiteFixResult fix(final Path directory) throws IOException {
+        return fix(directory, null);
+    }
+
+    /**
+     * Fixes all the pages in the received directory.
+     * <p>
+     * Pages which didn't change since the last run take their output from the cache, which is saved once all the
+     * pages are fixed. A page which can't be fixed doesn't stop the other pages, instead it is included in the failures
+     * of the result.
+     *
+     * @param directory
+     *            site directory
+     * @param cache
+     *            outputs of the last run, or {@code null} to fix all the pages
+     * @return the result of fixing the pages
+     * @throws IOException
+     *             if the directory or cache can't be read, or the process is interrupted
+     */
+    public final SiteFixResult fix(final Path directory, final PageCache cache) throws IOException {
+        return fix(directory, cache, null);
+    }
+
+    /**
+     * Fixes all the pages in the received directory, adding them to the received index once fixed.
+     * <p>
+     * Pages which didn't change since the last run take their output from the cache, which is saved once all the
+     * pages are fixed. A page which can't be fixed doesn't stop the other pages, instead it is included in the failures
+     * of the result, and is not added to the index.
+     *
+     * @param directory
+     *            site directory
+     * @param cache
+     *            outputs of the last run, or {@code null} to fix all the pages
+     * @param index
+     *            index for the ids and links of the fixed pages, or {@code null} to not index them
+     * @return the result of fixing the pages
+     * @throws IOException
+     *             if the directory or cache can't be read, or the process is interrupted
+     */
+    public final SiteFixResult fix(final Path directory, final PageCache cache, final SiteLinkIndex index)
+            throws IOException {
+        final List<Path>            pages;    // Pages to fix
+        final List<Future<Boolean>> tasks;    // Task for each page, returning if the cache was used
+        final Map<Path, Exception>  failures; // Pages which couldn't be fixed
+        final ExecutorService       executor; // Workers
+        final Semaphore             open;     // Permits for open pages
+        final int                   threads;  // Platform threads
+        int                         reused;   // Pages taken from the cache
+
+        Objects.requireNonNull(directory, "Received a null pointer as directory");
+
+        pages = findPages(directory);
+        log.debug("Fixing {} pages in {} with {} threads, up to {} at once", pages.size(), directory, mode,
+            concurrency);
+
+        if (mode == ExecutionMode.PLATFORM) {
+            threads = concurrency;
+        } else {
+            // Only used if virtual threads are not supported
+            threads = Math.min(concurrency, Runtime.getRuntime()
+                .availableProcessors());
+        }
+
+        failures = new LinkedHashMap<>();
+        reused = 0;
+        open = new Semaphore(concurrency);
+        executor = mode.newExecutor(threads);
+        try {
+            tasks = new ArrayList<>(pages.size());
+            for (final Path page : pages) {
+                tasks.add(executor.submit(() -> {
+                    open.acquire();
+                    try {
+                        return fixPage(directory, page, cache, index);
+                    } finally {
+                        open.release();
+                    }
+                }));
+            }
+
+            for (int i = 0; i < tasks.size(); i++) {
+                try {
+                    if (tasks.get(i)
+                        .get()) {
+                        reused++;
+                    }
+                } catch (final ExecutionException e) {
+                    if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+                    log.error("Failed fixing {}", pages.get(i), e.getCause());
+                    failures.put(pages.get(i), (Exception) e.getCause());
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread()
+                .interrupt();
+            throw new InterruptedIOException("Interrupted while fixing " + directory);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (cache != null) {
+            cache.save();
+        }
+
+        return new SiteFixResult(pages.size() - failures.size() - reused, reused, failures);
+    }
+
+    /**
+     * Creates an empty temporary file next to the received target, to be moved over it by
+     * {@link #replace(Path, Path) replace}.
+     * <p>
+     * The file is created with the default permissions, as any other file, and not only readable by its owner.
+     *
+     * @param target
+     *            file which will be replaced
+     * @return the temporary file
+     * @throws IOException
+     *             if the file can't be created
+     */
+    static final Path createTemp(final Path target) throws IOException {
+        final Path   absolute; // Target absolute path
+        final String name;     // Temporary file name
+
+        absolute = target.toAbsolutePath();
+        name = "." + absolute.getFileName() + '.' + UUID.randomUUID() + ".tmp";
+
+        return Files.createFile(absolute.resolveSibling(name));
+    }
+
+    /**
+     * Replaces the target file with the source file.
+     * <p>
+     * The file is moved atomically, so readers find either the old contents or the new ones. If the file system can't
+     * move it atomically, as happens with some network and overlay file systems, it is just replaced. A replaced file
+     * keeps its permissions.
+     *
+     * @param source
+     *            file with the new contents
+     * @param target
+     *            file to replace
+     * @throws IOException
+     *             if the file can't be moved
+     */
+    static final void replace(final Path source, final Path target) throws IOException {
+        try {
+            if (Files.exists(target) && Files.getFileStore(source)
+                .supportsFileAttributeView(PosixFileAttributeView.class)) {
+                Files.setPosixFilePermissions(source, Files.getPosixFilePermissions(target));
+            }
+            try {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                log.debug("Can't replace {} atomically", target);
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    /**
+     * Fixes a single page, or takes its output from the cache.
+     *
+     * @param directory
+     *            site directory
+     * @param page
+     *            page to fix
+     * @param cache
+     *            outputs of the last run, or {@code null} to fix the page
+     * @param index
+     *            index for the fixed page, or {@code null} to not index it
+     * @return {@code true} if the output was taken from the cache
+     * @throws IOException
+     *             if the page can't be read or written
+     */
+    private final boolean fixPage(final Path directory, final Path page, final PageCache cache,
+            final SiteLinkIndex index) throws IOException {
+        final byte[]         input;      // Page contents
+        final String         name;       // Page path in the site
+        final String         hash;       // Hash of the page contents
+        final byte[]         cached;     // Output from the cache
+        final byte[]         output;     // Fixed page, if needed for the cache
+        final boolean        reused;     // Cache used flag
+        final OperationBatch applicable; // Operations which may change the page
+        final Document       document;   // Parsed page
+        final boolean        measured;   // The parse is measured
+        final long           start;      // Parse start time
+
+        input = Files.readAllBytes(page);
+        if ((cache == null) && (index == null)) {
+            name = null;
+        } else {
+            name = directory.relativize(page)
+                .toString()
+                .replace('\\', '/');
+        }
+        if (cache == null) {
+            hash = null;
+            cached = null;
+        } else {
+            hash = PageCache.hash(input);
+            cached = cache.find(name, hash);
+        }
+
+        if (cached == null) {
+            applicable = getApplicable(input);
+            if (applicable.getSize() == 0) {
+                // Nothing to change, the page is not parsed
+                output = input;
+                if (index != null) {
+                    index(index, name, page, input);
+                }
+            } else {
+                measured = ToolStatistics.shared()
+                    .isEnabled();
+                start = measured ? System.nanoTime() : 0;
+                // The charset is taken from the page
+                document = ParserProfile.shared()
+                    .parse(new ByteArrayInputStream(input), null, page.toUri()
+                        .toString());
+                if (measured) {
+                    ToolStatistics.shared()
+                        .recordParse(document.location(), input.length, System.nanoTime() - start);
+                }
+                document.outputSettings()
+                    .prettyPrint(false);
+
+                applicable.apply(document.body());
+                if (index != null) {
+                    index.add(name, document);
+                }
+
+                if (!ChangeTracker.shared()
+                    .isChanged(document)) {
+                    // The operations changed nothing, the page is not serialized
+                    output = input;
+                } else if (cache == null) {
+                    // Only the file needs the page, which is streamed into it
+                    output = null;
+                    write(page, document);
+                } else {
+                    output = serialize(document);
+                    write(page, output);
+                }
+            }
+            if (cache != null) {
+                cache.store(name, hash, output);
+            }
+            reused = false;
+        } else {
+            if (!Arrays.equals(cached, input)) {
+                write(page, cached);
+            }
+            if (index != null) {
+                index(index, name, page, cached);
+            }
+            reused = true;
+        }
+
+        return reused;
+    }
+
+    /**
+     * Returns the operations which may change the page, checking its code before parsing it.
+     *
+     * @param input
+     *            page contents
+     * @return the operations which may change the page
+     */
+    private final OperationBatch getApplicable(final byte[] input) {
+        final OperationBatch applicable; // Operations which may change the page
+
+        if ((input.length > 1) && (((input[0] == (byte) 0xFE) && (input[1] == (byte) 0xFF))
+                || ((input[0] == (byte) 0xFF) && (input[1] == (byte) 0xFE)))) {
+            // UTF-16 can't be scanned byte by byte
+            applicable = batch;
+        } else {
+            // The markup is ASCII in the other charsets, and any other character can be read in any way
+            applicable = batch.filter(PageScan.of(new String(input, StandardCharsets.ISO_8859_1)));
+        }
+
+        return applicable;
+    }
+
+    /**
+     * Parses a page which wasn't parsed to fix it, and adds it to the index.
+     *
+     * @param index
+     *            index for the page
+     * @param name
+     *            page path in the site
+     * @param page
+     *            page file
+     * @param contents
+     *            page contents
+     * @throws IOException
+     *             if the page can't be parsed
+     */
+    private final void index(final SiteLinkIndex index, final String name, final Path page, final byte[] contents)
+            throws IOException {
+        index.add(name, ParserProfile.shared()
+            .parse(new ByteArrayInputStream(contents), null, page.toUri()
+                .toString()));
+    }
+
+    /**
+     * Returns the code of the document, encoded with its charset.
+     *
+     * @param document
+     *            document to serialize
+     * @return the encoded document code
+     * @throws IOException
+     *             if the document can't be serialized
+     */
+    private final byte[] serialize(final Document document) throws IOException {
+        final ByteArrayOutputStream output; // Encoded code
+
+        output = new ByteArrayOutputStream();
+        htmlTool.write(document, output, document.outputSettings());
+
+        return output.toByteArray();
+    }
+
+    /**
+     * Replaces the file contents, writing first to a temporary file.
+     *
+     * @param file
+     *            file to replace
+     * @param contents
+     *            new contents
+     * @throws IOException
+     *             if the file can't be written
+     */
+    private final void write(final Path file, final byte[] contents) throws IOException {
+        final Path temp; // Temporary file
+
+        temp = createTemp(file);
+        Files.write(temp, contents);
+        replace(temp, file);
+    }
+
+    /**
+     * Replaces the file contents with the code of the document, streaming it first into a temporary file.
+     *
+     * @param file
+     *            file to replace
+     * @param document
+     *            document to write
+     * @throws IOException
+     *             if the file can't be written
+     */
+    private final void write(final Path file, final Document document) throws IOException {
+        final Path temp; // Temporary file
+
+        temp = createTemp(file);
+        try (final OutputStream output = Files.newOutputStream(temp)) {
+            htmlTool.write(document, output, document.outputSettings());
+        }
+        replace(temp, file);
+    }
+
+}
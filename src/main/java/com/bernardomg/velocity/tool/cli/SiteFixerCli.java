@@ -0,0 +1,234 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.cli;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+import com.bernardomg.velocity.tool.metrics.RecordingToolMetrics;
+import com.bernardomg.velocity.tool.metrics.SlowOperationDetector;
+import com.bernardomg.velocity.tool.metrics.ToolInstrumentation;
+import com.bernardomg.velocity.tool.metrics.ToolMetrics;
+
+/**
+ * Command line tool which fixes the pages of an already generated site.
+ * <p>
+ * Usage:
+ * {@code SiteFixerCli [--mode platform|virtual] [--threads N] [--max-open N] [--incremental [--cache DIR]]}
+ * {@code [--metrics] [--slow MS] [--links FILE] --op NAME [ARGS...]... [SITE]}
+ * <p>
+ * The operations are applied in the order received. The site directory defaults to {@code target/site}. Pages are
+ * fixed by a pool of platform threads, by default one per core, or by a virtual thread per page, with up to
+ * {@code --max-open} pages open at once.
+ * <p>
+ * With {@code --incremental} the outputs are cached, by default in the {@code site-fixer-cache} directory next to the
+ * site, and pages which didn't change since the last run are not fixed again. With {@code --metrics} every tool
+ * operation is measured, and a report is printed at the end. With {@code --slow} the calls taking longer than the
+ * received milliseconds, or selecting too many elements, are printed at the end. With {@code --links} the ids and
+ * links of the fixed pages are indexed, and once all the pages are fixed the links between them are checked, writing
+ * the broken ones into a JSON report. Broken links make the run fail. For example:
+ * <p>
+ * {@code SiteFixerCli --op fixHeadingIds --op fixAnchorLinks --op addClass table table target/site}
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class SiteFixerCli {
+
+    /**
+     * Exit status when some pages couldn't be fixed.
+     */
+    public static final int EXIT_FAILURE = 1;
+
+    /**
+     * Exit status when all the pages were fixed.
+     */
+    public static final int EXIT_SUCCESS = 0;
+
+    /**
+     * Exit status when the arguments are not valid.
+     */
+    public static final int EXIT_USAGE   = 2;
+
+    /**
+     * Private constructor to avoid initialization.
+     */
+    private SiteFixerCli() {
+        super();
+    }
+
+    /**
+     * Runs the tool and exits with its status.
+     *
+     * @param args
+     *            command line arguments
+     */
+    public static void main(final String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs the tool.
+     *
+     * @param args
+     *            command line arguments
+     * @param out
+     *            stream for the output
+     * @param err
+     *            stream for the errors
+     * @return the exit status
+     */
+    public static final int run(final String[] args, final PrintStream out, final PrintStream err) {
+        final SiteFixResult         result;   // Result of fixing the site
+        final long                  start;    // Start time
+        final PageCache             cache;    // Outputs of the last run
+        final ToolMetrics           previous; // Metrics before the run
+        final RecordingToolMetrics  metrics;  // Metrics for the run
+        final SlowOperationDetector detector; // Slow calls in the run
+        final SiteLinkIndex         index;    // Ids and links of the pages
+        final LinkReport            links;    // Broken links
+        SiteFixerOptions            options;  // Parsed arguments
+        int                         status;   // Exit status
+
+        try {
+            options = SiteFixerOptions.parse(args);
+        } catch (final IllegalArgumentException e) {
+            err.println(e.getMessage());
+            options = null;
+        }
+
+        if (options == null) {
+            printUsage(err);
+            status = EXIT_USAGE;
+        } else if (options.isHelp()) {
+            printUsage(out);
+            status = EXIT_SUCCESS;
+        } else if (!Files.isDirectory(options.getSite())) {
+            err.println("Not a directory: " + options.getSite());
+            status = EXIT_USAGE;
+        } else {
+            previous = ToolInstrumentation.getMetrics();
+            if (options.isMetrics()) {
+                metrics = new RecordingToolMetrics();
+            } else {
+                metrics = null;
+            }
+            if (options.getSlowBudget() > 0) {
+                detector = new SlowOperationDetector(Duration.ofMillis(options.getSlowBudget()),
+                    SlowOperationDetector.DEFAULT_MAX_MATCHES);
+            } else {
+                detector = null;
+            }
+            ToolInstrumentation.setMetrics(ToolMetrics.all(Objects.requireNonNullElse(metrics, ToolMetrics.none()),
+                Objects.requireNonNullElse(detector, ToolMetrics.none())));
+            start = System.nanoTime();
+            try {
+                if (options.isIncremental()) {
+                    cache = new PageCache(options.getCache(), options.getChain()
+                        .getKey());
+                } else {
+                    cache = null;
+                }
+                if (options.getLinks() == null) {
+                    index = null;
+                } else {
+                    index = new SiteLinkIndex();
+                }
+                result = new SiteFixer(options.getChain()
+                    .toBatch(), options.getMode(), options.getConcurrency()).fix(options.getSite(), cache, index);
+                out.printf("Fixed %d pages, reused %d, in %d ms%n", result.getFixed(), result.getReused(),
+                    (System.nanoTime() - start) / 1_000_000);
+                for (final Map.Entry<Path, Exception> failure : result.getFailures()
+                    .entrySet()) {
+                    err.println("Failed " + failure.getKey() + ": " + failure.getValue()
+                        .getMessage());
+                }
+                if (metrics != null) {
+                    out.println(metrics.getReport());
+                }
+                if (detector != null) {
+                    out.println(detector.getReport());
+                }
+                if (index == null) {
+                    links = null;
+                } else {
+                    links = index.verify(options.getSite());
+                    out.printf("Checked %d links in %d pages, %d broken%n", links.getLinks(), links.getPages(),
+                        links.getBroken()
+                            .size());
+                    for (final LinkReport.BrokenLink broken : links.getBroken()) {
+                        err.println("Broken link " + broken);
+                    }
+                    links.write(options.getLinks());
+                }
+                if (!result.isSuccessful() || ((links != null) && !links.isValid())) {
+                    status = EXIT_FAILURE;
+                } else {
+                    status = EXIT_SUCCESS;
+                }
+            } catch (final IOException e) {
+                err.println("Failed reading " + options.getSite() + " or writing its reports: " + e.getMessage());
+                status = EXIT_FAILURE;
+            } finally {
+                ToolInstrumentation.setMetrics(previous);
+            }
+        }
+
+        return status;
+    }
+
+    /**
+     * Prints the usage help.
+     *
+     * @param stream
+     *            stream for the help
+     */
+    private static final void printUsage(final PrintStream stream) {
+        stream.println("Usage: SiteFixerCli [--mode platform|virtual] [--threads N] [--max-open N]");
+        stream.println("                    [--incremental [--cache DIR]] [--metrics] [--slow MS] [--links FILE]");
+        stream.println("                    --op NAME [ARGS...]... [SITE]");
+        stream.println("  SITE          site directory, by default " + SiteFixerOptions.DEFAULT_SITE);
+        stream.println("  --mode MODE   platform for a pool of threads, virtual for a virtual thread per page");
+        stream.println("  --threads N   number of platform threads, by default the number of cores");
+        stream.println("  --max-open N  pages open at once with virtual threads, by default "
+                + SiteFixerOptions.DEFAULT_MAX_OPEN);
+        stream.println("  --incremental reuse the outputs of the last run for pages which didn't change");
+        stream.println("  --cache DIR   cache for incremental runs, by default site-fixer-cache next to the site");
+        stream.println("  --metrics     measure the tool operations, and print a report at the end");
+        stream.println("  --slow MS     print the operation calls taking longer than the milliseconds received");
+        stream.println("  --links FILE  check the links between the pages, and write the broken ones as JSON");
+        stream.println("  --op NAME     operation to apply, followed by its arguments");
+        stream.println("Operations:");
+        for (final String name : new TreeSet<>(OperationChain.getNames())) {
+            stream.println("  " + name + " (" + OperationChain.getArity(name) + " arguments)");
+        }
+    }
+
+}
@@ -0,0 +1,350 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.cli;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Options received by the command line tool.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class SiteFixerOptions {
+
+    /**
+     * Maximum number of pages open at once used when none is received.
+     */
+    static final int             DEFAULT_MAX_OPEN = 64;
+
+    /**
+     * Site directory used when none is received.
+     */
+    static final String          DEFAULT_SITE     = "target/site";
+
+    /**
+     * Cache directory, for incremental runs.
+     */
+    private Path                 cache            = null;
+
+    /**
+     * Operations to apply.
+     */
+    private final OperationChain chain            = new OperationChain();
+
+    /**
+     * Help requested flag.
+     */
+    private boolean              help             = false;
+
+    /**
+     * Incremental run flag.
+     */
+    private boolean              incremental      = false;
+
+    /**
+     * File for the link report, or {@code null} to not check the links.
+     */
+    private Path                 links            = null;
+
+    /**
+     * Maximum number of pages open at once, for virtual threads.
+     */
+    private int                  maxOpen          = DEFAULT_MAX_OPEN;
+
+    /**
+     * Metrics report flag.
+     */
+    private boolean              metrics          = false;
+
+    /**
+     * Threads used to fix the pages.
+     */
+    private ExecutionMode        mode             = ExecutionMode.PLATFORM;
+
+    /**
+     * Site directory.
+     */
+    private Path                 site             = Paths.get(DEFAULT_SITE);
+
+    /**
+     * Time budget for each operation call, in milliseconds, or 0 to not detect the slow calls.
+     */
+    private int                  slowBudget       = 0;
+
+    /**
+     * Number of workers, for platform threads.
+     */
+    private int                  threads          = Runtime.getRuntime()
+        .availableProcessors();
+
+    /**
+     * Default constructor.
+     */
+    private SiteFixerOptions() {
+        super();
+    }
+
+    /**
+     * Parses the command line arguments.
+     *
+     * @param args
+     *            command line arguments
+     * @return the received options
+     * @throws IllegalArgumentException
+     *             if the arguments are not valid
+     */
+    static final SiteFixerOptions parse(final String[] args) {
+        final SiteFixerOptions options;  // Parsed options
+        boolean                siteRead; // Site directory received flag
+        int                    index;    // Current argument
+        int                    arity;    // Number of arguments for an operation
+
+        options = new SiteFixerOptions();
+        siteRead = false;
+        index = 0;
+        while (index < args.length) {
+            switch (args[index]) {
+                case "--cache":
+                    if (index + 1 >= args.length) {
+                        throw new IllegalArgumentException("Missing value after --cache");
+                    }
+                    options.cache = Paths.get(args[index + 1]);
+                    index += 2;
+                    break;
+                case "-h":
+                case "--help":
+                    options.help = true;
+                    index++;
+                    break;
+                case "--incremental":
+                    options.incremental = true;
+                    index++;
+                    break;
+                case "--links":
+                    if (index + 1 >= args.length) {
+                        throw new IllegalArgumentException("Missing value after --links");
+                    }
+                    options.links = Paths.get(args[index + 1]);
+                    index += 2;
+                    break;
+                case "--max-open":
+                    options.maxOpen = parsePositive(args, index);
+                    index += 2;
+                    break;
+                case "--metrics":
+                    options.metrics = true;
+                    index++;
+                    break;
+                case "--mode":
+                    if (index + 1 >= args.length) {
+                        throw new IllegalArgumentException("Missing value after --mode");
+                    }
+                    options.mode = ExecutionMode.fromName(args[index + 1]);
+                    index += 2;
+                    break;
+                case "--op":
+                    if (index + 1 >= args.length) {
+                        throw new IllegalArgumentException("Missing operation name after --op");
+                    }
+                    arity = OperationChain.getArity(args[index + 1]);
+                    if (index + 2 + arity > args.length) {
+                        throw new IllegalArgumentException(
+                            "Operation " + args[index + 1] + " receives " + arity + " arguments");
+                    }
+                    options.chain.add(args[index + 1], Arrays.asList(args)
+                        .subList(index + 2, index + 2 + arity));
+                    index += 2 + arity;
+                    break;
+                case "--slow":
+                    options.slowBudget = parsePositive(args, index);
+                    index += 2;
+                    break;
+                case "--threads":
+                    options.threads = parsePositive(args, index);
+                    index += 2;
+                    break;
+                default:
+                    if (args[index].startsWith("--")) {
+                        throw new IllegalArgumentException("Unknown option " + args[index]);
+                    }
+                    if (siteRead) {
+                        throw new IllegalArgumentException("Received more than one site directory");
+                    }
+                    options.site = Paths.get(args[index]);
+                    siteRead = true;
+                    index++;
+            }
+        }
+
+        if ((!options.help) && options.chain.isEmpty()) {
+            throw new IllegalArgumentException("No operation received");
+        }
+
+        return options;
+    }
+
+    /**
+     * Parses the value of an option as a positive number.
+     *
+     * @param args
+     *            command line arguments
+     * @param index
+     *            index of the option
+     * @return the option value
+     * @throws IllegalArgumentException
+     *             if the value is missing or is not a positive number
+     */
+    private static final int parsePositive(final String[] args, final int index) {
+        final int value; // Parsed value
+
+        if (index + 1 >= args.length) {
+            throw new IllegalArgumentException("Missing value after " + args[index]);
+        }
+
+        try {
+            value = Integer.parseInt(args[index + 1]);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + args[index] + ": " + args[index + 1], e);
+        }
+
+        if (value <= 0) {
+            throw new IllegalArgumentException("The value for " + args[index] + " should be positive");
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns the cache directory, for incremental runs.
+     * <p>
+     * By default this is the {@code site-fixer-cache} directory next to the site directory.
+     *
+     * @return the cache directory
+     */
+    final Path getCache() {
+        final Path directory; // Cache directory
+
+        if (cache == null) {
+            directory = site.toAbsolutePath()
+                .resolveSibling("site-fixer-cache");
+        } else {
+            directory = cache;
+        }
+
+        return directory;
+    }
+
+    /**
+     * Returns the operations to apply.
+     *
+     * @return the operations to apply
+     */
+    final OperationChain getChain() {
+        return chain;
+    }
+
+    /**
+     * Returns the maximum number of pages fixed at once, which depends on the execution mode.
+     *
+     * @return the maximum number of pages fixed at once
+     */
+    final int getConcurrency() {
+        final int concurrency; // Pages fixed at once
+
+        if (mode == ExecutionMode.PLATFORM) {
+            concurrency = threads;
+        } else {
+            concurrency = maxOpen;
+        }
+
+        return concurrency;
+    }
+
+    /**
+     * Returns the file for the link report.
+     *
+     * @return the file for the link report, or {@code null} if the links are not checked
+     */
+    final Path getLinks() {
+        return links;
+    }
+
+    /**
+     * Returns the threads used to fix the pages.
+     *
+     * @return the threads used to fix the pages
+     */
+    final ExecutionMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the site directory.
+     *
+     * @return the site directory
+     */
+    final Path getSite() {
+        return site;
+    }
+
+    /**
+     * Returns the time budget for each operation call, in milliseconds.
+     *
+     * @return the time budget, or 0 if the slow calls are not detected
+     */
+    final int getSlowBudget() {
+        return slowBudget;
+    }
+
+    /**
+     * Indicates if the run is incremental, reusing the outputs from the last run.
+     *
+     * @return {@code true} if the run is incremental
+     */
+    final boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Indicates if the tool operations should be measured, and reported at the end.
+     *
+     * @return {@code true} if the tool operations should be measured
+     */
+    final boolean isMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Indicates if the help was requested.
+     *
+     * @return {@code true} if the help was requested
+     */
+    final boolean isHelp() {
+        return help;
+    }
+
+}
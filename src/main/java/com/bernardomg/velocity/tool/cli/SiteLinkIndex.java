@@ -0,0 +1,276 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.cli;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.select.NodeTraversor;
+
+import com.bernardomg.velocity.tool.cli.LinkReport.BrokenLink;
+import com.bernardomg.velocity.tool.cli.LinkReport.Reason;
+
+/**
+ * Ids and links of all the pages in a site, which checks the links point to existing pages and anchors.
+ * <p>
+ * Pages are added while they are fixed, from the already parsed, and fixed, document, so building the index doesn't
+ * parse them again. Once all the pages are added, the links are checked in parallel against the index, without reading
+ * the pages again.
+ * <p>
+ * Links to anchors in the same page, and relative links to other files in the site, are checked. Links with a scheme,
+ * such as {@code https:} or {@code mailto:}, and links from the root of the server are ignored, as they can't be
+ * resolved inside the site. Links to files other than pages are only checked to exist.
+ * <p>
+ * The index is thread-safe, so pages can be added by all the threads fixing the site.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class SiteLinkIndex {
+
+    /**
+     * Start of a link with a scheme, or to another server.
+     */
+    private static final Pattern            EXTERNAL = Pattern.compile("^([a-zA-Z][a-zA-Z0-9+.-]*:|//).*");
+
+    /**
+     * Ids in each page.
+     */
+    private final Map<String, Set<String>>  ids      = new ConcurrentHashMap<>();
+
+    /**
+     * Links to check in each page.
+     */
+    private final Map<String, List<String>> links    = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an empty index.
+     */
+    public SiteLinkIndex() {
+        super();
+    }
+
+    /**
+     * Returns the path of the link target, relative to the site, or {@code null} if it is out of the site.
+     *
+     * @param page
+     *            page with the link
+     * @param path
+     *            link path, without the anchor nor the query
+     * @return the target path, or {@code null} if it is out of the site
+     */
+    private static final String resolve(final String page, final String path) {
+        final Path   parent;   // Page directory
+        final Path   resolved; // Target path
+        final String target;   // Target path in the site
+        String       decoded;  // Path without escapes
+
+        try {
+            decoded = URLDecoder.decode(path.replace("+", "%2B"), StandardCharsets.UTF_8);
+        } catch (final IllegalArgumentException e) {
+            // Not escaped
+            decoded = path;
+        }
+
+        parent = Paths.get(page)
+            .getParent();
+        if (parent == null) {
+            resolved = Paths.get(decoded)
+                .normalize();
+        } else {
+            resolved = parent.resolve(decoded)
+                .normalize();
+        }
+
+        if (resolved.startsWith("..")) {
+            target = null;
+        } else if (decoded.endsWith("/")) {
+            target = resolved.resolve("index.html")
+                .toString()
+                .replace('\\', '/');
+        } else {
+            target = resolved.toString()
+                .replace('\\', '/');
+        }
+
+        return target;
+    }
+
+    /**
+     * Adds the ids and links of a page. A page added again replaces the previous one.
+     *
+     * @param page
+     *            page path, relative to the site, with {@code /} as separator
+     * @param root
+     *            parsed page
+     */
+    public final void add(final String page, final Element root) {
+        final Set<String>  pageIds;   // Ids in the page
+        final List<String> pageLinks; // Links in the page
+
+        Objects.requireNonNull(page, "Received a null pointer as page");
+        Objects.requireNonNull(root, "Received a null pointer as root");
+
+        pageIds = new HashSet<>();
+        pageLinks = new ArrayList<>();
+        NodeTraversor.traverse((node, depth) -> {
+            final Element element; // Current element
+            final String  href;    // Link
+
+            if (node instanceof Element) {
+                element = (Element) node;
+                if (element.hasAttr("id")) {
+                    pageIds.add(element.id());
+                }
+                if ("a".equals(element.normalName()) && element.hasAttr("href")) {
+                    href = element.attr("href");
+                    if (!href.isEmpty() && !EXTERNAL.matcher(href)
+                        .matches() && !href.startsWith("/")) {
+                        pageLinks.add(href);
+                    }
+                }
+            }
+        }, root);
+
+        ids.put(page, Set.copyOf(pageIds));
+        links.put(page, List.copyOf(pageLinks));
+    }
+
+    /**
+     * Returns the number of pages indexed.
+     *
+     * @return the number of pages indexed
+     */
+    public final int size() {
+        return ids.size();
+    }
+
+    /**
+     * Checks the links of all the pages, in parallel.
+     * <p>
+     * Links to pages which are not in the index, and links to other files, are checked to exist in the site directory.
+     * Anchors are only checked for the pages in the index.
+     *
+     * @param directory
+     *            site directory
+     * @return the broken links
+     */
+    public final LinkReport verify(final Path directory) {
+        final LongAdder        checked; // Links checked
+        final List<BrokenLink> broken;  // Broken links
+
+        Objects.requireNonNull(directory, "Received a null pointer as directory");
+
+        checked = new LongAdder();
+        broken = links.entrySet()
+            .parallelStream()
+            .flatMap(entry -> {
+                checked.add(entry.getValue()
+                    .size());
+                return entry.getValue()
+                    .stream()
+                    .map(href -> check(directory, entry.getKey(), href))
+                    .filter(Objects::nonNull);
+            })
+            .collect(Collectors.toList());
+
+        return new LinkReport(links.size(), checked.intValue(), broken);
+    }
+
+    /**
+     * Checks a link.
+     *
+     * @param directory
+     *            site directory
+     * @param page
+     *            page with the link
+     * @param href
+     *            link to check
+     * @return the broken link, or {@code null} if the link is valid
+     */
+    private final BrokenLink check(final Path directory, final String page, final String href) {
+        final int         hash;      // Position of the anchor
+        final String      path;      // Link path
+        final String      anchor;    // Link anchor, empty if there is none
+        final String      target;    // Target page
+        final Set<String> targetIds; // Ids in the target page
+        final BrokenLink  broken;    // Broken link
+        int               query;     // Position of the query
+
+        hash = href.indexOf('#');
+        if (hash < 0) {
+            path = href;
+            anchor = "";
+        } else {
+            path = href.substring(0, hash);
+            anchor = href.substring(hash + 1);
+        }
+        query = path.indexOf('?');
+        if (query < 0) {
+            query = path.length();
+        }
+
+        if (query == 0) {
+            target = page;
+        } else {
+            target = resolve(page, path.substring(0, query));
+        }
+
+        if (target == null) {
+            // Out of the site
+            broken = null;
+        } else {
+            targetIds = ids.get(target);
+            if (targetIds != null) {
+                if (anchor.isEmpty() || targetIds.contains(anchor)) {
+                    broken = null;
+                } else {
+                    broken = new BrokenLink(page, href, Reason.MISSING_ANCHOR);
+                }
+            } else if (Files.exists(directory.resolve(target))) {
+                // Files which are not indexed can't be checked for anchors
+                broken = null;
+            } else {
+                broken = new BrokenLink(page, href, Reason.MISSING_PAGE);
+            }
+        }
+
+        return broken;
+    }
+
+}
@@ -0,0 +1,69 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.metrics;
+
+import java.util.List;
+
+/**
+ * Metrics which pass the measures to several others. Enabled if any of them is.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class CompositeToolMetrics implements ToolMetrics {
+
+    /**
+     * Metrics receiving the measures.
+     */
+    private final List<ToolMetrics> delegates;
+
+    /**
+     * Constructs metrics which pass the measures to the received ones.
+     *
+     * @param metrics
+     *            metrics receiving the measures
+     */
+    CompositeToolMetrics(final List<ToolMetrics> metrics) {
+        super();
+
+        delegates = List.copyOf(metrics);
+    }
+
+    @Override
+    public final boolean isEnabled() {
+        return delegates.stream()
+            .anyMatch(ToolMetrics::isEnabled);
+    }
+
+    @Override
+    public final void record(final String operation, final String selector, final String page, final int matched,
+            final int changed, final long nanos) {
+        for (final ToolMetrics delegate : delegates) {
+            if (delegate.isEnabled()) {
+                delegate.record(operation, selector, page, matched, changed, nanos);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations, for estimating percentiles.
+ * <p>
+ * Each power of two is split into {@value #SUB_BUCKETS} buckets, so values are kept with an error below 12.5%, while
+ * the histogram takes a fixed, small amount of memory however many values it receives. Values below
+ * {@value #SUB_BUCKETS} are kept exactly.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class LatencyHistogram {
+
+    /**
+     * Bits for the buckets in each power of two.
+     */
+    private static final int    SUB_BITS    = 3;
+
+    /**
+     * Buckets in each power of two.
+     */
+    private static final int    SUB_BUCKETS = 1 << SUB_BITS;
+
+    /**
+     * Number of values in each bucket.
+     */
+    private final AtomicLongArray counts;
+
+    /**
+     * Constructs an empty histogram.
+     */
+    LatencyHistogram() {
+        super();
+
+        counts = new AtomicLongArray((Long.SIZE - SUB_BITS + 1) * SUB_BUCKETS);
+    }
+
+    /**
+     * Returns the bucket for the value.
+     *
+     * @param value
+     *            value to store
+     * @return the value bucket
+     */
+    static final int bucket(final long value) {
+        final int  shift;  // Bits discarded from the value
+        final int  bucket; // Value bucket
+
+        if (value < SUB_BUCKETS) {
+            bucket = (int) Math.max(value, 0);
+        } else {
+            shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BITS;
+            bucket = ((shift + 1) * SUB_BUCKETS) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+        }
+
+        return bucket;
+    }
+
+    /**
+     * Returns the highest value stored in the bucket.
+     *
+     * @param bucket
+     *            bucket to check
+     * @return the highest value in the bucket
+     */
+    static final long highest(final int bucket) {
+        final int  shift;  // Bits discarded from the values
+        final long lowest; // Lowest value in the bucket
+        final long value;  // Highest value in the bucket
+
+        if (bucket < SUB_BUCKETS) {
+            value = bucket;
+        } else {
+            shift = (bucket / SUB_BUCKETS) - 1;
+            lowest = ((long) (SUB_BUCKETS + (bucket % SUB_BUCKETS))) << shift;
+            value = lowest + ((1L << shift) - 1);
+        }
+
+        return value;
+    }
+
+    /**
+     * Stores a value.
+     *
+     * @param value
+     *            value to store
+     */
+    final void add(final long value) {
+        counts.incrementAndGet(bucket(value));
+    }
+
+    /**
+     * Returns the value below which the received fraction of the values are, rounded up to the highest value of its
+     * bucket.
+     *
+     * @param fraction
+     *            fraction of the values, between 0 and 1
+     * @return the value for the fraction, or 0 if there are no values
+     */
+    final long percentile(final double fraction) {
+        final long target; // Number of values to reach
+        long       total;  // Number of values
+        long       seen;   // Values in the buckets already checked
+        long       value;  // Value for the fraction
+        int        i;      // Bucket index
+
+        total = 0;
+        for (i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+
+        target = Math.max(1, (long) Math.ceil(total * fraction));
+        seen = 0;
+        value = 0;
+        i = 0;
+        while ((total > 0) && (i < counts.length()) && (seen < target)) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                value = highest(i);
+            }
+            i++;
+        }
+
+        return value;
+    }
+
+}
@@ -0,0 +1,114 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulated measures for an operation and selector. Thread-safe.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class OperationStats {
+
+    /**
+     * Elements changed.
+     */
+    private final LongAdder        changed     = new LongAdder();
+
+    /**
+     * Durations, for the percentiles.
+     */
+    private final LatencyHistogram durations   = new LatencyHistogram();
+
+    /**
+     * Number of calls.
+     */
+    private final LongAdder        invocations = new LongAdder();
+
+    /**
+     * Elements selected.
+     */
+    private final LongAdder        matched     = new LongAdder();
+
+    /**
+     * Operation name.
+     */
+    private final String           operation;
+
+    /**
+     * Selector used by the operation.
+     */
+    private final String           selector;
+
+    /**
+     * Total time, in nanoseconds.
+     */
+    private final LongAdder        totalNanos  = new LongAdder();
+
+    /**
+     * Constructs the stats for an operation and selector.
+     *
+     * @param op
+     *            operation name
+     * @param sel
+     *            selector used by the operation
+     */
+    OperationStats(final String op, final String sel) {
+        super();
+
+        operation = op;
+        selector = sel;
+    }
+
+    /**
+     * Adds a call.
+     *
+     * @param matchedCount
+     *            number of elements selected
+     * @param changedCount
+     *            number of elements changed
+     * @param nanos
+     *            time taken, in nanoseconds
+     */
+    final void add(final int matchedCount, final int changedCount, final long nanos) {
+        invocations.increment();
+        matched.add(matchedCount);
+        changed.add(changedCount);
+        totalNanos.add(nanos);
+        durations.add(nanos);
+    }
+
+    /**
+     * Returns a snapshot of the measures.
+     *
+     * @return a snapshot of the measures
+     */
+    final OperationSummary summarize() {
+        return new OperationSummary(operation, selector, invocations.sum(), matched.sum(), changed.sum(),
+            totalNanos.sum(), durations.percentile(0.5), durations.percentile(0.99));
+    }
+
+}
@@ -0,0 +1,192 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.metrics;
+
+import java.util.Locale;
+
+/**
+ * Snapshot of the measures for an operation and selector. Immutable.
+ * <p>
+ * Percentiles are approximate, rounded up with an error below 12.5%.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class OperationSummary {
+
+    /**
+     * Elements changed.
+     */
+    private final long   changed;
+
+    /**
+     * Number of calls.
+     */
+    private final long   invocations;
+
+    /**
+     * Elements selected.
+     */
+    private final long   matched;
+
+    /**
+     * Operation name.
+     */
+    private final String operation;
+
+    /**
+     * Median time, in nanoseconds.
+     */
+    private final long   p50Nanos;
+
+    /**
+     * 99th percentile time, in nanoseconds.
+     */
+    private final long   p99Nanos;
+
+    /**
+     * Selector used by the operation.
+     */
+    private final String selector;
+
+    /**
+     * Total time, in nanoseconds.
+     */
+    private final long   totalNanos;
+
+    /**
+     * Constructs a summary.
+     *
+     * @param op
+     *            operation name
+     * @param sel
+     *            selector used by the operation, {@code null} if it has none
+     * @param calls
+     *            number of calls
+     * @param matchedCount
+     *            elements selected
+     * @param changedCount
+     *            elements changed
+     * @param total
+     *            total time, in nanoseconds
+     * @param p50
+     *            median time, in nanoseconds
+     * @param p99
+     *            99th percentile time, in nanoseconds
+     */
+    public OperationSummary(final String op, final String sel, final long calls, final long matchedCount,
+            final long changedCount, final long total, final long p50, final long p99) {
+        super();
+
+        operation = op;
+        selector = sel;
+        invocations = calls;
+        matched = matchedCount;
+        changed = changedCount;
+        totalNanos = total;
+        p50Nanos = p50;
+        p99Nanos = p99;
+    }
+
+    /**
+     * Returns the number of elements changed.
+     *
+     * @return the number of elements changed
+     */
+    public final long getChanged() {
+        return changed;
+    }
+
+    /**
+     * Returns the number of calls.
+     *
+     * @return the number of calls
+     */
+    public final long getInvocations() {
+        return invocations;
+    }
+
+    /**
+     * Returns the number of elements selected.
+     *
+     * @return the number of elements selected
+     */
+    public final long getMatched() {
+        return matched;
+    }
+
+    /**
+     * Returns the operation name.
+     *
+     * @return the operation name
+     */
+    public final String getOperation() {
+        return operation;
+    }
+
+    /**
+     * Returns the median time, in nanoseconds.
+     *
+     * @return the median time
+     */
+    public final long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    /**
+     * Returns the 99th percentile time, in nanoseconds.
+     *
+     * @return the 99th percentile time
+     */
+    public final long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    /**
+     * Returns the selector used by the operation.
+     *
+     * @return the selector, {@code null} if the operation has none
+     */
+    public final String getSelector() {
+        return selector;
+    }
+
+    /**
+     * Returns the total time, in nanoseconds.
+     *
+     * @return the total time
+     */
+    public final long getTotalNanos() {
+        return totalNanos;
+    }
+
+    @Override
+    public final String toString() {
+        return String.format(Locale.ROOT,
+            "%s[%s]: %d calls, %d matched, %d changed, %.3f ms total, p50 %.3f ms, p99 %.3f ms", operation,
+            selector == null ? "" : selector, invocations, matched, changed, totalNanos / 1e6, p50Nanos / 1e6,
+            p99Nanos / 1e6);
+    }
+
+}
@@ -0,0 +1,119 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Metrics which keep count of every operation, for each selector it uses.
+ * <p>
+ * Counters are lock-free, and durations are kept in fixed size histograms, so recording takes constant time and
+ * memory. Thread-safe.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class RecordingToolMetrics implements ToolMetrics {
+
+    /**
+     * Stats for each operation and selector.
+     */
+    private final Map<String, OperationStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs empty metrics.
+     */
+    public RecordingToolMetrics() {
+        super();
+    }
+
+    /**
+     * Returns a report with all the operations, the slowest first.
+     *
+     * @return a report with all the operations
+     */
+    public final String getReport() {
+        final StringBuilder          report;    // Report text
+        final List<OperationSummary> summaries; // Summaries to report
+
+        summaries = getSummaries();
+        report = new StringBuilder("Site tool operations");
+        if (summaries.isEmpty()) {
+            report.append(": none recorded");
+        }
+        for (final OperationSummary summary : summaries) {
+            report.append(System.lineSeparator())
+                .append("  ")
+                .append(summary);
+        }
+
+        return report.toString();
+    }
+
+    /**
+     * Returns the summaries of all the operations, the slowest, by total time, first.
+     *
+     * @return the summaries of all the operations
+     */
+    public final List<OperationSummary> getSummaries() {
+        final List<OperationSummary> summaries; // Summaries to return
+
+        summaries = new ArrayList<>();
+        for (final OperationStats stat : stats.values()) {
+            summaries.add(stat.summarize());
+        }
+        summaries.sort(Comparator.comparingLong(OperationSummary::getTotalNanos)
+            .reversed());
+
+        return summaries;
+    }
+
+    @Override
+    public final boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public final void record(final String operation, final String selector, final String page, final int matched,
+            final int changed, final long nanos) {
+        final String key; // Operation and selector key
+
+        // Operation names never contain line breaks
+        key = (selector == null) ? operation : operation + '\n' + selector;
+        stats.computeIfAbsent(key, k -> new OperationStats(operation, selector))
+            .add(matched, changed, nanos);
+    }
+
+    /**
+     * Discards everything recorded.
+     */
+    public final void reset() {
+        stats.clear();
+    }
+
+}
@@ -0,0 +1,129 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.metrics;
+
+/**
+ * Call to a tool operation which went over the thresholds of a {@link SlowOperationDetector}. Immutable.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class SlowOperation {
+
+    /**
+     * Elements selected.
+     */
+    private final int    matched;
+
+    /**
+     * Time taken, in nanoseconds.
+     */
+    private final long   nanos;
+
+    /**
+     * Operation name.
+     */
+    private final String operation;
+
+    /**
+     * Page location.
+     */
+    private final String page;
+
+    /**
+     * Selector used by the operation.
+     */
+    private final String selector;
+
+    /**
+     * Constructs a slow operation call.
+     *
+     * @param op
+     *            operation name
+     * @param sel
+     *            selector used by the operation, {@code null} if it has none
+     * @param location
+     *            page location, empty if unknown
+     * @param matchedCount
+     *            elements selected
+     * @param time
+     *            time taken, in nanoseconds
+     */
+    public SlowOperation(final String op, final String sel, final String location, final int matchedCount,
+            final long time) {
+        super();
+
+        operation = op;
+        selector = sel;
+        page = location;
+        matched = matchedCount;
+        nanos = time;
+    }
+
+    /**
+     * Returns the number of elements selected.
+     *
+     * @return the number of elements selected
+     */
+    public final int getMatched() {
+        return matched;
+    }
+
+    /**
+     * Returns the time taken, in nanoseconds.
+     *
+     * @return the time taken
+     */
+    public final long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Returns the operation name.
+     *
+     * @return the operation name
+     */
+    public final String getOperation() {
+        return operation;
+    }
+
+    /**
+     * Returns the page location.
+     *
+     * @return the page location, empty if unknown
+     */
+    public final String getPage() {
+        return page;
+    }
+
+    /**
+     * Returns the selector used by the operation.
+     *
+     * @return the selector, {@code null} if the operation has none
+     */
+    public final String getSelector() {
+        return selector;
+    }
+
+}
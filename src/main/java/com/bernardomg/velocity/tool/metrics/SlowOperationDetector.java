@@ -0,0 +1,260 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.metrics;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics which detect the operation calls going over a time budget, or selecting too many elements, such as
+ * {@code :has} or {@code :contains} selectors over huge pages.
+ * <p>
+ * Calls within the thresholds only cost two comparisons, so the detector can be left on for every build. Only the
+ * slowest calls, and apart from them those selecting the most elements, are kept, each up to a limit. This way a burst
+ * of slow calls won't push out a selector matching too much, which is usually fast. Both are reported as tables with
+ * their page, selector and timings. Thread-safe.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class SlowOperationDetector implements ToolMetrics {
+
+    /**
+     * Number of slow calls kept by default.
+     */
+    public static final int                    DEFAULT_LIMIT       = 50;
+
+    /**
+     * Maximum number of elements selected by default.
+     */
+    public static final int                    DEFAULT_MAX_MATCHES = 10_000;
+
+    /**
+     * Time budget for each call, in nanoseconds.
+     */
+    private final long                         budget;
+
+    /**
+     * Number of slow calls detected.
+     */
+    private final LongAdder                    detected            = new LongAdder();
+
+    /**
+     * Calls selecting the most elements, the one selecting the fewest at the head.
+     */
+    private final PriorityQueue<SlowOperation> largest;
+
+    /**
+     * Number of slow calls kept, and of calls selecting too many elements kept.
+     */
+    private final int                          limit;
+
+    /**
+     * Maximum number of elements selected by each call.
+     */
+    private final int                          maxMatches;
+
+    /**
+     * Calls over the time budget, the fastest at the head. Used as lock for both queues.
+     */
+    private final PriorityQueue<SlowOperation> slowest;
+
+    /**
+     * Constructs a detector with the received thresholds, which keeps the default number of calls.
+     *
+     * @param timeBudget
+     *            time budget for each call
+     * @param matches
+     *            maximum number of elements selected by each call
+     */
+    public SlowOperationDetector(final Duration timeBudget, final int matches) {
+        this(timeBudget, matches, DEFAULT_LIMIT);
+    }
+
+    /**
+     * Constructs a detector with the received thresholds.
+     *
+     * @param timeBudget
+     *            time budget for each call
+     * @param matches
+     *            maximum number of elements selected by each call
+     * @param kept
+     *            number of slow calls kept, and of calls selecting too many elements kept
+     */
+    public SlowOperationDetector(final Duration timeBudget, final int matches, final int kept) {
+        super();
+
+        budget = Objects.requireNonNull(timeBudget, "Received a null pointer as time budget")
+            .toNanos();
+        if (kept < 1) {
+            throw new IllegalArgumentException("Limit should be positive, but received " + kept);
+        }
+        maxMatches = matches;
+        limit = kept;
+        slowest = new PriorityQueue<>(Comparator.comparingLong(SlowOperation::getNanos));
+        largest = new PriorityQueue<>(Comparator.comparingInt(SlowOperation::getMatched));
+    }
+
+    /**
+     * Returns the number of slow calls detected, including those not kept.
+     *
+     * @return the number of slow calls detected
+     */
+    public final long getDetected() {
+        return detected.sum();
+    }
+
+    /**
+     * Returns the calls selecting too many elements kept, the one selecting the most first.
+     *
+     * @return the calls selecting too many elements kept
+     */
+    public final List<SlowOperation> getLargestOperations() {
+        final List<SlowOperation> operations; // Calls kept
+
+        synchronized (slowest) {
+            operations = new ArrayList<>(largest);
+        }
+        operations.sort(Comparator.comparingInt(SlowOperation::getMatched)
+            .reversed());
+
+        return operations;
+    }
+
+    /**
+     * Returns a table with the slow calls kept, the slowest first, followed by another with the calls selecting too
+     * many elements kept, the one selecting the most first.
+     *
+     * @return a table with the slow calls
+     */
+    public final String getReport() {
+        final StringBuilder       report; // Report text
+        final List<SlowOperation> slow;   // Slow calls to report
+        final List<SlowOperation> large;  // Calls selecting too many elements to report
+
+        slow = getSlowOperations();
+        large = getLargestOperations();
+        report = new StringBuilder(String.format(Locale.ROOT,
+            "Slow site tool operations: %d over %.3f ms or %d elements", getDetected(), budget / 1e6, maxMatches));
+        append(report, slow);
+        if (!large.isEmpty()) {
+            report.append(System.lineSeparator())
+                .append(String.format(Locale.ROOT, "Selecting over %d elements:", maxMatches));
+            append(report, large);
+        }
+
+        return report.toString();
+    }
+
+    /**
+     * Returns the calls over the time budget kept, the slowest first.
+     *
+     * @return the slow calls kept
+     */
+    public final List<SlowOperation> getSlowOperations() {
+        final List<SlowOperation> operations; // Calls kept
+
+        synchronized (slowest) {
+            operations = new ArrayList<>(slowest);
+        }
+        operations.sort(Comparator.comparingLong(SlowOperation::getNanos)
+            .reversed());
+
+        return operations;
+    }
+
+    @Override
+    public final boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public final void record(final String operation, final String selector, final String page, final int matched,
+            final int changed, final long nanos) {
+        final SlowOperation call; // Call detected
+
+        if ((nanos > budget) || (matched > maxMatches)) {
+            detected.increment();
+            call = new SlowOperation(operation, selector, page, matched, nanos);
+            synchronized (slowest) {
+                if (nanos > budget) {
+                    slowest.add(call);
+                    if (slowest.size() > limit) {
+                        // Drops the fastest
+                        slowest.poll();
+                    }
+                }
+                if (matched > maxMatches) {
+                    largest.add(call);
+                    if (largest.size() > limit) {
+                        // Drops the one selecting the fewest elements
+                        largest.poll();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards the slow calls detected.
+     */
+    public final void reset() {
+        synchronized (slowest) {
+            slowest.clear();
+            largest.clear();
+            detected.reset();
+        }
+    }
+
+    /**
+     * Appends a table with the received calls to the report.
+     *
+     * @param report
+     *            report text
+     * @param operations
+     *            calls to append
+     */
+    private final void append(final StringBuilder report, final List<SlowOperation> operations) {
+        if (!operations.isEmpty()) {
+            report.append(System.lineSeparator())
+                .append(String.format(Locale.ROOT, "%13s %8s  %-24s %-32s %s", "Time", "Matched", "Operation",
+                    "Selector", "Page"));
+        }
+        for (final SlowOperation operation : operations) {
+            report.append(System.lineSeparator())
+                .append(String.format(Locale.ROOT, "%10.3f ms %8d  %-24s %-32s %s", operation.getNanos() / 1e6,
+                    operation.getMatched(), operation.getOperation(),
+                    (operation.getSelector() == null) ? "-" : operation.getSelector(),
+                    operation.getPage()
+                        .isEmpty() ? "-" : operation.getPage()));
+        }
+    }
+
+}
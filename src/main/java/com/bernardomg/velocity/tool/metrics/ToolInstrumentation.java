@@ -0,0 +1,143 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.metrics;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Holds the metrics which receive the measures of all the tools.
+ * <p>
+ * By default nothing is recorded. Setting the {@value #PROPERTY} system property to {@code true}, for example through
+ * {@code MAVEN_OPTS}, will record every operation, and print a report once the build ends. Setting the
+ * {@value #SLOW_PROPERTY} system property to a number of milliseconds will detect the calls over that budget, or
+ * selecting more than {@value #SLOW_MATCHES_PROPERTY} elements, by default
+ * {@value SlowOperationDetector#DEFAULT_MAX_MATCHES}, and print them once the build ends. Otherwise, any
+ * {@link ToolMetrics} can be set with {@link #setMetrics(ToolMetrics)}.
+ * <p>
+ * The site plugin offers no hook for the end of the build, so the reports are printed from a shutdown hook. They are
+ * written straight into the standard output, as logging backends may stop in their own shutdown hooks, but this is
+ * still best-effort: nothing is printed if the JVM is halted. Runs which know when they end, such as the command line
+ * tool, should set their own metrics and print their reports themselves.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class ToolInstrumentation {
+
+    /**
+     * System property which enables the metrics.
+     */
+    public static final String          PROPERTY              = "velocity.tools.metrics";
+
+    /**
+     * System property with the maximum number of elements selected by a call, for the slow calls.
+     */
+    public static final String          SLOW_MATCHES_PROPERTY = "velocity.tools.slow.matches";
+
+    /**
+     * System property with the time budget for each call, in milliseconds, which enables detecting the slow calls.
+     */
+    public static final String          SLOW_PROPERTY         = "velocity.tools.slow";
+
+    /**
+     * Current metrics.
+     */
+    private static volatile ToolMetrics metrics               = initialMetrics();
+
+    /**
+     * Private constructor to avoid initialization.
+     */
+    private ToolInstrumentation() {
+        super();
+    }
+
+    /**
+     * Returns the current metrics.
+     *
+     * @return the current metrics
+     */
+    public static final ToolMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the metrics which will receive the measures from now on.
+     *
+     * @param toolMetrics
+     *            metrics to use
+     */
+    public static final void setMetrics(final ToolMetrics toolMetrics) {
+        metrics = Objects.requireNonNull(toolMetrics, "Received a null pointer as metrics");
+    }
+
+    /**
+     * Returns the metrics to use at start, depending on the system properties.
+     *
+     * @return the metrics to use at start
+     */
+    private static final ToolMetrics initialMetrics() {
+        final List<ToolMetrics>      enabled;   // Metrics enabled by the properties
+        final List<Supplier<String>> reports;   // Reports to print at the end
+        final RecordingToolMetrics   recording; // Metrics for all the calls
+        final SlowOperationDetector  detector;  // Metrics for the slow calls
+        final Long                   budget;    // Time budget for the slow calls
+        final ToolMetrics            initial;   // Metrics to use
+
+        enabled = new ArrayList<>();
+        reports = new ArrayList<>();
+        if (Boolean.getBoolean(PROPERTY)) {
+            recording = new RecordingToolMetrics();
+            enabled.add(recording);
+            reports.add(recording::getReport);
+        }
+        budget = Long.getLong(SLOW_PROPERTY);
+        if (budget != null) {
+            detector = new SlowOperationDetector(Duration.ofMillis(budget),
+                Integer.getInteger(SLOW_MATCHES_PROPERTY, SlowOperationDetector.DEFAULT_MAX_MATCHES));
+            enabled.add(detector);
+            reports.add(detector::getReport);
+        }
+
+        if (enabled.isEmpty()) {
+            initial = ToolMetrics.none();
+        } else {
+            // The site plugin offers no hook for the end of the build, and the logger may be stopped by then
+            Runtime.getRuntime()
+                .addShutdownHook(new Thread(() -> reports.forEach(r -> System.out.println(r.get())),
+                    "site-tool-metrics"));
+            if (enabled.size() == 1) {
+                initial = enabled.get(0);
+            } else {
+                initial = ToolMetrics.all(enabled.toArray(new ToolMetrics[0]));
+            }
+        }
+
+        return initial;
+    }
+
+}
@@ -0,0 +1,91 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Receives the measures of each tool operation.
+ * <p>
+ * Each call to an operation, such as adding a class or fixing the heading ids, is recorded once it ends, with the
+ * number of elements it selected, how many of them it changed, and the time it took. Operations are named after the
+ * tool method, and come with the selector they used, if any, and the page they worked on, if known.
+ * <p>
+ * The tools check {@link #isEnabled()} before measuring anything, so a disabled implementation, such as the default
+ * one returned by {@link #none()}, costs nothing.
+ * <p>
+ * Implementations should be thread-safe, as the tools are shared by all the threads.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public interface ToolMetrics {
+
+    /**
+     * Returns metrics which pass the measures to all the received ones.
+     *
+     * @param metrics
+     *            metrics receiving the measures
+     * @return metrics which pass the measures to all the received ones
+     */
+    public static ToolMetrics all(final ToolMetrics... metrics) {
+        return new CompositeToolMetrics(Arrays.asList(metrics));
+    }
+
+    /**
+     * Returns metrics which record nothing.
+     *
+     * @return metrics which record nothing
+     */
+    public static ToolMetrics none() {
+        return NoToolMetrics.INSTANCE;
+    }
+
+    /**
+     * Checks if the operations should be measured.
+     *
+     * @return {@code true} if the operations should be measured, {@code false} otherwise
+     */
+    public boolean isEnabled();
+
+    /**
+     * Records a call to an operation.
+     *
+     * @param operation
+     *            operation name
+     * @param selector
+     *            CSS selector used by the operation, {@code null} if it has none
+     * @param page
+     *            location of the page, empty if unknown
+     * @param matched
+     *            number of elements selected
+     * @param changed
+     *            number of elements changed
+     * @param nanos
+     *            time taken, in nanoseconds
+     */
+    public void record(final String operation, final String selector, final String page, final int matched,
+            final int changed, final long nanos);
+
+}
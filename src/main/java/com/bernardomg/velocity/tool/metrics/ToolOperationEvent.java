@@ -0,0 +1,106 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a call to a tool operation.
+ * <p>
+ * Disabled by default. It is enabled through the recording settings, for example with
+ * {@code -XX:StartFlightRecording:com.bernardomg.velocity.tool.Operation#enabled=true}, or with a custom {@code .jfc}
+ * file. A threshold can be set the same way to only record the slow calls.
+ * <p>
+ * While disabled, the tools only create the event, which the JIT compiler usually removes.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@Name(ToolOperationEvent.NAME)
+@Label("Site Tool Operation")
+@Description("Call to an operation of the Maven Site tools")
+@Category({ "Maven Site", "Tools" })
+@Enabled(false)
+@StackTrace(false)
+public final class ToolOperationEvent extends Event {
+
+    /**
+     * Event name, used to enable it.
+     */
+    public static final String NAME = "com.bernardomg.velocity.tool.Operation";
+
+    /**
+     * Elements changed.
+     */
+    @Label("Changed")
+    @Description("Number of elements changed")
+    public int                 changed;
+
+    /**
+     * Elements selected.
+     */
+    @Label("Matched")
+    @Description("Number of elements selected")
+    public int                 matched;
+
+    /**
+     * Operation name.
+     */
+    @Label("Operation")
+    public String              operation;
+
+    /**
+     * Page location.
+     */
+    @Label("Page")
+    @Description("Location of the page, if known")
+    public String              page;
+
+    /**
+     * Size of the code parsed.
+     */
+    @Label("Parsed Size")
+    @Description("Size of the code parsed, only for the calls which parse a page")
+    public long                parsedSize;
+
+    /**
+     * Selector used by the operation.
+     */
+    @Label("Selector")
+    public String              selector;
+
+    /**
+     * Constructs an event.
+     */
+    public ToolOperationEvent() {
+        super();
+    }
+
+}
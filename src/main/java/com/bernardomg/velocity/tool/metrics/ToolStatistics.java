@@ -0,0 +1,378 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bernardomg.velocity.tool.cache.SelectorCache;
+
+/**
+ * Live statistics of the tools, registered into the platform MBean server as {@value #OBJECT_NAME}.
+ * <p>
+ * The tools feed the single instance returned by {@link #shared()}, which is registered the first time it is used.
+ * They only measure their calls while it is enabled, through the {@value #PROPERTY} system property, or from a JMX
+ * client while the tools are running. Otherwise the tools read no clock, and record nothing.
+ * <p>
+ * Counters are lock-free. The time of each page is added up while the page is among the
+ * {@value #TRACKED_PAGES} pages which received time most recently. Once more pages are tracked, the half which has been
+ * idle the longest is moved into the {@value #SLOWEST_PAGES} slowest pages, and the rest discarded, so memory stays
+ * bounded however many pages are seen. A page receiving time after leaving the tracked pages starts adding up again,
+ * so the time of pages which are not processed at once may be reported short. Time is added and moved while holding
+ * the page in the tracked pages, so none is lost when a page is moved while receiving time.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class ToolStatistics implements ToolStatisticsMXBean {
+
+    /**
+     * Name of the registered MBean.
+     */
+    public static final String          OBJECT_NAME   = "com.bernardomg.velocity.tool:type=ToolStatistics";
+
+    /**
+     * System property which enables the statistics.
+     */
+    public static final String          PROPERTY      = "velocity.tools.statistics";
+
+    /**
+     * Number of pages returned as the slowest ones.
+     */
+    public static final int             SLOWEST_PAGES = 10;
+
+    /**
+     * Maximum number of pages whose time is being added up.
+     */
+    public static final int             TRACKED_PAGES = 256;
+
+    /**
+     * Logger for the class.
+     */
+    private static final Logger         log           = LoggerFactory.getLogger(ToolStatistics.class);
+
+    /**
+     * Statistics shared by all the tools.
+     */
+    private static final ToolStatistics SHARED        = register(
+        new ToolStatistics(SelectorCache.shared(), Boolean.getBoolean(PROPERTY)));
+
+    /**
+     * Size of the code parsed.
+     */
+    private final LongAdder             bytesParsed   = new LongAdder();
+
+    /**
+     * The tools record their calls.
+     */
+    private volatile boolean            enabled;
+
+    /**
+     * Pages parsed.
+     */
+    private final LongAdder             pagesParsed   = new LongAdder();
+
+    /**
+     * Time spent parsing, in nanoseconds.
+     */
+    private final LongAdder             parseNanos    = new LongAdder();
+
+    /**
+     * Selector cache to report on.
+     */
+    private final SelectorCache         selectors;
+
+    /**
+     * Slowest pages which left the tracked pages, with their time in nanoseconds. Guarded by itself.
+     */
+    private final Map<String, Long>     slowest       = new HashMap<>();
+
+    /**
+     * Pages whose time is being added up, by location.
+     */
+    private final Map<String, PageTime> tracked       = new ConcurrentHashMap<>();
+
+    /**
+     * Time spent on a page.
+     */
+    private static final class PageTime {
+
+        /**
+         * Time spent, in nanoseconds.
+         */
+        private final LongAdder nanos   = new LongAdder();
+
+        /**
+         * Last time some time was added, in nanoseconds.
+         */
+        private volatile long   touched;
+
+        /**
+         * Constructs an empty page time.
+         */
+        private PageTime() {
+            super();
+        }
+
+    }
+
+    /**
+     * Constructs disabled statistics which report on the received selector cache.
+     *
+     * @param cache
+     *            selector cache to report on
+     */
+    public ToolStatistics(final SelectorCache cache) {
+        this(cache, false);
+    }
+
+    /**
+     * Constructs statistics which report on the received selector cache.
+     *
+     * @param cache
+     *            selector cache to report on
+     * @param enable
+     *            {@code true} to have the tools record their calls from the start
+     */
+    public ToolStatistics(final SelectorCache cache, final boolean enable) {
+        super();
+
+        selectors = Objects.requireNonNull(cache, "Received a null pointer as selector cache");
+        enabled = enable;
+    }
+
+    /**
+     * Returns the statistics shared by all the tools.
+     *
+     * @return the shared statistics
+     */
+    public static final ToolStatistics shared() {
+        return SHARED;
+    }
+
+    /**
+     * Registers the statistics into the platform MBean server, replacing any previous registration.
+     * <p>
+     * A previous registration may come from the tools loaded by another class loader, in which case the latest ones are
+     * exposed.
+     *
+     * @param statistics
+     *            statistics to register
+     * @return the received statistics
+     */
+    private static final ToolStatistics register(final ToolStatistics statistics) {
+        final MBeanServer server; // Platform server
+        final ObjectName  name;   // Name for the statistics
+
+        server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            name = new ObjectName(OBJECT_NAME);
+            try {
+                server.registerMBean(statistics, name);
+            } catch (final InstanceAlreadyExistsException e) {
+                server.unregisterMBean(name);
+                server.registerMBean(statistics, name);
+            }
+        } catch (final JMException e) {
+            // The statistics are still recorded, just not exposed
+            log.warn("Couldn't register the tool statistics: {}", e.getMessage());
+        }
+
+        return statistics;
+    }
+
+    @Override
+    public final double getAverageParseMillis() {
+        final long   pages;   // Pages parsed
+        final double average; // Average parse time
+
+        pages = pagesParsed.sum();
+        if (pages == 0) {
+            average = 0;
+        } else {
+            average = parseNanos.sum() / (pages * 1e6);
+        }
+
+        return average;
+    }
+
+    @Override
+    public final long getBytesParsed() {
+        return bytesParsed.sum();
+    }
+
+    @Override
+    public final long getPagesParsed() {
+        return pagesParsed.sum();
+    }
+
+    @Override
+    public final double getSelectorCacheHitRate() {
+        final long   hits;  // Selectors found compiled
+        final long   total; // Selectors requested
+        final double rate;  // Hit rate
+
+        hits = selectors.getHits();
+        total = hits + selectors.getMisses();
+        if (total == 0) {
+            rate = 0;
+        } else {
+            rate = (double) hits / total;
+        }
+
+        return rate;
+    }
+
+    @Override
+    public final List<String> getSlowestPages() {
+        final Map<String, Long> times; // Time of each page
+
+        synchronized (slowest) {
+            times = new HashMap<>(slowest);
+        }
+        tracked.forEach((page, time) -> times.merge(page, time.nanos.sum(), Long::sum));
+
+        return times.entrySet()
+            .stream()
+            .sorted(Map.Entry.<String, Long> comparingByValue(Comparator.reverseOrder()))
+            .limit(SLOWEST_PAGES)
+            .map(e -> String.format(Locale.ROOT, "%s (%.3f ms)", e.getKey(), e.getValue() / 1e6))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public final boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records time spent by a tool on a page.
+     *
+     * @param page
+     *            page location, empty if unknown
+     * @param nanos
+     *            time taken, in nanoseconds
+     */
+    public final void recordOperation(final String page, final long nanos) {
+        if (!page.isEmpty()) {
+            // Added while holding the page, so it can't be released in the middle
+            tracked.compute(page, (p, time) -> {
+                final PageTime added; // Time of the page
+
+                added = (time == null) ? new PageTime() : time;
+                added.nanos.add(nanos);
+                added.touched = System.nanoTime();
+
+                return added;
+            });
+            if (tracked.size() > TRACKED_PAGES) {
+                releaseIdlePages();
+            }
+        }
+    }
+
+    /**
+     * Records a page parsed.
+     *
+     * @param page
+     *            page location, empty if unknown
+     * @param size
+     *            size of the code parsed
+     * @param nanos
+     *            time taken, in nanoseconds
+     */
+    public final void recordParse(final String page, final long size, final long nanos) {
+        pagesParsed.increment();
+        bytesParsed.add(size);
+        parseNanos.add(nanos);
+        recordOperation(page, nanos);
+    }
+
+    @Override
+    public final void reset() {
+        pagesParsed.reset();
+        bytesParsed.reset();
+        parseNanos.reset();
+        synchronized (slowest) {
+            tracked.clear();
+            slowest.clear();
+        }
+    }
+
+    @Override
+    public final void setEnabled(final boolean enable) {
+        enabled = enable;
+    }
+
+    /**
+     * Moves the half of the tracked pages which has been idle the longest into the slowest pages, keeping only the
+     * slowest ones.
+     */
+    private final void releaseIdlePages() {
+        final List<Map.Entry<String, PageTime>> idle;    // Pages idle the longest
+        Map.Entry<String, Long>                 fastest; // Fastest of the slowest pages
+
+        synchronized (slowest) {
+            // Another thread may have released them already
+            if (tracked.size() > TRACKED_PAGES) {
+                idle = tracked.entrySet()
+                    .stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue().touched))
+                    .limit(tracked.size() - (TRACKED_PAGES / 2))
+                    .collect(Collectors.toList());
+                for (final Map.Entry<String, PageTime> page : idle) {
+                    // Removed while holding the page, so no time is added after it is moved
+                    tracked.computeIfPresent(page.getKey(), (p, time) -> {
+                        slowest.merge(p, time.nanos.sum(), Long::sum);
+                        return null;
+                    });
+                    if (slowest.size() > SLOWEST_PAGES) {
+                        fastest = slowest.entrySet()
+                            .stream()
+                            .min(Map.Entry.comparingByValue())
+                            .get();
+                        slowest.remove(fastest.getKey());
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.metrics;
+
+import java.util.List;
+
+/**
+ * Live statistics of the tools, exposed through JMX.
+ * <p>
+ * They are cumulative since the tools were loaded, or since the last {@link #reset()}, so a running build can be
+ * watched from any JMX client, such as JConsole or VisualVM.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public interface ToolStatisticsMXBean {
+
+    /**
+     * Returns the average time taken to parse a page, in milliseconds.
+     *
+     * @return the average parse time, or 0 if no page was parsed
+     */
+    public double getAverageParseMillis();
+
+    /**
+     * Returns the size of the code parsed. Bytes for pages read from files, and characters for code received as text.
+     *
+     * @return the size of the code parsed
+     */
+    public long getBytesParsed();
+
+    /**
+     * Returns the number of pages parsed.
+     *
+     * @return the number of pages parsed
+     */
+    public long getPagesParsed();
+
+    /**
+     * Returns the fraction of the selectors which were found already compiled in the shared cache.
+     *
+     * @return the selector cache hit rate, between 0 and 1
+     */
+    public double getSelectorCacheHitRate();
+
+    /**
+     * Returns the pages which took the most time in the tools, the slowest first, with their time.
+     * <p>
+     * Only pages with a known location are kept.
+     *
+     * @return the slowest pages seen so far
+     */
+    public List<String> getSlowestPages();
+
+    /**
+     * Checks if the tools record their calls. While disabled, they don't measure them.
+     *
+     * @return {@code true} if the tools record their calls
+     */
+    public boolean isEnabled();
+
+    /**
+     * Discards the statistics. The selector cache counters are kept.
+     */
+    public void reset();
+
+    /**
+     * Sets if the tools record their calls, which can be done while they are running.
+     *
+     * @param enable
+     *            {@code true} to have the tools record their calls
+     */
+    public void setEnabled(final boolean enable);
+
+}
@@ -0,0 +1,216 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.parser.ParseSettings;
+import org.jsoup.parser.Parser;
+
+/**
+ * Settings for parsing HTML, and the parsers which apply them.
+ * <p>
+ * Instead of the defaults set up by {@code Jsoup.parse}, the code is parsed with the profile settings, which are the
+ * case handling for tags and attributes, the maximum number of errors kept and tracking the source position of the
+ * nodes. The defaults normalize the case, as browsers do, and track neither errors nor positions.
+ * <p>
+ * Each parse uses a new parser with these settings, as jsoup intends. A parser keeps the last document it built, and
+ * each document keeps the parser which built it, so reusing parsers would keep pages in memory, and share a parser
+ * between the threads handling those pages.
+ * <p>
+ * By default the tools use the profile returned by {@link #shared()}, which can be changed through the
+ * {@value #PRESERVE_CASE_PROPERTY}, {@value #MAX_ERRORS_PROPERTY} and {@value #TRACK_POSITION_PROPERTY} system
+ * properties.
+ * <p>
+ * Profiles are immutable and thread-safe.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class ParserProfile {
+
+    /**
+     * System property with the maximum number of errors kept.
+     */
+    public static final String         MAX_ERRORS_PROPERTY     = "velocity.tools.parser.maxErrors";
+
+    /**
+     * System property which keeps the case of tags and attributes.
+     */
+    public static final String         PRESERVE_CASE_PROPERTY  = "velocity.tools.parser.preserveCase";
+
+    /**
+     * System property which tracks the source position of the nodes.
+     */
+    public static final String         TRACK_POSITION_PROPERTY = "velocity.tools.parser.trackPosition";
+
+    /**
+     * Profile shared by all the tools.
+     */
+    private static final ParserProfile SHARED                  = new ParserProfile(
+        Boolean.getBoolean(PRESERVE_CASE_PROPERTY), Integer.getInteger(MAX_ERRORS_PROPERTY, 0),
+        Boolean.getBoolean(TRACK_POSITION_PROPERTY));
+
+    /**
+     * Maximum number of errors kept.
+     */
+    private final int                  maxErrors;
+
+    /**
+     * Keeps the case of tags and attributes.
+     */
+    private final boolean              preserveCase;
+
+    /**
+     * Tracks the source position of the nodes.
+     */
+    private final boolean              trackPosition;
+
+    /**
+     * Constructs a profile with the default settings, which normalizes the case and tracks neither errors nor
+     * positions.
+     */
+    public ParserProfile() {
+        this(false, 0, false);
+    }
+
+    /**
+     * Constructs a profile with the received settings.
+     *
+     * @param keepCase
+     *            keeps the case of tags and attributes
+     * @param errors
+     *            maximum number of errors kept, {@code 0} to track none
+     * @param positions
+     *            tracks the source position of the nodes
+     */
+    public ParserProfile(final boolean keepCase, final int errors, final boolean positions) {
+        super();
+
+        if (errors < 0) {
+            throw new IllegalArgumentException("Maximum errors can't be negative, but received " + errors);
+        }
+
+        preserveCase = keepCase;
+        maxErrors = errors;
+        trackPosition = positions;
+    }
+
+    /**
+     * Returns the profile shared by all the tools.
+     *
+     * @return the shared profile
+     */
+    public static final ParserProfile shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the maximum number of errors kept.
+     *
+     * @return the maximum number of errors kept
+     */
+    public final int getMaxErrors() {
+        return maxErrors;
+    }
+
+    /**
+     * Indicates if the case of tags and attributes is kept.
+     *
+     * @return {@code true} if the case is kept, {@code false} if it is normalized
+     */
+    public final boolean isPreserveCase() {
+        return preserveCase;
+    }
+
+    /**
+     * Indicates if the source position of the nodes is tracked.
+     *
+     * @return {@code true} if positions are tracked, {@code false} otherwise
+     */
+    public final boolean isTrackPosition() {
+        return trackPosition;
+    }
+
+    /**
+     * Parses a page read from a stream. The charset is detected from the page if not received.
+     *
+     * @param input
+     *            page to parse
+     * @param charset
+     *            page charset, {@code null} to detect it
+     * @param location
+     *            page location
+     * @return the parsed page
+     * @throws IOException
+     *             if the page can't be read
+     */
+    public final Document parse(final InputStream input, final String charset, final String location)
+            throws IOException {
+        Objects.requireNonNull(input, "Received a null pointer as input");
+        Objects.requireNonNull(location, "Received a null pointer as location");
+
+        return Jsoup.parse(input, charset, location, newParser());
+    }
+
+    /**
+     * Parses the received code as a full document. The result is the same as {@code Jsoup.parse(html, location)},
+     * with the profile settings.
+     *
+     * @param html
+     *            HTML to parse
+     * @param location
+     *            document location
+     * @return the parsed document
+     */
+    public final Document parse(final String html, final String location) {
+        Objects.requireNonNull(html, "Received a null pointer as HTML");
+        Objects.requireNonNull(location, "Received a null pointer as location");
+
+        return newParser().parseInput(html, location);
+    }
+
+    /**
+     * Returns a new parser with the profile settings.
+     *
+     * @return a new parser
+     */
+    private final Parser newParser() {
+        final Parser parser; // Parser for a single parse
+
+        parser = Parser.htmlParser()
+            .setTrackErrors(maxErrors)
+            .setTrackPosition(trackPosition);
+        if (preserveCase) {
+            parser.settings(ParseSettings.preserveCase);
+        }
+
+        return parser;
+    }
+
+}
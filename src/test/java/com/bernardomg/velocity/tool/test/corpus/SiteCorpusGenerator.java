@@ -0,0 +1,489 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.corpus;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates synthetic Maven Sites, with pages similar to those created by Doxia.
+ * <p>
+ * The pages contain nested sections with {@code <a name>} anchors, {@code bodyTable} tables with {@code tr class="a"}
+ * header rows, the legacy Maven icons, source blocks, images, lists and links to anchors in the same page and in other
+ * pages.
+ * <p>
+ * The generator is deterministic. Each page depends only on the seed and its index, so the same site is generated each
+ * time, and any page can be generated on its own.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class SiteCorpusGenerator {
+
+    /**
+     * Default maximum page length, 10 MB.
+     */
+    public static final int       MAX_LENGTH = 10 * 1024 * 1024;
+
+    /**
+     * Default minimum page length, 10 KB.
+     */
+    public static final int       MIN_LENGTH = 10 * 1024;
+
+    /**
+     * Legacy icons used by Doxia.
+     */
+    private static final String[] ICONS      = { "images/icon_success_sml.gif", "images/icon_error_sml.gif",
+            "images/icon_warning_sml.gif", "images/icon_info_sml.gif", "images/icon_help_sml.gif", "images/add.gif",
+            "images/remove.gif", "images/fix.gif", "images/update.gif" };
+
+    /**
+     * Words for the texts.
+     */
+    private static final String[] WORDS      = { "Usage", "Guide", "Getting", "Started", "Configuration", "Release",
+            "Notes", "Dependencies", "Plugin", "Report", "Overview", "Project", "Summary", "Team", "License", "Source",
+            "Repository", "Issue", "Tracking", "Build", "Module", "Goal", "Parameter", "Example", "Site", "Skin" };
+
+    /**
+     * Maximum page length.
+     */
+    private final int             maxLength;
+
+    /**
+     * Minimum page length.
+     */
+    private final int             minLength;
+
+    /**
+     * Seed for the pages.
+     */
+    private final long            seed;
+
+    /**
+     * Constructs a generator with the received seed, for pages from 10 KB to 10 MB.
+     *
+     * @param seed
+     *            seed for the pages
+     */
+    public SiteCorpusGenerator(final long seed) {
+        this(seed, MIN_LENGTH, MAX_LENGTH);
+    }
+
+    /**
+     * Constructs a generator with the received seed and page lengths.
+     * <p>
+     * Page lengths are distributed logarithmically, so small pages are more common than big ones, as in real sites.
+     *
+     * @param seed
+     *            seed for the pages
+     * @param min
+     *            minimum page length
+     * @param max
+     *            maximum page length
+     */
+    public SiteCorpusGenerator(final long seed, final int min, final int max) {
+        super();
+
+        if ((min <= 0) || (max < min)) {
+            throw new IllegalArgumentException("Invalid page lengths " + min + " to " + max);
+        }
+
+        this.seed = seed;
+        minLength = min;
+        maxLength = max;
+    }
+
+    /**
+     * Returns the name of the file for a page.
+     *
+     * @param index
+     *            page index
+     * @return the name of the file for the page
+     */
+    public static final String fileName(final int index) {
+        return String.format("page%06d.html", index);
+    }
+
+    /**
+     * Returns the page with the received index.
+     *
+     * @param index
+     *            page index
+     * @return the page with the received index
+     */
+    public final String page(final int index) {
+        final Random random; // Random for the page length
+
+        random = random(index);
+
+        return page(index, length(random));
+    }
+
+    /**
+     * Returns the page with the received index, with at least the received length.
+     * <p>
+     * Pages grow by whole sections, so they will be a bit longer than the received length.
+     *
+     * @param index
+     *            page index
+     * @param length
+     *            minimum page length
+     * @return the page with the received index
+     */
+    public final String page(final int index, final int length) {
+        final StringBuilder page;    // Page being built
+        final Random        random;  // Random for the contents
+        int                 section; // Section number
+
+        random = random(index);
+        // The page length is drawn first, so the contents don't depend on how the length was chosen
+        length(random);
+
+        page = new StringBuilder(length + 8192);
+        page.append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\" />\n<title>")
+            .append(title(random))
+            .append("</title>\n</head>\n<body>\n<div id=\"bodyColumn\">\n<div id=\"contentBox\">\n");
+        section = 0;
+        while (page.length() < length) {
+            section(page, random, index, 2, Integer.toString(section + 1));
+            section++;
+        }
+        page.append("</div>\n</div>\n</body>\n</html>\n");
+
+        return page.toString();
+    }
+
+    /**
+     * Returns the pages from the first one up to the received count.
+     * <p>
+     * The pages are generated as they are consumed.
+     *
+     * @param count
+     *            number of pages
+     * @return the pages
+     */
+    public final Stream<String> pages(final int count) {
+        return IntStream.range(0, count)
+            .mapToObj(this::page);
+    }
+
+    /**
+     * Writes the pages from the first one up to the received count into the received directory.
+     * <p>
+     * Each page is written to the file given by {@link #fileName(int)}.
+     *
+     * @param directory
+     *            directory for the pages
+     * @param count
+     *            number of pages
+     * @return the written files
+     * @throws IOException
+     *             if a page can't be written
+     */
+    public final Collection<Path> write(final Path directory, final int count) throws IOException {
+        final Collection<Path> files; // Written files
+        Path                   file;  // File for the current page
+
+        Objects.requireNonNull(directory, "Received a null pointer as directory");
+
+        Files.createDirectories(directory);
+        files = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            file = directory.resolve(fileName(index));
+            Files.writeString(file, page(index), StandardCharsets.UTF_8);
+            files.add(file);
+        }
+
+        return files;
+    }
+
+    /**
+     * Appends an image in its own paragraph.
+     *
+     * @param page
+     *            page being built
+     * @param random
+     *            random for the contents
+     */
+    private final void appendImage(final StringBuilder page, final Random random) {
+        page.append("<p><img src=\"images/")
+            .append(words(random, 1).toLowerCase())
+            .append(".png\" alt=\"")
+            .append(words(random, 3))
+            .append("\" /></p>\n");
+    }
+
+    /**
+     * Appends a list, which may be a definition list.
+     *
+     * @param page
+     *            page being built
+     * @param random
+     *            random for the contents
+     */
+    private final void appendList(final StringBuilder page, final Random random) {
+        final int items; // Number of items
+
+        items = 2 + random.nextInt(6);
+        if (random.nextBoolean()) {
+            page.append("<ul>\n");
+            for (int i = 0; i < items; i++) {
+                page.append("<li>")
+                    .append(words(random, 5))
+                    .append("</li>\n");
+            }
+            page.append("</ul>\n");
+        } else {
+            page.append("<dl>\n");
+            for (int i = 0; i < items; i++) {
+                page.append("<dt>")
+                    .append(words(random, 1))
+                    .append("</dt>\n<dd>")
+                    .append(words(random, 5))
+                    .append("</dd>\n");
+            }
+            page.append("</dl>\n");
+        }
+    }
+
+    /**
+     * Appends a paragraph.
+     *
+     * @param page
+     *            page being built
+     * @param random
+     *            random for the contents
+     * @param index
+     *            page index
+     * @param anchor
+     *            anchor of the current section
+     */
+    private final void appendParagraph(final StringBuilder page, final Random random, final int index,
+            final String anchor) {
+        final int sentences; // Number of sentences
+
+        page.append("<p>");
+        sentences = 2 + random.nextInt(4);
+        for (int i = 0; i < sentences; i++) {
+            switch (random.nextInt(5)) {
+                case 0:
+                    page.append("See <a href=\"#")
+                        .append(anchor)
+                        .append("\">this section</a>. ");
+                    break;
+                case 1:
+                    page.append("Read <a href=\"")
+                        .append(fileName(random.nextInt(index + 1)))
+                        .append("#Overview\">the overview</a>. ");
+                    break;
+                case 2:
+                    page.append("Set <tt>")
+                        .append(words(random, 1).toLowerCase())
+                        .append('.')
+                        .append(words(random, 1).toLowerCase())
+                        .append("</tt> to change it. ");
+                    break;
+                case 3:
+                    page.append("Visit <a class=\"externalLink\" href=\"https://maven.apache.org/\">Maven</a>. ");
+                    break;
+                default:
+                    page.append(words(random, 6))
+                        .append(". ");
+            }
+        }
+        page.append("</p>\n");
+    }
+
+    /**
+     * Appends a source block.
+     *
+     * @param page
+     *            page being built
+     * @param random
+     *            random for the contents
+     */
+    private final void appendSource(final StringBuilder page, final Random random) {
+        page.append("<div class=\"source\"><pre>&lt;plugin&gt;\n  &lt;artifactId&gt;")
+            .append(words(random, 1).toLowerCase())
+            .append("-maven-plugin&lt;/artifactId&gt;\n&lt;/plugin&gt;</pre></div>\n");
+    }
+
+    /**
+     * Appends a {@code bodyTable} table, with a header row and alternating row classes.
+     *
+     * @param page
+     *            page being built
+     * @param random
+     *            random for the contents
+     */
+    private final void appendTable(final StringBuilder page, final Random random) {
+        final int rows; // Number of rows
+
+        page.append("<table border=\"0\" class=\"bodyTable\">\n<tr class=\"a\"><th>Name</th><th>Status</th>")
+            .append("<th>Description</th></tr>\n");
+        rows = 3 + random.nextInt(30);
+        for (int row = 0; row < rows; row++) {
+            page.append("<tr class=\"")
+                .append((row % 2 == 0) ? 'b' : 'a')
+                .append("\"><td><tt>")
+                .append(words(random, 1).toLowerCase())
+                .append("</tt></td><td><img src=\"")
+                .append(ICONS[random.nextInt(ICONS.length)])
+                .append("\" alt=\"\" /></td><td>")
+                .append(words(random, 4))
+                .append("</td></tr>\n");
+        }
+        page.append("</table>\n");
+    }
+
+    /**
+     * Returns a random page length.
+     *
+     * @param random
+     *            random for the page
+     * @return a random page length
+     */
+    private final int length(final Random random) {
+        final double ratio; // Ratio between the maximum and minimum lengths
+
+        ratio = (double) maxLength / minLength;
+
+        return (int) (minLength * Math.pow(ratio, random.nextDouble()));
+    }
+
+    /**
+     * Returns the random for a page.
+     *
+     * @param index
+     *            page index
+     * @return the random for the page
+     */
+    private final Random random(final int index) {
+        return new Random((seed * 1_000_003L) + index);
+    }
+
+    /**
+     * Appends a section, which may contain nested sections.
+     *
+     * @param page
+     *            page being built
+     * @param random
+     *            random for the contents
+     * @param index
+     *            page index
+     * @param level
+     *            heading level
+     * @param number
+     *            section number
+     */
+    private final void section(final StringBuilder page, final Random random, final int index, final int level,
+            final String number) {
+        final String title;    // Section title
+        final String anchor;   // Section anchor
+        final int    blocks;   // Number of content blocks
+        final int    sections; // Number of nested sections
+
+        title = title(random);
+        anchor = title.replace(' ', '_') + '_' + number;
+        page.append("<div class=\"section\">\n<h")
+            .append(level)
+            .append("><a name=\"")
+            .append(anchor)
+            .append("\"></a>")
+            .append(title)
+            .append("</h")
+            .append(level)
+            .append(">\n");
+
+        blocks = 1 + random.nextInt(4);
+        for (int i = 0; i < blocks; i++) {
+            switch (random.nextInt(6)) {
+                case 0:
+                    appendTable(page, random);
+                    break;
+                case 1:
+                    appendSource(page, random);
+                    break;
+                case 2:
+                    appendImage(page, random);
+                    break;
+                case 3:
+                    appendList(page, random);
+                    break;
+                default:
+                    appendParagraph(page, random, index, anchor);
+            }
+        }
+
+        if (level < 4) {
+            sections = random.nextInt(3);
+            for (int i = 0; i < sections; i++) {
+                section(page, random, index, level + 1, number + '.' + (i + 1));
+            }
+        }
+
+        page.append("</div>\n");
+    }
+
+    /**
+     * Returns a random title.
+     *
+     * @param random
+     *            random for the contents
+     * @return a random title
+     */
+    private final String title(final Random random) {
+        return words(random, 1 + random.nextInt(3));
+    }
+
+    /**
+     * Returns random words, separated by spaces.
+     *
+     * @param random
+     *            random for the contents
+     * @param count
+     *            number of words
+     * @return random words
+     */
+    private final String words(final Random random, final int count) {
+        final List<String> words; // Selected words
+
+        words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add(WORDS[random.nextInt(WORDS.length)]);
+        }
+
+        return String.join(" ", words);
+    }
+
+}
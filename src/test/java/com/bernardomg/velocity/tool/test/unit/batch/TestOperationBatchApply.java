@@ -0,0 +1,213 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.batch;
+
+import org.assertj.core.api.Assertions;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.Html5UpdateTool;
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.OperationBatch;
+import com.bernardomg.velocity.tool.SiteTool;
+import com.bernardomg.velocity.tool.test.corpus.SiteCorpusGenerator;
+
+/**
+ * Unit tests for {@link OperationBatch}, testing the {@code apply} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see OperationBatch
+ */
+@DisplayName("OperationBatch.apply")
+public final class TestOperationBatchApply {
+
+    /**
+     * Page with most of the elements edited by the tools.
+     */
+    private static final String   PAGE = """
+                                         <section><h2><a name="Usage_Guide"></a>Usage Guide</h2>
+                                         <p><a href="#Usage_Guide">Usage</a> <a href="other.html">Other</a></p>
+                                         <table class="bodyTable"><tbody><tr class="a"><th>Name</th><th>Status</th></tr>
+                                         <tr class="b"><td><tt>name</tt></td><td><img src="images/icon_success_sml.gif" alt="ok"></td></tr>
+                                         <tr class="a"><td><tt>other</tt></td><td><img src="images/add.gif"></td></tr>
+                                         </tbody></table>
+                                         <p><img src="diagram.png" alt="A diagram"></p>
+                                         <div class="source"><pre>code</pre></div></section>""";
+
+    /**
+     * HTML5 update tool.
+     */
+    private final Html5UpdateTool html5Tool = new Html5UpdateTool();
+
+    /**
+     * HTML tool.
+     */
+    private final HtmlTool        htmlTool  = new HtmlTool();
+
+    /**
+     * Site tool.
+     */
+    private final SiteTool        siteTool  = new SiteTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestOperationBatchApply() {
+        super();
+    }
+
+    /**
+     * Applies a chain of operations by calling the tools in order.
+     *
+     * @param root
+     *            element to edit
+     */
+    private final void applyTools(final Element root) {
+        siteTool.fixHeadingIds(root);
+        siteTool.fixAnchorLinks(root);
+        html5Tool.updateTableHeads(root);
+        siteTool.transformIcons(root);
+        htmlTool.unwrap(root, "a:not([href])");
+        htmlTool.addClass(root, "table", "table");
+        htmlTool.removeClass(root, "table", "bodyTable");
+        htmlTool.removeClass(root, "tr", "a");
+        htmlTool.removeClass(root, "tr", "b");
+        htmlTool.retag(root, "tt", "code");
+        htmlTool.swapTagWithParent(root, "div.source > pre");
+        htmlTool.addClass(root, "thead", "head");
+        siteTool.transformImagesToFigures(root);
+    }
+
+    /**
+     * Returns a batch with the same operations applied by {@link #applyTools(Element)}.
+     *
+     * @return a batch with the tool operations
+     */
+    private final OperationBatch batch() {
+        return htmlTool.batch()
+            .fixHeadingIds()
+            .fixAnchorLinks()
+            .updateTableHeads()
+            .transformIcons()
+            .unwrap("a:not([href])")
+            .addClass("table", "table")
+            .removeClass("table", "bodyTable")
+            .removeClass("tr", "a")
+            .removeClass("tr", "b")
+            .retag("tt", "code")
+            .swapTagWithParent("div.source > pre")
+            .addClass("thead", "head")
+            .transformImagesToFigures();
+    }
+
+    @Test
+    @DisplayName("Applying the batch gives the same result as calling the tools in order")
+    public final void testApply_SameAsTools() {
+        final Element expected; // Page edited through the tools
+        final Element element;  // Page edited through the batch
+
+        expected = Jsoup.parse(PAGE)
+            .body();
+        applyTools(expected);
+
+        element = Jsoup.parse(PAGE)
+            .body();
+        batch().apply(element);
+
+        Assertions.assertThat(element.html())
+            .isEqualTo(expected.html());
+    }
+
+    @Test
+    @DisplayName("Applying the batch to a generated site gives the same result as calling the tools in order")
+    public final void testCorpus_SameAsTools() {
+        final SiteCorpusGenerator generator; // Corpus generator
+        final OperationBatch      batch;     // Batch to apply
+        Element                   expected;  // Page edited through the tools
+        Element                   element;   // Page edited through the batch
+
+        generator = new SiteCorpusGenerator(1, 10 * 1024, 100 * 1024);
+        batch = batch();
+        for (int index = 0; index < 10; index++) {
+            expected = Jsoup.parse(generator.page(index))
+                .body();
+            applyTools(expected);
+
+            element = Jsoup.parse(generator.page(index))
+                .body();
+            batch.apply(element);
+
+            Assertions.assertThat(element.html())
+                .as("Page %d", index)
+                .isEqualTo(expected.html());
+        }
+    }
+
+    @Test
+    @DisplayName("An empty batch does nothing")
+    public final void testEmpty_Untouched() {
+        final Element element; // Parsed HTML
+
+        element = Jsoup.parse(PAGE)
+            .body();
+        htmlTool.batch()
+            .apply(element);
+
+        Assertions.assertThat(element.html())
+            .isEqualTo(Jsoup.parse(PAGE)
+                .body()
+                .html());
+    }
+
+    @Test
+    @DisplayName("A null root is returned as is")
+    public final void testNull_ReturnsNull() {
+        Assertions.assertThat(htmlTool.batch()
+            .addClass("p", "b")
+            .apply(null))
+            .isNull();
+    }
+
+    @Test
+    @DisplayName("An operation which reads an attribute changed by a previous one sees the change")
+    public final void testReadsChangedAttribute_SeesChange() {
+        final Element element; // Parsed HTML
+
+        element = Jsoup.parse("<p>Text</p><p class=\"a\">Text</p>")
+            .body();
+        htmlTool.batch()
+            .addClass("p", "b")
+            .retag(".b", "div")
+            .apply(element);
+
+        Assertions.assertThat(element.html())
+            .isEqualTo("""
+                       <div class="b">Text</div>
+                       <div class="a b">Text</div>""");
+    }
+
+}
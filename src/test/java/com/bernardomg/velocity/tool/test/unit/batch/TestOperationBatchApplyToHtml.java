@@ -0,0 +1,262 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.batch;
+
+import java.util.List;
+import java.util.Random;
+
+import org.assertj.core.api.Assertions;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.OperationBatch;
+import com.bernardomg.velocity.tool.test.corpus.SiteCorpusGenerator;
+
+/**
+ * Unit tests for {@link OperationBatch}, testing the {@code applyToHtml} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see OperationBatch
+ */
+@DisplayName("OperationBatch.applyToHtml")
+public final class TestOperationBatchApplyToHtml {
+
+    /**
+     * Code fragments for random pages, including some which the parser reads in unexpected ways.
+     */
+    private static final String[]             FRAGMENTS = { "<table>", "</table>", "<tr>", "<th>Head</th>",
+            "<td>Cell</td>", "<tbody>", "<thead>", "<a href=\"#Some_Link\">", "<a href='other.html'>", "</a>",
+            "<a name=\"Anchor\">", "<img src=\"images/add.gif\">", "<IMG SRC=images/ICON_INFO_SML.GIF>",
+            "<img src=\"diagram.png\" alt=\"A diagram\">", "<image src=\"images/fix.gif\">", "<h1>Title</h1>",
+            "<h2 id=\"A.B\">Sub</h2>", "<p>", "</p>", "<div class=\"source\"><pre>code</pre></div>", "<!-- <table> -->",
+            "<!-->", "-->", "<script>var a = b <c; '</script>", "<a href=\"&#35;ref\">", "<p title=\"<h1>\">",
+            "<p class=\"open>", "1 < 2", "<tt>text</tt>", "</br>", "<col>", " ", "text" };
+
+    /**
+     * Batches to compare.
+     */
+    private static final List<OperationBatch> BATCHES   = List.of(new OperationBatch().fixAnchorLinks(),
+        new OperationBatch().transformIcons(), new OperationBatch().updateTableHeads(),
+        new OperationBatch().fixHeadingIds(), new OperationBatch().updateTableHeads()
+            .addClass("thead", "head"),
+        new OperationBatch().transformIcons()
+            .removeClass("span", "icon")
+            .fixAnchorLinks(),
+        new OperationBatch().retag("tt", "code")
+            .addClass("code", "c"),
+        new OperationBatch().transformImagesToFigures()
+            .addClass("figure", "f"),
+        new OperationBatch().swapTagWithParent("div.source > pre")
+            .unwrap("a:not([href])"));
+
+    /**
+     * Default constructor.
+     */
+    public TestOperationBatchApplyToHtml() {
+        super();
+    }
+
+    /**
+     * Checks the batch gives the same code as when applied after parsing, without checking the code first.
+     * <p>
+     * Code returned untouched is parsed, so it can be compared with the parsed result.
+     *
+     * @param batch
+     *            batch to apply
+     * @param html
+     *            code to change
+     * @param page
+     *            the code is a full page, which is returned whole
+     */
+    private static final void assertSameAsParsed(final OperationBatch batch, final String html, final boolean page) {
+        final Document document; // Parsed code
+        final String   result;   // Changed code
+
+        document = Jsoup.parse(html);
+        result = batch.applyToHtml(html);
+        batch.apply(document.body());
+
+        if (result == html) {
+            Assertions.assertThat(serialize(Jsoup.parse(result), page))
+                .as("Code %s", html)
+                .isEqualTo(serialize(document, page));
+        } else {
+            Assertions.assertThat(result)
+                .as("Code %s", html)
+                .isEqualTo(serialize(document, page));
+        }
+    }
+
+    /**
+     * Returns the code of the parsed page, either whole or only the body contents.
+     *
+     * @param document
+     *            parsed page
+     * @param page
+     *            returns the whole page
+     * @return the code of the page
+     */
+    private static final String serialize(final Document document, final boolean page) {
+        final String html; // Page code
+
+        if (page) {
+            html = document.outerHtml();
+        } else {
+            html = document.body()
+                .html();
+        }
+
+        return html;
+    }
+
+    @Test
+    @DisplayName("Changed body contents are returned without the page around them")
+    public final void testBody_Changed_BodyOnly() {
+        Assertions.assertThat(new OperationBatch().updateTableHeads()
+            .applyToHtml("<!-- <html> --><table><tr><th>Head</th></tr></table><p>Text</p>"))
+            .doesNotContain("<html>")
+            .doesNotContain("<body>")
+            .contains("<thead>");
+    }
+
+    @Test
+    @DisplayName("Gives the same result as parsing the pages of a generated site")
+    public final void testCorpus_SameAsParsed() {
+        final SiteCorpusGenerator generator; // Corpus generator
+        String                    page;      // Generated page
+
+        generator = new SiteCorpusGenerator(1, 10 * 1024, 30 * 1024);
+        for (int index = 0; index < 5; index++) {
+            page = generator.page(index);
+            for (final OperationBatch batch : BATCHES) {
+                assertSameAsParsed(batch, page, true);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Elements created by a previous operation are changed")
+    public final void testCreated_Applied() {
+        Assertions.assertThat(new OperationBatch().updateTableHeads()
+            .addClass("thead", "head")
+            .applyToHtml("<table><tr><th>Head</th></tr></table>"))
+            .contains("<thead class=\"head\">");
+    }
+
+    @Test
+    @DisplayName("Rows added by the parser around header cells are changed")
+    public final void testImpliedRow_Applied() {
+        Assertions.assertThat(new OperationBatch().addClass("tr", "row")
+            .applyToHtml("<table><th>Head</th></table>"))
+            .contains("<tr class=\"row\">");
+    }
+
+    @Test
+    @DisplayName("Links written with character references are fixed")
+    public final void testLinkReference_Applied() {
+        Assertions.assertThat(new OperationBatch().fixAnchorLinks()
+            .applyToHtml("<a href=\"&#35;Some_Link\">Link</a>"))
+            .isEqualTo("<a href=\"#Some-Link\">Link</a>");
+    }
+
+    @Test
+    @DisplayName("Code which the operations match, but don't change, is returned untouched")
+    public final void testNoChanges_Untouched() {
+        final String html; // Code to change
+
+        html = "<H1 id='title'>Title</H1><P>Text with <a href='#title'>a link</a></P>";
+
+        Assertions.assertThat(new OperationBatch().fixAnchorLinks()
+            .fixHeadingIds()
+            .applyToHtml(html))
+            .isSameAs(html);
+    }
+
+    @Test
+    @DisplayName("Code which no operation changes is returned untouched")
+    public final void testNothingApplies_Untouched() {
+        final String html; // Code to change
+
+        html = "<P>Text with <a href='page.html'>a link</a> and <img src=\"image.png\"></P>";
+
+        Assertions.assertThat(new OperationBatch().fixAnchorLinks()
+            .transformIcons()
+            .updateTableHeads()
+            .fixHeadingIds()
+            .applyToHtml(html))
+            .isSameAs(html);
+    }
+
+    @Test
+    @DisplayName("A null code is returned as is")
+    public final void testNull_ReturnsNull() {
+        Assertions.assertThat(new OperationBatch().fixAnchorLinks()
+            .applyToHtml(null))
+            .isNull();
+    }
+
+    @Test
+    @DisplayName("A changed page is returned whole, as it was received")
+    public final void testPage_Changed_Whole() {
+        Assertions.assertThat(new OperationBatch().updateTableHeads()
+            .applyToHtml("<!DOCTYPE html><html><head><title>Page</title></head>"
+                    + "<body><table><tr><th>Head</th></tr></table></body></html>"))
+            .startsWith("<!doctype html>")
+            .contains("<title>Page</title>")
+            .contains("<thead>");
+    }
+
+    @Test
+    @DisplayName("A changed page starting with comments is returned whole")
+    public final void testPage_Comment_Whole() {
+        Assertions.assertThat(new OperationBatch().updateTableHeads()
+            .applyToHtml("<!-- Generated --> <!---->\n<HTML><body><table><tr><th>Head</th></tr></table></body></HTML>"))
+            .contains("<html>")
+            .contains("<head>")
+            .contains("<thead>");
+    }
+
+    @Test
+    @DisplayName("Gives the same result as parsing random code")
+    public final void testRandom_SameAsParsed() {
+        final Random        random; // Random for the code
+        final StringBuilder html;   // Random code
+
+        random = new Random(1);
+        html = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            html.setLength(0);
+            for (int j = random.nextInt(12); j >= 0; j--) {
+                html.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            for (final OperationBatch batch : BATCHES) {
+                assertSameAsParsed(batch, html.toString(), false);
+            }
+        }
+    }
+
+}
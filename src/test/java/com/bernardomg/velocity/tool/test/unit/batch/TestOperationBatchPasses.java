@@ -0,0 +1,125 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.batch;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.OperationBatch;
+
+/**
+ * Unit tests for {@link OperationBatch}, testing how many walks over the document are needed.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see OperationBatch
+ */
+@DisplayName("OperationBatch.getPasses")
+public final class TestOperationBatchPasses {
+
+    /**
+     * HTML tool.
+     */
+    private final HtmlTool htmlTool = new HtmlTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestOperationBatchPasses() {
+        super();
+    }
+
+    @Test
+    @DisplayName("A selector reading an attribute after it is changed needs a new walk")
+    public final void testAttributeRead_NewPass() {
+        final OperationBatch batch; // Batch to check
+
+        batch = htmlTool.batch()
+            .fixAnchorLinks()
+            .unwrap("a:not([href])");
+
+        Assertions.assertThat(batch.getPasses())
+            .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Attribute changes not read by later selectors share a single walk")
+    public final void testAttributes_SinglePass() {
+        final OperationBatch batch; // Batch to check
+
+        batch = htmlTool.batch()
+            .unwrap("a:not([href])")
+            .fixHeadingIds()
+            .fixAnchorLinks()
+            .addClass("table", "table")
+            .removeClass("tr", "a")
+            .removeAttribute("img", "border")
+            .transformIcons();
+
+        Assertions.assertThat(batch.getPasses())
+            .isOne();
+    }
+
+    @Test
+    @DisplayName("A selector reading a class after it is changed needs a new walk")
+    public final void testClassRead_NewPass() {
+        final OperationBatch batch; // Batch to check
+
+        batch = htmlTool.batch()
+            .addClass("table", "table")
+            .removeClass("table.bodyTable", "bodyTable");
+
+        Assertions.assertThat(batch.getPasses())
+            .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Operations after retagging need a new walk")
+    public final void testRetag_NewPass() {
+        final OperationBatch batch; // Batch to check
+
+        batch = htmlTool.batch()
+            .retag("tt", "code")
+            .addClass("p", "paragraph");
+
+        Assertions.assertThat(batch.getPasses())
+            .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("A structural selector after moving elements needs a new walk")
+    public final void testStructuralAfterMove_NewPass() {
+        final OperationBatch batch; // Batch to check
+
+        batch = htmlTool.batch()
+            .unwrap("a:not([href])")
+            .addClass("div > p", "paragraph");
+
+        Assertions.assertThat(batch.getPasses())
+            .isEqualTo(2);
+    }
+
+}
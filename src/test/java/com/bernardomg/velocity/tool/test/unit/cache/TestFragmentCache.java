@@ -0,0 +1,220 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.assertj.core.api.Assertions;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.cache.FragmentCache;
+import com.bernardomg.velocity.tool.test.corpus.SiteCorpusGenerator;
+
+/**
+ * Unit tests for {@link FragmentCache}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see FragmentCache
+ */
+@DisplayName("FragmentCache")
+public final class TestFragmentCache {
+
+    /**
+     * Menu to parse.
+     */
+    private static final String MENU  = "<nav class=\"menu\"><ul><li><a href=\"index.html\">Home</a></li></ul></nav>";
+
+    /**
+     * Cache being tested.
+     */
+    private final FragmentCache cache = new FragmentCache(FragmentCache.DEFAULT_CAPACITY,
+        FragmentCache.DEFAULT_MAX_FRAGMENT);
+
+    /**
+     * Default constructor.
+     */
+    public TestFragmentCache() {
+        super();
+    }
+
+    @Test
+    @DisplayName("When the capacity is exceeded the least recently used fragments are discarded")
+    public final void testCapacity_Evicts() {
+        final FragmentCache small; // Cache being tested
+
+        small = new FragmentCache(MENU.length() * 2, FragmentCache.DEFAULT_MAX_FRAGMENT);
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 2; j++) {
+                small.parse(MENU.replace("Home", "Hom" + i), "");
+            }
+        }
+
+        Assertions.assertThat(small.size())
+            .isEqualTo(2);
+        Assertions.assertThat(small.getLength())
+            .isEqualTo(MENU.length() * 2);
+    }
+
+    @Test
+    @DisplayName("Copies can be changed without affecting the next ones")
+    public final void testCopy_Independent() {
+        final Element changed; // Copy to change
+
+        cache.parse(MENU, "");
+        changed = cache.parse(MENU, "");
+        changed.select("a")
+            .attr("href", "other.html")
+            .wrap("<div></div>");
+        changed.attr("class", "changed");
+
+        Assertions.assertThat(cache.parse(MENU, "")
+            .outerHtml())
+            .isEqualTo(Jsoup.parse(MENU)
+                .body()
+                .outerHtml());
+    }
+
+    @Test
+    @DisplayName("Copies are the same as parsing, in their own document")
+    public final void testCopy_SameAsParsed() {
+        final String  html;   // Code with attributes in the body and root
+        final Element first;  // First copy
+        final Element second; // Second copy
+
+        html = "<html lang=\"en\"><body class=\"page\"><p>Text &amp; <b>bold</b><!-- comment --></p></body></html>";
+
+        cache.parse(html, "a.html");
+        first = cache.parse(html, "b.html");
+        second = cache.parse(html, "c.html");
+
+        Assertions.assertThat(first.ownerDocument()
+            .outerHtml())
+            .isEqualTo(Jsoup.parse(html)
+                .outerHtml());
+        Assertions.assertThat(first.ownerDocument()
+            .location())
+            .isEqualTo("b.html");
+        Assertions.assertThat(second.ownerDocument()
+            .location())
+            .isEqualTo("c.html");
+        Assertions.assertThat(first.ownerDocument())
+            .isNotSameAs(second.ownerDocument());
+    }
+
+    @Test
+    @DisplayName("The corpus page bodies are the same as parsing, when copied")
+    public final void testCorpus_SameAsParsed() {
+        final SiteCorpusGenerator generator; // Corpus generator
+        final FragmentCache       large;     // Cache keeping whole pages
+
+        generator = new SiteCorpusGenerator(7, 1024, 32 * 1024);
+        large = new FragmentCache(Long.MAX_VALUE, Integer.MAX_VALUE);
+        generator.pages(20)
+            .forEach(page -> {
+                large.parse(page, "");
+                Assertions.assertThat(large.parse(page, "")
+                    .outerHtml())
+                    .isEqualTo(Jsoup.parse(page)
+                        .body()
+                        .outerHtml());
+            });
+
+        Assertions.assertThat(large.size())
+            .isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Fragments over the maximum length are never kept")
+    public final void testLong_NotKept() {
+        final FragmentCache small; // Cache being tested
+
+        small = new FragmentCache(FragmentCache.DEFAULT_CAPACITY, MENU.length() - 1);
+        small.parse(MENU, "");
+        small.parse(MENU, "");
+        small.parse(MENU, "");
+
+        Assertions.assertThat(small.size())
+            .isZero();
+        Assertions.assertThat(small.getMisses())
+            .isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Concurrent copies of the same fragment are all complete")
+    public final void testParallel_Complete() throws InterruptedException, ExecutionException {
+        final ExecutorService      executor; // Threads parsing
+        final List<Future<String>> results;  // Code of each copy
+        final String               expected; // Code when parsing
+
+        cache.parse(MENU, "");
+        cache.parse(MENU, "");
+        expected = Jsoup.parse(MENU)
+            .body()
+            .outerHtml();
+
+        executor = Executors.newFixedThreadPool(8);
+        try {
+            results = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                results.add(executor.submit(() -> cache.parse(MENU, "")
+                    .outerHtml()));
+            }
+            for (final Future<String> result : results) {
+                Assertions.assertThat(result.get())
+                    .isEqualTo(expected);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("A fragment is kept the second time it is received, and copied from then on")
+    public final void testRepeated_Reused() {
+        cache.parse(MENU, "");
+
+        Assertions.assertThat(cache.size())
+            .isZero();
+
+        cache.parse(MENU, "");
+        cache.parse(MENU, "");
+
+        Assertions.assertThat(cache.size())
+            .isEqualTo(1);
+        Assertions.assertThat(cache.getMisses())
+            .isEqualTo(2);
+        Assertions.assertThat(cache.getHits())
+            .isEqualTo(1);
+    }
+
+}
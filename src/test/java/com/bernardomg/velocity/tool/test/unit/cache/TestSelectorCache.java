@@ -0,0 +1,144 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.cache;
+
+import java.lang.ref.WeakReference;
+
+import org.assertj.core.api.Assertions;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Evaluator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.cache.SelectorCache;
+
+/**
+ * Unit tests for {@link SelectorCache}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see SelectorCache
+ */
+@DisplayName("SelectorCache")
+public final class TestSelectorCache {
+
+    /**
+     * Default constructor.
+     */
+    public TestSelectorCache() {
+        super();
+    }
+
+    /**
+     * Selects a descendant selector through the cache on a new page, and returns a weak reference to that page.
+     *
+     * @param cache
+     *            cache to select through
+     * @return weak reference to the page
+     */
+    private static final WeakReference<Document> selectPage(final SelectorCache cache) {
+        final Document page; // Parsed page
+
+        page = Jsoup.parse("<table><tbody><tr><th>Header</th></tr><tr><td>Data</td></tr></tbody></table>");
+        cache.select(page, "table th");
+
+        return new WeakReference<>(page);
+    }
+
+    @Test
+    @DisplayName("When the capacity is exceeded the least recently used selector is discarded")
+    public final void testCapacity_Evicts() {
+        final SelectorCache cache; // Cache being tested
+
+        cache = new SelectorCache(2);
+        cache.evaluator("h1");
+        cache.evaluator("h2");
+        cache.evaluator("h1");
+        cache.evaluator("h3");
+        cache.evaluator("h1");
+
+        Assertions.assertThat(cache.size())
+            .isEqualTo(2);
+        Assertions.assertThat(cache.getHits())
+            .isEqualTo(2);
+        Assertions.assertThat(cache.getMisses())
+            .isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("A page selected through a descendant selector can be collected afterwards")
+    public final void testRelease_PageCollected() throws InterruptedException {
+        final SelectorCache           cache; // Cache being tested
+        final WeakReference<Document> page;  // Selected page
+
+        cache = new SelectorCache(SelectorCache.DEFAULT_CAPACITY);
+        page = selectPage(cache);
+
+        for (int i = 0; (i < 50) && (page.get() != null); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        Assertions.assertThat(page.get())
+            .isNull();
+    }
+
+    @Test
+    @DisplayName("The first request compiles the selector, and the next ones reuse it")
+    public final void testRepeated_Reused() {
+        final SelectorCache cache;  // Cache being tested
+        final Evaluator     first;  // First evaluator returned
+        final Evaluator     second; // Second evaluator returned
+
+        cache = new SelectorCache(SelectorCache.DEFAULT_CAPACITY);
+        first = cache.evaluator("table > tbody > tr:has(th)");
+        second = cache.evaluator("table > tbody > tr:has(th)");
+
+        Assertions.assertThat(second)
+            .isSameAs(first);
+        Assertions.assertThat(cache.getHits())
+            .isOne();
+        Assertions.assertThat(cache.getMisses())
+            .isOne();
+    }
+
+    @Test
+    @DisplayName("Selecting through the cache returns the same elements as selecting through jsoup")
+    public final void testSelect_SameAsJsoup() {
+        final SelectorCache cache;    // Cache being tested
+        final Element       element;  // Parsed HTML
+        final String        selector; // CSS selector
+
+        cache = new SelectorCache(SelectorCache.DEFAULT_CAPACITY);
+        element = Jsoup.parse("<h1>Title</h1><p class=\"a\">Text</p><p>Other</p><div><p class=\"a\">Nested</p></div>")
+            .body();
+        selector = "p.a";
+
+        Assertions.assertThat(cache.select(element, selector))
+            .containsExactlyElementsOf(element.select(selector));
+    }
+
+}
@@ -0,0 +1,98 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.cli;
+
+import java.nio.file.Path;
+
+import org.assertj.core.api.Assertions;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bernardomg.velocity.tool.cli.LinkReport;
+import com.bernardomg.velocity.tool.cli.SiteLinkIndex;
+
+/**
+ * Unit tests for {@link LinkReport}, testing the {@code toJson} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see LinkReport
+ */
+@DisplayName("LinkReport.toJson")
+public final class TestLinkReportToJson {
+
+    /**
+     * Site directory.
+     */
+    @TempDir
+    private Path site;
+
+    /**
+     * Default constructor.
+     */
+    public TestLinkReportToJson() {
+        super();
+    }
+
+    @Test
+    @DisplayName("The broken links are listed by page")
+    public final void testToJson_Broken() {
+        final SiteLinkIndex index; // Site index
+
+        index = new SiteLinkIndex();
+        index.add("usage.html", Jsoup.parse("<a href=\"#gone\">Gone</a>"));
+        index.add("index.html", Jsoup.parse("<a href=\"missing.html\">A</a><a href=\"#say-&quot;hi&quot;\">B</a>"));
+
+        Assertions.assertThat(index.verify(site)
+            .toJson())
+            .isEqualTo("""
+                       {
+                         "pages": 2,
+                         "links": 3,
+                         "broken": [
+                           { "page": "index.html", "href": "#say-\\"hi\\"", "reason": "missing-anchor" },
+                           { "page": "index.html", "href": "missing.html", "reason": "missing-page" },
+                           { "page": "usage.html", "href": "#gone", "reason": "missing-anchor" }
+                         ]
+                       }
+                       """);
+    }
+
+    @Test
+    @DisplayName("A site without broken links has an empty list")
+    public final void testToJson_Valid() {
+        Assertions.assertThat(new SiteLinkIndex().verify(site)
+            .toJson())
+            .isEqualTo("""
+                       {
+                         "pages": 0,
+                         "links": 0,
+                         "broken": []
+                       }
+                       """);
+    }
+
+}
@@ -0,0 +1,93 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.cli;
+
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.cli.OperationChain;
+
+/**
+ * Unit tests for {@link OperationChain}, testing the {@code getKey} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see OperationChain
+ */
+@DisplayName("OperationChain.getKey")
+public final class TestOperationChainGetKey {
+
+    /**
+     * Default constructor.
+     */
+    public TestOperationChainGetKey() {
+        super();
+    }
+
+    @Test
+    @DisplayName("The same operations give the same key")
+    public final void testSameOperations_SameKey() {
+        final OperationChain chain; // Chain to identify
+        final OperationChain other; // Chain with the same operations
+
+        chain = new OperationChain().add("fixHeadingIds", List.of())
+            .add("addClass", List.of("table", "table"));
+        other = new OperationChain().add("fixHeadingIds", List.of())
+            .add("addClass", List.of("table", "table"));
+
+        Assertions.assertThat(chain.getKey())
+            .isEqualTo(other.getKey());
+    }
+
+    @Test
+    @DisplayName("Arguments with separators don't give the same key as other arguments")
+    public final void testSeparators_Distinct() {
+        final OperationChain chain; // Chain with separators in the first argument
+        final OperationChain other; // Chain with separators in the second argument
+
+        chain = new OperationChain().add("addClass", List.of("h1, h2", "x"));
+        other = new OperationChain().add("addClass", List.of("h1", "h2, x"));
+
+        Assertions.assertThat(chain.getKey())
+            .isNotEqualTo(other.getKey());
+    }
+
+    @Test
+    @DisplayName("Operations split differently don't give the same key")
+    public final void testSplitOperations_Distinct() {
+        final OperationChain chain; // Chain with a single operation
+        final OperationChain other; // Chain with the same values in two operations
+
+        chain = new OperationChain().add("unwrap", List.of("a;1:b"));
+        other = new OperationChain().add("unwrap", List.of("a"))
+            .add("unwrap", List.of("b"));
+
+        Assertions.assertThat(chain.getKey())
+            .isNotEqualTo(other.getKey());
+    }
+
+}
@@ -0,0 +1,266 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.cli;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bernardomg.velocity.tool.cli.SiteFixerCli;
+import com.bernardomg.velocity.tool.metrics.ToolInstrumentation;
+
+/**
+ * Unit tests for {@link SiteFixerCli}, testing the {@code run} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see SiteFixerCli
+ */
+@DisplayName("SiteFixerCli.run")
+public final class TestSiteFixerCliRun {
+
+    /**
+     * Error output.
+     */
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    /**
+     * Standard output.
+     */
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    /**
+     * Site directory.
+     */
+    @TempDir
+    private Path                        site;
+
+    /**
+     * Default constructor.
+     */
+    public TestSiteFixerCliRun() {
+        super();
+    }
+
+    /**
+     * Runs the tool with the received arguments.
+     *
+     * @param args
+     *            command line arguments
+     * @return the exit status
+     */
+    private final int run(final String... args) {
+        return SiteFixerCli.run(args, new PrintStream(out, true, StandardCharsets.UTF_8),
+            new PrintStream(err, true, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Applies the operations in order")
+    public final void testRun_AppliesOperations() throws IOException {
+        final int status; // Exit status
+
+        Files.writeString(site.resolve("index.html"), "<html><body><table class=\"bodyTable\"></table></body></html>");
+
+        status = run("--threads", "2", "--op", "addClass", "table", "table", "--op", "removeClass", "table",
+            "bodyTable", site.toString());
+
+        Assertions.assertThat(status)
+            .isEqualTo(SiteFixerCli.EXIT_SUCCESS);
+        Assertions.assertThat(Files.readString(site.resolve("index.html")))
+            .contains("<table class=\"table\">");
+        Assertions.assertThat(out.toString(StandardCharsets.UTF_8))
+            .startsWith("Fixed 1 pages");
+    }
+
+    @Test
+    @DisplayName("The help is printed when requested")
+    public final void testRun_Help() {
+        Assertions.assertThat(run("--help"))
+            .isEqualTo(SiteFixerCli.EXIT_SUCCESS);
+        Assertions.assertThat(out.toString(StandardCharsets.UTF_8))
+            .contains("updateTableHeads");
+    }
+
+    @Test
+    @DisplayName("An incremental run reuses the pages which didn't change")
+    public final void testRun_Incremental_Reused() throws IOException {
+        final Path cache; // Cache directory
+
+        cache = site.resolve("cache");
+        Files.writeString(site.resolve("index.html"), "<html><body><table></table></body></html>");
+        run("--incremental", "--cache", cache.toString(), "--op", "addClass", "table", "table", site.toString());
+        out.reset();
+
+        Files.writeString(site.resolve("index.html"), "<html><body><table></table></body></html>");
+        run("--incremental", "--cache", cache.toString(), "--op", "addClass", "table", "table", site.toString());
+
+        Assertions.assertThat(out.toString(StandardCharsets.UTF_8))
+            .startsWith("Fixed 0 pages, reused 1");
+        Assertions.assertThat(Files.readString(site.resolve("index.html")))
+            .contains("<table class=\"table\">");
+    }
+
+    @Test
+    @DisplayName("An invalid number of threads is rejected")
+    public final void testRun_InvalidThreads_Usage() {
+        Assertions.assertThat(run("--threads", "0", "--op", "fixHeadingIds", site.toString()))
+            .isEqualTo(SiteFixerCli.EXIT_USAGE);
+    }
+
+    @Test
+    @DisplayName("Broken links are written into the report, and fail the run")
+    public final void testRun_Links_Broken() throws IOException {
+        final Path report; // Link report
+        final int  status; // Exit status
+
+        report = site.resolve("links.json");
+        Files.writeString(site.resolve("index.html"),
+            "<html><body><a href=\"usage.html#gone\">Usage</a></body></html>");
+        Files.writeString(site.resolve("usage.html"), "<html><body><h1>Usage</h1></body></html>");
+
+        status = run("--links", report.toString(), "--op", "fixHeadingIds", site.toString());
+
+        Assertions.assertThat(status)
+            .isEqualTo(SiteFixerCli.EXIT_FAILURE);
+        Assertions.assertThat(out.toString(StandardCharsets.UTF_8))
+            .contains("Checked 1 links in 2 pages, 1 broken");
+        Assertions.assertThat(Files.readString(report))
+            .contains(
+                "{ \"page\": \"index.html\", \"href\": \"usage.html#gone\", \"reason\": \"missing-anchor\" }");
+    }
+
+    @Test
+    @DisplayName("Links to fixed ids are valid")
+    public final void testRun_Links_Valid() throws IOException {
+        final Path report; // Link report
+        final int  status; // Exit status
+
+        report = site.resolve("links.json");
+        Files.writeString(site.resolve("index.html"),
+            "<html><body><a href=\"usage.html#Usage\">Usage</a></body></html>");
+        Files.writeString(site.resolve("usage.html"), "<html><body><h1>Usage</h1></body></html>");
+
+        status = run("--links", report.toString(), "--op", "fixHeadingIds", site.toString());
+
+        Assertions.assertThat(status)
+            .isEqualTo(SiteFixerCli.EXIT_SUCCESS);
+        Assertions.assertThat(Files.readString(report))
+            .contains("\"broken\": []");
+    }
+
+    @Test
+    @DisplayName("The operations are reported when measuring them")
+    public final void testRun_Metrics_Reported() throws IOException {
+        Files.writeString(site.resolve("index.html"), "<html><body><table></table></body></html>");
+
+        run("--metrics", "--op", "addClass", "table", "table", site.toString());
+
+        Assertions.assertThat(out.toString(StandardCharsets.UTF_8))
+            .contains("Site tool operations")
+            .contains("addClass[table]: 1 calls, 1 matched, 1 changed");
+        Assertions.assertThat(ToolInstrumentation.getMetrics()
+            .isEnabled())
+            .isFalse();
+    }
+
+    @Test
+    @DisplayName("An operation without all its arguments is rejected")
+    public final void testRun_MissingArguments_Usage() {
+        Assertions.assertThat(run("--op", "addClass", "table"))
+            .isEqualTo(SiteFixerCli.EXIT_USAGE);
+        Assertions.assertThat(err.toString(StandardCharsets.UTF_8))
+            .startsWith("Operation addClass receives 2 arguments");
+    }
+
+    @Test
+    @DisplayName("A missing site directory is rejected")
+    public final void testRun_MissingSite_Usage() {
+        Assertions.assertThat(run("--op", "fixHeadingIds", site.resolve("missing")
+            .toString()))
+            .isEqualTo(SiteFixerCli.EXIT_USAGE);
+    }
+
+    @Test
+    @DisplayName("Running without operations is rejected")
+    public final void testRun_NoOperation_Usage() {
+        Assertions.assertThat(run(site.toString()))
+            .isEqualTo(SiteFixerCli.EXIT_USAGE);
+    }
+
+    @Test
+    @DisplayName("The slow calls are reported when detecting them")
+    public final void testRun_Slow_Reported() throws IOException {
+        Files.writeString(site.resolve("index.html"), "<html><body><table></table></body></html>");
+
+        run("--slow", "60000", "--op", "addClass", "table", "table", site.toString());
+
+        Assertions.assertThat(out.toString(StandardCharsets.UTF_8))
+            .contains("Slow site tool operations: 0 over 60000.000 ms");
+        Assertions.assertThat(ToolInstrumentation.getMetrics()
+            .isEnabled())
+            .isFalse();
+    }
+
+    @Test
+    @DisplayName("An unknown mode is rejected")
+    public final void testRun_UnknownMode_Usage() {
+        Assertions.assertThat(run("--mode", "green", "--op", "fixHeadingIds", site.toString()))
+            .isEqualTo(SiteFixerCli.EXIT_USAGE);
+        Assertions.assertThat(err.toString(StandardCharsets.UTF_8))
+            .startsWith("Unknown mode green");
+    }
+
+    @Test
+    @DisplayName("An unknown operation is rejected")
+    public final void testRun_UnknownOperation_Usage() {
+        Assertions.assertThat(run("--op", "unknown", site.toString()))
+            .isEqualTo(SiteFixerCli.EXIT_USAGE);
+        Assertions.assertThat(err.toString(StandardCharsets.UTF_8))
+            .startsWith("Unknown operation unknown");
+    }
+
+    @Test
+    @DisplayName("Applies the operations with virtual threads")
+    public final void testRun_Virtual_AppliesOperations() throws IOException {
+        final int status; // Exit status
+
+        Files.writeString(site.resolve("index.html"), "<html><body><table></table></body></html>");
+
+        status = run("--mode", "virtual", "--max-open", "2", "--op", "addClass", "table", "table", site.toString());
+
+        Assertions.assertThat(status)
+            .isEqualTo(SiteFixerCli.EXIT_SUCCESS);
+        Assertions.assertThat(Files.readString(site.resolve("index.html")))
+            .contains("<table class=\"table\">");
+    }
+
+}
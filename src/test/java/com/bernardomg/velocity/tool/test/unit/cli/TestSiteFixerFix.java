@@ -0,0 +1,413 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.cli;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.assertj.core.api.Assertions;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bernardomg.velocity.tool.OperationBatch;
+import com.bernardomg.velocity.tool.cli.ExecutionMode;
+import com.bernardomg.velocity.tool.cli.LinkReport;
+import com.bernardomg.velocity.tool.cli.PageCache;
+import com.bernardomg.velocity.tool.cli.SiteFixResult;
+import com.bernardomg.velocity.tool.cli.SiteFixer;
+import com.bernardomg.velocity.tool.cli.SiteLinkIndex;
+import com.bernardomg.velocity.tool.parser.ParserProfile;
+import com.bernardomg.velocity.tool.test.corpus.SiteCorpusGenerator;
+
+/**
+ * Unit tests for {@link SiteFixer}, testing the {@code fix} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see SiteFixer
+ */
+@DisplayName("SiteFixer.fix")
+public final class TestSiteFixerFix {
+
+    /**
+     * Operations applied to the pages.
+     */
+    private final OperationBatch batch = new OperationBatch().fixHeadingIds()
+        .fixAnchorLinks()
+        .updateTableHeads()
+        .transformIcons()
+        .addClass("table", "table");
+
+    /**
+     * Cache directory.
+     */
+    @TempDir
+    private Path                 cache;
+
+    /**
+     * Site directory.
+     */
+    @TempDir
+    private Path                 site;
+
+    /**
+     * Default constructor.
+     */
+    public TestSiteFixerFix() {
+        super();
+    }
+
+    /**
+     * Returns the page fixed in memory.
+     *
+     * @param html
+     *            page to fix
+     * @return the fixed page
+     */
+    private final String fixInMemory(final String html) {
+        final Document document; // Parsed page
+
+        document = Jsoup.parse(html);
+        document.outputSettings()
+            .prettyPrint(false);
+        batch.apply(document.body());
+
+        return document.outerHtml();
+    }
+
+    @Test
+    @DisplayName("Pages which were already fixed are not rewritten")
+    public final void testFix_AlreadyFixed_Untouched() throws IOException {
+        final SiteFixResult result; // Result of fixing the site
+        final String        page;   // Page already fixed
+
+        page = "<html><HEAD><title>Page</title></HEAD><body><H1 id='title'>Title</H1>"
+                + "<TABLE class='table'><THEAD><tr><th>Head</th></tr></THEAD></TABLE><a href='#title'>Top</a></body></html>";
+        Files.writeString(site.resolve("page.html"), page);
+
+        result = new SiteFixer(batch, 2).fix(site);
+
+        Assertions.assertThat(result.getFixed())
+            .isEqualTo(1);
+        Assertions.assertThat(Files.readString(site.resolve("page.html")))
+            .isEqualTo(page);
+    }
+
+    @Test
+    @DisplayName("Pages already fixed in the last run are reused")
+    public final void testFix_Incremental_AlreadyFixed_Reused() throws IOException {
+        final SiteCorpusGenerator generator; // Corpus generator
+        final SiteFixResult       result;    // Result of fixing the site
+
+        generator = new SiteCorpusGenerator(1, 10 * 1024, 20 * 1024);
+        generator.write(site, 5);
+        new SiteFixer(batch, 2).fix(site, new PageCache(cache, "chain"));
+
+        result = new SiteFixer(batch, 2).fix(site, new PageCache(cache, "chain"));
+
+        Assertions.assertThat(result.getReused())
+            .isEqualTo(5);
+        Assertions.assertThat(Files.readString(site.resolve(SiteCorpusGenerator.fileName(0))))
+            .isEqualTo(fixInMemory(generator.page(0)));
+    }
+
+    @Test
+    @DisplayName("The outputs stored in the cache receive the default permissions")
+    public final void testFix_Incremental_CachePermissions_Default() throws IOException {
+        final SiteCorpusGenerator      generator; // Corpus generator
+        final Set<PosixFilePermission> expected;  // Permissions of a new file
+
+        Assumptions.assumeTrue(Files.getFileStore(cache)
+            .supportsFileAttributeView(PosixFileAttributeView.class));
+
+        generator = new SiteCorpusGenerator(1, 10 * 1024, 20 * 1024);
+        generator.write(site, 2);
+        expected = Files.getPosixFilePermissions(Files.createFile(site.resolve("new.txt")));
+
+        new SiteFixer(batch, 2).fix(site, new PageCache(cache, "chain"));
+
+        try (Stream<Path> files = Files.walk(cache)) {
+            Assertions.assertThat(files.filter(Files::isRegularFile))
+                .isNotEmpty()
+                .allSatisfy(file -> Assertions.assertThat(Files.getPosixFilePermissions(file))
+                    .as(file.toString())
+                    .isEqualTo(expected));
+        }
+    }
+
+    @Test
+    @DisplayName("Only pages which changed since the last run are fixed")
+    public final void testFix_Incremental_Changed_Fixed() throws IOException {
+        final SiteCorpusGenerator generator; // Corpus generator
+        final SiteFixResult       result;    // Result of fixing the site
+        final String              changed;   // Changed page
+
+        generator = new SiteCorpusGenerator(1, 10 * 1024, 20 * 1024);
+        generator.write(site, 5);
+        new SiteFixer(batch, 2).fix(site, new PageCache(cache, "chain"));
+
+        generator.write(site, 5);
+        changed = generator.page(2)
+            .replace("<body>", "<body><table></table>");
+        Files.writeString(site.resolve(SiteCorpusGenerator.fileName(2)), changed);
+        result = new SiteFixer(batch, 2).fix(site, new PageCache(cache, "chain"));
+
+        Assertions.assertThat(result.getFixed())
+            .isEqualTo(1);
+        Assertions.assertThat(result.getReused())
+            .isEqualTo(4);
+        Assertions.assertThat(Files.readString(site.resolve(SiteCorpusGenerator.fileName(2))))
+            .isEqualTo(fixInMemory(changed));
+    }
+
+    @Test
+    @DisplayName("All the pages are fixed again when the operations change")
+    public final void testFix_Incremental_OtherOperations_Fixed() throws IOException {
+        final SiteCorpusGenerator generator; // Corpus generator
+        final SiteFixResult       result;    // Result of fixing the site
+
+        generator = new SiteCorpusGenerator(1, 10 * 1024, 20 * 1024);
+        generator.write(site, 5);
+        new SiteFixer(batch, 2).fix(site, new PageCache(cache, "chain"));
+
+        generator.write(site, 5);
+        result = new SiteFixer(batch, 2).fix(site, new PageCache(cache, "other chain"));
+
+        Assertions.assertThat(result.getFixed())
+            .isEqualTo(5);
+        Assertions.assertThat(result.getReused())
+            .isZero();
+    }
+
+    @Test
+    @DisplayName("All the pages are fixed again when the parser settings change")
+    public final void testFix_Incremental_OtherParser_Fixed() throws IOException {
+        final SiteCorpusGenerator generator; // Corpus generator
+        final SiteFixResult       result;    // Result of fixing the site
+
+        generator = new SiteCorpusGenerator(1, 10 * 1024, 20 * 1024);
+        generator.write(site, 5);
+        new SiteFixer(batch, 2).fix(site, new PageCache(cache, "chain", new ParserProfile()));
+
+        generator.write(site, 5);
+        result = new SiteFixer(batch, 2).fix(site, new PageCache(cache, "chain", new ParserProfile(true, 0, false)));
+
+        Assertions.assertThat(result.getFixed())
+            .isEqualTo(5);
+        Assertions.assertThat(result.getReused())
+            .isZero();
+    }
+
+    @Test
+    @DisplayName("Regenerated pages which didn't change take the output of the last run")
+    public final void testFix_Incremental_Unchanged_Reused() throws IOException {
+        final SiteCorpusGenerator generator; // Corpus generator
+        final SiteFixResult       result;    // Result of fixing the site
+
+        generator = new SiteCorpusGenerator(1, 10 * 1024, 20 * 1024);
+        generator.write(site, 5);
+        new SiteFixer(batch, 2).fix(site, new PageCache(cache, "chain"));
+
+        generator.write(site, 5);
+        result = new SiteFixer(batch, 2).fix(site, new PageCache(cache, "chain"));
+
+        Assertions.assertThat(result.getFixed())
+            .isZero();
+        Assertions.assertThat(result.getReused())
+            .isEqualTo(5);
+        for (int index = 0; index < 5; index++) {
+            Assertions.assertThat(Files.readString(site.resolve(SiteCorpusGenerator.fileName(index))))
+                .as("Page %d", index)
+                .isEqualTo(fixInMemory(generator.page(index)));
+        }
+    }
+
+    @Test
+    @DisplayName("All the pages are indexed once fixed, including those the operations don't change")
+    public final void testFix_Index_AllPages() throws IOException {
+        final SiteLinkIndex index; // Site index
+        final LinkReport    links; // Link report
+
+        Files.writeString(site.resolve("index.html"),
+            "<html><body><h1>Start here</h1><a href=\"#Start here\">Top</a>"
+                    + "<a href=\"plain.html#text\">Text</a></body></html>");
+        Files.writeString(site.resolve("plain.html"), "<html><body><p id=\"text\">Text</p></body></html>");
+        index = new SiteLinkIndex();
+
+        new SiteFixer(batch, 2).fix(site, null, index);
+        links = index.verify(site);
+
+        Assertions.assertThat(index.size())
+            .isEqualTo(2);
+        Assertions.assertThat(links.getLinks())
+            .isEqualTo(2);
+        Assertions.assertThat(links.isValid())
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("Pages reused from the last run are indexed")
+    public final void testFix_Index_Reused() throws IOException {
+        final SiteCorpusGenerator generator; // Corpus generator
+        final SiteLinkIndex       index;     // Site index
+
+        generator = new SiteCorpusGenerator(1, 10 * 1024, 20 * 1024);
+        generator.write(site, 5);
+        new SiteFixer(batch, 2).fix(site, new PageCache(cache, "chain"));
+        index = new SiteLinkIndex();
+
+        new SiteFixer(batch, 2).fix(site, new PageCache(cache, "chain"), index);
+
+        Assertions.assertThat(index.size())
+            .isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Files which are not pages are not changed")
+    public final void testFix_NotPage_Untouched() throws IOException {
+        final SiteFixResult result; // Result of fixing the site
+
+        Files.writeString(site.resolve("style.css"), "table { }");
+
+        result = new SiteFixer(batch, 2).fix(site);
+
+        Assertions.assertThat(result.getFixed())
+            .isZero();
+        Assertions.assertThat(Files.readString(site.resolve("style.css")))
+            .isEqualTo("table { }");
+    }
+
+    @Test
+    @DisplayName("Pages which no operation changes are not rewritten")
+    public final void testFix_NothingApplies_Untouched() throws IOException {
+        final SiteFixResult result; // Result of fixing the site
+        final String        page;   // Page which no operation changes
+
+        page = "<html><HEAD><title>Page</title></HEAD><body><p>Text with <a href='other.html'>a link</a></body></html>";
+        Files.writeString(site.resolve("page.html"), page);
+
+        result = new SiteFixer(batch, 2).fix(site);
+
+        Assertions.assertThat(result.getFixed())
+            .isEqualTo(1);
+        Assertions.assertThat(Files.readString(site.resolve("page.html")))
+            .isEqualTo(page);
+    }
+
+    @Test
+    @DisplayName("Fixed pages keep their permissions")
+    public final void testFix_Permissions_Kept() throws IOException {
+        final Path                     page;        // Page to fix
+        final Set<PosixFilePermission> permissions; // Page permissions
+
+        Assumptions.assumeTrue(Files.getFileStore(site)
+            .supportsFileAttributeView(PosixFileAttributeView.class));
+
+        page = site.resolve("page.html");
+        Files.writeString(page, "<html><head></head><body><table><tr><th>Head</th></tr></table></body></html>");
+        permissions = PosixFilePermissions.fromString("rw-rw----");
+        Files.setPosixFilePermissions(page, permissions);
+
+        new SiteFixer(batch, 2).fix(site);
+
+        Assertions.assertThat(Files.readString(page))
+            .contains("<thead>");
+        Assertions.assertThat(Files.getPosixFilePermissions(page))
+            .isEqualTo(permissions);
+    }
+
+    @Test
+    @DisplayName("Fixes all the pages in parallel, as if they were fixed one by one")
+    public final void testFix_SameAsInMemory() throws IOException {
+        final SiteCorpusGenerator generator; // Corpus generator
+        final SiteFixResult       result;    // Result of fixing the site
+
+        generator = new SiteCorpusGenerator(1, 10 * 1024, 40 * 1024);
+        generator.write(site, 20);
+
+        result = new SiteFixer(batch, 4).fix(site);
+
+        Assertions.assertThat(result.getFixed())
+            .isEqualTo(20);
+        Assertions.assertThat(result.isSuccessful())
+            .isTrue();
+        for (int index = 0; index < 20; index++) {
+            Assertions.assertThat(
+                Files.readString(site.resolve(SiteCorpusGenerator.fileName(index)), StandardCharsets.UTF_8))
+                .as("Page %d", index)
+                .isEqualTo(fixInMemory(generator.page(index)));
+        }
+    }
+
+    @Test
+    @DisplayName("Fixes the pages in subdirectories")
+    public final void testFix_Subdirectories() throws IOException {
+        final Path          module; // Module directory
+        final SiteFixResult result; // Result of fixing the site
+
+        module = site.resolve("module");
+        Files.createDirectories(module);
+        Files.writeString(module.resolve("index.html"), "<html><body><table></table></body></html>");
+
+        result = new SiteFixer(batch, 2).fix(site);
+
+        Assertions.assertThat(result.getFixed())
+            .isEqualTo(1);
+        Assertions.assertThat(Files.readString(module.resolve("index.html")))
+            .contains("<table class=\"table\">");
+    }
+
+    @Test
+    @DisplayName("Fixes all the pages with virtual threads, as if they were fixed one by one")
+    public final void testFix_Virtual_SameAsInMemory() throws IOException {
+        final SiteCorpusGenerator generator; // Corpus generator
+        final SiteFixResult       result;    // Result of fixing the site
+
+        generator = new SiteCorpusGenerator(1, 10 * 1024, 40 * 1024);
+        generator.write(site, 20);
+
+        result = new SiteFixer(batch, ExecutionMode.VIRTUAL, 3).fix(site);
+
+        Assertions.assertThat(result.getFixed())
+            .isEqualTo(20);
+        for (int index = 0; index < 20; index++) {
+            Assertions.assertThat(
+                Files.readString(site.resolve(SiteCorpusGenerator.fileName(index)), StandardCharsets.UTF_8))
+                .as("Page %d", index)
+                .isEqualTo(fixInMemory(generator.page(index)));
+        }
+    }
+
+}
@@ -0,0 +1,192 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.cli;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.assertj.core.api.Assertions;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bernardomg.velocity.tool.cli.LinkReport;
+import com.bernardomg.velocity.tool.cli.LinkReport.Reason;
+import com.bernardomg.velocity.tool.cli.SiteLinkIndex;
+
+/**
+ * Unit tests for {@link SiteLinkIndex}, testing the {@code verify} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see SiteLinkIndex
+ */
+@DisplayName("SiteLinkIndex.verify")
+public final class TestSiteLinkIndexVerify {
+
+    /**
+     * Index being tested.
+     */
+    private final SiteLinkIndex index = new SiteLinkIndex();
+
+    /**
+     * Site directory.
+     */
+    @TempDir
+    private Path                site;
+
+    /**
+     * Default constructor.
+     */
+    public TestSiteLinkIndexVerify() {
+        super();
+    }
+
+    /**
+     * Adds a page to the index.
+     *
+     * @param page
+     *            page path in the site
+     * @param body
+     *            page body
+     */
+    private final void add(final String page, final String body) {
+        index.add(page, Jsoup.parse(body));
+    }
+
+    @Test
+    @DisplayName("Links to missing anchors in other pages are reported")
+    public final void testVerify_CrossPage_MissingAnchor() {
+        final LinkReport report; // Link report
+
+        add("index.html", "<a href=\"usage.html#install\">Install</a><a href=\"usage.html#missing\">Missing</a>");
+        add("usage.html", "<h1 id=\"install\">Install</h1>");
+
+        report = index.verify(site);
+
+        Assertions.assertThat(report.getBroken())
+            .hasSize(1);
+        Assertions.assertThat(report.getBroken()
+            .get(0)
+            .getHref())
+            .isEqualTo("usage.html#missing");
+        Assertions.assertThat(report.getBroken()
+            .get(0)
+            .getReason())
+            .isEqualTo(Reason.MISSING_ANCHOR);
+    }
+
+    @Test
+    @DisplayName("Links to directories point to their index page")
+    public final void testVerify_Directory_IndexPage() {
+        final LinkReport report; // Link report
+
+        add("index.html", "<a href=\"docs/#top\">Docs</a>");
+        add("docs/index.html", "<div id=\"top\"></div><a href=\"../index.html\">Home</a>");
+
+        report = index.verify(site);
+
+        Assertions.assertThat(report.isValid())
+            .isTrue();
+        Assertions.assertThat(report.getLinks())
+            .isEqualTo(2);
+        Assertions.assertThat(report.getPages())
+            .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Escaped links are decoded before resolving them")
+    public final void testVerify_Escaped() {
+        final LinkReport report; // Link report
+
+        add("index.html", "<a href=\"my%20page.html\">Page</a>");
+        add("my page.html", "<p>Text</p>");
+
+        report = index.verify(site);
+
+        Assertions.assertThat(report.isValid())
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("Links with a scheme, from the server root or out of the site are not checked")
+    public final void testVerify_External_Ignored() {
+        final LinkReport report; // Link report
+
+        add("index.html", "<a href=\"https://example.com/missing.html\">A</a><a href=\"mailto:me@example.com\">B</a>"
+                + "<a href=\"/missing.html\">C</a><a href=\"../missing.html\">D</a>");
+
+        report = index.verify(site);
+
+        Assertions.assertThat(report.isValid())
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("Links to existing files which are not pages are valid")
+    public final void testVerify_File_Exists() throws IOException {
+        final LinkReport report; // Link report
+
+        Files.createDirectories(site.resolve("css"));
+        Files.writeString(site.resolve("css/site.css"), "body {}");
+        add("index.html", "<a href=\"css/site.css\">Style</a>");
+
+        report = index.verify(site);
+
+        Assertions.assertThat(report.isValid())
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("Links to missing pages are reported")
+    public final void testVerify_MissingPage() {
+        final LinkReport report; // Link report
+
+        add("index.html", "<a href=\"missing.html?q=1#top\">Missing</a>");
+
+        report = index.verify(site);
+
+        Assertions.assertThat(report.getBroken())
+            .extracting(LinkReport.BrokenLink::getReason)
+            .containsExactly(Reason.MISSING_PAGE);
+    }
+
+    @Test
+    @DisplayName("Links to anchors in the same page are checked")
+    public final void testVerify_SamePage() {
+        final LinkReport report; // Link report
+
+        add("index.html",
+            "<h1 id=\"top\">Top</h1><a href=\"#top\">Top</a><a href=\"#\">Top</a><a href=\"#gone\">Gone</a>");
+
+        report = index.verify(site);
+
+        Assertions.assertThat(report.getBroken())
+            .extracting(LinkReport.BrokenLink::getHref)
+            .containsExactly("#gone");
+    }
+
+}
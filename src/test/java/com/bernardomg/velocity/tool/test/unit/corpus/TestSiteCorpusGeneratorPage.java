@@ -0,0 +1,118 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.corpus;
+
+import org.assertj.core.api.Assertions;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.test.corpus.SiteCorpusGenerator;
+
+/**
+ * Unit tests for {@link SiteCorpusGenerator}, testing the {@code page} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see SiteCorpusGenerator
+ */
+@DisplayName("SiteCorpusGenerator.page")
+public final class TestSiteCorpusGeneratorPage {
+
+    /**
+     * Default constructor.
+     */
+    public TestSiteCorpusGeneratorPage() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Pages contain the elements generated by Doxia")
+    public final void testContents_DoxiaElements() {
+        final Element body; // Parsed page
+
+        body = Jsoup.parse(new SiteCorpusGenerator(1).page(0, 64 * 1024))
+            .body();
+
+        Assertions.assertThat(body.select("table.bodyTable tr.a:has(th)"))
+            .isNotEmpty();
+        Assertions.assertThat(body.select("img[src^=images/icon_]"))
+            .isNotEmpty();
+        Assertions.assertThat(body.select("h2 > a[name], h3 > a[name]"))
+            .isNotEmpty();
+        Assertions.assertThat(body.select("div.section div.section"))
+            .isNotEmpty();
+        Assertions.assertThat(body.select("div.source > pre"))
+            .isNotEmpty();
+        Assertions.assertThat(body.select("a[href^=#]"))
+            .isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("Pages with other indexes are different")
+    public final void testDifferentIndex_Different() {
+        final SiteCorpusGenerator generator; // Corpus generator
+
+        generator = new SiteCorpusGenerator(1);
+
+        Assertions.assertThat(generator.page(0))
+            .isNotEqualTo(generator.page(1));
+    }
+
+    @Test
+    @DisplayName("Pages with other seeds are different")
+    public final void testDifferentSeed_Different() {
+        Assertions.assertThat(new SiteCorpusGenerator(1).page(0))
+            .isNotEqualTo(new SiteCorpusGenerator(2).page(0));
+    }
+
+    @Test
+    @DisplayName("Pages reach the received length")
+    public final void testLength_AtLeastReceived() {
+        Assertions.assertThat(new SiteCorpusGenerator(1).page(0, 100 * 1024))
+            .hasSizeGreaterThanOrEqualTo(100 * 1024);
+    }
+
+    @Test
+    @DisplayName("Page lengths are inside the generator limits")
+    public final void testLength_InsideLimits() {
+        final SiteCorpusGenerator generator; // Corpus generator
+
+        generator = new SiteCorpusGenerator(1, 10 * 1024, 40 * 1024);
+
+        generator.pages(20)
+            .forEach(page -> Assertions.assertThat(page)
+                .hasSizeGreaterThanOrEqualTo(10 * 1024)
+                .hasSizeLessThan(60 * 1024));
+    }
+
+    @Test
+    @DisplayName("The same seed and index always give the same page")
+    public final void testSameSeed_SamePage() {
+        Assertions.assertThat(new SiteCorpusGenerator(1).page(3))
+            .isEqualTo(new SiteCorpusGenerator(1).page(3));
+    }
+
+}
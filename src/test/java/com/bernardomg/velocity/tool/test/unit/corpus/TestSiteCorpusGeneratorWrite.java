@@ -0,0 +1,80 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.corpus;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bernardomg.velocity.tool.test.corpus.SiteCorpusGenerator;
+
+/**
+ * Unit tests for {@link SiteCorpusGenerator}, testing the {@code write} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see SiteCorpusGenerator
+ */
+@DisplayName("SiteCorpusGenerator.write")
+public final class TestSiteCorpusGeneratorWrite {
+
+    /**
+     * Directory for the pages.
+     */
+    @TempDir
+    private Path directory;
+
+    /**
+     * Default constructor.
+     */
+    public TestSiteCorpusGeneratorWrite() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Writes the same pages generated in memory")
+    public final void testWrite_SameAsInMemory() throws IOException {
+        final SiteCorpusGenerator generator; // Corpus generator
+        final Collection<Path>    files;     // Written files
+
+        generator = new SiteCorpusGenerator(1, 10 * 1024, 20 * 1024);
+        files = generator.write(directory, 5);
+
+        Assertions.assertThat(files)
+            .hasSize(5);
+        for (int index = 0; index < 5; index++) {
+            Assertions.assertThat(Files.readString(directory.resolve(SiteCorpusGenerator.fileName(index)),
+                StandardCharsets.UTF_8))
+                .isEqualTo(generator.page(index));
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.html;
+
+import org.assertj.core.api.Assertions;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.Html5UpdateTool;
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.SiteTool;
+
+/**
+ * Unit tests for {@link HtmlTool} testing the {@code getChanges} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see HtmlTool
+ */
+@DisplayName("HtmlTool.getChanges")
+public final class TestHtmlToolGetChanges {
+
+    /**
+     * HTML5 update tool, to change the elements.
+     */
+    private final Html5UpdateTool html5Tool = new Html5UpdateTool();
+
+    /**
+     * Site tool, to change the elements.
+     */
+    private final SiteTool        siteTool  = new SiteTool();
+
+    /**
+     * Instance of the utils class being tested.
+     */
+    private final HtmlTool        util      = new HtmlTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestHtmlToolGetChanges() {
+        super();
+    }
+
+    @Test
+    @DisplayName("The operations applied through a batch are recorded one by one")
+    public final void testGetChanges_Batch() {
+        final Element element; // Parsed HTML
+
+        element = util.parse("<table><tr><th>Head</th></tr></table><a href='#A_Link'>Link</a>");
+        util.batch()
+            .fixHeadingIds()
+            .fixAnchorLinks()
+            .updateTableHeads()
+            .apply(element);
+
+        Assertions.assertThat(util.getChanges(element))
+            .containsExactly("fixAnchorLinks", "updateTableHeads");
+        Assertions.assertThat(util.isChanged(element))
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("Only the operations which changed the document are recorded, in order")
+    public final void testGetChanges_Changed() {
+        final Element element; // Parsed HTML
+
+        element = util.parse("<table><tr><th>Head</th></tr></table><h1>A title</h1><p>Text</p>");
+        siteTool.fixHeadingIds(element);
+        siteTool.fixAnchorLinks(element);
+        html5Tool.updateTableHeads(element);
+        siteTool.fixHeadingIds(element);
+        util.retag(element, "tt", "code");
+
+        Assertions.assertThat(util.getChanges(element))
+            .containsExactly("fixHeadingIds", "updateTableHeads");
+    }
+
+    @Test
+    @DisplayName("A null element has no changes")
+    public final void testGetChanges_Null() {
+        Assertions.assertThat(util.getChanges(null))
+            .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Nothing is recorded for a document without changes")
+    public final void testGetChanges_Unchanged() {
+        final Element element; // Parsed HTML
+
+        element = util.parse("<p class='a'>Text</p>");
+        util.addClass(element, "p", "a");
+        util.retag(element, "p", "p");
+        html5Tool.removePointsFromAttr(element, "p", "class");
+
+        Assertions.assertThat(util.getChanges(element))
+            .isEmpty();
+        Assertions.assertThat(util.isChanged(element))
+            .isFalse();
+    }
+
+}
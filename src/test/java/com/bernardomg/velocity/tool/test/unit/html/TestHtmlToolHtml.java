@@ -0,0 +1,177 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.html;
+
+import org.assertj.core.api.Assertions;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.SiteTool;
+
+/**
+ * Unit tests for {@link HtmlTool} testing the {@code html} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see HtmlTool
+ */
+@DisplayName("HtmlTool.html")
+public final class TestHtmlToolHtml {
+
+    /**
+     * Instance of the utils class being tested.
+     */
+    private final HtmlTool util     = new HtmlTool();
+
+    /**
+     * Site tool, to change the elements.
+     */
+    private final SiteTool siteTool = new SiteTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestHtmlToolHtml() {
+        super();
+    }
+
+    @Test
+    @DisplayName("A changed element is serialized")
+    public final void testHtml_Changed() {
+        final String  html;    // HTML code to edit
+        final Element element; // Parsed HTML
+
+        html = "<P class='a'>Text</P>";
+
+        element = util.parse(html);
+        util.addClass(element, "p", "b");
+
+        Assertions.assertThat(util.html(element))
+            .isEqualTo("<p class=\"a b\">Text</p>");
+    }
+
+    @Test
+    @DisplayName("Changing a child element marks the whole document as changed")
+    public final void testHtml_ChildChanged() {
+        final String  html;    // HTML code to edit
+        final Element element; // Parsed HTML
+
+        html = "<div><P>Text</P></div>";
+
+        element = util.parse(html);
+        util.addClass(element.child(0), "p", "b");
+
+        Assertions.assertThat(util.html(element))
+            .isEqualTo("<div>\n <p class=\"b\">Text</p>\n</div>");
+    }
+
+    @Test
+    @DisplayName("A copy of an element which changed keeps its own state")
+    public final void testHtml_Copy_Unchanged() {
+        final String  html;    // HTML code to edit
+        final Element element; // Parsed HTML
+        final Element copy;    // Copied element
+
+        html = "<p>Text</p>";
+
+        element = util.parse(html);
+        copy = element.clone();
+        util.addClass(element, "p", "b");
+
+        Assertions.assertThat(util.html(copy))
+            .isEqualTo("<p>Text</p>");
+        Assertions.assertThat(util.isChanged(copy))
+            .isFalse();
+    }
+
+    @Test
+    @DisplayName("An element which wasn't parsed by the tool is serialized")
+    public final void testHtml_NotParsed() {
+        final Element element; // HTML element
+
+        element = new Element("div").appendElement("p")
+            .text("Text");
+
+        Assertions.assertThat(util.html(element))
+            .isEqualTo("Text");
+    }
+
+    @Test
+    @DisplayName("A null element returns null")
+    public final void testHtml_Null() {
+        Assertions.assertThat(util.html(null))
+            .isNull();
+    }
+
+    @Test
+    @DisplayName("Operations which change nothing keep the received code")
+    public final void testHtml_OperationsWithoutChanges_Untouched() {
+        final String  html;    // HTML code to edit
+        final Element element; // Parsed HTML
+
+        html = "<h1 id='title'>Title</h1><P class='a'>Text <a href='#title'>link</a></P>";
+
+        element = util.parse(html, "", true);
+        util.addClass(element, "p", "a");
+        util.removeClass(element, "p", "b");
+        util.removeAttribute(element, "p", "id");
+        siteTool.fixHeadingIds(element);
+        siteTool.fixAnchorLinks(element);
+        siteTool.transformIcons(element);
+
+        Assertions.assertThat(util.html(element))
+            .isSameAs(html);
+    }
+
+    @Test
+    @DisplayName("An element parsed for the tools alone, and not changed, keeps the received code")
+    public final void testHtml_Unchanged_Untouched() {
+        final String  html;    // HTML code to edit
+        final Element element; // Parsed HTML
+
+        html = "<P class='a'>Text</P>";
+
+        element = util.parse(html, "", true);
+
+        Assertions.assertThat(util.html(element))
+            .isSameAs(html);
+    }
+
+    @Test
+    @DisplayName("An element parsed and not changed by the tools is serialized, keeping any other change")
+    public final void testHtml_UnchangedByTools_Serialized() {
+        final Element element; // Parsed HTML
+
+        element = util.parse("<P class='a'>Text</P>");
+        element.select("p")
+            .first()
+            .text("Edited");
+
+        Assertions.assertThat(util.html(element))
+            .isEqualTo("<p class=\"a\">Edited</p>");
+    }
+
+}
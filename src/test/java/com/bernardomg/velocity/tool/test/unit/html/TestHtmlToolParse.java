@@ -30,6 +30,7 @@
 import org.junit.jupiter.api.Test;
 
 import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.parser.ParserProfile;
 
 /**
  * Unit tests for {@link HtmlTool} testing the {@code parse} method.
@@ -66,6 +67,30 @@ public final void testParse_EmptyString() {
             .isNotNull();
     }
 
+    @Test
+    @DisplayName("The location is kept in the document")
+    public final void testParse_Location() {
+        final Element element; // Parsed HTML
+
+        element = util.parse("<p>text</p>", "index.html");
+
+        Assertions.assertThat(element.ownerDocument()
+            .location())
+            .isEqualTo("index.html");
+    }
+
+    @Test
+    @DisplayName("A null location is kept empty")
+    public final void testParse_Location_Null() {
+        final Element element; // Parsed HTML
+
+        element = util.parse("<p>text</p>", null);
+
+        Assertions.assertThat(element.ownerDocument()
+            .location())
+            .isEmpty();
+    }
+
     @Test
     @DisplayName("Parsing a null returns an element")
     public final void testParse_Null() {
@@ -80,4 +105,16 @@ public final void testParse_Null() {
             .isNull();
     }
 
+    @Test
+    @DisplayName("The code is parsed with the parser profile of the tool")
+    public final void testParse_ParserProfile() {
+        final Element element; // Parsed HTML
+
+        element = new HtmlTool(new ParserProfile(true, 0, false)).parse("<myTag>text</myTag>");
+
+        Assertions.assertThat(element.child(0)
+            .tagName())
+            .isEqualTo("myTag");
+    }
+
 }
@@ -0,0 +1,103 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.html;
+
+import java.io.StringWriter;
+
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.assertj.core.api.Assertions;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.HtmlTool;
+
+/**
+ * Unit tests for {@link HtmlTool} testing the {@code render} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see HtmlTool
+ */
+@DisplayName("HtmlTool.render")
+public final class TestHtmlToolRender {
+
+    /**
+     * Instance of the utils class being tested.
+     */
+    private final HtmlTool util = new HtmlTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestHtmlToolRender() {
+        super();
+    }
+
+    @Test
+    @DisplayName("A null element returns null")
+    public final void testRender_Null() {
+        Assertions.assertThat(util.render(null))
+            .isNull();
+    }
+
+    @Test
+    @DisplayName("As text, the value is the element HTML")
+    public final void testRender_String() {
+        final Element element; // Parsed HTML
+
+        element = util.parse("<div><P>Text</P></div>");
+        util.addClass(element, "p", "b");
+
+        Assertions.assertThat(util.render(element)
+            .toString())
+            .isEqualTo(element.html());
+    }
+
+    @Test
+    @DisplayName("A template writes the element HTML")
+    public final void testRender_Template() {
+        final Element         element; // Parsed HTML
+        final VelocityEngine  engine;  // Template engine
+        final VelocityContext context; // Template context
+        final StringWriter    writer;  // Template output
+
+        element = util.parse("<div><P>Text</P></div>");
+        util.addClass(element, "p", "b");
+
+        engine = new VelocityEngine();
+        engine.init();
+        context = new VelocityContext();
+        context.put("htmlTool", util);
+        context.put("body", element);
+        writer = new StringWriter();
+
+        engine.evaluate(context, writer, "test", "<main>$htmlTool.render( $body )</main>");
+
+        Assertions.assertThat(writer.toString())
+            .isEqualTo("<main>" + element.html() + "</main>");
+    }
+
+}
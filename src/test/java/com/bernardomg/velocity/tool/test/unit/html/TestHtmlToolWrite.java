@@ -0,0 +1,196 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.html;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.assertj.core.api.Assertions;
+import org.jsoup.nodes.Document.OutputSettings;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Entities.EscapeMode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.HtmlTool;
+
+/**
+ * Unit tests for {@link HtmlTool} testing the {@code write} methods.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see HtmlTool
+ */
+@DisplayName("HtmlTool.write")
+public final class TestHtmlToolWrite {
+
+    /**
+     * Instance of the utils class being tested.
+     */
+    private final HtmlTool util = new HtmlTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestHtmlToolWrite() {
+        super();
+    }
+
+    @Test
+    @DisplayName("A changed element is written as its HTML")
+    public final void testWrite_Changed() throws IOException {
+        final Element      element; // Parsed HTML
+        final StringWriter writer;  // Output
+
+        element = util.parse("<div><P>Text</P></div>");
+        util.addClass(element, "p", "b");
+        writer = new StringWriter();
+
+        util.write(element, writer);
+
+        Assertions.assertThat(writer.toString())
+            .isEqualTo(element.html());
+    }
+
+    @Test
+    @DisplayName("An element out of a document is written with the settings, and stays out of any document")
+    public final void testWrite_Detached() throws IOException {
+        final Element      element; // HTML element
+        final StringWriter writer;  // Output
+
+        element = new Element("div");
+        element.appendElement("p")
+            .text("Text");
+        writer = new StringWriter();
+
+        util.write(element, writer, new OutputSettings().prettyPrint(false));
+
+        Assertions.assertThat(writer.toString())
+            .isEqualTo("<p>Text</p>");
+        Assertions.assertThat(element.parent())
+            .isNull();
+        Assertions.assertThat(element.ownerDocument())
+            .isNull();
+    }
+
+    @Test
+    @DisplayName("Errors from the output are thrown")
+    public final void testWrite_Error() {
+        final Element element; // Parsed HTML
+        final Writer  writer;  // Failing output
+
+        element = util.parse("<p>Text</p>");
+        util.addClass(element, "p", "b");
+        writer = new Writer() {
+
+            @Override
+            public final void close() {}
+
+            @Override
+            public final void flush() {}
+
+            @Override
+            public final void write(final char[] buffer, final int offset, final int length) throws IOException {
+                throw new IOException("Closed");
+            }
+
+        };
+
+        Assertions.assertThatThrownBy(() -> util.write(element, writer))
+            .isInstanceOf(IOException.class)
+            .hasMessage("Closed");
+    }
+
+    @Test
+    @DisplayName("A null element writes nothing")
+    public final void testWrite_Null() throws IOException {
+        final StringWriter writer; // Output
+
+        writer = new StringWriter();
+
+        util.write(null, writer);
+
+        Assertions.assertThat(writer.toString())
+            .isEmpty();
+    }
+
+    @Test
+    @DisplayName("The settings are used only while writing")
+    public final void testWrite_Settings() throws IOException {
+        final Element      element; // Parsed HTML
+        final StringWriter writer;  // Output
+
+        element = util.parse("<div><p>Text</p></div>");
+        util.addClass(element, "p", "b");
+        writer = new StringWriter();
+
+        util.write(element, writer, new OutputSettings().prettyPrint(false));
+
+        Assertions.assertThat(writer.toString())
+            .isEqualTo("<div><p class=\"b\">Text</p></div>");
+        Assertions.assertThat(element.ownerDocument()
+            .outputSettings()
+            .prettyPrint())
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("A stream receives the HTML encoded with the settings charset, escaping what it can't encode")
+    public final void testWrite_Stream() throws IOException {
+        final Element               element;  // Parsed HTML
+        final ByteArrayOutputStream output;   // Output
+        final OutputSettings        settings; // Output settings
+
+        element = util.parse("<p>España</p>");
+        util.addClass(element, "p", "b");
+        output = new ByteArrayOutputStream();
+        settings = new OutputSettings().charset(StandardCharsets.US_ASCII)
+            .escapeMode(EscapeMode.xhtml)
+            .prettyPrint(false);
+
+        util.write(element, output, settings);
+
+        Assertions.assertThat(output.toString(StandardCharsets.US_ASCII))
+            .isEqualTo("<p class=\"b\">Espa&#xf1;a</p>");
+    }
+
+    @Test
+    @DisplayName("An element parsed for the tools alone, and not changed, is written as the received code")
+    public final void testWrite_Unchanged() throws IOException {
+        final Element      element; // Parsed HTML
+        final StringWriter writer;  // Output
+
+        element = util.parse("<P class='a'>Text</P>", "", true);
+        writer = new StringWriter();
+
+        util.write(element, writer);
+
+        Assertions.assertThat(writer.toString())
+            .isEqualTo("<P class='a'>Text</P>");
+    }
+
+}
@@ -0,0 +1,255 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.html5update;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+import org.assertj.core.api.Assertions;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.Html5UpdateTool;
+import com.bernardomg.velocity.tool.test.corpus.SiteCorpusGenerator;
+
+/**
+ * Unit tests for {@link Html5UpdateTool} testing the streaming {@code updateTableHeads} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see Html5UpdateTool
+ */
+@DisplayName("Html5UpdateTool.updateTableHeads while streaming")
+public final class TestHtml5UpdateToolUpdateTableHeadsStream {
+
+    /**
+     * Instance of the utils class being tested.
+     */
+    private final Html5UpdateTool util = new Html5UpdateTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestHtml5UpdateToolUpdateTableHeadsStream() {
+        super();
+    }
+
+    /**
+     * Fixes the page after parsing it, and returns it without pretty printing.
+     *
+     * @param html
+     *            page to fix
+     * @return the fixed page
+     */
+    private final String fixParsed(final String html) {
+        final Document document; // Parsed page
+
+        document = Jsoup.parse(html);
+        document.outputSettings()
+            .prettyPrint(false);
+        util.updateTableHeads(document.body());
+
+        return document.html();
+    }
+
+    /**
+     * Fixes the page while streaming it.
+     *
+     * @param html
+     *            page to fix
+     * @return the fixed page
+     * @throws IOException
+     *             if the page can't be fixed
+     */
+    private final String fixStreamed(final String html) throws IOException {
+        final StringWriter writer; // Output
+
+        writer = new StringWriter();
+        util.updateTableHeads(new StringReader(html), writer);
+
+        return writer.toString();
+    }
+
+    @Test
+    @DisplayName("Consecutive header rows are moved each into its own head, as when fixing the page after parsing it")
+    public final void testConsecutiveHeaders_SameAsParsed() throws IOException {
+        final String html; // HTML code to edit
+
+        html = "<table><tr><th>H1</th></tr><tr><th>H2</th></tr><tr><td>D</td></tr></table>";
+
+        Assertions.assertThat(fixStreamed(html))
+            .isEqualTo(
+                "<html><head></head><body><table><thead><tr><th>H2</th></tr></thead><thead><tr><th>H1</th></tr></thead><tbody><tr><td>D</td></tr></tbody></table></body></html>")
+            .isEqualTo(fixParsed(html));
+    }
+
+    @Test
+    @DisplayName("Gives the same result as fixing the pages of a generated site after parsing them")
+    public final void testCorpus_SameAsParsed() throws IOException {
+        final SiteCorpusGenerator generator; // Corpus generator
+        String                    page;      // Generated page
+
+        generator = new SiteCorpusGenerator(1, 10 * 1024, 200 * 1024);
+        for (int index = 0; index < 5; index++) {
+            page = generator.page(index);
+            Assertions.assertThat(fixStreamed(page))
+                .isEqualTo(fixParsed(page));
+        }
+    }
+
+    @Test
+    @DisplayName("A head is added before the existing one, as when fixing the page after parsing it")
+    public final void testExistingHead_AddedBefore() throws IOException {
+        final String html; // HTML code to edit
+
+        html = "<table><thead><tr><th>Old</th></tr></thead><tr><th>H</th></tr><tr><td>D</td></tr></table>";
+
+        Assertions.assertThat(fixStreamed(html))
+            .isEqualTo(fixParsed(html));
+    }
+
+    @Test
+    @DisplayName("A header row after a data row is left in place, unlike when fixing the page after parsing it")
+    public final void testHeaderAfterData_InPlace() throws IOException {
+        Assertions.assertThat(fixStreamed("<table><tr><td>D</td></tr><tr><th>H</th></tr></table>"))
+            .isEqualTo(
+                "<html><head></head><body><table><tbody><tr><td>D</td></tr><tr><th>H</th></tr></tbody></table></body></html>");
+    }
+
+    @Test
+    @DisplayName("A huge table is fixed")
+    public final void testHugeTable() throws IOException {
+        final StringBuilder html; // HTML code to edit
+
+        html = new StringBuilder("<p>Report</p><table class=\"bodyTable\">\n<tr class=\"a\"><th>Name</th><th>Value</th></tr>\n");
+        for (int i = 0; i < 50_000; i++) {
+            html.append("<tr class=\"b\"><td>Name ")
+                .append(i)
+                .append("</td><td>")
+                .append(i)
+                .append("</td></tr>\n");
+        }
+        html.append("</table><p>End</p>");
+
+        Assertions.assertThat(fixStreamed(html.toString()))
+            .isEqualTo(fixParsed(html.toString()));
+    }
+
+    @Test
+    @DisplayName("Tables inside tables are fixed, leaving in place the rows which contain them")
+    public final void testNestedTables() throws IOException {
+        Assertions.assertThat(fixStreamed("<table><tr><th>H</th></tr><tr><td><table><tr><th>In</th></tr><tr><td>D</td></tr></table></td></tr></table>"))
+            .isEqualTo(
+                "<html><head></head><body><table><thead><tr><th>H</th></tr></thead><tbody><tr><td><table><thead><tr><th>In</th></tr></thead><tbody><tr><td>D</td></tr></tbody></table></td></tr></tbody></table></body></html>");
+    }
+
+    @Test
+    @DisplayName("A page without tables is written as parsed")
+    public final void testNoTables() throws IOException {
+        final String html; // HTML code to edit
+
+        html = "<!DOCTYPE html><html><head><title>Page</title></head><body><p>Text <a href='#x'>link</a></p><!-- end --></body></html>";
+
+        Assertions.assertThat(fixStreamed(html))
+            .isEqualTo(fixParsed(html));
+    }
+
+    @Test
+    @DisplayName("Gives the same result as fixing random tables with the header rows first after parsing them")
+    public final void testRandomTables_SameAsParsed() throws IOException {
+        final Random        random; // Random for the tables
+        final StringBuilder html;   // Random page
+        String              page;   // Page to fix
+
+        random = new Random(1);
+        html = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            html.setLength(0);
+            for (int table = random.nextInt(3); table >= 0; table--) {
+                html.append("<p>Text</p><table>");
+                if (random.nextBoolean()) {
+                    html.append("<caption>Caption</caption>");
+                }
+                if (random.nextBoolean()) {
+                    html.append("<thead><tr><th>Old</th></tr></thead>");
+                }
+                for (int row = random.nextInt(4); row > 0; row--) {
+                    html.append("<tr><th>H")
+                        .append(row)
+                        .append("</th><td>V</td></tr>");
+                }
+                for (int row = random.nextInt(4); row > 0; row--) {
+                    if (random.nextInt(4) == 0) {
+                        html.append("<tr><td><table><tr><td>In</td></tr></table></td></tr>");
+                    } else {
+                        html.append("<tr><td>D")
+                            .append(row)
+                            .append("</td></tr>");
+                    }
+                }
+                html.append("</table>");
+            }
+            page = html.toString();
+            Assertions.assertThat(fixStreamed(page))
+                .as("Page %s", page)
+                .isEqualTo(fixParsed(page));
+        }
+    }
+
+    @Test
+    @DisplayName("Errors when reading are thrown")
+    public final void testReadError() {
+        final Reader reader; // Failing input
+
+        reader = new Reader() {
+
+            @Override
+            public final void close() {}
+
+            @Override
+            public final int read(final char[] buffer, final int offset, final int length) throws IOException {
+                throw new IOException("Closed");
+            }
+
+        };
+
+        Assertions.assertThatThrownBy(() -> util.updateTableHeads(reader, new StringWriter()))
+            .isInstanceOf(IOException.class)
+            .hasMessage("Closed");
+    }
+
+    @Test
+    @DisplayName("The header row is moved into a head")
+    public final void testTable_UpdatesHeader() throws IOException {
+        Assertions.assertThat(fixStreamed("<table border=\"0\" class=\"bodyTable\"><tr class=\"a\"><th>Header</th></tr><tr class=\"b\"><td>Data</td></tr></table>"))
+            .isEqualTo(
+                "<html><head></head><body><table border=\"0\" class=\"bodyTable\"><thead><tr class=\"a\"><th>Header</th></tr></thead><tbody><tr class=\"b\"><td>Data</td></tr></tbody></table></body></html>");
+    }
+
+}
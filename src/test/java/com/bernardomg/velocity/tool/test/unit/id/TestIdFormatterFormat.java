@@ -0,0 +1,116 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.id;
+
+import java.util.Random;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.IdFormatter;
+
+/**
+ * Unit tests for {@link IdFormatter}, testing the {@code format} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see IdFormatter
+ */
+@DisplayName("IdFormatter.format")
+public final class TestIdFormatterFormat {
+
+    /**
+     * Default constructor.
+     */
+    public TestIdFormatterFormat() {
+        super();
+    }
+
+    /**
+     * Formats the id with the regular expressions used before the formatter existed.
+     *
+     * @param id
+     *            id to format
+     * @return the formatted id
+     */
+    private static final String formatWithRegex(final String id) {
+        return id.trim()
+            .replaceAll("[ _]", "-")
+            .replaceAll("[^\\w#-]", "");
+    }
+
+    @Test
+    @DisplayName("Formats known cases like the regular expressions")
+    public final void testKnownCases_SameAsRegex() {
+        final String[] ids; // Ids to format
+
+        ids = new String[] { "", "   ", "Heading", "#An_Internal.Link", " spaced  text\t", "\ttabbed\ttext\n",
+                "P\u00e1gina con acentos", "Emoji \uD83D\uDE00 heading", "lone \uD800 surrogate", "a.b,c;d:e",
+                "__init__", "#", "1.2.3 Release notes" };
+
+        for (final String id : ids) {
+            Assertions.assertThat(IdFormatter.format(id))
+                .as("Formatting %s", id)
+                .isEqualTo(formatWithRegex(id));
+        }
+    }
+
+    @Test
+    @DisplayName("Formats random text like the regular expressions")
+    public final void testRandom_SameAsRegex() {
+        final Random  random;  // Random generator
+        StringBuilder builder; // Random text
+        String        id;      // Id to format
+
+        random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            builder = new StringBuilder();
+            for (int j = random.nextInt(24); j > 0; j--) {
+                if (random.nextInt(8) == 0) {
+                    builder.append((char) random.nextInt(0x3000));
+                } else {
+                    builder.append((char) random.nextInt(128));
+                }
+            }
+            id = builder.toString();
+
+            Assertions.assertThat(IdFormatter.format(id))
+                .as("Formatting %s", id)
+                .isEqualTo(formatWithRegex(id));
+        }
+    }
+
+    @Test
+    @DisplayName("An id which is already valid is returned as is")
+    public final void testValid_Same() {
+        final String id; // Id to format
+
+        id = "#A-valid-id";
+
+        Assertions.assertThat(IdFormatter.format(id))
+            .isSameAs(id);
+    }
+
+}
@@ -0,0 +1,153 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.metrics;
+
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.metrics.OperationSummary;
+import com.bernardomg.velocity.tool.metrics.RecordingToolMetrics;
+
+/**
+ * Unit tests for {@link RecordingToolMetrics}, testing the {@code getSummaries} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see RecordingToolMetrics
+ */
+@DisplayName("RecordingToolMetrics.getSummaries")
+public final class TestRecordingToolMetricsGetSummaries {
+
+    /**
+     * Metrics to test.
+     */
+    private final RecordingToolMetrics metrics = new RecordingToolMetrics();
+
+    /**
+     * Default constructor.
+     */
+    public TestRecordingToolMetricsGetSummaries() {
+        super();
+    }
+
+    @Test
+    @DisplayName("The calls are added up")
+    public final void testGetSummaries_AddsUp() {
+        final OperationSummary summary; // Summary for the operation
+
+        metrics.record("addClass", "table", "index.html", 3, 2, 100);
+        metrics.record("addClass", "table", "index.html", 1, 0, 50);
+
+        summary = metrics.getSummaries()
+            .get(0);
+
+        Assertions.assertThat(summary.getInvocations())
+            .isEqualTo(2);
+        Assertions.assertThat(summary.getMatched())
+            .isEqualTo(4);
+        Assertions.assertThat(summary.getChanged())
+            .isEqualTo(2);
+        Assertions.assertThat(summary.getTotalNanos())
+            .isEqualTo(150);
+    }
+
+    @Test
+    @DisplayName("Nothing is returned when nothing was recorded")
+    public final void testGetSummaries_Empty() {
+        Assertions.assertThat(metrics.getSummaries())
+            .isEmpty();
+        Assertions.assertThat(metrics.getReport())
+            .isEqualTo("Site tool operations: none recorded");
+    }
+
+    @Test
+    @DisplayName("Each selector is kept apart")
+    public final void testGetSummaries_KeyedBySelector() {
+        final List<OperationSummary> summaries; // Recorded summaries
+
+        metrics.record("addClass", "table", "index.html", 1, 1, 10);
+        metrics.record("addClass", "img", "index.html", 1, 1, 10);
+        metrics.record("fixHeadingIds", null, "index.html", 1, 1, 10);
+
+        summaries = metrics.getSummaries();
+
+        Assertions.assertThat(summaries)
+            .extracting(OperationSummary::getOperation, OperationSummary::getSelector)
+            .containsExactlyInAnyOrder(Assertions.tuple("addClass", "table"), Assertions.tuple("addClass", "img"),
+                Assertions.tuple("fixHeadingIds", null));
+    }
+
+    @Test
+    @DisplayName("Large durations are approximated from above, within 12.5%")
+    public final void testGetSummaries_Percentiles_Approximated() {
+        final OperationSummary summary; // Summary for the operation
+
+        for (int i = 1; i <= 1000; i++) {
+            metrics.record("unwrap", "a", "index.html", 1, 1, i * 1_000L);
+        }
+
+        summary = metrics.getSummaries()
+            .get(0);
+
+        Assertions.assertThat(summary.getP50Nanos())
+            .isBetween(500_000L, 562_500L);
+        Assertions.assertThat(summary.getP99Nanos())
+            .isBetween(990_000L, 1_113_750L);
+    }
+
+    @Test
+    @DisplayName("Small durations are kept exactly")
+    public final void testGetSummaries_Percentiles_Exact() {
+        final OperationSummary summary; // Summary for the operation
+
+        for (int i = 0; i < 99; i++) {
+            metrics.record("unwrap", "a", "index.html", 1, 1, 2);
+        }
+        metrics.record("unwrap", "a", "index.html", 1, 1, 7);
+
+        summary = metrics.getSummaries()
+            .get(0);
+
+        Assertions.assertThat(summary.getP50Nanos())
+            .isEqualTo(2);
+        Assertions.assertThat(summary.getP99Nanos())
+            .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("The slowest operations come first")
+    public final void testGetSummaries_SlowestFirst() {
+        metrics.record("addClass", "table", "index.html", 1, 1, 10);
+        metrics.record("unwrap", "a", "index.html", 1, 1, 30);
+        metrics.record("retag", "tt", "index.html", 1, 1, 20);
+
+        Assertions.assertThat(metrics.getSummaries())
+            .extracting(OperationSummary::getOperation)
+            .containsExactly("unwrap", "retag", "addClass");
+    }
+
+}
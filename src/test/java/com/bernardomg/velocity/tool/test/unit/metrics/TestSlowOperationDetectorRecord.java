@@ -0,0 +1,185 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.metrics;
+
+import java.time.Duration;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.metrics.SlowOperation;
+import com.bernardomg.velocity.tool.metrics.SlowOperationDetector;
+
+/**
+ * Unit tests for {@link SlowOperationDetector}, testing the {@code record} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see SlowOperationDetector
+ */
+@DisplayName("SlowOperationDetector.record")
+public final class TestSlowOperationDetectorRecord {
+
+    /**
+     * Detector to test, with a 10 ms budget and up to 100 elements.
+     */
+    private final SlowOperationDetector detector = new SlowOperationDetector(Duration.ofMillis(10), 100, 3);
+
+    /**
+     * Default constructor.
+     */
+    public TestSlowOperationDetectorRecord() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Calls within the thresholds are not kept")
+    public final void testRecord_Fast() {
+        detector.record("addClass", "table", "index.html", 100, 1, 10_000_000);
+
+        Assertions.assertThat(detector.getSlowOperations())
+            .isEmpty();
+        Assertions.assertThat(detector.getDetected())
+            .isZero();
+        Assertions.assertThat(detector.getReport())
+            .isEqualTo("Slow site tool operations: 0 over 10.000 ms or 100 elements");
+    }
+
+    @Test
+    @DisplayName("Only the slowest calls are kept")
+    public final void testRecord_Limit() {
+        for (int i = 1; i <= 5; i++) {
+            detector.record("unwrap", "a", "page" + i + ".html", 1, 1, i * 20_000_000L);
+        }
+
+        Assertions.assertThat(detector.getSlowOperations())
+            .extracting(SlowOperation::getPage)
+            .containsExactly("page5.html", "page4.html", "page3.html");
+        Assertions.assertThat(detector.getDetected())
+            .isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Calls selecting too many elements are kept")
+    public final void testRecord_ManyMatches() {
+        detector.record("addClass", "div:has(p)", "index.html", 101, 0, 1_000);
+
+        Assertions.assertThat(detector.getLargestOperations())
+            .extracting(SlowOperation::getSelector, SlowOperation::getMatched)
+            .containsExactly(Assertions.tuple("div:has(p)", 101));
+        Assertions.assertThat(detector.getSlowOperations())
+            .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Slow calls don't push out the calls selecting too many elements")
+    public final void testRecord_ManyMatches_AfterSlow() {
+        detector.record("addClass", "div:has(p)", "index.html", 101, 0, 1_000);
+        for (int i = 1; i <= 5; i++) {
+            detector.record("unwrap", "a", "page" + i + ".html", 1, 1, i * 20_000_000L);
+        }
+
+        Assertions.assertThat(detector.getLargestOperations())
+            .extracting(SlowOperation::getSelector)
+            .containsExactly("div:has(p)");
+        Assertions.assertThat(detector.getSlowOperations())
+            .extracting(SlowOperation::getPage)
+            .containsExactly("page5.html", "page4.html", "page3.html");
+        Assertions.assertThat(detector.getDetected())
+            .isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Only the calls selecting the most elements are kept")
+    public final void testRecord_ManyMatches_Limit() {
+        for (int i = 1; i <= 5; i++) {
+            detector.record("unwrap", "a", "page" + i + ".html", 100 + i, 1, 1_000);
+        }
+
+        Assertions.assertThat(detector.getLargestOperations())
+            .extracting(SlowOperation::getPage)
+            .containsExactly("page5.html", "page4.html", "page3.html");
+    }
+
+    @Test
+    @DisplayName("The report shows the page, selector and time of each call")
+    public final void testRecord_Report() {
+        detector.record("addClass", "div:has(p)", "index.html", 12, 0, 123_456_789);
+        detector.record("fixHeadingIds", null, "", 1, 1, 20_000_000);
+
+        Assertions.assertThat(detector.getReport())
+            .isEqualTo("""
+                Slow site tool operations: 2 over 10.000 ms or 100 elements
+                         Time  Matched  Operation                Selector                         Page
+                   123.457 ms       12  addClass                 div:has(p)                       index.html
+                    20.000 ms        1  fixHeadingIds            -                                -""".replace("\n",
+                System.lineSeparator()));
+    }
+
+    @Test
+    @DisplayName("The report shows the calls selecting too many elements after the slow ones")
+    public final void testRecord_Report_ManyMatches() {
+        detector.record("addClass", "div:has(p)", "index.html", 500, 0, 1_000_000);
+        detector.record("unwrap", "a", "about.html", 200, 0, 20_000_000);
+
+        Assertions.assertThat(detector.getReport())
+            .isEqualTo("""
+                Slow site tool operations: 2 over 10.000 ms or 100 elements
+                         Time  Matched  Operation                Selector                         Page
+                    20.000 ms      200  unwrap                   a                                about.html
+                Selecting over 100 elements:
+                         Time  Matched  Operation                Selector                         Page
+                     1.000 ms      500  addClass                 div:has(p)                       index.html
+                    20.000 ms      200  unwrap                   a                                about.html""".replace("\n",
+                System.lineSeparator()));
+    }
+
+    @Test
+    @DisplayName("Resetting discards the slow calls")
+    public final void testRecord_Reset() {
+        detector.record("addClass", "table", "index.html", 101, 1, 20_000_000);
+
+        detector.reset();
+
+        Assertions.assertThat(detector.getSlowOperations())
+            .isEmpty();
+        Assertions.assertThat(detector.getLargestOperations())
+            .isEmpty();
+        Assertions.assertThat(detector.getDetected())
+            .isZero();
+    }
+
+    @Test
+    @DisplayName("Calls over the time budget are kept")
+    public final void testRecord_Slow() {
+        detector.record("addClass", "table", "index.html", 1, 1, 10_000_001);
+
+        Assertions.assertThat(detector.getSlowOperations())
+            .extracting(SlowOperation::getOperation, SlowOperation::getSelector, SlowOperation::getPage,
+                SlowOperation::getNanos)
+            .containsExactly(Assertions.tuple("addClass", "table", "index.html", 10_000_001L));
+    }
+
+}
@@ -0,0 +1,146 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.metrics;
+
+import org.assertj.core.api.Assertions;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.SiteTool;
+import com.bernardomg.velocity.tool.metrics.OperationSummary;
+import com.bernardomg.velocity.tool.metrics.RecordingToolMetrics;
+import com.bernardomg.velocity.tool.metrics.ToolInstrumentation;
+import com.bernardomg.velocity.tool.metrics.ToolMetrics;
+
+/**
+ * Unit tests for {@link ToolInstrumentation}, testing the {@code setMetrics} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see ToolInstrumentation
+ */
+@DisplayName("ToolInstrumentation.setMetrics")
+public final class TestToolInstrumentationSetMetrics {
+
+    /**
+     * Instance of the HTML tool to use.
+     */
+    private final HtmlTool             htmlTool = new HtmlTool();
+
+    /**
+     * Metrics receiving the measures.
+     */
+    private final RecordingToolMetrics metrics  = new RecordingToolMetrics();
+
+    /**
+     * Instance of the site tool to use.
+     */
+    private final SiteTool             siteTool = new SiteTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestToolInstrumentationSetMetrics() {
+        super();
+    }
+
+    /**
+     * Goes back to the default metrics.
+     */
+    @AfterEach
+    public final void restoreMetrics() {
+        ToolInstrumentation.setMetrics(ToolMetrics.none());
+    }
+
+    @Test
+    @DisplayName("A batch records each operation, and the whole batch")
+    public final void testSetMetrics_Batch() {
+        final Element body; // Body to change
+
+        body = Jsoup.parse("<table></table><table class=\"table\"></table><a href=\"#A_b\">a</a>")
+            .body();
+
+        ToolInstrumentation.setMetrics(metrics);
+        htmlTool.batch()
+            .addClass("table", "table")
+            .fixAnchorLinks()
+            .apply(body);
+
+        Assertions.assertThat(metrics.getSummaries())
+            .extracting(OperationSummary::getOperation, OperationSummary::getSelector,
+                OperationSummary::getInvocations, OperationSummary::getMatched, OperationSummary::getChanged)
+            .containsExactlyInAnyOrder(Assertions.tuple("addClass", "table", 1L, 2L, 1L),
+                Assertions.tuple("fixAnchorLinks", "a", 1L, 1L, 1L), Assertions.tuple("batch", null, 1L, 0L, 0L));
+    }
+
+    @Test
+    @DisplayName("The default metrics are disabled")
+    public final void testSetMetrics_Default() {
+        Assertions.assertThat(ToolMetrics.none()
+            .isEnabled())
+            .isFalse();
+    }
+
+    @Test
+    @DisplayName("Nothing is recorded after going back to the default metrics")
+    public final void testSetMetrics_None_NotRecorded() {
+        ToolInstrumentation.setMetrics(metrics);
+        ToolInstrumentation.setMetrics(ToolMetrics.none());
+        htmlTool.addClass(htmlTool.parse("<table></table>"), "table", "table");
+
+        Assertions.assertThat(metrics.getSummaries())
+            .isEmpty();
+    }
+
+    @Test
+    @DisplayName("A null pointer is rejected")
+    public final void testSetMetrics_Null() {
+        Assertions.assertThatThrownBy(() -> ToolInstrumentation.setMetrics(null))
+            .isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    @DisplayName("The tools record their operations")
+    public final void testSetMetrics_Tools() {
+        final Element body; // Body to change
+
+        ToolInstrumentation.setMetrics(metrics);
+        body = htmlTool.parse("<h1>A heading</h1><h2 id=\"other\">Other</h2><table></table>");
+        siteTool.fixHeadingIds(body);
+        htmlTool.addClass(body, "table", "table");
+        htmlTool.addClass(body, "table", "table");
+
+        Assertions.assertThat(metrics.getSummaries())
+            .extracting(OperationSummary::getOperation, OperationSummary::getSelector,
+                OperationSummary::getInvocations, OperationSummary::getMatched, OperationSummary::getChanged)
+            .containsExactlyInAnyOrder(Assertions.tuple("parse", null, 1L, 0L, 0L),
+                Assertions.tuple("fixHeadingIds", "h1,h2,h3,h4,h5,h6", 1L, 2L, 1L),
+                Assertions.tuple("addClass", "table", 2L, 2L, 1L));
+    }
+
+}
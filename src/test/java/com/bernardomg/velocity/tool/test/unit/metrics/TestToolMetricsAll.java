@@ -0,0 +1,82 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.metrics;
+
+import java.time.Duration;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.metrics.RecordingToolMetrics;
+import com.bernardomg.velocity.tool.metrics.SlowOperationDetector;
+import com.bernardomg.velocity.tool.metrics.ToolMetrics;
+
+/**
+ * Unit tests for {@link ToolMetrics}, testing the {@code all} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see ToolMetrics
+ */
+@DisplayName("ToolMetrics.all")
+public final class TestToolMetricsAll {
+
+    /**
+     * Default constructor.
+     */
+    public TestToolMetricsAll() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Disabled when all the metrics are disabled")
+    public final void testAll_Disabled() {
+        Assertions.assertThat(ToolMetrics.all(ToolMetrics.none(), ToolMetrics.none())
+            .isEnabled())
+            .isFalse();
+    }
+
+    @Test
+    @DisplayName("The measures reach all the metrics")
+    public final void testAll_Record() {
+        final RecordingToolMetrics  recording; // Metrics for all the calls
+        final SlowOperationDetector detector;  // Metrics for the slow calls
+        final ToolMetrics           metrics;   // Metrics to test
+
+        recording = new RecordingToolMetrics();
+        detector = new SlowOperationDetector(Duration.ofMillis(1), 100);
+        metrics = ToolMetrics.all(recording, ToolMetrics.none(), detector);
+
+        metrics.record("addClass", "table", "index.html", 1, 1, 2_000_000);
+
+        Assertions.assertThat(metrics.isEnabled())
+            .isTrue();
+        Assertions.assertThat(recording.getSummaries())
+            .hasSize(1);
+        Assertions.assertThat(detector.getSlowOperations())
+            .hasSize(1);
+    }
+
+}
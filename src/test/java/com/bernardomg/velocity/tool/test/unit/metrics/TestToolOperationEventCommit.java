@@ -0,0 +1,165 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.metrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.SiteTool;
+import com.bernardomg.velocity.tool.metrics.ToolOperationEvent;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Unit tests for {@link ToolOperationEvent}, testing the events committed by the tools.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see ToolOperationEvent
+ */
+@DisplayName("ToolOperationEvent.commit")
+public final class TestToolOperationEventCommit {
+
+    /**
+     * Code parsed while recording.
+     */
+    private static final String HTML      = "<h1>A heading</h1><table></table><table></table>";
+
+    /**
+     * Directory for the recordings.
+     */
+    @TempDir
+    private Path                directory;
+
+    /**
+     * Instance of the HTML tool to use.
+     */
+    private final HtmlTool      htmlTool  = new HtmlTool();
+
+    /**
+     * Instance of the site tool to use.
+     */
+    private final SiteTool      siteTool  = new SiteTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestToolOperationEventCommit() {
+        super();
+    }
+
+    /**
+     * Runs the tools while recording, and returns the tool events.
+     *
+     * @param recording
+     *            recording to use
+     * @return the tool events recorded
+     * @throws IOException
+     *             if the recording can't be read
+     */
+    private final List<RecordedEvent> record(final Recording recording) throws IOException {
+        final Path    file; // Recording file
+        final Element body; // Body to change
+
+        recording.start();
+        body = htmlTool.parse(HTML, "http://example.com/index.html");
+        siteTool.fixHeadingIds(body);
+        htmlTool.addClass(body, "table", "table");
+        recording.stop();
+
+        file = directory.resolve("recording.jfr");
+        recording.dump(file);
+
+        return RecordingFile.readAllEvents(file)
+            .stream()
+            .filter(e -> ToolOperationEvent.NAME.equals(e.getEventType()
+                .getName()))
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Disabled by default")
+    public final void testCommit_Default_NotRecorded() throws IOException, ParseException {
+        final List<RecordedEvent> events; // Tool events
+
+        try (final Recording recording = new Recording(Configuration.getConfiguration("default"))) {
+            events = record(recording);
+        }
+
+        Assertions.assertThat(events)
+            .isEmpty();
+    }
+
+    @Test
+    @DisplayName("An event is recorded for each call when enabled")
+    public final void testCommit_Enabled_Recorded() throws IOException {
+        final List<RecordedEvent> events; // Tool events
+
+        try (final Recording recording = new Recording()) {
+            recording.enable(ToolOperationEvent.NAME);
+            events = record(recording);
+        }
+
+        Assertions.assertThat(events)
+            .extracting(e -> e.getString("operation"), e -> e.getString("selector"), e -> e.getInt("matched"),
+                e -> e.getInt("changed"), e -> e.getString("page"), e -> e.getLong("parsedSize"))
+            .containsExactly(
+                Assertions.tuple("parse", null, 0, 0, "http://example.com/index.html", (long) HTML.length()),
+                Assertions.tuple("fixHeadingIds", "h1,h2,h3,h4,h5,h6", 1, 1, "http://example.com/index.html", 0L),
+                Assertions.tuple("addClass", "table", 2, 2, "http://example.com/index.html", 0L));
+        Assertions.assertThat(events)
+            .allSatisfy(e -> Assertions.assertThat(e.getDuration())
+                .isPositive());
+    }
+
+    @Test
+    @DisplayName("Only the slow calls are recorded above the threshold")
+    public final void testCommit_Threshold_NotRecorded() throws IOException {
+        final List<RecordedEvent> events; // Tool events
+
+        try (final Recording recording = new Recording()) {
+            recording.enable(ToolOperationEvent.NAME)
+                .withThreshold(Duration.ofHours(1));
+            events = record(recording);
+        }
+
+        Assertions.assertThat(events)
+            .isEmpty();
+    }
+
+}
@@ -0,0 +1,243 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.management.Attribute;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.cache.SelectorCache;
+import com.bernardomg.velocity.tool.metrics.ToolStatistics;
+
+/**
+ * Unit tests for {@link ToolStatistics}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see ToolStatistics
+ */
+@DisplayName("ToolStatistics")
+public final class TestToolStatistics {
+
+    /**
+     * Selector cache to report on.
+     */
+    private final SelectorCache  selectors  = new SelectorCache(8);
+
+    /**
+     * Statistics to test.
+     */
+    private final ToolStatistics statistics = new ToolStatistics(selectors);
+
+    /**
+     * Default constructor.
+     */
+    public TestToolStatistics() {
+        super();
+    }
+
+    @Test
+    @DisplayName("While disabled, the tools record nothing")
+    public final void testDisabled_NotFed() {
+        Assertions.assertThat(ToolStatistics.shared()
+            .isEnabled())
+            .isFalse();
+
+        new HtmlTool().parse("<p>text</p>", "disabled.html");
+
+        Assertions.assertThat(ToolStatistics.shared()
+            .getSlowestPages())
+            .noneMatch(p -> p.startsWith("disabled.html ("));
+    }
+
+    @Test
+    @DisplayName("Nothing is reported before parsing")
+    public final void testEmpty() {
+        Assertions.assertThat(statistics.getPagesParsed())
+            .isZero();
+        Assertions.assertThat(statistics.getAverageParseMillis())
+            .isZero();
+        Assertions.assertThat(statistics.getSelectorCacheHitRate())
+            .isZero();
+        Assertions.assertThat(statistics.getSlowestPages())
+            .isEmpty();
+    }
+
+    @Test
+    @DisplayName("The parsed pages are added up")
+    public final void testRecordParse() {
+        statistics.recordParse("a.html", 100, 2_000_000);
+        statistics.recordParse("b.html", 50, 4_000_000);
+
+        Assertions.assertThat(statistics.getPagesParsed())
+            .isEqualTo(2);
+        Assertions.assertThat(statistics.getBytesParsed())
+            .isEqualTo(150);
+        Assertions.assertThat(statistics.getAverageParseMillis())
+            .isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("The MBean is registered, and once enabled through it, fed by the tools")
+    public final void testRegistered() throws JMException {
+        final MBeanServer server; // Platform server
+        final ObjectName  name;   // MBean name
+
+        server = ManagementFactory.getPlatformMBeanServer();
+        name = new ObjectName(ToolStatistics.OBJECT_NAME);
+        server.setAttribute(name, new Attribute("Enabled", true));
+        try {
+            new HtmlTool().parse("<p>text</p>", "registered.html");
+        } finally {
+            server.setAttribute(name, new Attribute("Enabled", false));
+        }
+
+        Assertions.assertThat((Long) server.getAttribute(name, "PagesParsed"))
+            .isPositive();
+        Assertions.assertThat(ToolStatistics.shared()
+            .getSlowestPages())
+            .anyMatch(p -> p.startsWith("registered.html ("));
+    }
+
+    @Test
+    @DisplayName("Resetting discards the statistics")
+    public final void testReset() {
+        statistics.recordParse("a.html", 100, 2_000_000);
+
+        statistics.reset();
+
+        Assertions.assertThat(statistics.getPagesParsed())
+            .isZero();
+        Assertions.assertThat(statistics.getBytesParsed())
+            .isZero();
+        Assertions.assertThat(statistics.getSlowestPages())
+            .isEmpty();
+    }
+
+    @Test
+    @DisplayName("The selector cache hit rate is reported")
+    public final void testSelectorCacheHitRate() {
+        selectors.evaluator("table");
+        selectors.evaluator("table");
+        selectors.evaluator("table");
+        selectors.evaluator("img");
+
+        Assertions.assertThat(statistics.getSelectorCacheHitRate())
+            .isEqualTo(0.5);
+    }
+
+    @Test
+    @DisplayName("The slowest pages come first, with the time of all the operations")
+    public final void testSlowestPages() {
+        statistics.recordParse("a.html", 100, 1_000_000);
+        statistics.recordParse("b.html", 100, 2_000_000);
+        statistics.recordOperation("a.html", 2_000_000);
+        statistics.recordOperation("", 9_000_000);
+
+        Assertions.assertThat(statistics.getSlowestPages())
+            .containsExactly("a.html (3.000 ms)", "b.html (2.000 ms)");
+    }
+
+    @Test
+    @DisplayName("No time is lost when pages are moved while receiving time from several threads")
+    public final void testSlowestPages_Concurrent() throws Exception {
+        final ExecutorService executor; // Threads recording the time
+        final List<Future<?>> tasks;    // Recording tasks
+        final List<String>    expected; // Expected slowest pages
+        final int             threads;  // Number of threads
+
+        threads = 8;
+        executor = Executors.newFixedThreadPool(threads);
+        try {
+            tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        if ((i % 50) == 0) {
+                            statistics.recordOperation("slow" + thread + ".html", 1_000_000);
+                        } else {
+                            statistics.recordOperation("page" + thread + "-" + i + ".html", 1);
+                        }
+                    }
+                }));
+            }
+            for (final Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        expected = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            expected.add("slow" + t + ".html (400.000 ms)");
+        }
+        Assertions.assertThat(statistics.getSlowestPages())
+            .hasSize(ToolStatistics.SLOWEST_PAGES)
+            .containsAll(expected);
+    }
+
+    @Test
+    @DisplayName("Only the slowest pages are returned")
+    public final void testSlowestPages_Limited() {
+        for (int i = 0; i < 20; i++) {
+            statistics.recordOperation("page" + i + ".html", i * 1_000L);
+        }
+
+        Assertions.assertThat(statistics.getSlowestPages())
+            .hasSize(ToolStatistics.SLOWEST_PAGES)
+            .first()
+            .asString()
+            .startsWith("page19.html");
+    }
+
+    @Test
+    @DisplayName("The slowest pages are kept among many more pages")
+    public final void testSlowestPages_ManyPages() {
+        statistics.recordParse("slow.html", 100, 5_000_000);
+        for (int i = 0; i < ToolStatistics.TRACKED_PAGES * 10; i++) {
+            statistics.recordOperation("page" + i + ".html", 1_000L);
+        }
+        statistics.recordOperation("late.html", 4_000_000);
+
+        Assertions.assertThat(statistics.getSlowestPages())
+            .hasSize(ToolStatistics.SLOWEST_PAGES)
+            .startsWith("slow.html (5.000 ms)", "late.html (4.000 ms)");
+    }
+
+}
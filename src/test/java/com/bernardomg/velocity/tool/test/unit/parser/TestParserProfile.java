@@ -0,0 +1,173 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.assertj.core.api.Assertions;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.parser.ParserProfile;
+
+/**
+ * Unit tests for {@link ParserProfile}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see ParserProfile
+ */
+@DisplayName("ParserProfile")
+public final class TestParserProfile {
+
+    /**
+     * Default constructor.
+     */
+    public TestParserProfile() {
+        super();
+    }
+
+    @Test
+    @DisplayName("The default profile normalizes the case and tracks neither errors nor positions")
+    public final void testDefaults() {
+        final Parser parser; // Parser used
+
+        parser = new ParserProfile().parse("<P>text</P>", "")
+            .parser();
+
+        Assertions.assertThat(parser.isTrackErrors())
+            .isFalse();
+        Assertions.assertThat(parser.isTrackPosition())
+            .isFalse();
+        Assertions.assertThat(parser.settings()
+            .preserveTagCase())
+            .isFalse();
+    }
+
+    @Test
+    @DisplayName("Errors are kept up to the maximum")
+    public final void testMaxErrors() {
+        final Document document; // Parsed page
+
+        document = new ParserProfile(false, 2, false).parse("<p><b><i></b></p></div></span></table>", "");
+
+        Assertions.assertThat(document.parser()
+            .getErrors())
+            .hasSize(2);
+    }
+
+    @Test
+    @DisplayName("A negative maximum of errors is rejected")
+    public final void testMaxErrors_Negative() {
+        Assertions.assertThatThrownBy(() -> new ParserProfile(false, -1, false))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Parsing gives the same result as jsoup")
+    public final void testParse_SameAsJsoup() {
+        final String html; // HTML to parse
+
+        html = "<title>Page</title><h1 id=\"a\">Heading</h1><table><tr><th>Head</th></tr></table>";
+
+        Assertions.assertThat(new ParserProfile().parse(html, "index.html")
+            .outerHtml())
+            .isEqualTo(Jsoup.parse(html, "index.html")
+                .outerHtml());
+    }
+
+    @Test
+    @DisplayName("Parsing a stream detects the charset from the page")
+    public final void testParse_Stream() throws IOException {
+        final byte[]   input;    // Page to parse
+        final Document document; // Parsed page
+
+        input = "<meta charset=\"ISO-8859-1\"><p>café</p>".getBytes(StandardCharsets.ISO_8859_1);
+
+        document = new ParserProfile().parse(new ByteArrayInputStream(input), null, "index.html");
+
+        Assertions.assertThat(document.body()
+            .text())
+            .isEqualTo("café");
+        Assertions.assertThat(document.location())
+            .isEqualTo("index.html");
+    }
+
+    @Test
+    @DisplayName("Each parse has its own parser, so no parser keeps another document")
+    public final void testParser_NotReused() throws IOException {
+        final ParserProfile profile; // Profile being tested
+        final Parser        parser;  // Parser of the first document
+
+        profile = new ParserProfile();
+        parser = profile.parse("<p>a</p>", "")
+            .parser();
+
+        Assertions.assertThat(profile.parse("<p>b</p>", "")
+            .parser())
+            .isNotSameAs(parser);
+        Assertions.assertThat(profile.parse(new ByteArrayInputStream("<p>c</p>".getBytes(StandardCharsets.UTF_8)),
+            null, "")
+            .parser())
+            .isNotSameAs(parser);
+    }
+
+    @Test
+    @DisplayName("The case of tags and attributes can be kept")
+    public final void testPreserveCase() {
+        final Element body; // Parsed body
+
+        body = new ParserProfile(true, 0, false).parse("<myTag dataValue=\"x\">text</myTag>", "")
+            .body();
+
+        Assertions.assertThat(body.child(0)
+            .tagName())
+            .isEqualTo("myTag");
+        Assertions.assertThat(body.child(0)
+            .attributes()
+            .hasKey("dataValue"))
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("Positions can be tracked")
+    public final void testTrackPosition() {
+        final Element body; // Parsed body
+
+        body = new ParserProfile(false, 0, true).parse("<p>text</p>", "")
+            .body();
+
+        Assertions.assertThat(body.child(0)
+            .sourceRange()
+            .isTracked())
+            .isTrue();
+    }
+
+}
@@ -0,0 +1,208 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.scan;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.PageScan;
+
+/**
+ * Unit tests for {@link PageScan}, testing the {@code of} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see PageScan
+ */
+@DisplayName("PageScan.of")
+public final class TestPageScanOf {
+
+    /**
+     * Default constructor.
+     */
+    public TestPageScanOf() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Finds links to anchors")
+    public final void testAnchorLinks() {
+        Assertions.assertThat(PageScan.of("<a href=\"#top\">Top</a>")
+            .hasAnchorLinks())
+            .isTrue();
+        Assertions.assertThat(PageScan.of("<a href='#top'>Top</a>")
+            .hasAnchorLinks())
+            .isTrue();
+        Assertions.assertThat(PageScan.of("<a href = #top>Top</a>")
+            .hasAnchorLinks())
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("Links to other pages are not links to anchors")
+    public final void testAnchorLinks_OtherPage() {
+        Assertions.assertThat(PageScan.of("<a href=\"page.html#top\">Top</a><p>#top</p>")
+            .hasAnchorLinks())
+            .isFalse();
+    }
+
+    @Test
+    @DisplayName("Tags in comments are ignored")
+    public final void testComment_Ignored() {
+        Assertions.assertThat(PageScan.of("<!-- <table> --><p>Text</p>")
+            .hasTag("table"))
+            .isFalse();
+    }
+
+    @Test
+    @DisplayName("Comments closed right away don't hide the following tags")
+    public final void testComment_Short() {
+        Assertions.assertThat(PageScan.of("<!--><table></table>-->")
+            .hasTag("table"))
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("End tags are reported, as the parser may create their elements")
+    public final void testEndTag() {
+        Assertions.assertThat(PageScan.of("Text</p>")
+            .hasTag("p"))
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("Finds the extensions of the sources, ignoring case")
+    public final void testExtension() {
+        final PageScan scan; // Scanned code
+
+        scan = PageScan.of("<img src=\"images/ADD.GIF\"><img src=image.png>");
+
+        Assertions.assertThat(scan.hasExtension("gif"))
+            .isTrue();
+        Assertions.assertThat(scan.hasExtension("png"))
+            .isTrue();
+        Assertions.assertThat(scan.hasExtension("jpg"))
+            .isFalse();
+    }
+
+    @Test
+    @DisplayName("Tags added by the parser are always reported")
+    public final void testImpliedTags() {
+        final PageScan scan; // Scanned code
+
+        scan = PageScan.of("<table><tr><td>Cell</td></tr></table>");
+
+        Assertions.assertThat(scan.hasTag("tbody"))
+            .isTrue();
+        Assertions.assertThat(scan.hasTag("body"))
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("Rows added by the parser around header cells are reported")
+    public final void testImpliedTags_Row() {
+        final PageScan scan; // Scanned code
+
+        scan = PageScan.of("<table><th>Head</th><td>Cell</td></table>");
+
+        Assertions.assertThat(scan.hasTag("tr"))
+            .isTrue();
+        Assertions.assertThat(scan.hasTag("tbody"))
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("A quote left open makes everything reported")
+    public final void testOpenQuote_Everything() {
+        final PageScan scan; // Scanned code
+
+        scan = PageScan.of("<p class=\"a>Text</p>");
+
+        Assertions.assertThat(scan.hasTag("table"))
+            .isTrue();
+        Assertions.assertThat(scan.hasAnchorLinks())
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("A quoted value with tags makes everything reported")
+    public final void testQuotedTag_Everything() {
+        Assertions.assertThat(PageScan.of("<p title=\"<table>\">Text</p>")
+            .hasTag("h1"))
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("Character references in attributes make all the links and extensions reported")
+    public final void testReferences_AllValues() {
+        final PageScan scan; // Scanned code
+
+        scan = PageScan.of("<a href=\"&#35;top\">Top</a>");
+
+        Assertions.assertThat(scan.hasAnchorLinks())
+            .isTrue();
+        Assertions.assertThat(scan.hasExtension("gif"))
+            .isTrue();
+        Assertions.assertThat(scan.hasTag("table"))
+            .isFalse();
+    }
+
+    @Test
+    @DisplayName("Tags in scripts are ignored")
+    public final void testScript_Ignored() {
+        final PageScan scan; // Scanned code
+
+        scan = PageScan.of("<script>if (a <b && c == 'x') { s = '<table>'; }</SCRIPT><h1>Title</h1>");
+
+        Assertions.assertThat(scan.hasTag("table"))
+            .isFalse();
+        Assertions.assertThat(scan.hasTag("h1"))
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("Finds tags, ignoring case")
+    public final void testTags() {
+        final PageScan scan; // Scanned code
+
+        scan = PageScan.of("<DIV class=\"a\"><Table><tr><th>Head</th></tr></Table></DIV>");
+
+        Assertions.assertThat(scan.hasTag("table"))
+            .isTrue();
+        Assertions.assertThat(scan.hasTag("th"))
+            .isTrue();
+        Assertions.assertThat(scan.hasTag("img"))
+            .isFalse();
+    }
+
+    @Test
+    @DisplayName("Text with less than signs is not read as tags")
+    public final void testText_NotTags() {
+        Assertions.assertThat(PageScan.of("<p>1 < 2 and 3 <4</p>")
+            .hasTag("4"))
+            .isFalse();
+    }
+
+}
@@ -0,0 +1,187 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.site;
+
+import org.assertj.core.api.Assertions;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.SiteTool;
+
+/**
+ * Unit tests for {@link SiteTool}, testing the {@code fixHeadingIds} method with de-duplication.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see SiteTool
+ */
+@DisplayName("SiteTool.fixHeadingIds with de-duplication")
+public final class TestSiteToolFixHeadingIdsDedupe {
+
+    /**
+     * Instance of the utils class being tested.
+     */
+    private final SiteTool util = new SiteTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestSiteToolFixHeadingIdsDedupe() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Without de-duplication repeated headings keep the same id")
+    public final void testDisabled_RepeatedIds() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        html = "<h2>Usage</h2><h2>Usage</h2>";
+        htmlExpected = """
+                       <h2 id="Usage">Usage</h2>
+                       <h2 id="Usage">Usage</h2>""";
+
+        element = Jsoup.parse(html)
+            .body();
+        util.fixHeadingIds(element, false);
+
+        Assertions.assertThat(element.html())
+            .isEqualTo(htmlExpected);
+    }
+
+    @Test
+    @DisplayName("Ids are kept unique on a page with many repeated headings")
+    public final void testManyRepeated_Unique() {
+        final StringBuilder html;    // HTML code to edit
+        final Element       element; // Parsed HTML
+
+        html = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            html.append("<h3>Usage</h3><h3>Usage-1</h3>");
+        }
+
+        element = Jsoup.parse(html.toString())
+            .body();
+        util.fixHeadingIds(element, true);
+
+        Assertions.assertThat(element.select("h3")
+            .eachAttr("id"))
+            .hasSize(10000)
+            .doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Ids used by other elements are not given to headings")
+    public final void testNonHeadingId_Suffixed() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        html = "<div id=\"Usage\"></div><div id=\"Usage-1\"></div><h2>Usage</h2>";
+        htmlExpected = """
+                       <div id="Usage"></div>
+                       <div id="Usage-1"></div>
+                       <h2 id="Usage-2">Usage</h2>""";
+
+        element = Jsoup.parse(html)
+            .body();
+        util.fixHeadingIds(element, true);
+
+        Assertions.assertThat(element.html())
+            .isEqualTo(htmlExpected);
+    }
+
+    @Test
+    @DisplayName("A null root is ignored")
+    public final void testNullRoot() {
+        Assertions.assertThat(util.fixHeadingIds(null, true))
+            .isNull();
+    }
+
+    @Test
+    @DisplayName("Repeated headings receive numbered suffixes in document order")
+    public final void testRepeated_Suffixed() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        html = "<h2>Usage</h2><h3>Usage</h3><h2 id=\"Usage\">Again</h2>";
+        htmlExpected = """
+                       <h2 id="Usage">Usage</h2>
+                       <h3 id="Usage-1">Usage</h3>
+                       <h2 id="Usage-2">Again</h2>""";
+
+        element = Jsoup.parse(html)
+            .body();
+        util.fixHeadingIds(element, true);
+
+        Assertions.assertThat(element.html())
+            .isEqualTo(htmlExpected);
+    }
+
+    @Test
+    @DisplayName("A heading whose suffixed id is taken by a later heading text gets the next one")
+    public final void testSuffixTaken_NextSuffix() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        html = "<h2>Usage-1</h2><h2>Usage</h2><h2>Usage</h2>";
+        htmlExpected = """
+                       <h2 id="Usage-1">Usage-1</h2>
+                       <h2 id="Usage">Usage</h2>
+                       <h2 id="Usage-2">Usage</h2>""";
+
+        element = Jsoup.parse(html)
+            .body();
+        util.fixHeadingIds(element, true);
+
+        Assertions.assertThat(element.html())
+            .isEqualTo(htmlExpected);
+    }
+
+    @Test
+    @DisplayName("Unique headings keep their ids")
+    public final void testUnique_Untouched() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        html = "<h2 id=\"Intro\">Intro</h2><h2 id=\"Usage\">Usage</h2>";
+        htmlExpected = """
+                       <h2 id="Intro">Intro</h2>
+                       <h2 id="Usage">Usage</h2>""";
+
+        element = Jsoup.parse(html)
+            .body();
+        util.fixHeadingIds(element, true);
+
+        Assertions.assertThat(element.html())
+            .isEqualTo(htmlExpected);
+    }
+
+}
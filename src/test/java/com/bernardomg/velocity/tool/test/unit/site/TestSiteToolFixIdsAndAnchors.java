@@ -0,0 +1,129 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.site;
+
+import org.assertj.core.api.Assertions;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.SiteTool;
+import com.bernardomg.velocity.tool.test.corpus.SiteCorpusGenerator;
+
+/**
+ * Unit tests for {@link SiteTool}, testing the {@code fixIdsAndAnchors} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see SiteTool
+ */
+@DisplayName("SiteTool.fixIdsAndAnchors")
+public final class TestSiteToolFixIdsAndAnchors {
+
+    /**
+     * Instance of the utils class being tested.
+     */
+    private final SiteTool util = new SiteTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestSiteToolFixIdsAndAnchors() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Generated pages end the same as fixing headings and anchors apart")
+    public final void testCorpus_SameAsSeparate() {
+        final SiteCorpusGenerator generator; // Page generator
+
+        generator = new SiteCorpusGenerator(24, 1024, 32 * 1024);
+        generator.pages(30)
+            .forEach(page -> {
+                final Element fused;    // Fixed in a single pass
+                final Element separate; // Fixed by each method
+
+                fused = Jsoup.parse(page)
+                    .body();
+                separate = Jsoup.parse(page)
+                    .body();
+                util.fixIdsAndAnchors(fused);
+                util.fixAnchorLinks(util.fixHeadingIds(separate));
+
+                Assertions.assertThat(fused.outerHtml())
+                    .isEqualTo(separate.outerHtml());
+            });
+    }
+
+    @Test
+    @DisplayName("Repeated heading ids are made unique")
+    public final void testDedupe_Unique() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        html = "<h2>Usage</h2><p id=\"Usage-1\">Text</p><h2>Usage</h2><a href=\"#Usage\">Link</a>";
+        htmlExpected = """
+                       <h2 id="Usage">Usage</h2>
+                       <p id="Usage-1">Text</p>
+                       <h2 id="Usage-2">Usage</h2>
+                       <a href="#Usage">Link</a>""";
+
+        element = Jsoup.parse(html)
+            .body();
+        util.fixIdsAndAnchors(element, true);
+
+        Assertions.assertThat(element.html())
+            .isEqualTo(htmlExpected);
+    }
+
+    @Test
+    @DisplayName("Fixes heading ids and links to anchors")
+    public final void testHeadingsAndAnchors_Fixed() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        html = "<h1>A heading</h1><a href=\"#A heading\">Link</a><a href=\"page.html#A heading\">Other</a>";
+        htmlExpected = """
+                       <h1 id="A-heading">A heading</h1>
+                       <a href="#A-heading">Link</a><a href="page.html#A heading">Other</a>""";
+
+        element = Jsoup.parse(html)
+            .body();
+        util.fixIdsAndAnchors(element);
+
+        Assertions.assertThat(element.html())
+            .isEqualTo(htmlExpected);
+    }
+
+    @Test
+    @DisplayName("A null root is ignored")
+    public final void testNullRoot() {
+        Assertions.assertThat(util.fixIdsAndAnchors(null))
+            .isNull();
+    }
+
+}
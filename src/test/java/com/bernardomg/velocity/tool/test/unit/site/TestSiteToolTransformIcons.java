@@ -24,12 +24,16 @@
 
 package com.bernardomg.velocity.tool.test.unit.site;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.assertj.core.api.Assertions;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Element;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import com.bernardomg.velocity.tool.IconTable;
 import com.bernardomg.velocity.tool.SiteTool;
 
 /**
@@ -53,6 +57,26 @@ public TestSiteToolTransformIcons() {
         super();
     }
 
+    @Test
+    @DisplayName("Transforms icons from a custom table")
+    public final void testCustomTable_Transforms() {
+        final String   html;         // HTML code to edit
+        final String   htmlExpected; // Expected result
+        final Element  element;      // Parsed HTML
+        final SiteTool tool;         // Tool with the custom table
+
+        html = "<img src=\"images/custom.png\"><img src=\"images/add.gif\">";
+        htmlExpected = "<i class=\"custom\"></i><img src=\"images/add.gif\">";
+
+        tool = new SiteTool(IconTable.load("icons-test.properties"));
+        element = Jsoup.parse(html)
+            .body();
+        tool.transformIcons(element);
+
+        Assertions.assertThat(element.html())
+            .isEqualTo(htmlExpected);
+    }
+
     @Test
     @DisplayName("Transforming an empty string does nothing")
     public final void testEmptyString() {
@@ -71,6 +95,25 @@ public final void testEmptyString() {
             .isEqualTo(htmlExpected);
     }
 
+    @Test
+    @DisplayName("Icons are matched by the end of the path, ignoring case")
+    public final void testIcon_PathEndIgnoringCase() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        html = "<img src=\"../../IMAGES/Add.gif\"><img src=\"images/add.gif.png\"><img src=\"images/fastadd.gif\">";
+        htmlExpected = """
+                       <span><span class="fa-solid fa-plus" aria-hidden="true"></span><span class="sr-only">Addition</span></span><img src="images/add.gif.png"><img src="images/fastadd.gif">""";
+
+        element = Jsoup.parse(html)
+            .body();
+        util.transformIcons(element);
+
+        Assertions.assertThat(element.html())
+            .isEqualTo(htmlExpected);
+    }
+
     @Test
     @DisplayName("Transforms icons")
     public final void testIcon_Transforms() {
@@ -107,4 +150,74 @@ public final void testNoIcons_Untouched() {
             .isEqualTo(htmlExpected);
     }
 
+    @Test
+    @DisplayName("Icons without a full file name match any file ending with it, and the first icon in the table wins")
+    public final void testPartialFileName_FirstInTable() {
+        final String              html;         // HTML code to edit
+        final String              htmlExpected; // Expected result
+        final Element             element;      // Parsed HTML
+        final Map<String, String> icons;        // Icons to replace
+        final SiteTool            tool;         // Tool with the custom table
+
+        html = "<img src=\"images/fastadd.gif\"><img src=\"images/add.gif\">";
+        htmlExpected = "<i class=\"partial\"></i><i class=\"partial\"></i>";
+
+        icons = new LinkedHashMap<>();
+        icons.put("add.gif", "<i class=\"partial\"></i>");
+        icons.put("images/add.gif", "<i class=\"full\"></i>");
+        tool = new SiteTool(IconTable.of(icons));
+        element = Jsoup.parse(html)
+            .body();
+        tool.transformIcons(element);
+
+        Assertions.assertThat(element.html())
+            .isEqualTo(htmlExpected);
+    }
+
+    @Test
+    @DisplayName("Icons loaded from a file keep its order, and the first icon in the file wins")
+    public final void testLoaded_FirstInFile() {
+        final String    html;         // HTML code to edit
+        final String    htmlExpected; // Expected result
+        final Element   element;      // Parsed HTML
+        final IconTable icons;        // Icons to replace
+        final SiteTool  tool;         // Tool with the loaded table
+
+        html = "<img src=\"images/zz.gif\">";
+        htmlExpected = "<i class=\"first\"></i>";
+
+        icons = IconTable.load("icons-order-test.properties");
+        tool = new SiteTool(icons);
+        element = Jsoup.parse(html)
+            .body();
+        tool.transformIcons(element);
+
+        Assertions.assertThat(icons.getPaths())
+            .containsExactly("zz.gif", "z.gif", "gif", "images/zz.gif", "es/zz.gif", "ages/zz.gif", "mages/zz.gif",
+                "s/zz.gif");
+        Assertions.assertThat(element.html())
+            .isEqualTo(htmlExpected);
+    }
+
+    @Test
+    @DisplayName("Each repeated icon receives its own copy of the replacement")
+    public final void testRepeatedIcon_Copies() {
+        final String  html;    // HTML code to edit
+        final Element element; // Parsed HTML
+
+        html = "<img src=\"images/fix.gif\"><img src=\"images/fix.gif\">";
+
+        element = Jsoup.parse(html)
+            .body();
+        util.transformIcons(element);
+        element.child(0)
+            .addClass("first");
+
+        Assertions.assertThat(element.child(1)
+            .hasClass("first"))
+            .isFalse();
+        Assertions.assertThat(element.select(".fa-wrench"))
+            .hasSize(2);
+    }
+
 }
@@ -0,0 +1,136 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.site;
+
+import org.assertj.core.api.Assertions;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.AnchorReport;
+import com.bernardomg.velocity.tool.SiteTool;
+
+/**
+ * Unit tests for {@link SiteTool}, testing the {@code verifyIdsAndAnchors} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see SiteTool
+ */
+@DisplayName("SiteTool.verifyIdsAndAnchors")
+public final class TestSiteToolVerifyIdsAndAnchors {
+
+    /**
+     * Instance of the utils class being tested.
+     */
+    private final SiteTool util = new SiteTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestSiteToolVerifyIdsAndAnchors() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Links to missing ids are reported once, in document order")
+    public final void testBroken_Reported() {
+        final String       html;    // HTML code to check
+        final Element      element; // Parsed HTML
+        final AnchorReport report;  // Page report
+
+        html = "<a href=\"#second\">A</a><h1>First</h1><a href=\"#first\">B</a><a href=\"#second\">C</a>";
+        element = Jsoup.parse(html)
+            .body();
+
+        report = util.verifyIdsAndAnchors(element, false);
+
+        Assertions.assertThat(report.getBrokenAnchors())
+            .containsExactly("#second", "#first");
+        Assertions.assertThat(report.isValid())
+            .isFalse();
+    }
+
+    @Test
+    @DisplayName("Links are checked once fixed")
+    public final void testFixedLink_Valid() {
+        final Element      element; // Parsed HTML
+        final AnchorReport report;  // Page report
+
+        element = Jsoup.parse("<h1>A heading</h1><a href=\"#A heading\">Link</a>")
+            .body();
+
+        report = util.verifyIdsAndAnchors(element, false);
+
+        Assertions.assertThat(report.getBrokenAnchors())
+            .isEmpty();
+        Assertions.assertThat(report.isValid())
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("The ids of all the elements are reported")
+    public final void testIds() {
+        final Element      element; // Parsed HTML
+        final AnchorReport report;  // Page report
+
+        element = Jsoup.parse("<h1>Usage</h1><div id=\"menu\"></div><h2>Usage</h2>")
+            .body();
+
+        report = util.verifyIdsAndAnchors(element, true);
+
+        Assertions.assertThat(report.getIds())
+            .containsExactlyInAnyOrder("Usage", "Usage-1", "menu");
+    }
+
+    @Test
+    @DisplayName("Links to other pages and to the top of the page are not checked")
+    public final void testNotLocal_Ignored() {
+        final Element      element; // Parsed HTML
+        final AnchorReport report;  // Page report
+
+        element = Jsoup.parse("<a href=\"#\">Top</a><a href=\"page.html#missing\">Other</a><a>None</a>")
+            .body();
+
+        report = util.verifyIdsAndAnchors(element, false);
+
+        Assertions.assertThat(report.getBrokenAnchors())
+            .isEmpty();
+    }
+
+    @Test
+    @DisplayName("A null root gives an empty report")
+    public final void testNullRoot() {
+        final AnchorReport report; // Page report
+
+        report = util.verifyIdsAndAnchors(null, false);
+
+        Assertions.assertThat(report.getIds())
+            .isEmpty();
+        Assertions.assertThat(report.getBrokenAnchors())
+            .isEmpty();
+    }
+
+}
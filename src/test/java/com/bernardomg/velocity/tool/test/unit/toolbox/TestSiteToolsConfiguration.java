@@ -0,0 +1,188 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2025 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.toolbox;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.velocity.tools.Scope;
+import org.apache.velocity.tools.Toolbox;
+import org.apache.velocity.tools.ToolboxFactory;
+import org.apache.velocity.tools.config.XmlFactoryConfiguration;
+import org.assertj.core.api.Assertions;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.Html5UpdateTool;
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.IconTable;
+import com.bernardomg.velocity.tool.SiteTool;
+import com.bernardomg.velocity.tool.test.corpus.SiteCorpusGenerator;
+
+/**
+ * Unit tests for the tools configuration, in {@code META-INF/maven/site-tools.xml}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@DisplayName("site-tools.xml")
+public final class TestSiteToolsConfiguration {
+
+    /**
+     * Default constructor.
+     */
+    public TestSiteToolsConfiguration() {
+        super();
+    }
+
+    /**
+     * Fixes a page with the received tools.
+     *
+     * @param html
+     *            page to fix
+     * @param toolbox
+     *            toolbox with the tools
+     * @return the fixed page
+     */
+    private static final String fix(final String html, final Toolbox toolbox) {
+        final HtmlTool        htmlTool;  // HTML tool
+        final SiteTool        siteTool;  // Site tool
+        final Html5UpdateTool html5Tool; // HTML5 update tool
+        final Element         body;      // Parsed page
+
+        htmlTool = (HtmlTool) toolbox.get("htmlTool");
+        siteTool = (SiteTool) toolbox.get("siteTool");
+        html5Tool = (Html5UpdateTool) toolbox.get("html5UpdateTool");
+
+        body = htmlTool.parse(html);
+        siteTool.fixHeadingIds(body);
+        siteTool.fixAnchorLinks(body);
+        html5Tool.updateTableHeads(body);
+        siteTool.transformIcons(body);
+        htmlTool.addClass(body, "table", "table");
+        htmlTool.retag(body, "tt", "code");
+        siteTool.transformImagesToFigures(body);
+
+        return body.html();
+    }
+
+    /**
+     * Returns the toolbox factory for the tools configuration.
+     *
+     * @return the toolbox factory
+     * @throws IOException
+     *             if the configuration can't be read
+     */
+    private static final ToolboxFactory readFactory() throws IOException {
+        final XmlFactoryConfiguration config; // Tools configuration
+
+        config = new XmlFactoryConfiguration();
+        config.read(TestSiteToolsConfiguration.class.getClassLoader()
+            .getResource("META-INF/maven/site-tools.xml"));
+
+        return config.createFactory();
+    }
+
+    @Test
+    @DisplayName("The site tool replaces the icons from the table set in the tool properties")
+    public final void testIconTable_Configured() throws IOException {
+        final XmlFactoryConfiguration config;  // Tools configuration
+        final Toolbox                 toolbox; // Application toolbox
+        final Element                 element; // Parsed HTML
+
+        config = new XmlFactoryConfiguration();
+        config.read(TestSiteToolsConfiguration.class.getClassLoader()
+            .getResource("META-INF/maven/site-tools.xml"));
+        config.getToolbox("application")
+            .getTool("siteTool")
+            .setProperty(SiteTool.ICON_TABLE_PROPERTY, "icons-test.properties");
+        toolbox = config.createFactory()
+            .createToolbox(Scope.APPLICATION);
+
+        element = Jsoup.parse("<img src=\"images/custom.png\"><img src=\"images/add.gif\">")
+            .body();
+        ((SiteTool) toolbox.get("siteTool")).transformIcons(element);
+
+        Assertions.assertThat(element.html())
+            .isEqualTo("<i class=\"custom\"></i><img src=\"images/add.gif\">");
+        Assertions.assertThat(((SiteTool) toolbox.get("siteTool")).getIconTable())
+            .isSameAs(IconTable.load("icons-test.properties"));
+    }
+
+    @Test
+    @DisplayName("The tools are in the application scope")
+    public final void testScope_Application() throws IOException {
+        final ToolboxFactory factory; // Toolbox factory
+        final Toolbox        toolbox; // Application toolbox
+
+        factory = readFactory();
+        toolbox = factory.createToolbox(Scope.APPLICATION);
+
+        Assertions.assertThat(factory.hasTools(Scope.REQUEST))
+            .isFalse();
+        Assertions.assertThat(toolbox.get("htmlTool"))
+            .isInstanceOf(HtmlTool.class);
+        Assertions.assertThat(toolbox.get("siteTool"))
+            .isInstanceOf(SiteTool.class);
+        Assertions.assertThat(toolbox.get("html5UpdateTool"))
+            .isInstanceOf(Html5UpdateTool.class);
+    }
+
+    @Test
+    @DisplayName("The same tools can fix several pages at the same time")
+    public final void testShared_Concurrent_SameAsSequential() throws Exception {
+        final Toolbox              toolbox;   // Application toolbox
+        final SiteCorpusGenerator  generator; // Corpus generator
+        final List<Future<String>> fixed;     // Pages fixed in parallel
+        final ExecutorService      executor;  // Threads fixing the pages
+
+        toolbox = readFactory().createToolbox(Scope.APPLICATION);
+        generator = new SiteCorpusGenerator(1, 10 * 1024, 40 * 1024);
+
+        executor = Executors.newFixedThreadPool(8);
+        try {
+            fixed = new ArrayList<>();
+            for (int index = 0; index < 32; index++) {
+                final String page = generator.page(index);
+                fixed.add(executor.submit(() -> fix(page, toolbox)));
+            }
+
+            for (int index = 0; index < 32; index++) {
+                Assertions.assertThat(fixed.get(index)
+                    .get())
+                    .as("Page %d", index)
+                    .isEqualTo(fix(generator.page(index), toolbox));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}